@@ -5,6 +5,7 @@ const axios = require('axios');
 const app = express();
 const port = 3000;
 const client = require('prom-client'); 
+const tracing = require('./tracing');
 
 let requestCount = 0; // Track number of requests per second
 const threshold = 5; // Threshold for critical load
@@ -34,8 +35,10 @@ collectDefaultMetrics();
 
 
 
-async function finishGame(gameId, username, result) {
+async function finishGame(gameId, username, result, traceparent) {
   const transactionId = `txn_${Date.now()}`;
+  // Every phase on both services is traced as part of the request that finished the game
+  const options = traceparent ? { headers: { traceparent } } : {};
   let battleshipServiceAddress, profileServiceAddress;
 
   const servicesToRollback = [];
@@ -53,7 +56,7 @@ async function finishGame(gameId, username, result) {
     for (const endpoint of prepareEndpoints) {
       console.log(`Sending prepare request to: ${endpoint.url}`);
       try {
-        const response = await axios.post(endpoint.url, endpoint.data);
+        const response = await axios.post(endpoint.url, endpoint.data, options);
 
         if (response.data.status === 'ready') {
           servicesToRollback.push(endpoint.url.replace('/prepare', '/rollback')); 
@@ -73,7 +76,7 @@ async function finishGame(gameId, username, result) {
       for (const rollbackUrl of servicesToRollback) {
         console.log(`Sending rollback request to: ${rollbackUrl}`);
         try {
-          await axios.post(rollbackUrl, { transactionId });
+          await axios.post(rollbackUrl, { transactionId }, options);
           console.log(`Rollback successful for: ${rollbackUrl}`);
         } catch (rollbackError) {
           console.error(`Rollback request failed for ${rollbackUrl}. Transaction ID: ${transactionId}`);
@@ -88,7 +91,7 @@ async function finishGame(gameId, username, result) {
     console.log('Prepare phase completed. Proceeding to commit...');
     const commitEndpoints = [
       { url: `${battleshipServiceAddress}/commit`, data: { transactionId, gameId, username } },
-      { url: `${profileServiceAddress}/commit`, data: { transactionId, username, result } }
+      { url: `${profileServiceAddress}/commit`, data: { transactionId, username, result, game_id: gameId } }
     ];
 
     let commitFailed = false;
@@ -96,7 +99,12 @@ async function finishGame(gameId, username, result) {
     for (const endpoint of commitEndpoints) {
       console.log(`Sending commit request to: ${endpoint.url}`);
       try {
-        await axios.post(endpoint.url, endpoint.data);
+        const response = await axios.post(endpoint.url, endpoint.data, options);
+        // Battleship commits first and returns the settled game's summary (opponent, moves,
+        // duration); the Profile commit records it in the player's match history
+        if (response.data && response.data.match) {
+          Object.assign(commitEndpoints[1].data, response.data.match);
+        }
         console.log(`Commit successful for: ${endpoint.url}`);
       } catch (commitError) {
         console.error(`Commit request failed for ${endpoint.url}. Transaction ID: ${transactionId}`);
@@ -111,7 +119,7 @@ async function finishGame(gameId, username, result) {
       for (const rollbackUrl of servicesToRollback) {
         console.log(`Sending rollback request to: ${rollbackUrl}`);
         try {
-          await axios.post(rollbackUrl, { transactionId,gameId,username });
+          await axios.post(rollbackUrl, { transactionId,gameId,username }, options);
           console.log(`Rollback successful for: ${rollbackUrl}`);
         } catch (rollbackError) {
           console.error(`Rollback request failed for ${rollbackUrl}. Transaction ID: ${transactionId}`);
@@ -130,7 +138,7 @@ async function finishGame(gameId, username, result) {
       for (const rollbackUrl of servicesToRollback) {
         console.log(`Sending rollback request to: ${rollbackUrl}`);
         try {
-          await axios.post(rollbackUrl, { transactionId });
+          await axios.post(rollbackUrl, { transactionId }, options);
           console.log(`Final rollback successful for: ${rollbackUrl}`);
         } catch (rollbackError) {
           console.error(`Final rollback request failed for ${rollbackUrl}. Transaction ID: ${transactionId}`);
@@ -165,6 +173,7 @@ const highLoadCount = new client.Counter({
 
 // Middleware
 app.use(express.json());
+app.use(tracing.middleware);
 
 app.server = app.listen(port, () => {
   console.log(`API Gateway running on port ${port}`);
@@ -202,7 +211,7 @@ app.get('/status', (req, res) => {
 });
 
 // Circuit breaker implementation with 60-second reset 
-const circuitBreaker = async (initialServiceName, reqConfig) => {
+const circuitBreaker = async (initialServiceName, reqConfig, traceparent) => {
   const circuitBreakerTimeout = 60000;
   const maxInstances = 3; // Limit to a maximum of 3 instances
   let instanceAttempts = 0;
@@ -238,7 +247,8 @@ const circuitBreaker = async (initialServiceName, reqConfig) => {
     // Retry loop for the current instance
     while (retryCounts[serviceAddress] < retryLimit) {
       try {
-        const response = await axios({ ...reqConfig, url: `${serviceAddress}${reqConfig.url}` });
+        const headers = traceparent ? { ...reqConfig.headers, traceparent } : reqConfig.headers;
+        const response = await axios({ ...reqConfig, headers, url: `${serviceAddress}${reqConfig.url}` });
         retryCounts[serviceAddress] = 0; 
         return response; // Successful response
       } catch (error) {
@@ -262,6 +272,28 @@ const circuitBreaker = async (initialServiceName, reqConfig) => {
 
 
 // Round-Robin Load Balancing for Profile Service
+// Instances that report a load score (0 idle, 1 full) get traffic in proportion to the room
+// they have left; those that report none count as idle. Null when no loads are known, or
+// every instance is full, in which case the caller falls back to round-robin.
+const pickByHeadroom = (serviceAddresses, loads) => {
+  if (!loads || Object.keys(loads).length === 0) {
+    return null;
+  }
+  const headroom = serviceAddresses.map((address) => Math.max(0, 1 - (loads[address] ?? 0)));
+  const total = headroom.reduce((sum, room) => sum + room, 0);
+  if (total <= 0) {
+    return null;
+  }
+  let pick = Math.random() * total;
+  for (let i = 0; i < serviceAddresses.length; i++) {
+    pick -= headroom[i];
+    if (pick < 0) {
+      return serviceAddresses[i];
+    }
+  }
+  return serviceAddresses[serviceAddresses.length - 1];
+};
+
 const getServiceAddress = async (serviceName) => {
   const response = await axios.get(`http://service-discovery:4000/lookup/${serviceName}`);
   const serviceAddresses = response.data.serviceAddresses;
@@ -276,7 +308,7 @@ const getServiceAddress = async (serviceName) => {
   }
 
   const currentIndex = roundRobinIndexes[serviceName];
-  const serviceAddress = serviceAddresses[currentIndex];
+  const serviceAddress = pickByHeadroom(serviceAddresses, response.data.loads) || serviceAddresses[currentIndex];
 
   const portMatch = serviceAddress.match(/:(\d+)$/);
 
@@ -304,7 +336,7 @@ app.post('/game/finish', async (req, res) => {
   const { gameId, username, result } = req.body;
 
   try {
-    const finishResult = await finishGame(gameId, username, result);
+    const finishResult = await finishGame(gameId, username, result, req.traceparent);
     
     if (finishResult === -1) {
       console.error('Failed to finish game');
@@ -319,6 +351,26 @@ app.post('/game/finish', async (req, res) => {
 });
 
 
+// Match history, newest first. Pass the returned next_cursor as `before` for the next page
+app.get('/history', async (req, res) => {
+  try {
+    const response = await circuitBreaker('profile', {
+      url: `/history`,
+      method: 'get',
+      params: { username: req.query.username, limit: req.query.limit, before: req.query.before },
+      timeout: taskTimeoutLimit
+    }, req.traceparent);
+    if (!response) {
+      res.status(503).json({ error: 'Profile Service is temporarily unavailable' });
+    } else {
+      res.json(response.data);
+    }
+  } catch (error) {
+    console.error('Error fetching match history:', error.message);
+    res.status(500).json({ error: 'Error fetching match history' });
+  }
+});
+
 // gRPC Endpoint: Get Profile Service status
 app.get('/profile/status', async (req, res) => {
   try {
@@ -327,7 +379,7 @@ app.get('/profile/status', async (req, res) => {
       url: `/status`,
       method: 'get',
       timeout: taskTimeoutLimit
-    });
+    }, req.traceparent);
     if (!response) {
       res.status(503).json({ error: 'Profile Service is temporarily unavailable' });
     } else {
@@ -347,7 +399,7 @@ app.get('/battleship/status', async (req, res) => {
       url: `/status`,
       method: 'get',
       timeout: taskTimeoutLimit
-    });
+    }, req.traceparent);
     if (!response) {
       res.status(503).json({ error: 'Battleship Service is temporarily unavailable' });
     } else {
@@ -397,7 +449,7 @@ app.post('/auth/:action', async (req, res) => {
         throw new Error('Unsupported action for Profile service');
     }
 
-    const response = await circuitBreaker('profile', reqConfig);
+    const response = await circuitBreaker('profile', reqConfig, req.traceparent);
     if (!response) {
       res.status(503).json({ error: 'Profile Service is temporarily unavailable' });
     } else {
@@ -414,7 +466,8 @@ app.get('/battleship/instance', async (req, res) => {
   try {
     const serviceAddress = await getServiceAddress('battleship');
     const instancePort = serviceAddress.split(':').pop();
-    res.json({ instancePort });
+    // Clients send this with the WebSocket handshake, or per frame, to join the game to the trace
+    res.json({ instancePort, traceparent: req.traceparent });
   } catch (error) {
     console.error('Error retrieving Battleship instance:', error.message);
     res.status(500).json({ error: 'Error retrieving Battleship instance' });
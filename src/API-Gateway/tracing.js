@@ -0,0 +1,56 @@
+const crypto = require('crypto');
+
+// W3C trace context for requests passing through the gateway. A request that arrives with a
+// traceparent keeps its trace and sampling decision; otherwise the gateway starts a trace,
+// sampled at TRACE_SAMPLE_RATE. Either way the gateway's own span becomes the parent of the
+// calls it makes, and sampled spans are written to stdout as one JSON line each.
+const sampleRate = Number(process.env.TRACE_SAMPLE_RATE ?? 0.1);
+const TRACEPARENT = /^([0-9a-f]{2})-([0-9a-f]{32})-([0-9a-f]{16})-([0-9a-f]{2})$/;
+
+function parse(header) {
+  const match = typeof header === 'string' && TRACEPARENT.exec(header);
+  if (!match || match[1] === 'ff' || /^0+$/.test(match[2]) || /^0+$/.test(match[3])) {
+    return null;
+  }
+  return { traceId: match[2], spanId: match[3], sampled: (parseInt(match[4], 16) & 1) === 1 };
+}
+
+function format({ traceId, spanId, sampled }) {
+  return `00-${traceId}-${spanId}-${sampled ? '01' : '00'}`;
+}
+
+// A span in the incoming trace, or the root of a new one
+function startSpan(incoming) {
+  const parent = parse(incoming);
+  return {
+    traceId: parent ? parent.traceId : crypto.randomBytes(16).toString('hex'),
+    spanId: crypto.randomBytes(8).toString('hex'),
+    parentSpanId: parent ? parent.spanId : null,
+    sampled: parent ? parent.sampled : Math.random() < sampleRate,
+  };
+}
+
+// Sets req.traceparent for calls made on behalf of the request
+function middleware(req, res, next) {
+  const span = startSpan(req.headers.traceparent);
+  req.traceparent = format(span);
+  if (span.sampled) {
+    const start = process.hrtime.bigint();
+    const startMicros = Date.now() * 1000;
+    res.on('finish', () => {
+      console.log(JSON.stringify({
+        loggerName: 'tracing',
+        message: `http ${req.method} ${req.path}`,
+        traceId: span.traceId,
+        spanId: span.spanId,
+        parentSpanId: span.parentSpanId,
+        startMicros,
+        durationMicros: Number((process.hrtime.bigint() - start) / 1000n),
+        'http.status': res.statusCode,
+      }));
+    });
+  }
+  next();
+}
+
+module.exports = { middleware, parse, format, startSpan };
@@ -0,0 +1,222 @@
+package com.marius.Battleship_Service.analytics;
+
+import com.marius.Battleship_Service.models.Game;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Where players fire and where fleets are placed, per cell and per board
+ * size, across every game on the node. Shots are recorded as they are stored
+ * and placements as games are created, each as one increment on a
+ * {@link StripedCounters}, so the attack path takes no lock and shares no
+ * cache line with other cores.
+ *
+ * The counts are drained to the {@code shot_heatmaps} collection on an
+ * interval, as {@code $inc} updates so every node adds to the same totals.
+ * Each board size is one document with a sub-document per kind keyed by
+ * cell index (y * size + x); counts that fail to write are put back and go
+ * with the next snapshot.
+ */
+@Component
+public class ShotHeatmaps {
+
+    private static final Logger log = LoggerFactory.getLogger(ShotHeatmaps.class);
+
+    public static final String COLLECTION = "shot_heatmaps";
+    public static final List<String> KINDS = List.of("shots", "hits", "ships");
+
+    private static final int SHOTS = 0;
+    private static final int HITS = 1;
+    private static final int SHIPS = 2;
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final AtomicReferenceArray<Heatmap> bySize = new AtomicReferenceArray<>(Game.MAX_GRID_SIZE + 1);
+    private final ScheduledExecutorService snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "heatmap-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Per-cell counters for one board size, plus the number of fleets placed on it
+    private static final class Heatmap {
+        final StripedCounters[] cells = new StripedCounters[KINDS.size()];
+        final StripedCounters fleets = new StripedCounters(1);
+
+        Heatmap(int gridSize) {
+            for (int kind = 0; kind < cells.length; kind++) {
+                cells[kind] = new StripedCounters(gridSize * gridSize);
+            }
+        }
+    }
+
+    public ShotHeatmaps(MongoTemplate mongoTemplate,
+            @Value("${battleship.analytics.enabled:true}") boolean enabled,
+            @Value("${battleship.analytics.snapshot-interval-ms:30000}") long snapshotIntervalMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        if (enabled) {
+            snapshotter.scheduleWithFixedDelay(this::snapshot, snapshotIntervalMs, snapshotIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshotter.shutdownNow();
+        if (enabled) {
+            snapshot(); // what the last interval counted
+        }
+    }
+
+    // A shot that was stored; x and y are on the defender's board
+    public void recordShot(int gridSize, int x, int y, boolean hit) {
+        if (!enabled) {
+            return;
+        }
+        Heatmap heatmap = counters(gridSize);
+        int cell = y * gridSize + x;
+        heatmap.cells[SHOTS].increment(cell);
+        if (hit) {
+            heatmap.cells[HITS].increment(cell);
+        }
+    }
+
+    // A fleet placed for a new game, one count per occupied cell
+    public void recordPlacement(int gridSize, List<Game.Ship> ships) {
+        if (!enabled || ships == null) {
+            return;
+        }
+        Heatmap heatmap = counters(gridSize);
+        for (Game.Ship ship : ships) {
+            heatmap.cells[SHIPS].increment(ship.getY() * gridSize + ship.getX());
+        }
+        heatmap.fleets.increment(0);
+    }
+
+    /**
+     * The totals stored by every node plus what this node has counted since
+     * its last snapshot, as rows of the board for each kind.
+     */
+    public Map<String, Object> heatmap(int gridSize) {
+        if (gridSize < 1 || gridSize > Game.MAX_GRID_SIZE) {
+            throw new IllegalArgumentException("Grid size must be between 1 and " + Game.MAX_GRID_SIZE);
+        }
+        int cells = gridSize * gridSize;
+        long[][] totals = new long[KINDS.size()][cells];
+        long fleets = 0;
+
+        Document stored = mongoTemplate.findById(String.valueOf(gridSize), Document.class, COLLECTION);
+        if (stored != null) {
+            for (int kind = 0; kind < KINDS.size(); kind++) {
+                Document counts = stored.get(KINDS.get(kind), Document.class);
+                if (counts != null) {
+                    for (Map.Entry<String, Object> entry : counts.entrySet()) {
+                        int cell = Integer.parseInt(entry.getKey());
+                        if (cell < cells && entry.getValue() instanceof Number count) {
+                            totals[kind][cell] += count.longValue();
+                        }
+                    }
+                }
+            }
+            if (stored.get("fleets") instanceof Number count) {
+                fleets += count.longValue();
+            }
+        }
+
+        Heatmap pending = bySize.get(gridSize);
+        if (pending != null) {
+            for (int kind = 0; kind < KINDS.size(); kind++) {
+                long[] counts = pending.cells[kind].sums();
+                for (int cell = 0; cell < cells; cell++) {
+                    totals[kind][cell] += counts[cell];
+                }
+            }
+            fleets += pending.fleets.sum(0);
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("grid_size", gridSize);
+        body.put("fleets", fleets);
+        for (int kind = 0; kind < KINDS.size(); kind++) {
+            long[][] rows = new long[gridSize][];
+            for (int y = 0; y < gridSize; y++) {
+                rows[y] = Arrays.copyOfRange(totals[kind], y * gridSize, (y + 1) * gridSize);
+            }
+            body.put(KINDS.get(kind), rows);
+        }
+        return body;
+    }
+
+    void snapshot() {
+        for (int gridSize = 1; gridSize < bySize.length(); gridSize++) {
+            Heatmap heatmap = bySize.get(gridSize);
+            if (heatmap == null) {
+                continue;
+            }
+            long[][] drained = new long[KINDS.size()][];
+            Update update = new Update();
+            boolean changed = false;
+            for (int kind = 0; kind < KINDS.size(); kind++) {
+                drained[kind] = heatmap.cells[kind].drain();
+                for (int cell = 0; cell < drained[kind].length; cell++) {
+                    if (drained[kind][cell] != 0) {
+                        update.inc(KINDS.get(kind) + "." + cell, drained[kind][cell]);
+                        changed = true;
+                    }
+                }
+            }
+            long fleets = heatmap.fleets.drain()[0];
+            if (!changed && fleets == 0) {
+                continue;
+            }
+            if (fleets != 0) {
+                update.inc("fleets", fleets);
+            }
+            update.set("gridSize", gridSize).set("updatedAt", new Date());
+
+            try {
+                mongoTemplate.upsert(new Query(Criteria.where("_id").is(String.valueOf(gridSize))), update,
+                        COLLECTION);
+            } catch (RuntimeException e) {
+                // Put the counts back; they go with the next snapshot
+                for (int kind = 0; kind < KINDS.size(); kind++) {
+                    for (int cell = 0; cell < drained[kind].length; cell++) {
+                        if (drained[kind][cell] != 0) {
+                            heatmap.cells[kind].add(cell, drained[kind][cell]);
+                        }
+                    }
+                }
+                heatmap.fleets.add(0, fleets);
+                log.warn("Failed to snapshot the {}x{} heatmap: {}", gridSize, gridSize, e.getMessage());
+            }
+        }
+    }
+
+    private Heatmap counters(int gridSize) {
+        Heatmap heatmap = bySize.get(gridSize);
+        if (heatmap == null) {
+            bySize.compareAndSet(gridSize, null, new Heatmap(gridSize));
+            heatmap = bySize.get(gridSize);
+        }
+        return heatmap;
+    }
+}
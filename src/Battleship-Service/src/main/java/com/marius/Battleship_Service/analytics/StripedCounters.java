@@ -0,0 +1,92 @@
+package com.marius.Battleship_Service.analytics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed number of counters, striped across cores the way a LongAdder is,
+ * but for a whole array at once instead of one LongAdder per counter. There
+ * is one copy of the array per stripe, laid out in a single AtomicLongArray
+ * with a cache line of padding between copies; a thread always increments
+ * its own stripe, so threads on different cores never write the same line.
+ * Reads add up the stripes and are not a consistent snapshot while writes
+ * are going on, which is fine for statistics.
+ */
+public final class StripedCounters {
+
+    private static final int LINE = 8; // longs per 64-byte cache line
+
+    private final int size;
+    private final int stride; // size rounded up to whole lines, plus one line of padding
+    private final int mask;
+    private final AtomicLongArray counts;
+
+    public StripedCounters(int size) {
+        this(size, Runtime.getRuntime().availableProcessors());
+    }
+
+    StripedCounters(int size, int parallelism) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Striped counters need at least one counter");
+        }
+        int stripes = Integer.highestOneBit(Math.min(64, Math.max(1, parallelism) * 2 - 1));
+        this.size = size;
+        this.stride = (size + LINE - 1) / LINE * LINE + LINE;
+        this.mask = stripes - 1;
+        this.counts = new AtomicLongArray(stripes * stride + LINE);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void increment(int index) {
+        add(index, 1);
+    }
+
+    public void add(int index, long delta) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        counts.getAndAdd(stripe() * stride + LINE + index, delta);
+    }
+
+    public long sum(int index) {
+        long total = 0;
+        for (int base = LINE + index; base < counts.length(); base += stride) {
+            total += counts.get(base);
+        }
+        return total;
+    }
+
+    public long[] sums() {
+        long[] totals = new long[size];
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            int base = stripe * stride + LINE;
+            for (int i = 0; i < size; i++) {
+                totals[i] += counts.get(base + i);
+            }
+        }
+        return totals;
+    }
+
+    // Takes the counts so far and leaves zeros. Each counter is swapped atomically, so an
+    // increment racing with the drain is either in the result or left for the next one.
+    public long[] drain() {
+        long[] totals = new long[size];
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            int base = stripe * stride + LINE;
+            for (int i = 0; i < size; i++) {
+                if (counts.get(base + i) != 0) {
+                    totals[i] += counts.getAndSet(base + i, 0);
+                }
+            }
+        }
+        return totals;
+    }
+
+    // Threads keep their stripe for life; the id is mixed so consecutive ids spread out
+    private int stripe() {
+        long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) (id >>> 32) & mask;
+    }
+}
@@ -0,0 +1,129 @@
+package com.marius.Battleship_Service.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The segment games are currently appended to: a file mapped read-write at its
+ * full capacity, so appends and reads both go through the mapping. Records are
+ * in arrival order, so lookups use an in-memory map of every game and player
+ * in the segment; it is bounded by the segment's capacity.
+ *
+ * On opening an existing file, records are replayed up to the first that is
+ * missing or fails its CRC, which is where an interrupted append stopped.
+ * Not thread-safe; {@link GameArchive} guards it.
+ */
+final class ActiveSegment implements Closeable {
+
+    private final long seq;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final long openedAt = System.currentTimeMillis();
+    private final Map<String, ArchiveEntry> byGame = new HashMap<>();
+    private final Map<String, List<ArchiveEntry>> byPlayer = new HashMap<>();
+    private int end;
+
+    private ActiveSegment(long seq, Path path, int capacity) throws IOException {
+        this.seq = seq;
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.map = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        while (SegmentRecords.isIntact(map, end)) {
+            index(SegmentRecords.entry(map, end));
+            end += SegmentRecords.size(map, end);
+        }
+    }
+
+    static ActiveSegment open(Path path, long seq, int capacity) throws IOException {
+        return new ActiveSegment(seq, path, capacity);
+    }
+
+    // Appends a record, or returns false if the segment has no room left for it
+    boolean append(byte[] record) {
+        // Room is kept for the zero length that ends the records
+        if (end + record.length + Integer.BYTES > map.capacity()) {
+            return false;
+        }
+        map.put(end, record);
+        map.putInt(end + record.length, 0);
+        index(SegmentRecords.entry(map, end));
+        end += record.length;
+        return true;
+    }
+
+    void force() {
+        map.force();
+    }
+
+    long seq() {
+        return seq;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    boolean isEmpty() {
+        return end == 0;
+    }
+
+    int size() {
+        return end;
+    }
+
+    long openedAt() {
+        return openedAt;
+    }
+
+    ArchiveEntry find(String gameId) {
+        return byGame.get(gameId);
+    }
+
+    List<ArchiveEntry> postings(String playerId) {
+        return byPlayer.getOrDefault(playerId, List.of());
+    }
+
+    // The latest record of each game in the segment; an earlier one is a repeat of a crashed move
+    Collection<ArchiveEntry> entries() {
+        return byGame.values();
+    }
+
+    MappedByteBuffer buffer() {
+        return map;
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void index(ArchiveEntry entry) {
+        ArchiveEntry previous = byGame.put(entry.gameId(), entry);
+        for (String player : new String[] { entry.player1Id(), entry.player2Id() }) {
+            if (player != null) {
+                List<ArchiveEntry> games = byPlayer.computeIfAbsent(player, key -> new ArrayList<>());
+                if (previous != null) {
+                    games.remove(previous);
+                }
+                games.add(entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.marius.Battleship_Service.archive;
+
+// Where one archived game's record starts in a segment, with the header fields lookups filter on
+record ArchiveEntry(String gameId, String player1Id, String player2Id, long finishedAt, int offset) {
+
+    boolean involves(String playerId) {
+        return playerId.equals(player1Id) || playerId.equals(player2Id);
+    }
+}
@@ -0,0 +1,578 @@
+package com.marius.Battleship_Service.archive;
+
+import com.marius.Battleship_Service.codec.GameReadConverter;
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Finished games, kept out of MongoDB in append-only segment files. Each node
+ * writes its own directory under the archive root, named by its host and port
+ * unless configured, and holds an exclusive lock on it from startup, so two
+ * nodes can never write the same segments: games are appended to an
+ * {@link ActiveSegment}, which rolls when full or old, and rolled segments are
+ * rewritten in the background as sorted, indexed {@link Segment}s. Small
+ * sealed segments are merged together, which also drops a game archived twice.
+ *
+ * Lookups read the memory-mapped segments of this node and the sealed
+ * segments of other nodes sharing the root, so a finished game or a player's
+ * history is served without a database. Another node's games become visible
+ * here once its active segment rolls, after at most roll-after-ms.
+ */
+@Component
+public class GameArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(GameArchive.class);
+
+    private static final String ACTIVE_SUFFIX = ".active";
+    private static final String LOCK_FILE = ".lock";
+
+    private final boolean enabled;
+    private final Path root;
+    private final String node;
+    private final Path directory;
+    private final int segmentBytes;
+    private final long rollAfterMs;
+    private final int compactMinSegments;
+    private final int sparseEvery;
+    private final GameReadConverter reader = new GameReadConverter();
+
+    // Appends and segment swaps take the write lock; lookups only copy bytes out under the read lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private ActiveSegment active;
+    private List<ActiveSegment> rolled = new ArrayList<>(); // waiting to be sealed, oldest first
+    private List<Segment> sealed = new ArrayList<>(); // this node's, newest first
+    private Map<Path, Segment> peers = new HashMap<>();
+    private long nextSeq;
+    private FileChannel lockChannel;
+    private volatile boolean opened;
+
+    public GameArchive(CustomMetricsService customMetricsService,
+            @Value("${battleship.archive.enabled:true}") boolean enabled,
+            @Value("${battleship.archive.dir:archive}") String root,
+            @Value("${battleship.archive.node:}") String node,
+            @Value("${server.port:8081}") int port,
+            @Value("${battleship.archive.segment-bytes:67108864}") int segmentBytes,
+            @Value("${battleship.archive.roll-after-ms:600000}") long rollAfterMs,
+            @Value("${battleship.archive.compact-min-segments:4}") int compactMinSegments,
+            @Value("${battleship.archive.sparse-every:32}") int sparseEvery) {
+        if (segmentBytes < 1 << 16) {
+            throw new IllegalArgumentException("battleship.archive.segment-bytes must be at least 64 KiB");
+        }
+        this.enabled = enabled;
+        this.root = Paths.get(root);
+        this.node = node.isBlank() ? hostName() + "-" + port : node;
+        this.directory = this.root.resolve(this.node);
+        this.segmentBytes = segmentBytes;
+        this.rollAfterMs = rollAfterMs;
+        this.compactMinSegments = Math.max(2, compactMinSegments);
+        this.sparseEvery = Math.max(1, sparseEvery);
+        customMetricsService.registerArchive(this::segmentCount, this::archivedBytes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // This node's name in the archive, also used to claim games in MongoDB
+    public String node() {
+        return node;
+    }
+
+    // Opened at startup, so a node whose directory is locked by another fails fast
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            open();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        synchronized (this) {
+            if (!opened) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                opened = false;
+                for (ActiveSegment segment : activeNewestFirst()) {
+                    segment.close();
+                }
+                for (Segment segment : sealedNewestFirst()) {
+                    segment.close();
+                }
+                rolled = new ArrayList<>();
+                sealed = new ArrayList<>();
+                peers = new HashMap<>();
+                active = null;
+            } finally {
+                lock.writeLock().unlock();
+                lockChannel.close(); // releases the directory lock
+                lockChannel = null;
+            }
+        }
+    }
+
+    // Appends the games' stored documents; they are on disk when this returns
+    public void append(List<Document> games) throws IOException {
+        open();
+        lock.writeLock().lock();
+        try {
+            for (Document game : games) {
+                byte[] record = SegmentRecords.encode(idOf(game), game.getString("player1Id"),
+                        game.getString("player2Id"), finishedAt(game), deflate(bson(game)));
+                if (record.length + Integer.BYTES > segmentBytes) {
+                    throw new IllegalArgumentException("Game " + idOf(game) + " is larger than an archive segment");
+                }
+                if (!active.append(record)) {
+                    roll();
+                    active.append(record);
+                }
+            }
+            active.force();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<Game> find(String gameId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        open();
+        byte[] payload = null;
+        lock.readLock().lock();
+        try {
+            for (ActiveSegment segment : activeNewestFirst()) {
+                ArchiveEntry entry = segment.find(gameId);
+                if (entry != null) {
+                    payload = SegmentRecords.payload(segment.buffer(), entry.offset());
+                    break;
+                }
+            }
+            for (Segment segment : sealedNewestFirst()) {
+                if (payload != null) {
+                    break;
+                }
+                ArchiveEntry entry = segment.find(gameId);
+                if (entry != null) {
+                    payload = SegmentRecords.payload(segment.buffer(), entry.offset());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return Optional.ofNullable(payload).map(this::decode);
+    }
+
+    // A player's archived games, most recently finished first
+    public List<Game> history(String playerId, int limit) {
+        if (!enabled) {
+            return List.of();
+        }
+        open();
+        Map<String, Segment.Source> games = new LinkedHashMap<>();
+        List<byte[]> payloads = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (ActiveSegment segment : activeNewestFirst()) {
+                for (ArchiveEntry entry : segment.postings(playerId)) {
+                    games.putIfAbsent(entry.gameId(), new Segment.Source(entry, segment.buffer()));
+                }
+            }
+            for (Segment segment : sealedNewestFirst()) {
+                for (ArchiveEntry entry : segment.postings(playerId)) {
+                    games.putIfAbsent(entry.gameId(), new Segment.Source(entry, segment.buffer()));
+                }
+            }
+            games.values().stream()
+                    .sorted(Comparator.comparingLong((Segment.Source source) -> source.entry().finishedAt()).reversed())
+                    .limit(limit)
+                    .forEach(source -> payloads.add(SegmentRecords.payload(source.buffer(), source.entry().offset())));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return payloads.stream().map(this::decode).toList();
+    }
+
+    /**
+     * Background upkeep, run by {@link GameArchiver}: rolls the active segment
+     * once it is old, seals rolled segments, merges small sealed ones and picks
+     * up segments other nodes have sealed.
+     */
+    public void maintain() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        open();
+        lock.writeLock().lock();
+        try {
+            if (!active.isEmpty() && System.currentTimeMillis() - active.openedAt() > rollAfterMs) {
+                roll();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        seal();
+        compact();
+        refreshPeers();
+    }
+
+    int segmentCount() {
+        lock.readLock().lock();
+        try {
+            return sealed.size() + peers.size() + rolled.size() + (active != null ? 1 : 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long archivedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (Segment segment : sealed) {
+                bytes += segment.bytes();
+            }
+            for (ActiveSegment segment : rolled) {
+                bytes += segment.size();
+            }
+            return bytes + (active != null ? active.size() : 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Opens this node's segments on first use, finishing whatever a crash left half done
+    private void open() {
+        if (opened) {
+            return;
+        }
+        synchronized (this) {
+            if (opened) {
+                return;
+            }
+            if (!enabled) {
+                throw new IllegalStateException("The game archive is disabled");
+            }
+            try {
+                Files.createDirectories(directory);
+                lockDirectory();
+                List<Path> sealedFiles = new ArrayList<>();
+                List<Path> activeFiles = new ArrayList<>();
+                try (Stream<Path> files = Files.list(directory)) {
+                    for (Path file : files.sorted().toList()) {
+                        String name = file.getFileName().toString();
+                        if (name.endsWith(".tmp")) {
+                            Files.delete(file);
+                        } else if (name.endsWith(Segment.SUFFIX)) {
+                            sealedFiles.add(file);
+                        } else if (name.endsWith(ACTIVE_SUFFIX)) {
+                            activeFiles.add(file);
+                        }
+                    }
+                }
+
+                long maxSeq = 0;
+                List<Segment> segments = new ArrayList<>();
+                for (Path file : sealedFiles) {
+                    segments.add(0, Segment.open(file));
+                    maxSeq = Math.max(maxSeq, Segment.seqOf(file));
+                }
+                List<ActiveSegment> unsealed = new ArrayList<>();
+                for (Path file : activeFiles) {
+                    long seq = activeSeq(file);
+                    if (Files.exists(directory.resolve(Segment.name(seq)))) {
+                        Files.delete(file); // sealed just before a crash
+                    } else {
+                        unsealed.add(ActiveSegment.open(file, seq, segmentBytes));
+                        maxSeq = Math.max(maxSeq, seq);
+                    }
+                }
+                // The newest unsealed segment carries on as the active one; any others are sealed next
+                if (!unsealed.isEmpty()) {
+                    active = unsealed.remove(unsealed.size() - 1);
+                } else {
+                    active = ActiveSegment.open(activePath(maxSeq + 1), ++maxSeq, segmentBytes);
+                }
+                sealed = segments;
+                rolled = unsealed;
+                nextSeq = maxSeq + 1;
+            } catch (IOException e) {
+                closeQuietly(lockChannel);
+                lockChannel = null;
+                throw new UncheckedIOException("Could not open the game archive in " + directory, e);
+            }
+            this.opened = true;
+            log.info("Game archive opened in {}: {} sealed segments", directory, sealed.size());
+        }
+    }
+
+    // Held until close(); the OS drops it if the process dies, so a restarted node can take it back
+    private void lockDirectory() throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        FileLock fileLock;
+        try {
+            fileLock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            fileLock = null; // held by another archive in this JVM
+        }
+        if (fileLock == null) {
+            channel.close();
+            throw new IllegalStateException("Game archive directory " + directory
+                    + " is in use by another node; give each node its own battleship.archive.node");
+        }
+        lockChannel = channel;
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException ignored) {
+            // Only releasing the lock
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return Optional.ofNullable(System.getenv("HOSTNAME")).orElse("localhost");
+        }
+    }
+
+    // Swaps in a fresh active segment; the full one is sealed by the next maintain(). Under the write lock.
+    private void roll() throws IOException {
+        active.force();
+        List<ActiveSegment> next = new ArrayList<>(rolled);
+        next.add(active);
+        long seq = nextSeq++;
+        active = ActiveSegment.open(activePath(seq), seq, segmentBytes);
+        rolled = next;
+    }
+
+    // Rewrites each rolled segment as a sealed one; the rolled segment serves reads until the swap
+    private void seal() throws IOException {
+        List<ActiveSegment> toSeal;
+        lock.readLock().lock();
+        try {
+            toSeal = List.copyOf(rolled);
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (ActiveSegment segment : toSeal) {
+            List<Segment.Source> records = new ArrayList<>();
+            for (ArchiveEntry entry : segment.entries()) {
+                records.add(new Segment.Source(entry, segment.buffer()));
+            }
+            Segment written = Segment.open(Segment.write(directory, segment.seq(), records, sparseEvery));
+            lock.writeLock().lock();
+            try {
+                List<ActiveSegment> remaining = new ArrayList<>(rolled);
+                remaining.remove(segment);
+                rolled = remaining;
+                List<Segment> next = new ArrayList<>(sealed);
+                next.add(written);
+                next.sort(Comparator.comparingLong(Segment::seq).reversed());
+                sealed = next;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            segment.delete();
+        }
+    }
+
+    // Merges this node's small sealed segments, oldest first, into one of at most a segment's size
+    private void compact() throws IOException {
+        List<Segment> candidates = new ArrayList<>();
+        long total = 0;
+        long seq;
+        lock.writeLock().lock();
+        try {
+            List<Segment> oldestFirst = new ArrayList<>(sealed);
+            oldestFirst.sort(Comparator.comparingLong(Segment::seq));
+            for (Segment segment : oldestFirst) {
+                if (segment.bytes() < segmentBytes / 2 && total + segment.bytes() <= segmentBytes) {
+                    candidates.add(segment);
+                    total += segment.bytes();
+                }
+            }
+            if (candidates.size() < compactMinSegments) {
+                return;
+            }
+            seq = nextSeq++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<Segment.Source> records = new ArrayList<>();
+        for (Segment segment : candidates) {
+            for (ArchiveEntry entry : segment.entries()) {
+                records.add(new Segment.Source(entry, segment.buffer()));
+            }
+        }
+        Segment merged = Segment.open(Segment.write(directory, seq, records, sparseEvery));
+        lock.writeLock().lock();
+        try {
+            List<Segment> next = new ArrayList<>(sealed);
+            next.removeAll(candidates);
+            next.add(merged);
+            next.sort(Comparator.comparingLong(Segment::seq).reversed());
+            sealed = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (Segment segment : candidates) {
+            segment.delete();
+        }
+        log.info("Compacted {} archive segments ({} games) into {}", candidates.size(), merged.recordCount(),
+                merged.path().getFileName());
+    }
+
+    // Opens segments other nodes have sealed since the last refresh and drops those they compacted away
+    private void refreshPeers() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> nodes = Files.list(root)) {
+            for (Path node : nodes.filter(Files::isDirectory).filter(path -> !path.equals(directory)).toList()) {
+                try (Stream<Path> segments = Files.list(node)) {
+                    segments.filter(path -> path.getFileName().toString().endsWith(Segment.SUFFIX)).forEach(files::add);
+                }
+            }
+        }
+        Map<Path, Segment> previous = peers;
+        Map<Path, Segment> next = new HashMap<>();
+        for (Path file : files) {
+            Segment segment = peers.get(file);
+            if (segment == null) {
+                try {
+                    segment = Segment.open(file);
+                } catch (IOException e) {
+                    continue; // compacted away while listing; gone next time
+                }
+            }
+            next.put(file, segment);
+        }
+        lock.writeLock().lock();
+        try {
+            peers = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (Map.Entry<Path, Segment> entry : previous.entrySet()) {
+            if (!next.containsKey(entry.getKey())) {
+                entry.getValue().close();
+            }
+        }
+    }
+
+    private List<ActiveSegment> activeNewestFirst() {
+        List<ActiveSegment> segments = new ArrayList<>(rolled.size() + 1);
+        segments.add(active);
+        for (int i = rolled.size() - 1; i >= 0; i--) {
+            segments.add(rolled.get(i));
+        }
+        return segments;
+    }
+
+    private List<Segment> sealedNewestFirst() {
+        List<Segment> segments = new ArrayList<>(sealed);
+        segments.addAll(peers.values());
+        return segments;
+    }
+
+    private Path activePath(long seq) {
+        return directory.resolve(String.format("segment-%012d%s", seq, ACTIVE_SUFFIX));
+    }
+
+    private static long activeSeq(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring("segment-".length(), name.length() - ACTIVE_SUFFIX.length()));
+    }
+
+    private Game decode(byte[] payload) {
+        try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(payload))) {
+            byte[] bson = in.readAllBytes();
+            return reader.convert(new DocumentCodec().decode(new BsonBinaryReader(ByteBuffer.wrap(bson)),
+                    DecoderContext.builder().build()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt archived game", e);
+        }
+    }
+
+    private static byte[] bson(Document game) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        new DocumentCodec().encode(new BsonBinaryWriter(buffer), game, EncoderContext.builder().build());
+        return buffer.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream stream = new DeflaterOutputStream(out, deflater)) {
+            stream.write(bytes);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    private static String idOf(Document game) {
+        Object id = game.get("_id");
+        return id instanceof ObjectId objectId ? objectId.toHexString() : String.valueOf(id);
+    }
+
+    // When the game ended, for ordering a player's history; games that never settled go by their last write
+    private static long finishedAt(Document game) {
+        for (String field : new String[] { "finishedAt", "updatedAt" }) {
+            if (game.get(field) instanceof Date date) {
+                return date.getTime();
+            }
+        }
+        return game.get("_id") instanceof ObjectId id ? id.getDate().getTime() : 0L;
+    }
+}
@@ -0,0 +1,124 @@
+package com.marius.Battleship_Service.archive;
+
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves finished games from the {@code games} collection into the
+ * {@link GameArchive}, so the collection holds only live games. A game is
+ * moved once it has been finished for the grace period, which leaves time
+ * for settlement, match history and the ETL export to read it from MongoDB.
+ * The ETL only reads MongoDB, so a game archived before it was exported is
+ * missing from the warehouse: the grace period has to exceed etl-max-lag-ms,
+ * the longest the export is expected to fall behind, and startup fails if
+ * it does not.
+ *
+ * Nodes claim games before moving them, so each game is archived by one
+ * node; a claim left by a node that stopped mid-move expires and is taken
+ * over. A game is deleted from MongoDB only after it is on disk in the
+ * archive. A crash in between archives it twice, which lookups and
+ * compaction tolerate.
+ */
+@Component
+public class GameArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(GameArchiver.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final GameArchive archive;
+    private final CustomMetricsService customMetricsService;
+    private final String node;
+    private final long graceMs;
+    private final long claimTimeoutMs;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "game-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public GameArchiver(MongoTemplate mongoTemplate, GameArchive archive, CustomMetricsService customMetricsService,
+            @Value("${battleship.archive.grace-ms:86400000}") long graceMs,
+            @Value("${battleship.archive.etl-max-lag-ms:3600000}") long etlMaxLagMs,
+            @Value("${battleship.archive.interval-ms:30000}") long intervalMs,
+            @Value("${battleship.archive.batch-size:500}") int batchSize) {
+        if (archive.isEnabled() && graceMs <= etlMaxLagMs) {
+            throw new IllegalArgumentException("battleship.archive.grace-ms (" + graceMs
+                    + ") must exceed battleship.archive.etl-max-lag-ms (" + etlMaxLagMs
+                    + "), or finished games leave MongoDB before the ETL exports them");
+        }
+        this.mongoTemplate = mongoTemplate;
+        this.archive = archive;
+        this.customMetricsService = customMetricsService;
+        this.node = archive.node();
+        this.graceMs = graceMs;
+        this.claimTimeoutMs = 10 * intervalMs;
+        this.batchSize = batchSize;
+        if (archive.isEnabled()) {
+            scheduler.scheduleWithFixedDelay(this::run, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void run() {
+        try {
+            archive.maintain();
+            claim();
+            while (moveBatch() == batchSize) {
+                // keep going until this node's claims are drained
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Archiving finished games failed, retrying next interval: {}", e.getMessage());
+        }
+    }
+
+    // Marks every game due for archiving, and not claimed by a live node, as this node's
+    private void claim() {
+        long now = System.currentTimeMillis();
+        Criteria unclaimed = new Criteria().orOperator(
+                Criteria.where("archivedBy").exists(false),
+                Criteria.where("archivingAt").lt(new Date(now - claimTimeoutMs)));
+        Query due = new Query(new Criteria().andOperator(
+                Criteria.where("status").is("finished"),
+                // Games finished before updatedAt existed have none, and are due too
+                Criteria.where("updatedAt").not().gte(new Date(now - graceMs)),
+                unclaimed));
+        mongoTemplate.updateMulti(due, new Update().set("archivedBy", node).set("archivingAt", new Date(now)),
+                Game.class);
+    }
+
+    private int moveBatch() throws IOException {
+        Query claimed = new Query(Criteria.where("archivedBy").is(node).and("status").is("finished")).limit(batchSize);
+        String collection = mongoTemplate.getCollectionName(Game.class);
+        List<Document> games = mongoTemplate.find(claimed, Document.class, collection);
+        if (games.isEmpty()) {
+            return 0;
+        }
+        archive.append(games);
+        List<Object> ids = games.stream().map(game -> game.get("_id")).toList();
+        mongoTemplate.remove(new Query(Criteria.where("_id").in(ids).and("archivedBy").is(node)), collection);
+        customMetricsService.recordArchivedGames(games.size());
+        return games.size();
+    }
+}
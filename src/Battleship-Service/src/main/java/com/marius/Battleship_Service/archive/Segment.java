@@ -0,0 +1,311 @@
+package com.marius.Battleship_Service.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A sealed segment: an immutable file of records sorted by game id, with an
+ * index file beside it, both memory-mapped read-only.
+ *
+ * The index holds a sparse game index (the id and offset of every Nth
+ * record) and the player postings (player, finish time, record offset) sorted
+ * by player and newest game first, followed by a sparse index over those.
+ * Only the two sparse indexes are loaded onto the heap. A game lookup
+ * binary-searches the sparse game index and scans at most N records; a
+ * player lookup does the same over the postings.
+ */
+final class Segment implements Closeable {
+
+    static final String SUFFIX = ".seg";
+    static final String INDEX_SUFFIX = ".idx";
+
+    private static final int MAGIC = 0x42534958; // "BSIX"
+
+    private final long seq;
+    private final Path path;
+    private final FileChannel dataChannel;
+    private final MappedByteBuffer data;
+    private final MappedByteBuffer index;
+    private final int recordCount;
+    private final byte[][] sparseIds;
+    private final int[] sparseOffsets;
+    private final String[] sparsePlayers;
+    private final int[] sparsePostings;
+    private final int postingsEnd;
+
+    // A record to write into a new segment, with the buffer it is copied from
+    record Source(ArchiveEntry entry, ByteBuffer buffer) {
+    }
+
+    private Segment(long seq, Path path) throws IOException {
+        this.seq = seq;
+        this.path = path;
+        this.dataChannel = FileChannel.open(path, StandardOpenOption.READ);
+        this.data = dataChannel.map(FileChannel.MapMode.READ_ONLY, 0, dataChannel.size());
+        try (FileChannel indexChannel = FileChannel.open(indexPath(path), StandardOpenOption.READ)) {
+            this.index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexChannel.size());
+        }
+        ByteBuffer in = index.duplicate();
+        if (in.getInt() != MAGIC) {
+            throw new IOException(indexPath(path) + " is not a segment index");
+        }
+        recordCount = in.getInt();
+        int sparseCount = in.getInt();
+        sparseIds = new byte[sparseCount][];
+        sparseOffsets = new int[sparseCount];
+        for (int i = 0; i < sparseCount; i++) {
+            sparseIds[i] = new byte[Short.toUnsignedInt(in.getShort())];
+            in.get(sparseIds[i]);
+            sparseOffsets[i] = in.getInt();
+        }
+        int postingsStart = in.getInt();
+        postingsEnd = in.getInt();
+        if (postingsStart > postingsEnd || postingsEnd > index.limit()) {
+            throw new IOException(indexPath(path) + " is truncated");
+        }
+        in.position(postingsEnd);
+        int sparsePostingCount = in.getInt();
+        sparsePlayers = new String[sparsePostingCount];
+        sparsePostings = new int[sparsePostingCount];
+        for (int i = 0; i < sparsePostingCount; i++) {
+            sparsePlayers[i] = readString(in);
+            sparsePostings[i] = in.getInt();
+        }
+    }
+
+    static Segment open(Path path) throws IOException {
+        return new Segment(seqOf(path), path);
+    }
+
+    /**
+     * Writes the records as a new sealed segment numbered seq, sorted by game
+     * id with one record per game. The index is renamed into place before the
+     * data file, so a segment file that exists always has its index.
+     */
+    static Path write(Path directory, long seq, List<Source> records, int sparseEvery) throws IOException {
+        List<Source> sorted = new ArrayList<>(records);
+        sorted.sort(Comparator.comparing((Source source) -> SegmentRecords.utf8(source.entry().gameId()),
+                Arrays::compareUnsigned));
+
+        Path path = directory.resolve(name(seq));
+        Path dataTemporary = directory.resolve(name(seq) + ".tmp");
+        List<ArchiveEntry> written = new ArrayList<>(sorted.size());
+        try (OutputStream stream = Files.newOutputStream(dataTemporary);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            String previous = null;
+            for (Source source : sorted) {
+                ArchiveEntry entry = source.entry();
+                if (entry.gameId().equals(previous)) {
+                    continue;
+                }
+                previous = entry.gameId();
+                written.add(new ArchiveEntry(entry.gameId(), entry.player1Id(), entry.player2Id(),
+                        entry.finishedAt(), out.size()));
+                out.write(SegmentRecords.raw(source.buffer(), entry.offset()));
+            }
+        }
+        force(dataTemporary);
+
+        Path indexTemporary = directory.resolve(name(seq) + INDEX_SUFFIX + ".tmp");
+        try (OutputStream stream = Files.newOutputStream(indexTemporary);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(written.size());
+            out.writeInt((written.size() + sparseEvery - 1) / sparseEvery);
+            for (int i = 0; i < written.size(); i += sparseEvery) {
+                writeString(out, written.get(i).gameId());
+                out.writeInt(written.get(i).offset());
+            }
+
+            List<Posting> postings = new ArrayList<>();
+            for (ArchiveEntry entry : written) {
+                for (String player : new String[] { entry.player1Id(), entry.player2Id() }) {
+                    if (player != null) {
+                        postings.add(new Posting(player, entry.finishedAt(), entry.offset()));
+                    }
+                }
+            }
+            postings.sort(Comparator.comparing(Posting::player)
+                    .thenComparing(Comparator.comparingLong(Posting::finishedAt).reversed()));
+            int postingsStart = out.size() + 2 * Integer.BYTES;
+            int postingsEnd = postingsStart;
+            for (Posting posting : postings) {
+                postingsEnd += Short.BYTES + SegmentRecords.utf8(posting.player()).length + Long.BYTES + Integer.BYTES;
+            }
+            out.writeInt(postingsStart);
+            out.writeInt(postingsEnd);
+            List<Integer> positions = new ArrayList<>(postings.size());
+            for (Posting posting : postings) {
+                positions.add(out.size());
+                writeString(out, posting.player());
+                out.writeLong(posting.finishedAt());
+                out.writeInt(posting.offset());
+            }
+            out.writeInt((postings.size() + sparseEvery - 1) / sparseEvery);
+            for (int i = 0; i < postings.size(); i += sparseEvery) {
+                writeString(out, postings.get(i).player());
+                out.writeInt(positions.get(i));
+            }
+        }
+        force(indexTemporary);
+
+        Files.move(indexTemporary, indexPath(path), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(dataTemporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return path;
+    }
+
+    private record Posting(String player, long finishedAt, int offset) {
+    }
+
+    ArchiveEntry find(String gameId) {
+        byte[] id = SegmentRecords.utf8(gameId);
+        int low = 0;
+        int high = sparseIds.length - 1;
+        int start = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Arrays.compareUnsigned(sparseIds[mid], id) <= 0) {
+                start = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (start < 0) {
+            return null;
+        }
+        int end = start + 1 < sparseOffsets.length ? sparseOffsets[start + 1] : data.limit();
+        for (int offset = sparseOffsets[start]; offset < end; offset += SegmentRecords.size(data, offset)) {
+            int order = SegmentRecords.compareId(data, offset, id);
+            if (order == 0) {
+                return SegmentRecords.entry(data, offset);
+            }
+            if (order > 0) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    // The player's games in this segment, newest first
+    List<ArchiveEntry> postings(String playerId) {
+        // Start from the last sparse entry before the player, since their first posting may precede an exact match
+        int low = 0;
+        int high = sparsePlayers.length - 1;
+        int start = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (sparsePlayers[mid].compareTo(playerId) < 0) {
+                start = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        List<ArchiveEntry> games = new ArrayList<>();
+        if (sparsePlayers.length == 0) {
+            return games;
+        }
+        ByteBuffer in = index.duplicate();
+        in.position(sparsePostings[Math.max(start, 0)]);
+        while (in.position() < postingsEnd) {
+            int order = readString(in).compareTo(playerId);
+            in.getLong();
+            int offset = in.getInt();
+            if (order > 0) {
+                break;
+            }
+            if (order == 0) {
+                games.add(SegmentRecords.entry(data, offset));
+            }
+        }
+        return games;
+    }
+
+    // Every record, in game id order
+    List<ArchiveEntry> entries() {
+        List<ArchiveEntry> entries = new ArrayList<>(recordCount);
+        for (int offset = 0; offset < data.limit(); offset += SegmentRecords.size(data, offset)) {
+            entries.add(SegmentRecords.entry(data, offset));
+        }
+        return entries;
+    }
+
+    ByteBuffer buffer() {
+        return data;
+    }
+
+    long seq() {
+        return seq;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int recordCount() {
+        return recordCount;
+    }
+
+    long bytes() {
+        return data.limit();
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(indexPath(path));
+        Files.deleteIfExists(path);
+    }
+
+    // Unmapping is left to the garbage collector, so readers still holding the buffers are safe
+    @Override
+    public void close() throws IOException {
+        dataChannel.close();
+    }
+
+    static String name(long seq) {
+        return String.format("segment-%012d%s", seq, SUFFIX);
+    }
+
+    static long seqOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring("segment-".length(), name.length() - SUFFIX.length()));
+    }
+
+    static Path indexPath(Path path) {
+        return path.resolveSibling(path.getFileName().toString().replace(SUFFIX, INDEX_SUFFIX));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = SegmentRecords.utf8(value);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.marius.Battleship_Service.archive;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * The record layout shared by active and sealed segments. Each record is
+ * {@code [length][crc32][finishedAt][gameId][player1Id][player2Id][payload]},
+ * where length counts everything after itself, the CRC covers everything
+ * after itself, ids are short-length-prefixed UTF-8 (empty for none) and the
+ * payload is the game's stored document as deflated BSON. A zero length marks
+ * the end of an active segment's records.
+ *
+ * All reads use absolute offsets, so one mapped buffer serves concurrent readers.
+ */
+final class SegmentRecords {
+
+    static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    private SegmentRecords() {
+    }
+
+    static byte[] encode(String gameId, String player1Id, String player2Id, long finishedAt, byte[] payload) {
+        byte[] id = utf8(gameId);
+        byte[] player1 = utf8(player1Id);
+        byte[] player2 = utf8(player2Id);
+        int body = Long.BYTES + 3 * Short.BYTES + id.length + player1.length + player2.length + payload.length;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + body);
+        record.putInt(Integer.BYTES + body).putInt(0).putLong(finishedAt);
+        for (byte[] field : new byte[][] { id, player1, player2 }) {
+            record.putShort((short) field.length).put(field);
+        }
+        record.put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_BYTES, body);
+        record.putInt(Integer.BYTES, (int) crc.getValue());
+        return record.array();
+    }
+
+    // Total size of the record at the offset, or 0 at the end of the records
+    static int size(ByteBuffer segment, int offset) {
+        if (offset + Integer.BYTES > segment.limit()) {
+            return 0;
+        }
+        int length = segment.getInt(offset);
+        return length <= 0 ? 0 : Integer.BYTES + length;
+    }
+
+    // Whether a whole, uncorrupted record is at the offset; used to find where a torn append stopped
+    static boolean isIntact(ByteBuffer segment, int offset) {
+        int size = size(segment, offset);
+        if (size < HEADER_BYTES || offset + size > segment.limit()) {
+            return false;
+        }
+        byte[] body = new byte[size - HEADER_BYTES];
+        segment.get(offset + HEADER_BYTES, body);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue() == segment.getInt(offset + Integer.BYTES);
+    }
+
+    static ArchiveEntry entry(ByteBuffer segment, int offset) {
+        int position = offset + HEADER_BYTES;
+        long finishedAt = segment.getLong(position);
+        position += Long.BYTES;
+        String[] ids = new String[3];
+        for (int i = 0; i < ids.length; i++) {
+            int length = Short.toUnsignedInt(segment.getShort(position));
+            byte[] bytes = new byte[length];
+            segment.get(position + Short.BYTES, bytes);
+            ids[i] = length == 0 ? null : new String(bytes, StandardCharsets.UTF_8);
+            position += Short.BYTES + length;
+        }
+        return new ArchiveEntry(ids[0], ids[1], ids[2], finishedAt, offset);
+    }
+
+    // Compares the game id of the record at the offset with the given one, without building a String
+    static int compareId(ByteBuffer segment, int offset, byte[] gameId) {
+        int position = offset + HEADER_BYTES + Long.BYTES;
+        int length = Short.toUnsignedInt(segment.getShort(position));
+        int common = Math.min(length, gameId.length);
+        for (int i = 0; i < common; i++) {
+            int difference = Byte.toUnsignedInt(segment.get(position + Short.BYTES + i)) - Byte.toUnsignedInt(gameId[i]);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - gameId.length;
+    }
+
+    static byte[] payload(ByteBuffer segment, int offset) {
+        int end = offset + size(segment, offset);
+        int position = offset + HEADER_BYTES + Long.BYTES;
+        for (int i = 0; i < 3; i++) {
+            position += Short.BYTES + Short.toUnsignedInt(segment.getShort(position));
+        }
+        byte[] payload = new byte[end - position];
+        segment.get(position, payload);
+        return payload;
+    }
+
+    static byte[] raw(ByteBuffer segment, int offset) {
+        byte[] record = new byte[size(segment, offset)];
+        segment.get(offset, record);
+        return record;
+    }
+
+    static byte[] utf8(String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Id too long to archive: " + value.substring(0, 32) + "...");
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,118 @@
+package com.marius.Battleship_Service.bot;
+
+import com.marius.Battleship_Service.models.AttackResult;
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.services.GameService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Built-in opponent. A bot joins a game as {@code player2Id} and plays its
+ * turns through {@link GameService}, like a human would. Bot turns are short
+ * tasks on a small shared pool, so one node can host many bot games.
+ */
+@Service
+public class BotService {
+
+    public static final String BOT_PREFIX = "bot-";
+
+    @Autowired
+    private GameService gameService;
+
+    private final Map<String, TargetingEngine> engines = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    public BotService(@Value("${battleship.bots.threads:2}") int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "bot-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static boolean isBot(String playerId) {
+        return playerId != null && playerId.startsWith(BOT_PREFIX);
+    }
+
+    // Create a game for the player and seat a fresh bot as the opponent
+    public Game startGame(String playerId) {
+        Game game = gameService.createGame(playerId);
+        Game joined = gameService.joinGame(game.getId(), BOT_PREFIX + UUID.randomUUID())
+                .orElseThrow(() -> new IllegalStateException("Bot could not join game " + game.getId()));
+        engines.put(joined.getId(), newEngine(joined));
+        return joined;
+    }
+
+    public void takeTurnAsync(Game game, Consumer<AttackResult> onMove) {
+        executor.execute(() -> {
+            AttackResult result = takeTurn(game);
+            if (result != null) {
+                onMove.accept(result);
+            }
+        });
+    }
+
+    // Plays the bot's shot if it is the bot's turn; returns null otherwise
+    public AttackResult takeTurn(Game game) {
+        String botId = game.getCurrentTurn();
+        if (!isBot(botId)) {
+            return null;
+        }
+
+        TargetingEngine engine = engines.computeIfAbsent(game.getId(), id -> restoreEngine(game, botId));
+        AttackResult result;
+        synchronized (engine) {
+            int cell = engine.nextTarget();
+            if (cell < 0) {
+                // Nothing left to shoot at: the engine is out of step with the game
+                engines.remove(game.getId());
+                return null;
+            }
+            result = gameService.processAttack(game, botId, cell % engine.size(), cell / engine.size());
+            engine.record(result);
+        }
+
+        if (result.isGameOver()) {
+            engines.remove(game.getId());
+        }
+        return result;
+    }
+
+    public void forget(String gameId) {
+        engines.remove(gameId);
+    }
+
+    private TargetingEngine newEngine(Game game) {
+        return new TargetingEngine(game.getGridSize(), game.getFleetSizes(), ThreadLocalRandom.current().nextLong());
+    }
+
+    private TargetingEngine restoreEngine(Game game, String botId) {
+        TargetingEngine engine = newEngine(game);
+        synchronized (game) {
+            boolean botIsPlayer2 = botId.equals(game.getPlayer2Id());
+            long[] hits = botIsPlayer2 ? game.getPlayer1Hits() : game.getPlayer2Hits();
+            long[] misses = botIsPlayer2 ? game.getPlayer1Misses() : game.getPlayer2Misses();
+            if (hits != null && misses != null) {
+                engine.restore(hits, misses, botIsPlayer2 ? game.getPlayer1Grid() : game.getPlayer2Grid());
+            }
+        }
+        return engine;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
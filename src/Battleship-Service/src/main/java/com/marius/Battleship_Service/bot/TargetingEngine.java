@@ -0,0 +1,350 @@
+package com.marius.Battleship_Service.bot;
+
+import com.marius.Battleship_Service.models.AttackResult;
+import com.marius.Battleship_Service.models.Bitboard;
+import com.marius.Battleship_Service.models.Game;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Probability-density targeting over bitmask boards. For every ship still
+ * afloat, each placement that does not cross a miss or a sunk ship adds one
+ * to the density of the unshot cells it covers. While there are hits that do
+ * not belong to a sunk ship ("target" mode), only placements through those
+ * hits count, weighted by how many of them they cover; otherwise ("hunt" mode)
+ * every legal placement counts.
+ *
+ * In hunt mode a cell's density is read from a table keyed by the free run it
+ * sits in, rebuilt only when a ship sinks. In target mode only lines holding an
+ * open hit are scanned; placements are tested in O(1) from free-run lengths and
+ * hit prefix sums and added through difference arrays. All state lives in arrays allocated up front, so
+ * {@link #nextTarget()} and the record methods do not allocate.
+ */
+public final class TargetingEngine {
+
+    private final int size;
+    private final int cells;
+    private final int[] fleet;
+    private final long[] shots;
+    private final long[] hits;
+    private final long[] sunk;
+    private final long[] blocked; // misses and sunk ships, rebuilt per move
+    private final long[] unresolved; // hits not yet part of a sunk ship, rebuilt per move
+    private final int[] afloat; // ships still afloat, indexed by length
+    private final int[] density;
+    private final int[] rowRun;
+    private final int[] columnRun;
+    private final int[] rowHits;
+    private final int[] columnHits;
+    private final int[] rowDiff;
+    private final int[] columnDiff;
+    private final int[] rowTable; // hunt density by [free run length][position in run]
+    private final int[] columnTable;
+    private boolean tableStale = true;
+    private long seed;
+
+    public TargetingEngine(int size, int[] fleet, long seed) {
+        int maxLength = 0;
+        for (int length : fleet) {
+            maxLength = Math.max(maxLength, length);
+        }
+
+        this.size = size;
+        this.cells = size * size;
+        this.fleet = fleet.clone();
+        this.shots = Bitboard.create(cells);
+        this.hits = Bitboard.create(cells);
+        this.sunk = Bitboard.create(cells);
+        this.blocked = Bitboard.create(cells);
+        this.unresolved = Bitboard.create(cells);
+        this.afloat = new int[maxLength + 1];
+        this.density = new int[cells];
+        this.rowRun = new int[cells];
+        this.columnRun = new int[cells];
+        this.rowHits = new int[size * (size + 1)];
+        this.columnHits = new int[size * (size + 1)];
+        this.rowDiff = new int[size * (size + 1)];
+        this.columnDiff = new int[size * (size + 1)];
+        this.rowTable = new int[(size + 1) * (size + 1)];
+        this.columnTable = new int[(size + 1) * (size + 1)];
+        reset(seed);
+    }
+
+    // Starts a new game whose tie-breaks depend on this seed alone, not on earlier games
+    public void reset(long seed) {
+        this.seed = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+        reset();
+    }
+
+    public void reset() {
+        Arrays.fill(shots, 0);
+        Arrays.fill(hits, 0);
+        Arrays.fill(sunk, 0);
+        Arrays.fill(afloat, 0);
+        for (int length : fleet) {
+            afloat[length]++;
+        }
+        tableStale = true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Rebuild from a stored board when the engine's own history is gone (e.g. after a restart).
+    // Ships whose every cell has been hit count as sunk, as the game announced them when they sank.
+    public void restore(long[] boardHits, long[] boardMisses, List<Game.Ship> defenderGrid) {
+        reset();
+        for (int i = 0; i < shots.length; i++) {
+            hits[i] = boardHits[i];
+            shots[i] = boardHits[i] | boardMisses[i];
+        }
+        if (defenderGrid == null) {
+            return;
+        }
+
+        Map<String, int[]> ships = new LinkedHashMap<>();
+        Map<String, Integer> lengths = new LinkedHashMap<>();
+        for (Game.Ship ship : defenderGrid) {
+            int[] shipCells = ships.computeIfAbsent(ship.getShip(), name -> new int[defenderGrid.size()]);
+            int length = lengths.getOrDefault(ship.getShip(), 0);
+            shipCells[length] = ship.getY() * size + ship.getX();
+            lengths.put(ship.getShip(), length + 1);
+        }
+        ships.forEach((name, shipCells) -> {
+            int[] placed = Arrays.copyOf(shipCells, lengths.get(name));
+            for (int cell : placed) {
+                if (!Bitboard.get(hits, cell)) {
+                    return;
+                }
+            }
+            recordSunk(placed);
+        });
+    }
+
+    // The cell to fire at next, or -1 once every cell has been shot
+    public int nextTarget() {
+        boolean targetMode = false;
+        for (int i = 0; i < hits.length; i++) {
+            blocked[i] = (shots[i] & ~hits[i]) | sunk[i];
+            unresolved[i] = hits[i] & ~sunk[i];
+            targetMode |= unresolved[i] != 0;
+        }
+        if (targetMode) {
+            targetDensity();
+        } else {
+            huntDensity();
+        }
+
+        // Highest density wins; ties are broken uniformly at random
+        int best = -1;
+        int bestDensity = -1;
+        int ties = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (Bitboard.get(shots, cell)) {
+                continue;
+            }
+            int value = density[cell];
+            if (value > bestDensity) {
+                best = cell;
+                bestDensity = value;
+                ties = 1;
+            } else if (value == bestDensity && nextInt(++ties) == 0) {
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    public void record(AttackResult result) {
+        int cell = result.y() * size + result.x();
+        if (!result.hit()) {
+            recordMiss(cell);
+            return;
+        }
+        recordHit(cell);
+        if (result.sunkCells() != null) {
+            recordSunk(result.sunkCells());
+        }
+    }
+
+    public void recordMiss(int cell) {
+        Bitboard.set(shots, cell);
+    }
+
+    public void recordHit(int cell) {
+        Bitboard.set(shots, cell);
+        Bitboard.set(hits, cell);
+    }
+
+    public void recordSunk(int[] shipCells) {
+        for (int cell : shipCells) {
+            Bitboard.set(sunk, cell);
+        }
+        if (shipCells.length < afloat.length && afloat[shipCells.length] > 0) {
+            afloat[shipCells.length]--;
+            tableStale = true;
+        }
+    }
+
+    // With no open hits every placement weighs the same, so a cell's density depends only on
+    // the length of the free run it sits in and its position there: read it from the table
+    private void huntDensity() {
+        if (tableStale) {
+            buildHuntTables();
+        }
+        int line = size + 1;
+        for (int y = 0; y < size; y++) {
+            int x = 0;
+            while (x < size) {
+                int run = 0;
+                while (x + run < size && !Bitboard.get(blocked, y * size + x + run)) {
+                    run++;
+                }
+                for (int p = 0; p < run; p++) {
+                    density[y * size + x + p] = rowTable[run * line + p];
+                }
+                if (x + run < size) {
+                    density[y * size + x + run] = 0;
+                }
+                x += run + 1;
+            }
+        }
+        for (int x = 0; x < size; x++) {
+            int y = 0;
+            while (y < size) {
+                int run = 0;
+                while (y + run < size && !Bitboard.get(blocked, (y + run) * size + x)) {
+                    run++;
+                }
+                for (int p = 0; p < run; p++) {
+                    density[(y + p) * size + x] += columnTable[run * line + p];
+                }
+                y += run + 1;
+            }
+        }
+    }
+
+    // Placements must cover an open hit, so only lines holding one contribute. Each placement
+    // is checked in O(1) from the free runs and hit prefix sums, weighted by the square of
+    // the hits it covers, and spread over its cells through per-line difference arrays
+    private void targetDensity() {
+        scanLines();
+        Arrays.fill(rowDiff, 0);
+        Arrays.fill(columnDiff, 0);
+        int line = size + 1;
+        for (int length = 1; length < afloat.length; length++) {
+            if (afloat[length] == 0) {
+                continue;
+            }
+            int weight = afloat[length];
+            for (int y = 0; y < size; y++) {
+                if (rowHits[y * line + size] == 0) {
+                    continue;
+                }
+                for (int x = 0; x + length <= size; x++) {
+                    int covered = rowHits[y * line + x + length] - rowHits[y * line + x];
+                    if (covered > 0 && rowRun[y * size + x] >= length) {
+                        int w = weight * covered * covered;
+                        rowDiff[y * line + x] += w;
+                        rowDiff[y * line + x + length] -= w;
+                    }
+                }
+            }
+            if (length == 1) {
+                continue;
+            }
+            for (int x = 0; x < size; x++) {
+                if (columnHits[x * line + size] == 0) {
+                    continue;
+                }
+                for (int y = 0; y + length <= size; y++) {
+                    int covered = columnHits[x * line + y + length] - columnHits[x * line + y];
+                    if (covered > 0 && columnRun[y * size + x] >= length) {
+                        int w = weight * covered * covered;
+                        columnDiff[x * line + y] += w;
+                        columnDiff[x * line + y + length] -= w;
+                    }
+                }
+            }
+        }
+
+        for (int y = 0; y < size; y++) {
+            int sum = 0;
+            for (int x = 0; x < size; x++) {
+                sum += rowDiff[y * line + x];
+                density[y * size + x] = sum;
+            }
+        }
+        for (int x = 0; x < size; x++) {
+            int sum = 0;
+            for (int y = 0; y < size; y++) {
+                sum += columnDiff[x * line + y];
+                density[y * size + x] += sum;
+            }
+        }
+    }
+
+    // Free-run lengths (cells not crossing a miss or sunk ship) and prefix counts of open hits
+    private void scanLines() {
+        int line = size + 1;
+        for (int y = 0; y < size; y++) {
+            int run = 0;
+            for (int x = size - 1; x >= 0; x--) {
+                int cell = y * size + x;
+                run = Bitboard.get(blocked, cell) ? 0 : run + 1;
+                rowRun[cell] = run;
+            }
+            rowHits[y * line] = 0;
+            for (int x = 0; x < size; x++) {
+                rowHits[y * line + x + 1] = rowHits[y * line + x] + (Bitboard.get(unresolved, y * size + x) ? 1 : 0);
+            }
+        }
+        for (int x = 0; x < size; x++) {
+            int run = 0;
+            for (int y = size - 1; y >= 0; y--) {
+                int cell = y * size + x;
+                run = Bitboard.get(blocked, cell) ? 0 : run + 1;
+                columnRun[cell] = run;
+            }
+            columnHits[x * line] = 0;
+            for (int y = 0; y < size; y++) {
+                columnHits[x * line + y + 1] = columnHits[x * line + y] + (Bitboard.get(unresolved, y * size + x) ? 1 : 0);
+            }
+        }
+    }
+
+    // Placements of the ships afloat covering position p of a free run of length r, summed by
+    // length; single-cell ships only count along rows so they are not counted twice
+    private void buildHuntTables() {
+        int line = size + 1;
+        for (int run = 1; run <= size; run++) {
+            for (int p = 0; p < run; p++) {
+                int rowSum = 0;
+                int columnSum = 0;
+                for (int length = 1; length < afloat.length && length <= run; length++) {
+                    int starts = Math.min(p, run - length) - Math.max(0, p - length + 1) + 1;
+                    rowSum += afloat[length] * starts;
+                    if (length > 1) {
+                        columnSum += afloat[length] * starts;
+                    }
+                }
+                rowTable[run * line + p] = rowSum;
+                columnTable[run * line + p] = columnSum;
+            }
+        }
+        tableStale = false;
+    }
+
+    // xorshift64*, kept inline so tie-breaking does not touch a shared Random
+    private int nextInt(int bound) {
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        long value = (seed * 0x2545F4914F6CDD1DL) >>> 33;
+        return (int) (value % bound);
+    }
+}
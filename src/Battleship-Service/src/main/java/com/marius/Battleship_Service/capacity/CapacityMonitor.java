@@ -0,0 +1,254 @@
+package com.marius.Battleship_Service.capacity;
+
+import com.marius.commons.discovery.PeerDirectory;
+import com.marius.commons.discovery.ServiceRegistration;
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import com.marius.Battleship_Service.services.LiveGameStore;
+import com.marius.Battleship_Service.websockets.OutboundDelivery;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How close this node is to the most it can hold, as one load score: 0 when
+ * idle, 1 when full. The score is the largest of three ratios, sampled once
+ * per interval:
+ * <ul>
+ * <li>memory: live games and sessions at their estimated size, or the heap
+ * still in use after the last GC if that is more, against heap-fraction of
+ * the maximum heap (and against max-games and max-sessions, if set);</li>
+ * <li>scheduling lag: how late the sampler itself runs, which rises when the
+ * CPU is saturated or the JVM pauses for GC, against lag-budget-ms;</li>
+ * <li>outbound backlog: the share of outbound queue slots in use.</li>
+ * </ul>
+ * From degrade-at the node stops taking optional work (bot games and
+ * spectators); at 1 it refuses new games too, pointing players at the peer
+ * with the most room. Games already running are never turned away, so a busy
+ * node sheds new load before the collector starts thrashing. The score is sent
+ * to the discovery service with every registration for weighted routing.
+ */
+@Component
+public class CapacityMonitor {
+
+    public enum Level { NORMAL, DEGRADED, FULL }
+
+    private static final Logger log = LoggerFactory.getLogger(CapacityMonitor.class);
+
+    private static final int GAMES_SAMPLED = 64;
+    private static final double SMOOTHING = 0.3;
+    private static final long FAILURE_LOG_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final LiveGameStore liveGames;
+    private final OutboundDelivery outboundDelivery;
+    private final ServiceRegistration registration;
+    private final PeerDirectory peerDirectory;
+    private final CustomMetricsService customMetricsService;
+    private final long budgetBytes;
+    private final long sessionBytes;
+    private final int maxGames;
+    private final int maxSessions;
+    private final double degradeAt;
+    private final double lagBudgetMs;
+    private final long intervalNanos;
+    private final List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "capacity-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private long nextSampleNanos;
+    private double gameBytes;
+    private double lagMs;
+    private long lastFailureLogNanos;
+    private int failuresSinceLog;
+    private volatile double load;
+    private volatile Level level = Level.NORMAL;
+    private volatile String redirect; // a peer with room, while this node is not NORMAL
+
+    public CapacityMonitor(LiveGameStore liveGames, OutboundDelivery outboundDelivery,
+            ServiceRegistration registration, PeerDirectory peerDirectory, CustomMetricsService customMetricsService,
+            @Value("${battleship.capacity.enabled:true}") boolean enabled,
+            @Value("${battleship.capacity.heap-fraction:0.75}") double heapFraction,
+            @Value("${battleship.capacity.session-bytes:65536}") long sessionBytes,
+            @Value("${battleship.capacity.max-games:0}") int maxGames,
+            @Value("${battleship.capacity.max-sessions:0}") int maxSessions,
+            @Value("${battleship.capacity.degrade-at:0.85}") double degradeAt,
+            @Value("${battleship.capacity.lag-budget-ms:250}") long lagBudgetMs,
+            @Value("${battleship.capacity.sample-interval-ms:1000}") long sampleIntervalMs) {
+        if (!(heapFraction > 0 && heapFraction <= 1) || !(degradeAt > 0 && degradeAt <= 1) || lagBudgetMs <= 0) {
+            throw new IllegalArgumentException(
+                    "Capacity needs heap-fraction and degrade-at in (0, 1] and a positive lag budget");
+        }
+        this.liveGames = liveGames;
+        this.outboundDelivery = outboundDelivery;
+        this.registration = registration;
+        this.peerDirectory = peerDirectory;
+        this.customMetricsService = customMetricsService;
+        this.budgetBytes = (long) (Runtime.getRuntime().maxMemory() * heapFraction);
+        this.sessionBytes = sessionBytes;
+        this.maxGames = maxGames;
+        this.maxSessions = maxSessions;
+        this.degradeAt = degradeAt;
+        this.lagBudgetMs = lagBudgetMs;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(sampleIntervalMs);
+        this.gameBytes = GameFootprint.estimate(standardGame());
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported()) {
+                heapPools.add(pool);
+            }
+        }
+        customMetricsService.registerCapacity(() -> load, () -> gameBytes);
+        if (enabled) {
+            nextSampleNanos = System.nanoTime() + intervalNanos;
+            sampler.scheduleAtFixedRate(this::sample, sampleIntervalMs, sampleIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sampler.shutdownNow();
+    }
+
+    // Whether the node takes new games
+    public boolean admitsNewGames() {
+        return level != Level.FULL;
+    }
+
+    // Whether the node takes work it can do without: bot games and spectators
+    public boolean admitsOptionalWork() {
+        return level == Level.NORMAL;
+    }
+
+    // The reply to a refused request, with the peer that has the most room if one is known
+    public Map<String, Object> refusal(String kind) {
+        customMetricsService.recordCapacityRefusal(kind);
+        Map<String, Object> reply = new HashMap<>();
+        reply.put("error", "This server is too busy to start a new " + kind + "; please try another");
+        String peer = redirect;
+        if (peer != null) {
+            reply.put("redirect", peer);
+            reply.put("instancePort", peer.substring(peer.lastIndexOf(':') + 1));
+        }
+        return reply;
+    }
+
+    public double getLoad() {
+        return load;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    private void sample() {
+        try {
+            // The sampler runs at a fixed rate, so however late it starts is time it could not run
+            long now = System.nanoTime();
+            double lateMs = Math.max(0, now - nextSampleNanos) / 1e6;
+            nextSampleNanos = Math.max(nextSampleNanos + intervalNanos, now);
+            lagMs += SMOOTHING * (lateMs - lagMs);
+            gameBytes += SMOOTHING * (averageGameBytes() - gameBytes);
+
+            int games = liveGames.size();
+            int sessions = outboundDelivery.sessions();
+            long accounted = (long) (games * gameBytes) + sessions * sessionBytes;
+            double score = load(accounted, liveHeapBytes(), budgetBytes, lagMs, lagBudgetMs,
+                    outboundDelivery.backlog());
+            if (maxGames > 0) {
+                score = Math.max(score, games / (double) maxGames);
+            }
+            if (maxSessions > 0) {
+                score = Math.max(score, sessions / (double) maxSessions);
+            }
+
+            load = score;
+            level = level(score, degradeAt);
+            redirect = level == Level.NORMAL ? null
+                    : peerDirectory.leastLoaded("battleship", registration.getServiceAddress()).orElse(null);
+            registration.reportLoad(score);
+        } catch (RuntimeException e) {
+            // Keep the last score; the next sample tries again. Logged at most once a minute,
+            // since a lasting fault would otherwise log on every sample
+            customMetricsService.incrementCapacitySampleFailures();
+            failuresSinceLog++;
+            long now = System.nanoTime();
+            if (lastFailureLogNanos == 0 || now - lastFailureLogNanos >= FAILURE_LOG_INTERVAL_NANOS) {
+                log.warn("Capacity sample failed ({} failures since the last warning); keeping load {}",
+                        failuresSinceLog, load, e);
+                lastFailureLogNanos = now;
+                failuresSinceLog = 0;
+            }
+        }
+    }
+
+    static double load(long accountedBytes, long liveHeapBytes, long budgetBytes, double lagMs, double lagBudgetMs,
+            double outboundBacklog) {
+        double memory = Math.max(accountedBytes, liveHeapBytes) / (double) budgetBytes;
+        return Math.max(memory, Math.max(lagMs / lagBudgetMs, outboundBacklog));
+    }
+
+    static Level level(double load, double degradeAt) {
+        return load >= 1 ? Level.FULL : load >= degradeAt ? Level.DEGRADED : Level.NORMAL;
+    }
+
+    // The estimate for the first few live games, which are as good a sample as any
+    private double averageGameBytes() {
+        long total = 0;
+        int counted = 0;
+        Iterator<Game> games = liveGames.games().iterator();
+        while (counted < GAMES_SAMPLED && games.hasNext()) {
+            total += GameFootprint.estimate(games.next());
+            counted++;
+        }
+        return counted == 0 ? gameBytes : total / (double) counted;
+    }
+
+    // Heap still in use after each pool's last collection: the live set, without the garbage
+    // that has not been collected yet. Falls back to current use before the first GC.
+    private long liveHeapBytes() {
+        long live = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null) {
+                live += usage.getUsed();
+            }
+        }
+        if (live == 0) {
+            Runtime runtime = Runtime.getRuntime();
+            live = runtime.totalMemory() - runtime.freeMemory();
+        }
+        return live;
+    }
+
+    private static Game standardGame() {
+        Game game = new Game();
+        game.setId("0123456789abcdef01234567");
+        game.setPlayer1Id("player-one");
+        game.setPlayer2Id("player-two");
+        List<Game.Ship> grid = new ArrayList<>();
+        for (Game.ShipType type : Game.standardFleet()) {
+            grid.add(new Game.Ship(0, 0, type.getName(), "horizontal"));
+        }
+        game.setPlayer1Grid(grid);
+        game.setPlayer2Grid(grid);
+        return game;
+    }
+}
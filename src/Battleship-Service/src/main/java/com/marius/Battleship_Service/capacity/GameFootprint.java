@@ -0,0 +1,46 @@
+package com.marius.Battleship_Service.capacity;
+
+import com.marius.Battleship_Service.models.Game;
+
+import java.util.List;
+
+/**
+ * Rough retained size of a live game on a 64-bit JVM with compressed
+ * references, added up from the sizes of its parts instead of walking the
+ * heap. It only has to be good to a few tens of percent: it turns a memory
+ * budget into a number of games.
+ */
+final class GameFootprint {
+
+    private static final int GAME = 96; // header and fields, with the version and the two Instants
+    private static final int STRING = 40; // String and its byte array, before the characters
+    private static final int LIST = 40; // ArrayList and its backing array, before the elements
+    private static final int SHIP = 32; // header, coordinates and two references
+    private static final int LONG_ARRAY = 16;
+
+    private GameFootprint() {
+    }
+
+    static long estimate(Game game) {
+        long bytes = GAME + string(game.getId()) + string(game.getPlayer1Id()) + string(game.getPlayer2Id());
+        bytes += grid(game.getPlayer1Grid()) + grid(game.getPlayer2Grid());
+        // Four shot masks, and the two hit-test boards built on the first shot
+        long words = ((long) game.getGridSize() * game.getGridSize() + 63) / 64;
+        return bytes + 6 * (LONG_ARRAY + 8 * words);
+    }
+
+    private static long string(String value) {
+        return value == null ? 0 : STRING + value.length();
+    }
+
+    private static long grid(List<Game.Ship> ships) {
+        if (ships == null) {
+            return 0;
+        }
+        long bytes = LIST + 4L * ships.size();
+        for (Game.Ship ship : ships) {
+            bytes += SHIP + string(ship.getShip()) + string(ship.getOrientation());
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,33 @@
+package com.marius.Battleship_Service.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Stores a {@code long[]} cell bitmask as raw little-endian words.
+ */
+public final class BitmaskCodec {
+
+    private BitmaskCodec() {
+    }
+
+    public static byte[] encode(long[] words) {
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (long word : words) {
+            buffer.putLong(word);
+        }
+        return buffer.array();
+    }
+
+    public static long[] decode(byte[] data) {
+        if (data.length % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Bitmask length must be a multiple of 8 bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        long[] words = new long[data.length / Long.BYTES];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = buffer.getLong();
+        }
+        return words;
+    }
+}
@@ -0,0 +1,127 @@
+package com.marius.Battleship_Service.codec;
+
+import com.marius.Battleship_Service.models.Game;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Packs a fleet (one {@link Game.Ship} per occupied cell) into a small binary
+ * blob. Consecutive cells of the same ship are stored as a single run:
+ *
+ * <pre>
+ * [format version]
+ * per run: [ship code << 1 | orientation] [x] [y] [length]
+ * </pre>
+ *
+ * Ship names outside the standard fleet use {@link #CUSTOM_SHIP} followed by
+ * a length-prefixed UTF-8 name.
+ */
+public final class FleetCodec {
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final String[] SHIP_NAMES = { "Carrier", "Battleship", "Cruiser", "Submarine", "Destroyer" };
+    private static final int CUSTOM_SHIP = 0x7F;
+
+    private static final String HORIZONTAL = "horizontal";
+    private static final String VERTICAL = "vertical";
+
+    private FleetCodec() {
+    }
+
+    public static byte[] encode(List<Game.Ship> ships) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 + ships.size());
+        out.write(FORMAT_VERSION);
+
+        int i = 0;
+        while (i < ships.size()) {
+            Game.Ship first = ships.get(i);
+            boolean vertical = VERTICAL.equals(first.getOrientation());
+
+            // Extend the run while the next cell continues the same ship
+            int length = 1;
+            while (i + length < ships.size() && length < 255) {
+                Game.Ship next = ships.get(i + length);
+                boolean continues = vertical
+                        ? next.getX() == first.getX() && next.getY() == first.getY() + length
+                        : next.getY() == first.getY() && next.getX() == first.getX() + length;
+                if (!continues || !sameShip(first, next)) {
+                    break;
+                }
+                length++;
+            }
+
+            int code = shipCode(first.getShip());
+            out.write((code << 1) | (vertical ? 1 : 0));
+            if (code == CUSTOM_SHIP) {
+                byte[] name = first.getShip() == null ? new byte[0] : first.getShip().getBytes(StandardCharsets.UTF_8);
+                out.write(checkedByte(name.length, "ship name length"));
+                out.write(name, 0, name.length);
+            }
+            out.write(checkedByte(first.getX(), "x"));
+            out.write(checkedByte(first.getY(), "y"));
+            out.write(length);
+
+            i += length;
+        }
+        return out.toByteArray();
+    }
+
+    public static List<Game.Ship> decode(byte[] data) {
+        if (data.length == 0 || data[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported fleet format");
+        }
+
+        List<Game.Ship> ships = new ArrayList<>();
+        int pos = 1;
+        while (pos < data.length) {
+            int header = data[pos++] & 0xFF;
+            int code = header >>> 1;
+            String orientation = (header & 1) == 1 ? VERTICAL : HORIZONTAL;
+
+            String name;
+            if (code == CUSTOM_SHIP) {
+                int nameLength = data[pos++] & 0xFF;
+                name = new String(data, pos, nameLength, StandardCharsets.UTF_8);
+                pos += nameLength;
+            } else {
+                name = SHIP_NAMES[code];
+            }
+
+            int x = data[pos++] & 0xFF;
+            int y = data[pos++] & 0xFF;
+            int length = data[pos++] & 0xFF;
+            for (int j = 0; j < length; j++) {
+                ships.add(VERTICAL.equals(orientation)
+                        ? new Game.Ship(x, y + j, name, orientation)
+                        : new Game.Ship(x + j, y, name, orientation));
+            }
+        }
+        return ships;
+    }
+
+    private static boolean sameShip(Game.Ship a, Game.Ship b) {
+        return Objects.equals(a.getShip(), b.getShip())
+                && Objects.equals(a.getOrientation(), b.getOrientation());
+    }
+
+    private static int shipCode(String name) {
+        for (int i = 0; i < SHIP_NAMES.length; i++) {
+            if (SHIP_NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        return CUSTOM_SHIP;
+    }
+
+    private static int checkedByte(int value, String field) {
+        if (value < 0 || value > 255) {
+            throw new IllegalArgumentException("Fleet " + field + " out of range: " + value);
+        }
+        return value;
+    }
+}
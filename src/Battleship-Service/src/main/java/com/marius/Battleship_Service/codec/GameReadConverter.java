@@ -0,0 +1,100 @@
+package com.marius.Battleship_Service.codec;
+
+import com.marius.Battleship_Service.models.Bitboard;
+import com.marius.Battleship_Service.models.Game;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Reads both the compact layout written by {@link GameWriteConverter} and the
+ * legacy layout (arrays of ship subdocuments under {@code player1Grid} /
+ * {@code player2Grid}). Legacy documents are rewritten compactly on their next
+ * save, or in bulk by {@code GameMigrationService}.
+ */
+@ReadingConverter
+public class GameReadConverter implements Converter<Document, Game> {
+
+    @Override
+    public Game convert(Document document) {
+        Game game = new Game();
+        Object id = document.get("_id");
+        if (id != null) {
+            game.setId(id instanceof ObjectId objectId ? objectId.toHexString() : id.toString());
+        }
+        // Documents written before versioning count as version 0
+        Object version = document.get("version");
+        game.setVersion(version instanceof Number number ? number.longValue() : 0L);
+        game.setPlayer1Id(document.getString("player1Id"));
+        game.setPlayer2Id(document.getString("player2Id"));
+        game.setStatus(document.getString("status"));
+        game.setGridSize(document.getInteger("gridSize", Game.DEFAULT_GRID_SIZE));
+        game.setFleet(readFleetDefinition(document));
+        game.setCurrentTurn(document.getString("currentTurn"));
+        game.setWinnerId(document.getString("winnerId"));
+        game.setStartedAt(readInstant(document, "startedAt"));
+        game.setFinishedAt(readInstant(document, "finishedAt"));
+        game.setUpdatedAt(readInstant(document, "updatedAt"));
+        game.setPlayer1Grid(readFleet(document, "player1Fleet", "player1Grid"));
+        game.setPlayer2Grid(readFleet(document, "player2Fleet", "player2Grid"));
+        // Shot boards are unset when a game (re)starts, which reads as no shots yet
+        int cells = game.getGridSize() * game.getGridSize();
+        game.setPlayer1Hits(readMask(document, "player1Hits", cells));
+        game.setPlayer1Misses(readMask(document, "player1Misses", cells));
+        game.setPlayer2Hits(readMask(document, "player2Hits", cells));
+        game.setPlayer2Misses(readMask(document, "player2Misses", cells));
+        return game;
+    }
+
+    private static List<Game.Ship> readFleet(Document document, String compactKey, String legacyKey) {
+        Object compact = document.get(compactKey);
+        if (compact instanceof Binary binary) {
+            return FleetCodec.decode(binary.getData());
+        }
+
+        Object legacy = document.get(legacyKey);
+        if (legacy instanceof List<?> cells) {
+            List<Game.Ship> ships = new ArrayList<>(cells.size());
+            for (Object cell : cells) {
+                Document ship = (Document) cell;
+                ships.add(new Game.Ship(
+                        ship.getInteger("x", 0),
+                        ship.getInteger("y", 0),
+                        ship.getString("ship"),
+                        ship.getString("orientation")));
+            }
+            return ships;
+        }
+        return null;
+    }
+
+    private static List<Game.ShipType> readFleetDefinition(Document document) {
+        Object value = document.get("fleet");
+        if (!(value instanceof List<?> types)) {
+            return Game.standardFleet();
+        }
+        List<Game.ShipType> fleet = new ArrayList<>(types.size());
+        for (Object type : types) {
+            Document shipType = (Document) type;
+            fleet.add(new Game.ShipType(shipType.getString("name"), shipType.getInteger("size", 1)));
+        }
+        return fleet;
+    }
+
+    private static Instant readInstant(Document document, String key) {
+        Date value = document.getDate(key);
+        return value != null ? value.toInstant() : null;
+    }
+
+    private static long[] readMask(Document document, String key, int cells) {
+        Object value = document.get(key);
+        return value instanceof Binary binary ? BitmaskCodec.decode(binary.getData()) : Bitboard.create(cells);
+    }
+}
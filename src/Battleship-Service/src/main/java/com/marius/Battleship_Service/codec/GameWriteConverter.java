@@ -0,0 +1,91 @@
+package com.marius.Battleship_Service.codec;
+
+import com.marius.Battleship_Service.models.Game;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Writes a {@link Game} in the compact layout: fleets as {@link FleetCodec}
+ * blobs and shot boards as {@link BitmaskCodec} blobs.
+ */
+@WritingConverter
+public class GameWriteConverter implements Converter<Game, Document> {
+
+    public static final int SCHEMA_VERSION = 2;
+
+    @Override
+    public Document convert(Game game) {
+        Document document = new Document();
+        if (game.getId() != null) {
+            document.put("_id", ObjectId.isValid(game.getId()) ? new ObjectId(game.getId()) : game.getId());
+        }
+        document.put("schema", SCHEMA_VERSION);
+        putIfPresent(document, "version", game.getVersion());
+        putIfPresent(document, "player1Id", game.getPlayer1Id());
+        putIfPresent(document, "player2Id", game.getPlayer2Id());
+        putIfPresent(document, "status", game.getStatus());
+        // Board size and fleet are only stored for non-standard variants
+        if (game.getGridSize() != Game.DEFAULT_GRID_SIZE) {
+            document.put("gridSize", game.getGridSize());
+        }
+        if (game.getFleet() != null && !isStandardFleet(game.getFleet())) {
+            List<Document> fleet = new ArrayList<>(game.getFleet().size());
+            for (Game.ShipType type : game.getFleet()) {
+                fleet.add(new Document("name", type.getName()).append("size", type.getSize()));
+            }
+            document.put("fleet", fleet);
+        }
+        putIfPresent(document, "currentTurn", game.getCurrentTurn());
+        putIfPresent(document, "winnerId", game.getWinnerId());
+        putIfPresent(document, "startedAt", game.getStartedAt() != null ? Date.from(game.getStartedAt()) : null);
+        putIfPresent(document, "finishedAt", game.getFinishedAt() != null ? Date.from(game.getFinishedAt()) : null);
+        // Converted only to be written, so this is the write time the ETL extracts changes by
+        document.put("updatedAt", new Date());
+        putFleet(document, "player1Fleet", game.getPlayer1Grid());
+        putFleet(document, "player2Fleet", game.getPlayer2Grid());
+        putMask(document, "player1Hits", game.getPlayer1Hits());
+        putMask(document, "player1Misses", game.getPlayer1Misses());
+        putMask(document, "player2Hits", game.getPlayer2Hits());
+        putMask(document, "player2Misses", game.getPlayer2Misses());
+        return document;
+    }
+
+    private static void putIfPresent(Document document, String key, Object value) {
+        if (value != null) {
+            document.put(key, value);
+        }
+    }
+
+    private static boolean isStandardFleet(List<Game.ShipType> fleet) {
+        List<Game.ShipType> standard = Game.standardFleet();
+        if (fleet.size() != standard.size()) {
+            return false;
+        }
+        for (int i = 0; i < fleet.size(); i++) {
+            if (!standard.get(i).getName().equals(fleet.get(i).getName())
+                    || standard.get(i).getSize() != fleet.get(i).getSize()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void putFleet(Document document, String key, List<Game.Ship> ships) {
+        if (ships != null) {
+            document.put(key, new Binary(FleetCodec.encode(ships)));
+        }
+    }
+
+    private static void putMask(Document document, String key, long[] mask) {
+        if (mask != null) {
+            document.put(key, new Binary(BitmaskCodec.encode(mask)));
+        }
+    }
+}
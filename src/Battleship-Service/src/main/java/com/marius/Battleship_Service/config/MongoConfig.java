@@ -0,0 +1,19 @@
+package com.marius.Battleship_Service.config;
+
+import com.marius.Battleship_Service.codec.GameReadConverter;
+import com.marius.Battleship_Service.codec.GameWriteConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.List;
+
+@Configuration
+public class MongoConfig {
+
+    // Store games in the compact fleet/bitmask layout instead of per-cell subdocuments
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(new GameWriteConverter(), new GameReadConverter()));
+    }
+}
@@ -1,23 +1,33 @@
 package com.marius.Battleship_Service.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import com.marius.Battleship_Service.websockets.CompressionHandshakeHandler;
 import com.marius.Battleship_Service.websockets.GameWebSocketHandler;
+import com.marius.Battleship_Service.websockets.MessageCompressor;
 
 @Configuration
 @EnableWebSocket
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final GameWebSocketHandler gameWebSocketHandler;
+    private final MessageCompressor messageCompressor;
+    private final boolean allowPermessageDeflate;
 
-    public WebSocketConfig(GameWebSocketHandler gameWebSocketHandler) {
+    public WebSocketConfig(GameWebSocketHandler gameWebSocketHandler, MessageCompressor messageCompressor,
+            @Value("${battleship.websocket.compression.permessage-deflate:true}") boolean allowPermessageDeflate) {
         this.gameWebSocketHandler = gameWebSocketHandler;
+        this.messageCompressor = messageCompressor;
+        this.allowPermessageDeflate = allowPermessageDeflate;
     }
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
-        registry.addHandler(gameWebSocketHandler, "/ws/game").setAllowedOrigins("*");
+        // Compression is negotiated in the handshake: see CompressionHandshakeHandler
+        registry.addHandler(gameWebSocketHandler, "/ws/game").setAllowedOrigins("*")
+                .setHandshakeHandler(new CompressionHandshakeHandler(messageCompressor, allowPermessageDeflate));
     }
 }
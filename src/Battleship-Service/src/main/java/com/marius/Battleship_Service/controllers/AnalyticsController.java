@@ -0,0 +1,31 @@
+package com.marius.Battleship_Service.controllers;
+
+import com.marius.Battleship_Service.analytics.ShotHeatmaps;
+import com.marius.Battleship_Service.models.Game;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/analytics")
+public class AnalyticsController {
+
+    @Autowired
+    private ShotHeatmaps shotHeatmaps;
+
+    // Shots, hits and ship cells per board cell for one board size, across all nodes
+    @GetMapping("/heatmaps")
+    public ResponseEntity<Map<String, Object>> heatmaps(
+            @RequestParam(name = "grid_size", defaultValue = "" + Game.DEFAULT_GRID_SIZE) int gridSize) {
+        try {
+            return ResponseEntity.ok(shotHeatmaps.heatmap(gridSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.marius.Battleship_Service.controllers;
+
+import com.marius.Battleship_Service.archive.GameArchive;
+import com.marius.Battleship_Service.models.Bitboard;
+import com.marius.Battleship_Service.models.Game;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/archive")
+public class ArchiveController {
+
+    private static final int MAX_HISTORY = 100;
+
+    @Autowired
+    private GameArchive gameArchive;
+
+    // Everything needed to replay an archived game: both fleets and every shot on each board
+    @GetMapping("/games/{gameId}")
+    public ResponseEntity<Map<String, Object>> replay(@PathVariable String gameId) {
+        return gameArchive.find(gameId)
+                .map(game -> {
+                    Map<String, Object> replay = summary(game);
+                    replay.put("fleet", game.getFleet());
+                    replay.put("player1_grid", game.getPlayer1Grid() != null ? game.getPlayer1Grid() : List.of());
+                    replay.put("player2_grid", game.getPlayer2Grid() != null ? game.getPlayer2Grid() : List.of());
+                    replay.put("player1_hits", Bitboard.cells(game.getPlayer1Hits()));
+                    replay.put("player1_misses", Bitboard.cells(game.getPlayer1Misses()));
+                    replay.put("player2_hits", Bitboard.cells(game.getPlayer2Hits()));
+                    replay.put("player2_misses", Bitboard.cells(game.getPlayer2Misses()));
+                    return ResponseEntity.ok(replay);
+                })
+                .orElseGet(() -> ResponseEntity.status(404).body(Map.of("error", "Game not found in the archive")));
+    }
+
+    // A player's archived games, most recently finished first
+    @GetMapping("/players/{playerId}/games")
+    public ResponseEntity<Map<String, Object>> history(@PathVariable String playerId,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_HISTORY) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must be between 1 and " + MAX_HISTORY));
+        }
+        List<Map<String, Object>> games = gameArchive.history(playerId, limit).stream()
+                .map(ArchiveController::summary)
+                .toList();
+        return ResponseEntity.ok(Map.of("player_id", playerId, "games", games));
+    }
+
+    private static Map<String, Object> summary(Game game) {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("game_id", game.getId());
+        summary.put("status", game.getStatus());
+        summary.put("grid_size", game.getGridSize());
+        if (game.getPlayer1Id() != null) {
+            summary.put("player1_id", game.getPlayer1Id());
+        }
+        if (game.getPlayer2Id() != null) {
+            summary.put("player2_id", game.getPlayer2Id());
+        }
+        if (game.getWinnerId() != null) {
+            summary.put("winner_id", game.getWinnerId());
+        }
+        if (game.getStartedAt() != null) {
+            summary.put("started_at", game.getStartedAt().toString());
+        }
+        if (game.getFinishedAt() != null) {
+            summary.put("finished_at", game.getFinishedAt().toString());
+        }
+        return summary;
+    }
+}
@@ -4,18 +4,25 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.marius.Battleship_Service.models.Game;
 import com.marius.Battleship_Service.services.GameService;
 
 @RestController
 public class BattleshipController {
 
+    private static final Logger log = LoggerFactory.getLogger(BattleshipController.class);
+
     @Autowired
     private GameService gameService;
 
@@ -45,17 +52,24 @@ public class BattleshipController {
     }
 
     @PostMapping("/commit")
-    public ResponseEntity<Map<String, String>> commit(@RequestBody Map<String, String> request) {
+    public ResponseEntity<Map<String, Object>> commit(@RequestBody Map<String, String> request) {
         String transactionId = request.get("transactionId");
         String gameId = request.get("gameId");
+        String username = request.get("username");
 
         if (transactionId == null || gameId == null) {
             return ResponseEntity.badRequest().body(Map.of("status", "fail", "reason", "Missing required fields"));
         }
 
-        boolean committed = gameService.commitGame(gameId);
-        if (committed) {
-            return ResponseEntity.ok(Map.of("status", "committed"));
+        Optional<Game> committed = gameService.commitGame(gameId);
+        if (committed.isPresent()) {
+            // The settled game's summary travels on to the Profile-Service commit for match history
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "committed");
+            if (username != null) {
+                response.put("match", gameService.matchSummary(committed.get(), username));
+            }
+            return ResponseEntity.ok(response);
         }
 
         return ResponseEntity.badRequest().body(Map.of("status", "fail", "reason", "Commit failed"));
@@ -67,7 +81,7 @@ public class BattleshipController {
         String gameId = request.get("gameId");
 
         if (transactionId == null || gameId == null) {
-            System.out.println("Missing fields");
+            log.warn("Rollback request without a transaction or game id");
             return ResponseEntity.badRequest().body(Map.of("status", "fail", "reason", "Missing required fields"));
         }
 
@@ -1,8 +1,10 @@
 package com.marius.Battleship_Service.controllers;
 
+import com.marius.Battleship_Service.capacity.CapacityMonitor;
 import com.marius.Battleship_Service.models.Game;
 import com.marius.Battleship_Service.services.GameService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,20 +17,35 @@ public class GameController {
     @Autowired
     private GameService gameService;
 
+    @Autowired
+    private CapacityMonitor capacityMonitor;
+
     @PostMapping("/create")
     public ResponseEntity<Map<String, Object>> createGame(@RequestHeader("Authorization") String authHeader,
-            @RequestBody Map<String, String> request) {
+            @RequestBody Map<String, Object> request) {
         String token = authHeader.replace("Bearer ", "");
-        String playerId = request.get("player_id");
+        String playerId = (String) request.get("player_id");
 
         // Verify token and extract user ID logic (omitted)
 
-        Game game = gameService.createGame(playerId);
+        // Refused as the WebSocket create is: running games carry on, a full node takes no new ones
+        if (!capacityMonitor.admitsNewGames()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(capacityMonitor.refusal("game"));
+        }
+
+        Game game;
+        try {
+            int gridSize = request.get("grid_size") instanceof Number size ? size.intValue() : Game.DEFAULT_GRID_SIZE;
+            game = gameService.createGame(playerId, gridSize, gameService.parseFleet(request.get("fleet")));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
 
         return ResponseEntity.ok(Map.of(
                 "game_id", game.getId(),
                 "player_grid", game.getPlayer1Grid(),
-                "grid_size", 10,
+                "grid_size", game.getGridSize(),
+                "fleet", game.getFleet(),
                 "status", game.getStatus()));
     }
 
@@ -46,7 +63,7 @@ public class GameController {
         return ResponseEntity.ok(Map.of(
                 "game_id", game.getId(),
                 "player_grid", game.getPlayer2Grid(),
-                "grid_size", 10,
+                "grid_size", game.getGridSize(),
                 "status", game.getStatus()));
     }
 
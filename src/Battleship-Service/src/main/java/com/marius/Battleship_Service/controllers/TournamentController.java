@@ -0,0 +1,102 @@
+package com.marius.Battleship_Service.controllers;
+
+import com.marius.Battleship_Service.capacity.CapacityMonitor;
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.models.Tournament;
+import com.marius.Battleship_Service.models.TournamentMatch;
+import com.marius.Battleship_Service.services.GameService;
+import com.marius.Battleship_Service.tournament.TournamentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/tournaments")
+public class TournamentController {
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private CapacityMonitor capacityMonitor;
+
+    // Accepted straight away; the first round's games are provisioned in the background and
+    // players are notified over the WebSocket once theirs is ready
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> createTournament(@RequestBody Map<String, Object> request) {
+        // A tournament is a burst of new games, so it is refused while the node is full
+        if (!capacityMonitor.admitsNewGames()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(capacityMonitor.refusal("tournament"));
+        }
+        Tournament tournament;
+        try {
+            if (!(request.get("players") instanceof List<?> players)
+                    || !players.stream().allMatch(player -> player instanceof String)) {
+                throw new IllegalArgumentException("players must be a list of player ids");
+            }
+            Tournament.Format format = request.get("format") instanceof String name
+                    ? Tournament.Format.valueOf(name.toUpperCase(Locale.ROOT))
+                    : Tournament.Format.ELIMINATION;
+            int gridSize = request.get("grid_size") instanceof Number size ? size.intValue() : Game.DEFAULT_GRID_SIZE;
+            Integer rounds = request.get("rounds") instanceof Number number ? number.intValue() : null;
+            tournament = tournamentService.create((String) request.get("name"), format,
+                    players.stream().map(String.class::cast).toList(), gridSize,
+                    gameService.parseFleet(request.get("fleet")), rounds);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                "tournament_id", tournament.getId(),
+                "format", tournament.getFormat(),
+                "rounds", tournament.getRounds(),
+                "status", tournament.getStatus()));
+    }
+
+    // The tournament and the pairings of its current round
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> getTournament(@PathVariable String id) {
+        Tournament tournament = tournamentService.getTournament(id).orElse(null);
+        if (tournament == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Tournament not found"));
+        }
+
+        List<Map<String, Object>> matches = new ArrayList<>();
+        for (TournamentMatch match : tournamentService.getRound(id, tournament.getRound())) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("player1_id", match.getPlayer1Id());
+            if (match.getGameId() != null) {
+                entry.put("game_id", match.getGameId());
+                entry.put("player2_id", match.getPlayer2Id());
+            }
+            if (match.getWinnerId() != null) {
+                entry.put("winner_id", match.getWinnerId());
+            }
+            matches.add(entry);
+        }
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("tournament_id", tournament.getId());
+        body.put("name", tournament.getName());
+        body.put("format", tournament.getFormat());
+        body.put("status", tournament.getStatus());
+        body.put("round", tournament.getRound());
+        body.put("rounds", tournament.getRounds());
+        body.put("pending", tournament.getPending());
+        body.put("matches", matches);
+        if (tournament.getWinnerId() != null) {
+            body.put("winner_id", tournament.getWinnerId());
+        }
+        return ResponseEntity.ok(body);
+    }
+}
@@ -0,0 +1,80 @@
+package com.marius.Battleship_Service.grpc;
+
+import java.util.function.Consumer;
+
+/**
+ * gRPC length-prefixed message framing: each message on the stream is
+ * {@code [compressed flag: 1 byte][length: 4 bytes big-endian][message]}.
+ * The decoder takes the request body in whatever pieces it arrives and hands
+ * on each whole message. Compression is not advertised, so a compressed
+ * message is a protocol error.
+ */
+final class FrameDecoder {
+
+    static final int HEADER_BYTES = 5;
+
+    private final int maxMessageBytes;
+    private final byte[] header = new byte[HEADER_BYTES];
+    private int headerRead;
+    private byte[] message;
+    private int messageRead;
+
+    FrameDecoder(int maxMessageBytes) {
+        this.maxMessageBytes = maxMessageBytes;
+    }
+
+    static byte[] frame(byte[] message) {
+        byte[] frame = new byte[HEADER_BYTES + message.length];
+        frame[1] = (byte) (message.length >>> 24);
+        frame[2] = (byte) (message.length >>> 16);
+        frame[3] = (byte) (message.length >>> 8);
+        frame[4] = (byte) message.length;
+        System.arraycopy(message, 0, frame, HEADER_BYTES, message.length);
+        return frame;
+    }
+
+    void feed(byte[] data, int offset, int length, Consumer<byte[]> messages) {
+        int end = offset + length;
+        while (offset < end) {
+            if (message == null) {
+                int take = Math.min(HEADER_BYTES - headerRead, end - offset);
+                System.arraycopy(data, offset, header, headerRead, take);
+                headerRead += take;
+                offset += take;
+                if (headerRead < HEADER_BYTES) {
+                    return;
+                }
+                message = new byte[messageLength()];
+                messageRead = 0;
+                headerRead = 0;
+            }
+            int take = Math.min(message.length - messageRead, end - offset);
+            System.arraycopy(data, offset, message, messageRead, take);
+            messageRead += take;
+            offset += take;
+            if (messageRead == message.length) {
+                byte[] complete = message;
+                message = null;
+                messages.accept(complete);
+            }
+        }
+    }
+
+    // False if the body stopped part way through a message
+    boolean atMessageBoundary() {
+        return headerRead == 0 && message == null;
+    }
+
+    private int messageLength() {
+        if (header[0] != 0) {
+            throw new GrpcStatus.Failure(GrpcStatus.INTERNAL, "Compressed messages are not supported");
+        }
+        long length = (header[1] & 0xFFL) << 24 | (header[2] & 0xFF) << 16 | (header[3] & 0xFF) << 8
+                | header[4] & 0xFF;
+        if (length > maxMessageBytes) {
+            throw new GrpcStatus.Failure(GrpcStatus.RESOURCE_EXHAUSTED,
+                    "Message of " + length + " bytes is over the limit of " + maxMessageBytes);
+        }
+        return (int) length;
+    }
+}
@@ -0,0 +1,184 @@
+package com.marius.Battleship_Service.grpc;
+
+import com.marius.commons.observability.TraceContext;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Translates between the messages of game.proto and the JSON frames the game
+ * handler speaks: a PlayerAction becomes the WebSocket action of the same
+ * meaning, and each outgoing frame becomes a GameEvent. Field numbers are
+ * those of src/main/proto/game.proto.
+ */
+public final class GameMessages {
+
+    private GameMessages() {
+    }
+
+    // The handler request for an encoded PlayerAction; one without an action is passed on
+    // without one, so the handler refuses it as it would a WebSocket frame
+    public static JSONObject toRequest(byte[] action) {
+        JSONObject request = new JSONObject();
+        ProtoReader reader = new ProtoReader(action);
+        for (int field; (field = reader.next()) != -1;) {
+            switch (field) {
+                case 1 -> request.put("seq", reader.uint());
+                case 2 -> request.put(TraceContext.HEADER, reader.string());
+                case 10 -> createGame(request, reader.message());
+                case 11 -> playerAndGame(request.put("action", "joinGame"), reader.message());
+                case 12 -> attack(request, reader.message());
+                case 13 -> playerAndGame(request.put("action", "leaveGame"), reader.message());
+                case 14 -> playerAndGame(request.put("action", "playBot"), reader.message());
+                default -> reader.skip();
+            }
+        }
+        return request;
+    }
+
+    private static void createGame(JSONObject request, ProtoReader message) {
+        request.put("action", "createGame");
+        JSONArray fleet = new JSONArray();
+        for (int field; (field = message.next()) != -1;) {
+            switch (field) {
+                case 1 -> request.put("player_id", message.string());
+                case 2 -> request.put("grid_size", message.uint());
+                case 3 -> fleet.put(shipType(message.message()));
+                default -> message.skip();
+            }
+        }
+        if (!fleet.isEmpty()) {
+            request.put("fleet", fleet);
+        }
+    }
+
+    private static void attack(JSONObject request, ProtoReader message) {
+        request.put("action", "attack");
+        for (int field; (field = message.next()) != -1;) {
+            switch (field) {
+                case 1 -> request.put("attacker_id", message.string());
+                case 2 -> request.put("game_id", message.string());
+                case 3 -> request.put("coordinates", coordinates(message.message()));
+                default -> message.skip();
+            }
+        }
+        if (!request.has("coordinates")) {
+            throw new IllegalArgumentException("Attack needs coordinates");
+        }
+    }
+
+    private static void playerAndGame(JSONObject request, ProtoReader message) {
+        for (int field; (field = message.next()) != -1;) {
+            switch (field) {
+                case 1 -> request.put("player_id", message.string());
+                case 2 -> request.put("game_id", message.string());
+                default -> message.skip();
+            }
+        }
+    }
+
+    private static JSONObject coordinates(ProtoReader message) {
+        JSONObject coordinates = new JSONObject().put("x", 0).put("y", 0);
+        for (int field; (field = message.next()) != -1;) {
+            switch (field) {
+                case 1 -> coordinates.put("x", message.uint());
+                case 2 -> coordinates.put("y", message.uint());
+                default -> message.skip();
+            }
+        }
+        return coordinates;
+    }
+
+    private static JSONObject shipType(ProtoReader message) {
+        JSONObject ship = new JSONObject().put("size", 0);
+        for (int field; (field = message.next()) != -1;) {
+            switch (field) {
+                case 1 -> ship.put("name", message.string());
+                case 2 -> ship.put("size", message.uint());
+                default -> message.skip();
+            }
+        }
+        return ship;
+    }
+
+    // The encoded GameEvent for a JSON frame. Fields of an unexpected type, like any field
+    // game.proto does not name, go into details rather than being dropped.
+    public static byte[] toEvent(String frame) {
+        JSONObject json = new JSONObject(frame);
+        ProtoWriter event = new ProtoWriter();
+        for (String key : json.keySet()) {
+            Object value = json.get(key);
+            boolean written = switch (key) {
+                case "seq" -> value instanceof Number n && uint(event, 1, n);
+                case "event" -> string(event, 2, value);
+                case "status" -> string(event, 3, value);
+                case "message" -> string(event, 4, value);
+                case "error" -> string(event, 5, value);
+                case "game_id" -> string(event, 6, value);
+                case "player_id" -> string(event, 7, value);
+                case "attacker_id" -> string(event, 8, value);
+                case "coordinates" -> value instanceof JSONObject c && message(event, 9, coordinates(c));
+                case "result" -> string(event, 10, value);
+                case "sunk_ship" -> string(event, 11, value);
+                case "winner_id" -> string(event, 12, value);
+                case "next_turn" -> string(event, 13, value);
+                case "grid_size" -> value instanceof Number n && uint(event, 14, n);
+                case "player_grid" -> value instanceof JSONArray ships && ships(event, 15, ships);
+                case "fleet" -> value instanceof JSONArray ships && fleet(event, 16, ships);
+                case "opponent_id" -> string(event, 17, value);
+                default -> false;
+            };
+            if (!written) {
+                String text = value instanceof String s ? s : JSONObject.valueToString(value);
+                event.message(18, new ProtoWriter().string(1, key).string(2, text));
+            }
+        }
+        return event.toByteArray();
+    }
+
+    private static boolean string(ProtoWriter event, int field, Object value) {
+        if (!(value instanceof String s)) {
+            return false;
+        }
+        event.string(field, s);
+        return true;
+    }
+
+    private static boolean uint(ProtoWriter event, int field, Number value) {
+        if (value.longValue() < 0) {
+            return false;
+        }
+        event.uint(field, value.longValue());
+        return true;
+    }
+
+    private static boolean message(ProtoWriter event, int field, ProtoWriter message) {
+        event.message(field, message);
+        return true;
+    }
+
+    private static ProtoWriter coordinates(JSONObject coordinates) {
+        return new ProtoWriter().uint(1, coordinates.optInt("x")).uint(2, coordinates.optInt("y"));
+    }
+
+    private static boolean ships(ProtoWriter event, int field, JSONArray ships) {
+        for (int i = 0; i < ships.length(); i++) {
+            JSONObject ship = ships.getJSONObject(i);
+            event.message(field, new ProtoWriter()
+                    .uint(1, ship.optInt("x"))
+                    .uint(2, ship.optInt("y"))
+                    .string(3, ship.optString("ship", null))
+                    .string(4, ship.optString("orientation", null)));
+        }
+        return true;
+    }
+
+    private static boolean fleet(ProtoWriter event, int field, JSONArray ships) {
+        for (int i = 0; i < ships.length(); i++) {
+            JSONObject ship = ships.getJSONObject(i);
+            event.message(field, new ProtoWriter()
+                    .string(1, ship.optString("name", null))
+                    .uint(2, ship.optInt("size")));
+        }
+        return true;
+    }
+}
@@ -0,0 +1,57 @@
+package com.marius.Battleship_Service.grpc;
+
+import com.marius.Battleship_Service.websockets.GameWebSocketHandler;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// The gRPC game API, off unless battleship.grpc.enabled=true, on its own HTTP/2 port
+@Configuration
+@ConditionalOnProperty(name = "battleship.grpc.enabled", havingValue = "true")
+public class GrpcConfig {
+
+    @Bean
+    public ServletRegistrationBean<GrpcGameServlet> grpcGameServlet(GameWebSocketHandler gameWebSocketHandler,
+            @Value("${battleship.grpc.max-message-bytes:65536}") int maxMessageBytes) {
+        ServletRegistrationBean<GrpcGameServlet> registration = new ServletRegistrationBean<>(
+                new GrpcGameServlet(gameWebSocketHandler, maxMessageBytes), GrpcGameServlet.PLAY_PATH);
+        registration.setAsyncSupported(true);
+        return registration;
+    }
+
+    // A gateway channel multiplexes many players' calls on one connection, each sending small
+    // messages now and then; Tomcat's defaults cap streams at 100 per connection, count runs of
+    // small DATA frames as abuse and reset a stream after 20s without one. Those limits are
+    // relaxed on a connector of its own, so the server port keeps Tomcat's defaults, and a
+    // stream is still reset once it has been silent longer than any turn can last. Event
+    // writes time out like WebSocket sends.
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> grpcConnectorCustomizer(
+            @Value("${battleship.grpc.port:50051}") int port,
+            @Value("${battleship.grpc.max-concurrent-streams:1000}") long maxConcurrentStreams,
+            @Value("${battleship.grpc.overhead-data-threshold:0}") int overheadDataThreshold,
+            @Value("${battleship.grpc.stream-read-timeout-ms:300000}") long streamReadTimeoutMillis,
+            @Value("${battleship.outbound.send-timeout-ms:5000}") long sendTimeoutMillis) {
+        return factory -> {
+            Http2Protocol http2 = new Http2Protocol();
+            http2.setMaxConcurrentStreams(maxConcurrentStreams);
+            http2.setOverheadDataThreshold(overheadDataThreshold);
+            http2.setOverheadWindowUpdateThreshold(overheadDataThreshold);
+            http2.setStreamReadTimeout(streamReadTimeoutMillis);
+            if (sendTimeoutMillis > 0) {
+                http2.setStreamWriteTimeout(sendTimeoutMillis);
+            }
+            // Clear-text HTTP/2 with prior knowledge, as gRPC clients use without TLS
+            Connector connector = new Connector(TomcatServletWebServerFactory.DEFAULT_PROTOCOL);
+            connector.setPort(port);
+            connector.addUpgradeProtocol(http2);
+            factory.addAdditionalTomcatConnectors(connector);
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package com.marius.Battleship_Service.grpc;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.WebSocketHandler;
+
+import java.io.IOException;
+
+/**
+ * Serves the Game service of game.proto: the gRPC protocol over the HTTP/2
+ * connector {@link GrpcConfig} adds (one Play call is one HTTP/2 stream,
+ * POSTed to {@value #PLAY_PATH}). Each call becomes a {@link GrpcPlayerStream}
+ * driven by the same handler as the WebSocket endpoint.
+ */
+public class GrpcGameServlet extends HttpServlet {
+
+    public static final String PLAY_PATH = "/battleship.Game/Play";
+
+    private static final Logger log = LoggerFactory.getLogger(GrpcGameServlet.class);
+
+    private final transient WebSocketHandler handler;
+    private final int maxMessageBytes;
+
+    public GrpcGameServlet(WebSocketHandler handler, int maxMessageBytes) {
+        this.handler = handler;
+        this.maxMessageBytes = maxMessageBytes;
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Plain HTTP/1.1 cannot carry a bidirectional stream, and other content types are not gRPC
+        if (!"HTTP/2.0".equals(request.getProtocol())) {
+            response.sendError(HttpServletResponse.SC_HTTP_VERSION_NOT_SUPPORTED);
+            return;
+        }
+        String contentType = request.getContentType();
+        if (contentType == null || !(contentType.equals("application/grpc")
+                || contentType.startsWith("application/grpc+proto") || contentType.startsWith("application/grpc;"))) {
+            response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("application/grpc");
+        response.setHeader("grpc-accept-encoding", "identity");
+
+        // Only identity is offered, so a compressed request stream is refused outright
+        String encoding = request.getHeader("grpc-encoding");
+        if (encoding != null && !encoding.equals("identity")) {
+            response.setHeader("grpc-status", String.valueOf(GrpcStatus.UNIMPLEMENTED.code));
+            response.setHeader("grpc-message",
+                    GrpcPlayerStream.percentEncode("Message encoding " + encoding + " is not supported"));
+            return;
+        }
+
+        AsyncContext async = request.startAsync();
+        async.setTimeout(0); // a player's call lasts as long as they play
+        GrpcPlayerStream stream = new GrpcPlayerStream(handler, request, async, maxMessageBytes);
+        response.setTrailerFields(stream::trailers);
+        response.flushBuffer(); // headers go out now, before the first event
+        try {
+            stream.start();
+        } catch (Exception e) {
+            log.warn("Could not open gRPC stream {}", stream.getId(), e);
+            stream.finish(GrpcStatus.INTERNAL, "Could not open stream");
+        }
+    }
+}
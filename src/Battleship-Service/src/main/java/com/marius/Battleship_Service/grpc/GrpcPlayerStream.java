@@ -0,0 +1,312 @@
+package com.marius.Battleship_Service.grpc;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One Play call, presented to the game handler as a WebSocket session. Each
+ * PlayerAction is handed to the handler as the equivalent JSON action, and
+ * every frame the handler sends (through the session's outbound queue, on a
+ * writer thread) is written back as a GameEvent. A gRPC player therefore goes
+ * through the same flows as a WebSocket one, with the same rate limits, retry
+ * window, turn clock and reconnect grace period, and the two kinds of player
+ * can play each other.
+ *
+ * Requests are read with a non-blocking ReadListener, so an idle stream holds
+ * no container thread; events are written with blocking writes, one frame at
+ * a time.
+ */
+class GrpcPlayerStream implements WebSocketSession, ReadListener, AsyncListener {
+
+    private static final Logger log = LoggerFactory.getLogger(GrpcPlayerStream.class);
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private final String id = "grpc-" + IDS.incrementAndGet();
+    private final WebSocketHandler handler;
+    private final AsyncContext async;
+    private final ServletInputStream in;
+    private final ServletOutputStream out;
+    private final FrameDecoder decoder;
+    private final int maxMessageBytes;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final HttpHeaders headers = new HttpHeaders();
+    private final URI uri;
+    private final Principal principal;
+    private final InetSocketAddress localAddress;
+    private final InetSocketAddress remoteAddress;
+    private final byte[] buffer = new byte[8192];
+
+    // Writes hold the lock, so a call is never completed part way through a frame; reads of
+    // open do not, so a slow client holds up only the writer thread sending to it
+    private final Object writeLock = new Object();
+    private final AtomicBoolean open = new AtomicBoolean(true);
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile CloseStatus closeStatus = CloseStatus.NORMAL;
+    private volatile Map<String, String> trailers = Map.of("grpc-status", "0");
+
+    GrpcPlayerStream(WebSocketHandler handler, HttpServletRequest request, AsyncContext async,
+            int maxMessageBytes) throws IOException {
+        this.handler = handler;
+        this.async = async;
+        this.in = request.getInputStream();
+        this.out = async.getResponse().getOutputStream();
+        this.decoder = new FrameDecoder(maxMessageBytes);
+        this.maxMessageBytes = maxMessageBytes;
+
+        // Copied now: the request is recycled once the call completes, and metadata such as
+        // traceparent is read from these as from a WebSocket handshake
+        for (String name : Collections.list(request.getHeaderNames())) {
+            headers.put(name, Collections.list(request.getHeaders(name)));
+        }
+        this.uri = URI.create(request.getRequestURL().toString());
+        this.principal = request.getUserPrincipal();
+        this.localAddress = new InetSocketAddress(request.getLocalAddr(), request.getLocalPort());
+        this.remoteAddress = new InetSocketAddress(request.getRemoteAddr(), request.getRemotePort());
+    }
+
+    Map<String, String> trailers() {
+        return trailers;
+    }
+
+    void start() throws Exception {
+        async.addListener(this);
+        handler.afterConnectionEstablished(this);
+        in.setReadListener(this);
+    }
+
+    @Override
+    public void onDataAvailable() {
+        try {
+            while (isOpen() && in.isReady()) {
+                int read = in.read(buffer);
+                if (read < 0) {
+                    return;
+                }
+                decoder.feed(buffer, 0, read, this::received);
+            }
+        } catch (GrpcStatus.Failure e) {
+            finish(e.status, e.getMessage());
+        } catch (IOException e) {
+            finish(GrpcStatus.CANCELLED, null);
+        } catch (RuntimeException e) {
+            // Anything else thrown while taking the stream apart is the client's bytes, not our fault
+            log.debug("Malformed request on gRPC stream {}", id, e);
+            finish(GrpcStatus.INVALID_ARGUMENT, "Malformed request stream");
+        }
+    }
+
+    // The client half-closed its side. Events keep coming until the call is cancelled.
+    @Override
+    public void onAllDataRead() {
+        if (!decoder.atMessageBoundary()) {
+            finish(GrpcStatus.INTERNAL, "Request stream ended part way through a message");
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        log.debug("gRPC stream {} ended: {}", id, t.getMessage());
+        finish(GrpcStatus.CANCELLED, null);
+    }
+
+    private void received(byte[] action) {
+        TextMessage request;
+        try {
+            request = new TextMessage(GameMessages.toRequest(action).toString());
+        } catch (RuntimeException e) {
+            // Whatever the decoder trips over, a PlayerAction it cannot read is the client's error
+            throw new GrpcStatus.Failure(GrpcStatus.INVALID_ARGUMENT, "Malformed PlayerAction: " + e.getMessage());
+        }
+        try {
+            handler.handleMessage(this, request);
+        } catch (IllegalArgumentException e) {
+            // Refusals the handler does not answer with an error frame end the call, as they close a WebSocket
+            throw new GrpcStatus.Failure(GrpcStatus.INVALID_ARGUMENT, e.getMessage());
+        } catch (Exception e) {
+            log.warn("Action on gRPC stream {} failed", id, e);
+            throw new GrpcStatus.Failure(GrpcStatus.INTERNAL, "Internal error");
+        }
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (!(message instanceof TextMessage text)) {
+            throw new IllegalArgumentException("Only text frames can be sent as game events");
+        }
+        byte[] frame = FrameDecoder.frame(GameMessages.toEvent(text.getPayload()));
+        synchronized (writeLock) {
+            if (!open.get()) {
+                throw new IOException("gRPC stream " + id + " is closed");
+            }
+            try {
+                out.write(frame);
+                out.flush();
+            } catch (IOException e) {
+                finish(GrpcStatus.CANCELLED, null);
+                throw e;
+            }
+        }
+    }
+
+    // Ends the call with the status as its trailers, once
+    void finish(GrpcStatus status, String message) {
+        if (!open.compareAndSet(true, false)) {
+            return;
+        }
+        closeStatus = status == GrpcStatus.OK ? CloseStatus.NORMAL
+                : status == GrpcStatus.CANCELLED ? CloseStatus.GOING_AWAY : CloseStatus.SERVER_ERROR;
+        trailers = message == null ? Map.of("grpc-status", String.valueOf(status.code))
+                : Map.of("grpc-status", String.valueOf(status.code), "grpc-message", percentEncode(message));
+        synchronized (writeLock) {
+            try {
+                async.complete();
+            } catch (IllegalStateException e) {
+                // Completed already, by the container after a reset
+            }
+        }
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        open.set(false);
+        if (closed.compareAndSet(false, true)) {
+            try {
+                handler.afterConnectionClosed(this, closeStatus);
+            } catch (Exception e) {
+                log.warn("Closing gRPC stream {} failed", id, e);
+            }
+        }
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        finish(GrpcStatus.UNAVAILABLE, "Stream timed out");
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        finish(GrpcStatus.CANCELLED, null);
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+
+    @Override
+    public void close() {
+        close(CloseStatus.NORMAL);
+    }
+
+    @Override
+    public void close(CloseStatus status) {
+        finish(GrpcStatus.of(status), status.getReason());
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open.get();
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public URI getUri() {
+        return uri;
+    }
+
+    @Override
+    public HttpHeaders getHandshakeHeaders() {
+        return headers;
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public Principal getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    // No subprotocol, so the outbound queue does not compress: events are already compact
+    @Override
+    public String getAcceptedProtocol() {
+        return null;
+    }
+
+    @Override
+    public void setTextMessageSizeLimit(int messageSizeLimit) {
+    }
+
+    @Override
+    public int getTextMessageSizeLimit() {
+        return maxMessageBytes;
+    }
+
+    @Override
+    public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+    }
+
+    @Override
+    public int getBinaryMessageSizeLimit() {
+        return maxMessageBytes;
+    }
+
+    @Override
+    public List<WebSocketExtension> getExtensions() {
+        return List.of();
+    }
+
+    // grpc-message is percent-encoded UTF-8, with printable ASCII other than '%' left as is
+    static String percentEncode(String message) {
+        StringBuilder encoded = new StringBuilder(message.length());
+        for (byte b : message.getBytes(StandardCharsets.UTF_8)) {
+            if (b >= ' ' && b < 0x7F && b != '%') {
+                encoded.append((char) b);
+            } else {
+                encoded.append('%').append(String.format("%02X", b & 0xFF));
+            }
+        }
+        return encoded.toString();
+    }
+}
@@ -0,0 +1,47 @@
+package com.marius.Battleship_Service.grpc;
+
+import org.springframework.web.socket.CloseStatus;
+
+// The gRPC status codes a Play call can end with, sent as the grpc-status trailer
+enum GrpcStatus {
+
+    OK(0),
+    CANCELLED(1),
+    UNKNOWN(2),
+    INVALID_ARGUMENT(3),
+    RESOURCE_EXHAUSTED(8),
+    UNIMPLEMENTED(12),
+    INTERNAL(13),
+    UNAVAILABLE(14);
+
+    final int code;
+
+    GrpcStatus(int code) {
+        this.code = code;
+    }
+
+    // The status for a close the handler or outbound queue asked for, as they would close a WebSocket
+    static GrpcStatus of(CloseStatus status) {
+        if (status.equalsCode(CloseStatus.NORMAL)) {
+            return OK;
+        } else if (status.equalsCode(CloseStatus.POLICY_VIOLATION)) {
+            return RESOURCE_EXHAUSTED;
+        } else if (status.equalsCode(CloseStatus.GOING_AWAY) || status.equalsCode(CloseStatus.SERVICE_RESTARTED)) {
+            return UNAVAILABLE;
+        } else if (status.equalsCode(CloseStatus.SERVER_ERROR)) {
+            return INTERNAL;
+        }
+        return UNKNOWN;
+    }
+
+    // A call ended early with this status
+    static final class Failure extends RuntimeException {
+
+        final GrpcStatus status;
+
+        Failure(GrpcStatus status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.marius.Battleship_Service.grpc;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads protobuf wire format field by field. Fields of other wire types,
+ * including fixed-width ones from newer message versions, are skipped.
+ * Malformed input raises {@link IllegalArgumentException}.
+ */
+final class ProtoReader {
+
+    private final byte[] data;
+    private final int end;
+    private int position;
+    private int wireType;
+
+    ProtoReader(byte[] data) {
+        this(data, 0, data.length);
+    }
+
+    private ProtoReader(byte[] data, int offset, int end) {
+        this.data = data;
+        this.position = offset;
+        this.end = end;
+    }
+
+    // The next field's number, or -1 at the end of the message
+    int next() {
+        if (position >= end) {
+            return -1;
+        }
+        long tag = varint();
+        wireType = (int) (tag & 7);
+        int field = (int) (tag >>> 3);
+        if (field < 1 || tag >>> 3 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid field number");
+        }
+        return field;
+    }
+
+    long uint() {
+        expect(ProtoWriter.VARINT);
+        return varint();
+    }
+
+    String string() {
+        int length = length();
+        String value = new String(data, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    ProtoReader message() {
+        int length = length();
+        ProtoReader message = new ProtoReader(data, position, position + length);
+        position += length;
+        return message;
+    }
+
+    void skip() {
+        switch (wireType) {
+            case ProtoWriter.VARINT -> varint();
+            case ProtoWriter.LENGTH_DELIMITED -> position += length();
+            case 1 -> advance(Long.BYTES);
+            case 5 -> advance(Integer.BYTES);
+            default -> throw new IllegalArgumentException("Unsupported wire type " + wireType);
+        }
+    }
+
+    private int length() {
+        expect(ProtoWriter.LENGTH_DELIMITED);
+        long length = varint();
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid length " + length);
+        }
+        if (length > end - position) {
+            throw new IllegalArgumentException("Truncated message");
+        }
+        return (int) length;
+    }
+
+    private void advance(int bytes) {
+        if (bytes > end - position) {
+            throw new IllegalArgumentException("Truncated message");
+        }
+        position += bytes;
+    }
+
+    private void expect(int type) {
+        if (wireType != type) {
+            throw new IllegalArgumentException("Unexpected wire type " + wireType);
+        }
+    }
+
+    private long varint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position >= end) {
+                throw new IllegalArgumentException("Truncated varint");
+            }
+            byte b = data[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
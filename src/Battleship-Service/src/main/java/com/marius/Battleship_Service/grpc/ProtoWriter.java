@@ -0,0 +1,60 @@
+package com.marius.Battleship_Service.grpc;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes protobuf wire format: varints and length-delimited fields, the only
+ * two wire types game.proto uses. Fields holding their type's default are
+ * left out, as proto3 encoders do.
+ */
+final class ProtoWriter {
+
+    static final int VARINT = 0;
+    static final int LENGTH_DELIMITED = 2;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+
+    ProtoWriter uint(int field, long value) {
+        if (value != 0) {
+            tag(field, VARINT);
+            varint(value);
+        }
+        return this;
+    }
+
+    ProtoWriter string(int field, String value) {
+        if (value != null && !value.isEmpty()) {
+            bytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+        return this;
+    }
+
+    // Written even when empty: a present sub-message is not the same as an absent one
+    ProtoWriter message(int field, ProtoWriter message) {
+        return bytes(field, message.toByteArray());
+    }
+
+    ProtoWriter bytes(int field, byte[] value) {
+        tag(field, LENGTH_DELIMITED);
+        varint(value.length);
+        out.writeBytes(value);
+        return this;
+    }
+
+    byte[] toByteArray() {
+        return out.toByteArray();
+    }
+
+    private void tag(int field, int wireType) {
+        varint((long) field << 3 | wireType);
+    }
+
+    private void varint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,13 @@
+package com.marius.Battleship_Service.models;
+
+/**
+ * Outcome of a single shot. {@code sunkShip} and {@code sunkCells} are only
+ * set when the shot sank a ship; {@code winnerId} only when it ended the game.
+ */
+public record AttackResult(int x, int y, boolean hit, String sunkShip, int[] sunkCells, String winnerId,
+        String nextTurn) {
+
+    public boolean isGameOver() {
+        return winnerId != null;
+    }
+}
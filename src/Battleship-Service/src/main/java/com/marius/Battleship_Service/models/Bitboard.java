@@ -0,0 +1,49 @@
+package com.marius.Battleship_Service.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Static helpers for boards stored as {@code long[]} bitmasks, one bit per
+ * cell at index {@code y * gridSize + x}.
+ */
+public final class Bitboard {
+
+    private Bitboard() {
+    }
+
+    public static long[] create(int cells) {
+        return new long[(cells + Long.SIZE - 1) / Long.SIZE];
+    }
+
+    public static boolean get(long[] board, int cell) {
+        return (board[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    public static void set(long[] board, int cell) {
+        board[cell >>> 6] |= 1L << cell;
+    }
+
+    public static int count(long[] board) {
+        int count = 0;
+        for (long word : board) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // The indexes of the set cells, in order; an absent board has none
+    public static List<Integer> cells(long[] board) {
+        List<Integer> cells = new ArrayList<>();
+        if (board != null) {
+            for (int word = 0; word < board.length; word++) {
+                long bits = board[word];
+                while (bits != 0) {
+                    cells.add(word * Long.SIZE + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+        }
+        return cells;
+    }
+}
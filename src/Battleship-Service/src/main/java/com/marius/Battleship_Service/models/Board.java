@@ -0,0 +1,38 @@
+package com.marius.Battleship_Service.models;
+
+import java.util.List;
+
+/**
+ * Occupancy index over a fleet, used for O(1) hit tests. A board costs one
+ * bit per cell, so even a 100x100 grid fits in 157 longs.
+ */
+public final class Board {
+
+    private final int gridSize;
+    private final long[] occupied;
+
+    private Board(int gridSize, long[] occupied) {
+        this.gridSize = gridSize;
+        this.occupied = occupied;
+    }
+
+    public static Board of(List<Game.Ship> ships, int gridSize) {
+        long[] occupied = Bitboard.create(gridSize * gridSize);
+        for (Game.Ship ship : ships) {
+            Bitboard.set(occupied, ship.getY() * gridSize + ship.getX());
+        }
+        return new Board(gridSize, occupied);
+    }
+
+    public int gridSize() {
+        return gridSize;
+    }
+
+    public boolean isOccupied(int x, int y) {
+        return Bitboard.get(occupied, y * gridSize + x);
+    }
+
+    public int occupiedCells() {
+        return Bitboard.count(occupied);
+    }
+}
@@ -1,19 +1,56 @@
 package com.marius.Battleship_Service.models;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
 import java.util.List;
 
 @Document(collection = "games")
 public class Game {
 
+    public static final int DEFAULT_GRID_SIZE = 10;
+    public static final int MAX_GRID_SIZE = 100;
+
     @Id
     private String id;
+    @Version
+    private Long version; // bumped on every write; saves fail if it changed since the game was read
     private String player1Id;
     private String player2Id;
     private List<Ship> player1Grid;
     private List<Ship> player2Grid;
     private String status; // waiting_for_opponent, in_progress, finished
+    private int gridSize = DEFAULT_GRID_SIZE;
+    private List<ShipType> fleet = standardFleet();
+    private String currentTurn; // player whose shot is next
+    private String winnerId;
+    private Instant startedAt; // set when the second player joins
+    private Instant finishedAt; // set when the game is settled
+    private Instant updatedAt; // stamped on every write, the watermark the ETL extracts changes by
+
+    // Shots received on each board, one bit per cell (index = y * gridSize + x)
+    private long[] player1Hits;
+    private long[] player1Misses;
+    private long[] player2Hits;
+    private long[] player2Misses;
+
+    // Hit-test indexes, rebuilt from the grids when first needed
+    @Transient
+    private Board player1Board;
+    @Transient
+    private Board player2Board;
+
+    // The classic five-ship fleet
+    public static List<ShipType> standardFleet() {
+        return List.of(
+                new ShipType("Carrier", 5),
+                new ShipType("Battleship", 4),
+                new ShipType("Cruiser", 3),
+                new ShipType("Submarine", 2),
+                new ShipType("Destroyer", 1));
+    }
 
     // Getters and Setters for Game class
     public String getId() {
@@ -24,6 +61,14 @@ public class Game {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getPlayer1Id() {
         return player1Id;
     }
@@ -46,6 +91,7 @@ public class Game {
 
     public void setPlayer1Grid(List<Ship> player1Grid) {
         this.player1Grid = player1Grid;
+        this.player1Board = null;
     }
 
     public List<Ship> getPlayer2Grid() {
@@ -54,6 +100,21 @@ public class Game {
 
     public void setPlayer2Grid(List<Ship> player2Grid) {
         this.player2Grid = player2Grid;
+        this.player2Board = null;
+    }
+
+    public Board getPlayer1Board() {
+        if (player1Board == null && player1Grid != null) {
+            player1Board = Board.of(player1Grid, gridSize);
+        }
+        return player1Board;
+    }
+
+    public Board getPlayer2Board() {
+        if (player2Board == null && player2Grid != null) {
+            player2Board = Board.of(player2Grid, gridSize);
+        }
+        return player2Board;
     }
 
     public String getStatus() {
@@ -64,6 +125,104 @@ public class Game {
         this.status = status;
     }
 
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    public void setGridSize(int gridSize) {
+        this.gridSize = gridSize;
+        this.player1Board = null;
+        this.player2Board = null;
+    }
+
+    public List<ShipType> getFleet() {
+        return fleet;
+    }
+
+    public void setFleet(List<ShipType> fleet) {
+        this.fleet = fleet;
+    }
+
+    public int[] getFleetSizes() {
+        int[] sizes = new int[fleet.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = fleet.get(i).getSize();
+        }
+        return sizes;
+    }
+
+    public String getCurrentTurn() {
+        return currentTurn;
+    }
+
+    public void setCurrentTurn(String currentTurn) {
+        this.currentTurn = currentTurn;
+    }
+
+    public String getWinnerId() {
+        return winnerId;
+    }
+
+    public void setWinnerId(String winnerId) {
+        this.winnerId = winnerId;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public long[] getPlayer1Hits() {
+        return player1Hits;
+    }
+
+    public void setPlayer1Hits(long[] player1Hits) {
+        this.player1Hits = player1Hits;
+    }
+
+    public long[] getPlayer1Misses() {
+        return player1Misses;
+    }
+
+    public void setPlayer1Misses(long[] player1Misses) {
+        this.player1Misses = player1Misses;
+    }
+
+    public long[] getPlayer2Hits() {
+        return player2Hits;
+    }
+
+    public void setPlayer2Hits(long[] player2Hits) {
+        this.player2Hits = player2Hits;
+    }
+
+    public long[] getPlayer2Misses() {
+        return player2Misses;
+    }
+
+    public void setPlayer2Misses(long[] player2Misses) {
+        this.player2Misses = player2Misses;
+    }
+
     // Nested class for ship
     public static class Ship {
         private int x;
@@ -112,4 +271,31 @@ public class Game {
             this.orientation = orientation;
         }
     }
+
+    // Nested class for a ship in the fleet definition
+    public static class ShipType {
+        private String name;
+        private int size;
+
+        public ShipType(String name, int size) {
+            this.name = name;
+            this.size = size;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public void setSize(int size) {
+            this.size = size;
+        }
+    }
 }
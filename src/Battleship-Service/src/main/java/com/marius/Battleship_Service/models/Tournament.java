@@ -0,0 +1,137 @@
+package com.marius.Battleship_Service.models;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+// A tournament and the state of its current round. The pairings themselves are
+// TournamentMatch documents, one per game (or bye).
+@Document(collection = "tournaments")
+public class Tournament {
+
+    public enum Format {
+        ELIMINATION, // single elimination; winners advance until one is left
+        SWISS // a fixed number of rounds, each pairing players with equal scores
+    }
+
+    @Id
+    private String id;
+    private String name;
+    private Format format;
+    private List<String> players; // in seed order
+    private int gridSize = Game.DEFAULT_GRID_SIZE;
+    private List<Game.ShipType> fleet = Game.standardFleet();
+    private String status; // provisioning, in_progress, finished
+    private int round; // current round, from 1
+    private int rounds; // total rounds
+    private int pending; // games of the current round still being played
+    private String winnerId;
+    private Instant createdAt;
+    private Instant finishedAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public void setFormat(Format format) {
+        this.format = format;
+    }
+
+    public List<String> getPlayers() {
+        return players;
+    }
+
+    public void setPlayers(List<String> players) {
+        this.players = players;
+    }
+
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    public void setGridSize(int gridSize) {
+        this.gridSize = gridSize;
+    }
+
+    public List<Game.ShipType> getFleet() {
+        return fleet;
+    }
+
+    public void setFleet(List<Game.ShipType> fleet) {
+        this.fleet = fleet;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    public void setRound(int round) {
+        this.round = round;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    public void setRounds(int rounds) {
+        this.rounds = rounds;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public void setPending(int pending) {
+        this.pending = pending;
+    }
+
+    public String getWinnerId() {
+        return winnerId;
+    }
+
+    public void setWinnerId(String winnerId) {
+        this.winnerId = winnerId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
@@ -0,0 +1,102 @@
+package com.marius.Battleship_Service.models;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// One pairing in a tournament round. A bye has no second player and no game, and is won
+// by the first player from the start.
+@Document(collection = "tournament_matches")
+public class TournamentMatch {
+
+    @Id
+    private String id;
+    private String tournamentId;
+    private int round;
+    private int slot; // position in the round; keeps bracket order for the next round
+    private String gameId;
+    private String player1Id;
+    private String player2Id;
+    private String winnerId;
+
+    public TournamentMatch() {
+    }
+
+    public TournamentMatch(String tournamentId, int round, int slot, String gameId, String player1Id,
+            String player2Id) {
+        this.tournamentId = tournamentId;
+        this.round = round;
+        this.slot = slot;
+        this.gameId = gameId;
+        this.player1Id = player1Id;
+        this.player2Id = player2Id;
+        this.winnerId = player2Id == null ? player1Id : null;
+    }
+
+    public boolean isBye() {
+        return player2Id == null;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTournamentId() {
+        return tournamentId;
+    }
+
+    public void setTournamentId(String tournamentId) {
+        this.tournamentId = tournamentId;
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    public void setRound(int round) {
+        this.round = round;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(String gameId) {
+        this.gameId = gameId;
+    }
+
+    public String getPlayer1Id() {
+        return player1Id;
+    }
+
+    public void setPlayer1Id(String player1Id) {
+        this.player1Id = player1Id;
+    }
+
+    public String getPlayer2Id() {
+        return player2Id;
+    }
+
+    public void setPlayer2Id(String player2Id) {
+        this.player2Id = player2Id;
+    }
+
+    public String getWinnerId() {
+        return winnerId;
+    }
+
+    public void setWinnerId(String winnerId) {
+        this.winnerId = winnerId;
+    }
+}
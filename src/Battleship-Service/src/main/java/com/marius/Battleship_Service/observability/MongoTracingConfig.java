@@ -0,0 +1,52 @@
+package com.marius.Battleship_Service.observability;
+
+import com.marius.commons.observability.Span;
+import com.marius.commons.observability.Tracer;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The tracing shared with the other services is in Service-Commons; MongoDB is this service's own
+@Configuration
+public class MongoTracingConfig {
+
+    // A span for every MongoDB command, so template calls are traced as well as repositories
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandTracing(Tracer tracer) {
+        Map<Integer, Span> inFlight = new ConcurrentHashMap<>(); // by request id
+        return settings -> settings.addCommandListener(new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                Span span = tracer.startDetached("mongo " + event.getCommandName());
+                if (span != null) {
+                    span.setAttribute("db.operation", event.getCommandName());
+                    span.setAttribute("db.name", event.getDatabaseName());
+                    inFlight.put(event.getRequestId(), span);
+                }
+            }
+
+            @Override
+            public void commandSucceeded(CommandSucceededEvent event) {
+                Span span = inFlight.remove(event.getRequestId());
+                if (span != null) {
+                    span.close();
+                }
+            }
+
+            @Override
+            public void commandFailed(CommandFailedEvent event) {
+                Span span = inFlight.remove(event.getRequestId());
+                if (span != null) {
+                    span.recordError(event.getThrowable()).close();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,152 @@
+package com.marius.Battleship_Service.replication;
+
+import com.marius.Battleship_Service.codec.GameReadConverter;
+import com.marius.Battleship_Service.codec.GameWriteConverter;
+import com.marius.Battleship_Service.models.Bitboard;
+import com.marius.Battleship_Service.models.Game;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * One replication frame. A shot is sent as the cell, the board it landed on
+ * and the resulting turn, a few dozen bytes; any other change to a game is
+ * sent as a snapshot in the same compact layout the game is stored in.
+ * Every frame carries the game version it produces, so the standby can skip
+ * what it already has and notice what it missed.
+ */
+public record GameDelta(Type type, long sentAtMillis, String gameId, long version, byte[] snapshot,
+        boolean defenderIsPlayer1, int cell, boolean hit, String currentTurn, String winnerId) {
+
+    public enum Type {
+        RESET, // drop every replica; the snapshots of all live games follow
+        SNAPSHOT,
+        SHOT,
+        EVICT
+    }
+
+    private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec();
+    private static final GameWriteConverter WRITER = new GameWriteConverter();
+    private static final GameReadConverter READER = new GameReadConverter();
+
+    public static byte[] reset() {
+        return encode(new GameDelta(Type.RESET, System.currentTimeMillis(), "", 0, null, false, 0, false, null, null));
+    }
+
+    public static byte[] snapshot(Game game) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        DOCUMENT_CODEC.encode(new BsonBinaryWriter(buffer), WRITER.convert(game), EncoderContext.builder().build());
+        return encode(new GameDelta(Type.SNAPSHOT, System.currentTimeMillis(), game.getId(), version(game),
+                buffer.toByteArray(), false, 0, false, null, null));
+    }
+
+    // Called after the shot has been applied and saved, so the game already carries its new version
+    public static byte[] shot(Game game, boolean defenderIsPlayer1, int cell, boolean hit) {
+        return encode(new GameDelta(Type.SHOT, System.currentTimeMillis(), game.getId(), version(game), null,
+                defenderIsPlayer1, cell, hit, game.getCurrentTurn(), game.getWinnerId()));
+    }
+
+    public static byte[] evict(String gameId) {
+        return encode(new GameDelta(Type.EVICT, System.currentTimeMillis(), gameId, 0, null, false, 0, false, null,
+                null));
+    }
+
+    public Game snapshotGame() {
+        Document document = DOCUMENT_CODEC.decode(new BsonBinaryReader(ByteBuffer.wrap(snapshot)),
+                DecoderContext.builder().build());
+        return READER.convert(document);
+    }
+
+    // Applies a shot to the replica; false if the replica is missing an earlier change
+    public boolean applyShot(Game game) {
+        if (version != version(game) + 1) {
+            return false;
+        }
+        long[] board = defenderIsPlayer1
+                ? (hit ? game.getPlayer1Hits() : game.getPlayer1Misses())
+                : (hit ? game.getPlayer2Hits() : game.getPlayer2Misses());
+        Bitboard.set(board, cell);
+        game.setCurrentTurn(currentTurn);
+        game.setWinnerId(winnerId);
+        game.setVersion(version);
+        return true;
+    }
+
+    private static long version(Game game) {
+        return game.getVersion() != null ? game.getVersion() : 0L;
+    }
+
+    private static byte[] encode(GameDelta delta) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(delta.type.ordinal());
+            out.writeLong(delta.sentAtMillis);
+            out.writeUTF(delta.gameId);
+            out.writeLong(delta.version);
+            switch (delta.type) {
+                case SNAPSHOT -> {
+                    out.writeInt(delta.snapshot.length);
+                    out.write(delta.snapshot);
+                }
+                case SHOT -> {
+                    out.writeBoolean(delta.defenderIsPlayer1);
+                    out.writeInt(delta.cell);
+                    out.writeBoolean(delta.hit);
+                    writeNullable(out, delta.currentTurn);
+                    writeNullable(out, delta.winnerId);
+                }
+                default -> {
+                }
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static GameDelta decode(byte[] frame) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+            Type type = Type.values()[in.readUnsignedByte()];
+            long sentAtMillis = in.readLong();
+            String gameId = in.readUTF();
+            long version = in.readLong();
+            return switch (type) {
+                case SNAPSHOT -> {
+                    byte[] snapshot = new byte[in.readInt()];
+                    in.readFully(snapshot);
+                    yield new GameDelta(type, sentAtMillis, gameId, version, snapshot, false, 0, false, null, null);
+                }
+                case SHOT -> new GameDelta(type, sentAtMillis, gameId, version, null, in.readBoolean(), in.readInt(),
+                        in.readBoolean(), readNullable(in), readNullable(in));
+                default -> new GameDelta(type, sentAtMillis, gameId, version, null, false, 0, false, null, null);
+            };
+        } catch (IOException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed replication frame", e);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,112 @@
+package com.marius.Battleship_Service.replication;
+
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import com.marius.Battleship_Service.services.LiveGameStore;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Standby side of hot-standby replication: applies the primary's frames to
+ * in-memory copies of its live games. On failover {@link #promote()} moves
+ * the copies into {@link LiveGameStore}, so this node serves them without
+ * reading MongoDB. A copy that missed a change (a version gap) is dropped
+ * and read from MongoDB on demand instead.
+ * Listens only when battleship.replication.role=standby.
+ */
+@Component
+public class GameReplica {
+
+    private final LiveGameStore liveGames;
+    private final CustomMetricsService customMetricsService;
+    private final ReplicationTransport transport;
+
+    private final Map<String, Game> replicas = new ConcurrentHashMap<>();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong gaps = new AtomicLong();
+    private volatile long lastLagMillis;
+    private volatile boolean promoted;
+
+    @Autowired
+    public GameReplica(LiveGameStore liveGames, CustomMetricsService customMetricsService,
+            ObjectProvider<ReplicationTransport> transport,
+            @Value("${battleship.replication.role:none}") String role) {
+        this(liveGames, customMetricsService, "standby".equals(role) ? transport.getIfAvailable() : null);
+    }
+
+    public GameReplica(LiveGameStore liveGames, CustomMetricsService customMetricsService,
+            ReplicationTransport transport) {
+        this.liveGames = liveGames;
+        this.customMetricsService = customMetricsService;
+        this.transport = transport;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (transport != null) {
+            transport.listen(this::apply);
+        }
+    }
+
+    public void apply(byte[] frame) {
+        if (promoted) {
+            return; // this node is primary now; a late frame from the old one must not overwrite its games
+        }
+        GameDelta delta = GameDelta.decode(frame);
+        switch (delta.type()) {
+            case RESET -> replicas.clear();
+            case SNAPSHOT -> {
+                Game game = delta.snapshotGame();
+                replicas.merge(game.getId(), game, (current, incoming) -> incoming.getVersion() >= current.getVersion()
+                        ? incoming : current);
+            }
+            case SHOT -> {
+                Game game = replicas.get(delta.gameId());
+                if (game != null && delta.version() > game.getVersion() && !delta.applyShot(game)) {
+                    replicas.remove(delta.gameId());
+                    gaps.incrementAndGet();
+                }
+            }
+            case EVICT -> replicas.remove(delta.gameId());
+        }
+
+        lastLagMillis = Math.max(0, System.currentTimeMillis() - delta.sentAtMillis());
+        customMetricsService.recordReplicationLag(Duration.ofMillis(lastLagMillis));
+        applied.incrementAndGet();
+    }
+
+    // Failover: serve the replicated games from this node; returns how many were taken over
+    public synchronized int promote() {
+        promoted = true;
+        int promotedGames = 0;
+        for (Game game : replicas.values()) {
+            liveGames.put(game);
+            promotedGames++;
+        }
+        replicas.clear();
+        return promotedGames;
+    }
+
+    public Game replica(String gameId) {
+        return replicas.get(gameId);
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "listening", transport != null,
+                "promoted", promoted,
+                "replicas", replicas.size(),
+                "framesApplied", applied.get(),
+                "gaps", gaps.get(),
+                "lastLagMs", lastLagMillis);
+    }
+}
@@ -0,0 +1,46 @@
+package com.marius.Battleship_Service.replication;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hands frames to a standby in the same JVM through a queue, so replication
+ * can be exercised without sockets. The primary and the standby share one
+ * instance.
+ */
+public class InJvmTransport implements ReplicationTransport {
+
+    private static final byte[] CLOSED = new byte[0];
+
+    private final BlockingQueue<byte[]> frames = new LinkedBlockingQueue<>();
+
+    @Override
+    public void send(byte[] frame) {
+        frames.add(frame);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void listen(Consumer<byte[]> handler) {
+        Thread receiver = new Thread(() -> {
+            try {
+                for (byte[] frame = frames.take(); frame != CLOSED; frame = frames.take()) {
+                    handler.accept(frame);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "replication-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    @Override
+    public void close() {
+        frames.add(CLOSED);
+    }
+}
@@ -0,0 +1,27 @@
+package com.marius.Battleship_Service.replication;
+
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// The transport for this node's replication role; no transport (and no replication) by default
+@Configuration
+public class ReplicationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "battleship.replication.role", havingValue = "primary")
+    public ReplicationTransport primaryTransport(@Value("${battleship.replication.standby-host}") String host,
+            @Value("${battleship.replication.port:7070}") int port) {
+        return TcpTransport.connectingTo(host, port);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "battleship.replication.role", havingValue = "standby")
+    public ReplicationTransport standbyTransport(
+            @Value("${battleship.replication.bind-address:127.0.0.1}") String bindAddress,
+            @Value("${battleship.replication.port:7070}") int port, CustomMetricsService customMetricsService) {
+        return TcpTransport.listeningOn(bindAddress, port, customMetricsService::incrementReplicationErrors);
+    }
+}
@@ -0,0 +1,36 @@
+package com.marius.Battleship_Service.replication;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// GET shows replication state; POST promotes this standby to serve the primary's games
+@Component
+@Endpoint(id = "replication")
+public class ReplicationEndpoint {
+
+    private final ReplicationPublisher publisher;
+    private final GameReplica replica;
+
+    public ReplicationEndpoint(ReplicationPublisher publisher, GameReplica replica) {
+        this.publisher = publisher;
+        this.replica = replica;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new HashMap<>(replica.stats());
+        status.put("publishing", publisher.isEnabled());
+        status.put("backlog", publisher.backlog());
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, Object> promote() {
+        return Map.of("promoted", replica.promote());
+    }
+}
@@ -0,0 +1,153 @@
+package com.marius.Battleship_Service.replication;
+
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import com.marius.Battleship_Service.services.LiveGameStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Primary side of hot-standby replication. Game changes are encoded on the
+ * thread that made them and queued; one sender thread writes them to the
+ * transport, flushing once per batch, so a slow standby never holds up a
+ * move. If the queue overflows or the transport fails, the standby is
+ * resynchronised with a reset and a snapshot of every live game.
+ * Does nothing unless battleship.replication.role=primary.
+ */
+@Component
+public class ReplicationPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationPublisher.class);
+
+    private static final long RECONNECT_DELAY_MS = 1000;
+
+    private final LiveGameStore liveGames;
+    private final CustomMetricsService customMetricsService;
+    private final ReplicationTransport transport;
+    private final BlockingQueue<byte[]> queue;
+    private volatile boolean resync = true;
+
+    @Autowired
+    public ReplicationPublisher(LiveGameStore liveGames, CustomMetricsService customMetricsService,
+            ObjectProvider<ReplicationTransport> transport,
+            @Value("${battleship.replication.role:none}") String role,
+            @Value("${battleship.replication.queue-capacity:10000}") int queueCapacity) {
+        this(liveGames, customMetricsService, "primary".equals(role) ? transport.getIfAvailable() : null,
+                queueCapacity);
+    }
+
+    public ReplicationPublisher(LiveGameStore liveGames, CustomMetricsService customMetricsService,
+            ReplicationTransport transport, int queueCapacity) {
+        this.liveGames = liveGames;
+        this.customMetricsService = customMetricsService;
+        this.transport = transport;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        if (transport != null) {
+            customMetricsService.registerReplicationBacklog(queue::size);
+            Thread sender = new Thread(this::sendLoop, "replication-sender");
+            sender.setDaemon(true);
+            sender.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return transport != null;
+    }
+
+    public void snapshot(Game game) {
+        if (transport != null) {
+            enqueue(GameDelta.snapshot(game));
+        }
+    }
+
+    public void shot(Game game, boolean defenderIsPlayer1, int cell, boolean hit) {
+        if (transport != null) {
+            enqueue(GameDelta.shot(game, defenderIsPlayer1, cell, hit));
+        }
+    }
+
+    public void evict(String gameId) {
+        if (transport != null) {
+            enqueue(GameDelta.evict(gameId));
+        }
+    }
+
+    // Resends every live game, e.g. after the warm start filled the store
+    public void resync() {
+        resync = true;
+        queue.offer(new byte[0]); // wakes the sender
+    }
+
+    public int backlog() {
+        return queue.size();
+    }
+
+    private void enqueue(byte[] frame) {
+        if (!queue.offer(frame)) {
+            customMetricsService.incrementReplicationDropped();
+            resync = true;
+        }
+    }
+
+    private void sendLoop() {
+        List<byte[]> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                if (resync) {
+                    // Everything queued so far is covered by the snapshots
+                    resync = false;
+                    batch.clear();
+                    sendAll();
+                }
+                for (byte[] frame : batch) {
+                    if (frame.length > 0) {
+                        transport.send(frame);
+                    }
+                }
+                transport.flush();
+            } catch (IOException e) {
+                resync = true;
+                log.warn("Replication to standby failed, retrying: {}", e.getMessage());
+                sleep(RECONNECT_DELAY_MS);
+                queue.offer(new byte[0]);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                resync = true;
+                log.error("Replication frame could not be sent, resynchronising the standby", e);
+            }
+            batch.clear();
+        }
+    }
+
+    private void sendAll() throws IOException {
+        transport.send(GameDelta.reset());
+        for (Game game : liveGames.games()) {
+            byte[] frame;
+            synchronized (game) {
+                frame = GameDelta.snapshot(game);
+            }
+            transport.send(frame);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.marius.Battleship_Service.replication;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Carries replication frames from the primary to its standby. Frames must be
+ * delivered whole and in the order they were sent; a transport that loses
+ * frames has to fail the next {@link #send} so the primary resynchronises.
+ */
+public interface ReplicationTransport extends Closeable {
+
+    // Primary side; frames may be buffered until flush()
+    void send(byte[] frame) throws IOException;
+
+    void flush() throws IOException;
+
+    // Standby side; the handler is called on the transport's own thread
+    void listen(Consumer<byte[]> handler) throws IOException;
+}
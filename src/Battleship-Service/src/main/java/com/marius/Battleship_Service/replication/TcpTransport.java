@@ -0,0 +1,143 @@
+package com.marius.Battleship_Service.replication;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.function.Consumer;
+
+/**
+ * Length-prefixed frames over one TCP connection. The primary connects lazily
+ * on its first send and again after a failure; the standby accepts one
+ * primary at a time, on the configured address only. A frame the standby
+ * cannot apply drops the connection, so the primary's next send fails and it
+ * resynchronises.
+ */
+public class TcpTransport implements ReplicationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(TcpTransport.class);
+
+    private static final int CONNECT_TIMEOUT_MS = 2000;
+    private static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+
+    private final String host;
+    private final int port;
+    private final Runnable frameErrors;
+
+    private Socket socket;
+    private DataOutputStream out;
+    private volatile ServerSocket server;
+
+    private TcpTransport(String host, int port, Runnable frameErrors) {
+        this.host = host;
+        this.port = port;
+        this.frameErrors = frameErrors;
+    }
+
+    public static TcpTransport connectingTo(String host, int port) {
+        return new TcpTransport(host, port, () -> { });
+    }
+
+    // Port 0 picks a free port; see localPort(). frameErrors runs for each frame that fails to apply
+    public static TcpTransport listeningOn(String bindAddress, int port, Runnable frameErrors) {
+        return new TcpTransport(bindAddress, port, frameErrors);
+    }
+
+    @Override
+    public synchronized void send(byte[] frame) throws IOException {
+        if (out == null) {
+            socket = new Socket();
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+            socket.setTcpNoDelay(true);
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+        try {
+            out.writeInt(frame.length);
+            out.write(frame);
+        } catch (IOException e) {
+            disconnect();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            disconnect();
+            throw e;
+        }
+    }
+
+    @Override
+    public void listen(Consumer<byte[]> handler) throws IOException {
+        server = new ServerSocket(port, 50, InetAddress.getByName(host));
+        Thread receiver = new Thread(() -> {
+            while (!server.isClosed()) {
+                try (Socket primary = server.accept();
+                        DataInputStream in = new DataInputStream(new BufferedInputStream(primary.getInputStream()))) {
+                    while (true) {
+                        int length = in.readInt();
+                        if (length < 0 || length > MAX_FRAME_BYTES) {
+                            throw new IOException("Bad replication frame length " + length);
+                        }
+                        byte[] frame = new byte[length];
+                        in.readFully(frame);
+                        try {
+                            handler.accept(frame);
+                        } catch (RuntimeException e) {
+                            frameErrors.run();
+                            log.warn("Dropping the replication connection after a frame failed to apply", e);
+                            break;
+                        }
+                    }
+                } catch (EOFException e) {
+                    // The primary went away; wait for it (or its replacement) to reconnect
+                } catch (IOException e) {
+                    if (!server.isClosed()) {
+                        log.warn("Replication connection failed: {}", e.getMessage());
+                    }
+                }
+            }
+        }, "replication-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    public int localPort() {
+        return server != null ? server.getLocalPort() : port;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        disconnect();
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private void disconnect() {
+        try {
+            if (socket != null) {
+                socket.close();
+            }
+        } catch (IOException ignored) {
+            // Already broken
+        }
+        socket = null;
+        out = null;
+    }
+}
@@ -4,15 +4,23 @@ import org.springframework.stereotype.Component;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 @Component
 public class CustomMetricsService {
 
     private final Counter customMetricCounter;
     private final AtomicInteger activeWebSocketConnections;
+    private final Counter duplicateRequests;
+    private final MeterRegistry meterRegistry;
 
     public CustomMetricsService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
         // Counter to track certain events
         customMetricCounter = Counter.builder("current_active_socket_connections")
                 .description("Number of currently active websocket connections")
@@ -27,6 +35,11 @@ public class CustomMetricsService {
                 .description("Current number of active WebSocket connections")
                 .tags("environment", "development")
                 .register(meterRegistry);
+
+        // Retried actions answered from the per-session dedup window
+        duplicateRequests = Counter.builder("websocket_duplicate_requests")
+                .description("WebSocket actions answered from the dedup window instead of being processed again")
+                .register(meterRegistry);
     }
 
     // Increment counter method
@@ -42,4 +55,212 @@ public class CustomMetricsService {
     public void decrementActiveWebSocketConnections() {
         activeWebSocketConnections.decrementAndGet();
     }
+
+    public void incrementDuplicateRequests() {
+        duplicateRequests.increment();
+    }
+
+    // Conditional game writes that lost to a concurrent change and were retried, by operation
+    public void recordGameUpdateRetry(String operation) {
+        Counter.builder("game_update_retries")
+                .description("Conditional game updates retried after a concurrent change")
+                .tags("operation", operation)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // Conditional game writes that gave up after retrying
+    public void recordGameUpdateConflict(String operation) {
+        Counter.builder("game_update_conflicts")
+                .description("Conditional game updates abandoned because of concurrent changes")
+                .tags("operation", operation)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // How long the startup load of live games took and how many it read
+    public void recordWarmStart(int games, Duration duration) {
+        Timer.builder("game_warm_start_duration")
+                .description("Time taken to load live games into memory at startup")
+                .register(meterRegistry)
+                .record(duration);
+        Counter.builder("game_warm_start_documents")
+                .description("Live games loaded into memory at startup")
+                .register(meterRegistry)
+                .increment(games);
+    }
+
+    // How long it took to generate and store one tournament round's games
+    public void recordTournamentProvisioning(int games, Duration duration) {
+        Timer.builder("tournament_round_provisioning")
+                .description("Time taken to generate and store the games of a tournament round")
+                .register(meterRegistry)
+                .record(duration);
+        Counter.builder("tournament_games_provisioned")
+                .description("Tournament games created in bulk")
+                .register(meterRegistry)
+                .increment(games);
+    }
+
+    // WebSocket frames rejected by admission control, by action and by the limit that was hit
+    public Counter throttledActions(String action, String scope) {
+        return Counter.builder("websocket_throttled_actions")
+                .description("WebSocket frames dropped for exceeding a rate limit")
+                .tags("action", action, "scope", scope)
+                .register(meterRegistry);
+    }
+
+    // Bytes of frames large enough to compress, before (raw) and after (sent) compression
+    public Counter compressionBytes(String stage) {
+        return Counter.builder("websocket_compression_bytes")
+                .description("Bytes of WebSocket frames over the compression threshold, before and after")
+                .baseUnit("bytes")
+                .tags("stage", stage)
+                .register(meterRegistry);
+    }
+
+    public Counter compressionSkipped() {
+        return Counter.builder("websocket_compression_skipped")
+                .description("WebSocket frames sent uncompressed because they were under the threshold")
+                .register(meterRegistry);
+    }
+
+    // Turn, idle and reconnect timers pending on this node
+    public void registerGameTimers(Supplier<Number> pending) {
+        Gauge.builder("game_timers_pending", pending)
+                .description("Turn, idle and reconnect timers waiting to expire")
+                .register(meterRegistry);
+    }
+
+    public void recordTimerExpiry(String kind) {
+        Counter.builder("game_timer_expiries")
+                .description("Game and player timers that expired, by kind")
+                .tags("kind", kind)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // Time from a game change on the primary to its replica being updated on the standby
+    public void recordReplicationLag(Duration lag) {
+        Timer.builder("replication_lag")
+                .description("Delay between a game change on the primary and its application on the standby")
+                .register(meterRegistry)
+                .record(lag);
+    }
+
+    // Frames dropped because the replication queue was full; the standby is resynchronised
+    public void incrementReplicationDropped() {
+        Counter.builder("replication_dropped_frames")
+                .description("Replication frames dropped because the send queue was full")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // Frames the standby could not apply; each drops the connection so the primary resynchronises
+    public void incrementReplicationErrors() {
+        Counter.builder("replication_errors")
+                .description("Replication frames the standby failed to apply")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void registerReplicationBacklog(Supplier<Number> backlog) {
+        Gauge.builder("replication_backlog", backlog)
+                .description("Replication frames waiting to be sent to the standby")
+                .register(meterRegistry);
+    }
+
+    // This node's load score (1 is full) and the estimated size of one live game
+    public void registerCapacity(Supplier<Number> load, Supplier<Number> gameBytes) {
+        Gauge.builder("capacity_load", load)
+                .description("Load score from memory, scheduling lag and outbound backlog; 1 is full")
+                .register(meterRegistry);
+        Gauge.builder("capacity_game_bytes", gameBytes)
+                .description("Estimated heap retained by one live game")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    // Requests turned away because the node was near capacity, by what was asked for
+    public void recordCapacityRefusal(String kind) {
+        Counter.builder("capacity_refusals")
+                .description("New games, bot games and spectators refused because the node was near capacity")
+                .tags("kind", kind)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // Load samples that threw; the node keeps routing on the last good score meanwhile
+    public void incrementCapacitySampleFailures() {
+        Counter.builder("capacity_sample_failures")
+                .description("Capacity samples that failed, leaving the previous load score in place")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // Segments and bytes in this node's game archive
+    public void registerArchive(Supplier<Number> segments, Supplier<Number> bytes) {
+        Gauge.builder("archive_segments", segments)
+                .description("Segment files in the game archive, including other nodes' sealed segments")
+                .register(meterRegistry);
+        Gauge.builder("archive_bytes", bytes)
+                .description("Bytes of finished games in this node's archive segments")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public void recordArchivedGames(int games) {
+        Counter.builder("archived_games")
+                .description("Finished games moved from MongoDB to the archive")
+                .register(meterRegistry)
+                .increment(games);
+    }
+
+    // Outbound delivery metrics, tagged by audience (players or spectators)
+    public OutboundMetrics outboundMetrics(String audience) {
+        return new OutboundMetrics(meterRegistry, audience);
+    }
+
+    public static class OutboundMetrics {
+        private final Timer lag;
+        private final Counter dropped;
+        private final Counter failed;
+        private final Counter closed;
+
+        private OutboundMetrics(MeterRegistry meterRegistry, String audience) {
+            lag = Timer.builder("websocket_outbound_lag")
+                    .description("Time between queueing a WebSocket frame and writing it")
+                    .tags("audience", audience)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            dropped = Counter.builder("websocket_outbound_dropped")
+                    .description("Outbound frames dropped or coalesced because a session fell behind")
+                    .tags("audience", audience)
+                    .register(meterRegistry);
+            failed = Counter.builder("websocket_outbound_failed")
+                    .description("Outbound sends that failed or exceeded the send timeout")
+                    .tags("audience", audience)
+                    .register(meterRegistry);
+            closed = Counter.builder("websocket_slow_consumers_closed")
+                    .description("Sessions closed because their outbound queue overflowed")
+                    .tags("audience", audience)
+                    .register(meterRegistry);
+        }
+
+        public void sent(long lagNanos) {
+            lag.record(lagNanos, TimeUnit.NANOSECONDS);
+        }
+
+        public void dropped(int count) {
+            dropped.increment(count);
+        }
+
+        public void failed() {
+            failed.increment();
+        }
+
+        public void closed() {
+            closed.increment();
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package com.marius.Battleship_Service.services;
+
+import com.marius.Battleship_Service.codec.GameWriteConverter;
+import com.marius.Battleship_Service.models.Game;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+// One-off rewrite of legacy game documents into the compact layout.
+// Enabled with battleship.migration.compact-games=true; legacy documents are
+// also readable (and rewritten on their next save) without running it.
+@Service
+@ConditionalOnProperty(name = "battleship.migration.compact-games", havingValue = "true")
+public class GameMigrationService implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GameMigrationService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${battleship.migration.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // Games stored before versioning get version 0, which versioned saves expect
+        mongoTemplate.updateMulti(new Query(Criteria.where("version").exists(false)),
+                new Update().set("version", 0L), Game.class);
+
+        long migrated = 0;
+
+        while (true) {
+            // Rewritten documents drop out of the filter, so each batch picks up where the last one stopped
+            Query query = new Query(Criteria.where("schema").ne(GameWriteConverter.SCHEMA_VERSION))
+                    .with(Sort.by("_id"))
+                    .limit(batchSize);
+
+            List<Game> batch = mongoTemplate.find(query, Game.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            for (Game game : batch) {
+                mongoTemplate.save(game);
+            }
+            migrated += batch.size();
+        }
+
+        log.info("Migrated {} games to the compact layout", migrated);
+    }
+}
@@ -1,125 +1,605 @@
 package com.marius.Battleship_Service.services;
 
+import com.marius.Battleship_Service.analytics.ShotHeatmaps;
+import com.marius.Battleship_Service.archive.GameArchive;
+import com.marius.Battleship_Service.models.AttackResult;
+import com.marius.Battleship_Service.models.Bitboard;
+import com.marius.Battleship_Service.models.Board;
 import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.codec.FleetCodec;
+import com.marius.Battleship_Service.replication.ReplicationPublisher;
 import com.marius.Battleship_Service.repositories.GameRepository;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
 
 @Service
 public class GameService {
 
+    public static final int MIN_GRID_SIZE = 5;
+    public static final int MAX_FLEET_SHIPS = 500;
+
+    // Random placement probes before falling back to enumerating every legal placement
+    private static final int RANDOM_PROBES = 16;
+    private static final int MAX_LAYOUT_ATTEMPTS = 8;
+
+    // Conditional writes that lose to a concurrent change are retried this many times
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
     @Autowired
     private GameRepository gameRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CustomMetricsService customMetricsService;
+
+    @Autowired
+    private LiveGameStore liveGames;
+
+    @Autowired
+    private ReplicationPublisher replicationPublisher;
+
+    @Autowired
+    private ShotHeatmaps shotHeatmaps;
+
+    @Autowired
+    private GameArchive gameArchive;
+
     // Temporary in-memory rollback log
     private final Map<String, String> rollbackLog = new HashMap<>();
 
     public Game createGame(String playerId) {
+        return createGame(playerId, Game.DEFAULT_GRID_SIZE, Game.standardFleet());
+    }
+
+    public Game createGame(String playerId, int gridSize, List<Game.ShipType> fleet) {
+        validateVariant(gridSize, fleet);
+
         Game game = new Game();
         game.setPlayer1Id(playerId);
         game.setStatus("waiting_for_opponent");
-        game.setPlayer1Grid(generateGrid()); // Helper method to generate grid with ships
-        return gameRepository.save(game);
+        game.setGridSize(gridSize);
+        game.setFleet(fleet);
+        game.setPlayer1Grid(generateGrid(gridSize, fleet, new Random())); // Helper method to generate grid with ships
+        // Player 2's fleet is placed up front (and never sent out before they join), so joining is a single update
+        game.setPlayer2Grid(generateGrid(gridSize, fleet, new Random()));
+        Game saved = gameRepository.save(game);
+        remember(saved);
+        shotHeatmaps.recordPlacement(gridSize, saved.getPlayer1Grid());
+        shotHeatmaps.recordPlacement(gridSize, saved.getPlayer2Grid());
+        return saved;
+    }
+
+    // Builds a fleet from a request: a list of {"name": ..., "size": ...} entries, or the standard fleet if absent
+    public List<Game.ShipType> parseFleet(Object spec) {
+        if (spec == null) {
+            return Game.standardFleet();
+        }
+        if (!(spec instanceof List<?> entries)) {
+            throw new IllegalArgumentException("Fleet must be a list of ships");
+        }
+
+        List<Game.ShipType> fleet = new ArrayList<>(entries.size());
+        for (Object entry : entries) {
+            if (!(entry instanceof Map<?, ?> ship) || !(ship.get("name") instanceof String name)
+                    || !(ship.get("size") instanceof Number size)) {
+                throw new IllegalArgumentException("Each ship needs a name and a size");
+            }
+            fleet.add(new Game.ShipType(name, size.intValue()));
+        }
+        return fleet;
     }
 
+    public void validateVariant(int gridSize, List<Game.ShipType> fleet) {
+        if (gridSize < MIN_GRID_SIZE || gridSize > Game.MAX_GRID_SIZE) {
+            throw new IllegalArgumentException(
+                    "Grid size must be between " + MIN_GRID_SIZE + " and " + Game.MAX_GRID_SIZE);
+        }
+        if (fleet.isEmpty() || fleet.size() > MAX_FLEET_SHIPS) {
+            throw new IllegalArgumentException("Fleet must have between 1 and " + MAX_FLEET_SHIPS + " ships");
+        }
+
+        int occupied = 0;
+        Set<String> names = new HashSet<>();
+        for (Game.ShipType type : fleet) {
+            if (type.getName() == null || type.getName().isBlank() || type.getName().length() > 32) {
+                throw new IllegalArgumentException("Ship names must be 1 to 32 characters");
+            }
+            if (!names.add(type.getName())) {
+                throw new IllegalArgumentException("Ship names must be unique");
+            }
+            if (type.getSize() < 1 || type.getSize() > gridSize) {
+                throw new IllegalArgumentException("Ship " + type.getName() + " does not fit on the board");
+            }
+            occupied += type.getSize();
+        }
+        if (occupied > gridSize * gridSize / 2) {
+            throw new IllegalArgumentException("Fleet may cover at most half of the board");
+        }
+    }
+
+    // One conditional update: the game must still be waiting, have no second player and a
+    // reserved fleet for them. Two players racing for a game cannot both match.
     public Optional<Game> joinGame(String gameId, String playerId) {
-        Optional<Game> game = gameRepository.findById(gameId);
-        if (game.isPresent() && game.get().getPlayer2Id() == null) {
-            game.get().setPlayer2Id(playerId);
-            game.get().setPlayer2Grid(generateGrid()); // Helper method to generate grid with ships
-            game.get().setStatus("in_progress");
-            return Optional.of(gameRepository.save(game.get()));
+        Query query = joinable(gameId, playerId).addCriteria(Criteria.where("player2Fleet").exists(true));
+        Game joined = mongoTemplate.findAndModify(query, startUpdate(playerId, null),
+                FindAndModifyOptions.options().returnNew(true), Game.class);
+        if (joined != null) {
+            remember(joined);
+            return Optional.of(joined);
+        }
+
+        // No reserved fleet (player 2 left, or an older game): place one for the game's variant
+        // and write it only if the game is unchanged since it was read
+        for (int attempt = 1; attempt <= MAX_WRITE_ATTEMPTS; attempt++) {
+            Optional<Game> game = gameRepository.findById(gameId);
+            if (game.isEmpty() || !"waiting_for_opponent".equals(game.get().getStatus())
+                    || game.get().getPlayer2Id() != null || playerId.equals(game.get().getPlayer1Id())) {
+                return Optional.empty();
+            }
+
+            List<Game.Ship> grid = generateGrid(game.get().getGridSize(), game.get().getFleet(), new Random());
+            query = joinable(gameId, playerId).addCriteria(versionIs(game.get().getVersion()));
+            joined = mongoTemplate.findAndModify(query, startUpdate(playerId, grid),
+                    FindAndModifyOptions.options().returnNew(true), Game.class);
+            if (joined != null) {
+                remember(joined);
+                shotHeatmaps.recordPlacement(joined.getGridSize(), grid);
+                return Optional.of(joined);
+            }
+            customMetricsService.recordGameUpdateRetry("join");
         }
+        customMetricsService.recordGameUpdateConflict("join");
         return Optional.empty();
     }
 
+    private static Query joinable(String gameId, String playerId) {
+        return new Query(Criteria.where("_id").is(gameId)
+                .and("status").is("waiting_for_opponent")
+                .and("player2Id").is(null)
+                .and("player1Id").ne(playerId));
+    }
+
+    // Starts the game server-side: player 1 moves first and both shot boards start empty
+    // (absent boards read as empty). The version is bumped by MongoTemplate on every update.
+    private static AggregationUpdate startUpdate(String playerId, List<Game.Ship> player2Grid) {
+        Document set = new Document("player2Id", literal(playerId))
+                .append("status", "in_progress")
+                .append("currentTurn", "$player1Id")
+                .append("startedAt", "$$NOW")
+                .append("updatedAt", "$$NOW")
+                .append("version", new Document("$ifNull", List.of("$version", 0L)));
+        if (player2Grid != null) {
+            set.append("player2Fleet", new Binary(FleetCodec.encode(player2Grid)));
+        }
+        return AggregationUpdate.from(List.of(
+                stage(new Document("$set", set)),
+                stage(new Document("$unset", List.of("winnerId", "player2Grid",
+                        "player1Hits", "player1Misses", "player2Hits", "player2Misses")))));
+    }
+
+    // Builds a started game in memory only, with both fleets placed; used by the simulator
+    public Game newMatch(String player1Id, String player2Id, int gridSize, List<Game.ShipType> fleet, Random random) {
+        validateVariant(gridSize, fleet);
+        Game game = new Game();
+        game.setPlayer1Id(player1Id);
+        game.setPlayer2Id(player2Id);
+        game.setGridSize(gridSize);
+        game.setFleet(fleet);
+        game.setPlayer1Grid(generateGrid(gridSize, fleet, random));
+        game.setPlayer2Grid(generateGrid(gridSize, fleet, random));
+        game.setStatus("in_progress");
+        game.setCurrentTurn(player1Id);
+        resetShots(game);
+        return game;
+    }
+
+    // Stores new games with one insertMany per batch instead of a save each, then keeps them
+    // in memory like any other live game. Ids may be assigned up front.
+    public void insertGames(List<Game> games, int batchSize) {
+        for (int from = 0; from < games.size(); from += batchSize) {
+            List<Game> batch = games.subList(from, Math.min(from + batchSize, games.size()));
+            mongoTemplate.insert(batch, Game.class);
+            for (Game game : batch) {
+                remember(game);
+                shotHeatmaps.recordPlacement(game.getGridSize(), game.getPlayer1Grid());
+                shotHeatmaps.recordPlacement(game.getGridSize(), game.getPlayer2Grid());
+            }
+        }
+    }
+
     public Optional<Boolean> isPlayerInGame(String playerId) {
-        boolean inGame = gameRepository.findAll().stream()
-                .anyMatch(game -> (game.getPlayer1Id() != null && game.getPlayer1Id().equals(playerId)) ||
-                        (game.getPlayer2Id() != null && game.getPlayer2Id().equals(playerId)));
-        return Optional.of(inGame);
+        return Optional.of(getCurrentGameId(playerId) != null);
     }
 
+    // A single query that only fetches the id, instead of scanning every game
     public String getCurrentGameId(String playerId) {
-        return gameRepository.findAll().stream()
-                .filter(game -> (game.getPlayer1Id() != null && game.getPlayer1Id().equals(playerId)) ||
-                        (game.getPlayer2Id() != null && game.getPlayer2Id().equals(playerId)))
-                .map(Game::getId)
-                .findFirst()
-                .orElse(null); // Returns null if no game is found
+        if (playerId == null) {
+            return null;
+        }
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("player1Id").is(playerId),
+                Criteria.where("player2Id").is(playerId)));
+        query.fields().include("_id");
+        Game game = mongoTemplate.findOne(query, Game.class);
+        return game != null ? game.getId() : null; // Returns null if no game is found
+    }
+
+    // The player's game that is still being played or waited on, newest first and in_progress
+    // ahead of waiting_for_opponent; finished games are never returned
+    public Optional<Game> getLiveGame(String playerId) {
+        if (playerId == null) {
+            return Optional.empty();
+        }
+        Query query = new Query(new Criteria().orOperator(
+                        Criteria.where("player1Id").is(playerId),
+                        Criteria.where("player2Id").is(playerId))
+                .and("status").in(LiveGameStore.LIVE_STATUSES))
+                .with(Sort.by(Sort.Order.asc("status"), Sort.Order.desc("_id")));
+        query.fields().include("_id");
+        Game game = mongoTemplate.findOne(query, Game.class);
+        return game == null ? Optional.empty() : getGame(game.getId());
     }
 
+    // One conditional update for either seat. The creator leaving finishes the game and drops
+    // both fleets; player 2 leaving reopens it for someone else. Returns the updated game, or
+    // empty if the game does not exist or the player is not part of it.
     public Optional<Game> leaveGame(String gameId, String playerId) {
-        Optional<Game> gameOptional = gameRepository.findById(gameId);
-        if (gameOptional.isPresent()) {
-            Game game = gameOptional.get();
+        Query query = new Query(Criteria.where("_id").is(gameId).orOperator(
+                Criteria.where("player1Id").is(playerId),
+                Criteria.where("player2Id").is(playerId)));
+
+        Document creatorLeft = new Document("$eq", List.of("$player1Id", literal(playerId)));
+        Document set = new Document("status", cond(creatorLeft, "finished", "waiting_for_opponent"))
+                .append("player1Id", cond(creatorLeft, "$$REMOVE", "$player1Id"))
+                .append("player1Fleet", cond(creatorLeft, "$$REMOVE", "$player1Fleet"))
+                .append("player1Grid", cond(creatorLeft, "$$REMOVE", "$player1Grid"))
+                .append("player2Id", cond(creatorLeft, "$player2Id", "$$REMOVE"))
+                .append("currentTurn", cond(creatorLeft, "$currentTurn", "$$REMOVE"))
+                .append("updatedAt", "$$NOW")
+                .append("version", new Document("$ifNull", List.of("$version", 0L)));
+        AggregationUpdate update = AggregationUpdate.from(List.of(
+                stage(new Document("$set", set)),
+                stage(new Document("$unset", List.of("player2Fleet", "player2Grid")))));
+
+        Game left = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Game.class);
+        if (left == null) {
+            return Optional.empty();
+        }
+        remember(left);
+        return Optional.of(left);
+    }
+
+    // Live games are served from memory; anything else (or a miss) is read from MongoDB,
+    // and finished games that have been moved out of it from the archive
+    public Optional<Game> getGame(String gameId) {
+        Game cached = liveGames.get(gameId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Game> game = gameRepository.findById(gameId);
+        if (game.isEmpty()) {
+            return gameArchive.find(gameId);
+        }
+        game.ifPresent(this::remember);
+        return game;
+    }
 
-            if (playerId.equals(game.getPlayer1Id())) {
-                game.setStatus("finished");
-                game.setPlayer1Id(null);
-                game.setPlayer1Grid(null);
-                game.setPlayer2Grid(null);
+    // Attack phase: resolve a shot, persist the game and return the outcome
+    // The save is versioned: if the game changed since it was read (e.g. a duplicate shot
+    // from another connection), it is reloaded and the shot resolved again against it.
+    // Shots on one game are serialised here, since live games are shared from memory.
+    public AttackResult processAttack(Game game, String attackerId, int x, int y) {
+        synchronized (game) {
+            boolean refreshed = false;
+            for (int attempt = 1;; attempt++) {
+                AttackResult result;
+                try {
+                    result = resolveAttack(game, attackerId, x, y);
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    // The in-memory copy may be behind a move made through another node; a
+                    // rejected shot is only retried if the stored version says so
+                    if (refreshed || !isBehindStore(game)) {
+                        throw e;
+                    }
+                    refreshed = true;
+                    reload(game);
+                    result = resolveAttack(game, attackerId, x, y);
+                }
 
-            } else if (playerId.equals(game.getPlayer2Id())) {
-                game.setStatus("waiting_for_opponent");
-                game.setPlayer2Id(null);
-                game.setPlayer2Grid(null);
+                try {
+                    gameRepository.save(game);
+                    liveGames.put(game);
+                    boolean defenderIsPlayer1 = !attackerId.equals(game.getPlayer1Id());
+                    replicationPublisher.shot(game, defenderIsPlayer1, y * game.getGridSize() + x, result.hit());
+                    shotHeatmaps.recordShot(game.getGridSize(), x, y, result.hit());
+                    return result;
+                } catch (OptimisticLockingFailureException e) {
+                    if (attempt == MAX_WRITE_ATTEMPTS) {
+                        customMetricsService.recordGameUpdateConflict("attack");
+                        forget(game.getId());
+                        throw new IllegalStateException("Game was updated concurrently, please retry");
+                    }
+                    customMetricsService.recordGameUpdateRetry("attack");
+                    reload(game);
+                    refreshed = true;
+                } catch (RuntimeException e) {
+                    // The shot was applied in memory but not stored
+                    forget(game.getId());
+                    throw e;
+                }
             }
+        }
+    }
 
-            gameRepository.save(game);
-            return Optional.of(game);
+    // The player concedes and the opponent wins, through the same versioned save as a shot.
+    // Returns the winner, or empty if the game is not in progress or the player is not in it.
+    public Optional<String> forfeit(Game game, String playerId) {
+        synchronized (game) {
+            for (int attempt = 1;; attempt++) {
+                if (!"in_progress".equals(game.getStatus()) || game.getWinnerId() != null || playerId == null
+                        || !(playerId.equals(game.getPlayer1Id()) || playerId.equals(game.getPlayer2Id()))) {
+                    return Optional.empty();
+                }
+                String winnerId = playerId.equals(game.getPlayer1Id()) ? game.getPlayer2Id() : game.getPlayer1Id();
+                game.setWinnerId(winnerId);
+                game.setCurrentTurn(null);
+                try {
+                    gameRepository.save(game);
+                    remember(game);
+                    return Optional.of(winnerId);
+                } catch (OptimisticLockingFailureException e) {
+                    if (attempt == MAX_WRITE_ATTEMPTS) {
+                        customMetricsService.recordGameUpdateConflict("forfeit");
+                        forget(game.getId());
+                        throw new IllegalStateException("Game was updated concurrently, please retry");
+                    }
+                    customMetricsService.recordGameUpdateRetry("forfeit");
+                    reload(game);
+                } catch (RuntimeException e) {
+                    forget(game.getId());
+                    throw e;
+                }
+            }
         }
-        return Optional.empty();
     }
 
-    public Optional<Game> getGame(String gameId) {
-        return gameRepository.findById(gameId);
+    // A cell the attacker has not fired at yet, chosen at random; -1 if there is none
+    public int randomTarget(Game game, String attackerId, Random random) {
+        synchronized (game) {
+            boolean attackerIsPlayer1 = attackerId.equals(game.getPlayer1Id());
+            long[] hits = attackerIsPlayer1 ? game.getPlayer2Hits() : game.getPlayer1Hits();
+            long[] misses = attackerIsPlayer1 ? game.getPlayer2Misses() : game.getPlayer1Misses();
+            int cells = game.getGridSize() * game.getGridSize();
+            int open = cells - Bitboard.count(hits) - Bitboard.count(misses);
+            if (open <= 0) {
+                return -1;
+            }
+            int skip = random.nextInt(open);
+            for (int cell = 0; cell < cells; cell++) {
+                if (!Bitboard.get(hits, cell) && !Bitboard.get(misses, cell) && skip-- == 0) {
+                    return cell;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // Deletes a game nobody joined, in one conditional delete so a join racing with it wins
+    public boolean expireWaitingGame(String gameId) {
+        Query query = new Query(Criteria.where("_id").is(gameId)
+                .and("status").is("waiting_for_opponent")
+                .and("player2Id").is(null));
+        boolean removed = mongoTemplate.remove(query, Game.class).getDeletedCount() > 0;
+        if (removed) {
+            forget(gameId);
+        }
+        return removed;
+    }
+
+    // Compares versions only, without reading the rest of the game; a game that is gone counts as changed
+    private boolean isBehindStore(Game game) {
+        Query query = new Query(Criteria.where("_id").is(game.getId()));
+        query.fields().include("version");
+        Game stored = mongoTemplate.findOne(query, Game.class);
+        if (stored == null) {
+            return true;
+        }
+        return versionOf(stored) != versionOf(game);
+    }
+
+    private static long versionOf(Game game) {
+        return game.getVersion() != null ? game.getVersion() : 0L;
+    }
+
+    private void reload(Game game) {
+        // Games stored before versioning have no version field, which a versioned save never matches
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(game.getId()).and("version").exists(false)),
+                new Update().set("version", 0L), Game.class);
+
+        Optional<Game> found = gameRepository.findById(game.getId());
+        if (found.isEmpty()) {
+            forget(game.getId());
+            throw new IllegalStateException("Game not found");
+        }
+        Game stored = found.get();
+        game.setVersion(stored.getVersion());
+        game.setPlayer1Id(stored.getPlayer1Id());
+        game.setPlayer2Id(stored.getPlayer2Id());
+        game.setStatus(stored.getStatus());
+        game.setGridSize(stored.getGridSize());
+        game.setFleet(stored.getFleet());
+        game.setCurrentTurn(stored.getCurrentTurn());
+        game.setWinnerId(stored.getWinnerId());
+        game.setStartedAt(stored.getStartedAt());
+        game.setFinishedAt(stored.getFinishedAt());
+        game.setPlayer1Grid(stored.getPlayer1Grid());
+        game.setPlayer2Grid(stored.getPlayer2Grid());
+        game.setPlayer1Hits(stored.getPlayer1Hits());
+        game.setPlayer1Misses(stored.getPlayer1Misses());
+        game.setPlayer2Hits(stored.getPlayer2Hits());
+        game.setPlayer2Misses(stored.getPlayer2Misses());
+        remember(game);
+    }
+
+    // Applies a shot to the in-memory game only; callers decide whether to persist it
+    public AttackResult resolveAttack(Game game, String attackerId, int x, int y) {
+        if (!"in_progress".equals(game.getStatus()) || game.getWinnerId() != null) {
+            throw new IllegalStateException("Game is not in progress");
+        }
+        if (attackerId == null || !attackerId.equals(game.getCurrentTurn())) {
+            throw new IllegalStateException("It is not your turn");
+        }
+        int gridSize = game.getGridSize();
+        if (x < 0 || y < 0 || x >= gridSize || y >= gridSize) {
+            throw new IllegalArgumentException("Coordinates out of range");
+        }
+
+        boolean attackerIsPlayer1 = attackerId.equals(game.getPlayer1Id());
+        String defenderId = attackerIsPlayer1 ? game.getPlayer2Id() : game.getPlayer1Id();
+        List<Game.Ship> defenderGrid = attackerIsPlayer1 ? game.getPlayer2Grid() : game.getPlayer1Grid();
+        Board defenderBoard = attackerIsPlayer1 ? game.getPlayer2Board() : game.getPlayer1Board();
+        long[] hits = attackerIsPlayer1 ? game.getPlayer2Hits() : game.getPlayer1Hits();
+        long[] misses = attackerIsPlayer1 ? game.getPlayer2Misses() : game.getPlayer1Misses();
+
+        int cell = y * gridSize + x;
+        if (Bitboard.get(hits, cell) || Bitboard.get(misses, cell)) {
+            throw new IllegalArgumentException("Cell has already been attacked");
+        }
+
+        // Misses are answered from the occupancy bitset without touching the fleet list
+        if (!defenderBoard.isOccupied(x, y)) {
+            Bitboard.set(misses, cell);
+            game.setCurrentTurn(defenderId);
+            return new AttackResult(x, y, false, null, null, null, defenderId);
+        }
+
+        Bitboard.set(hits, cell);
+
+        Game.Ship target = null;
+        for (Game.Ship ship : defenderGrid) {
+            if (ship.getX() == x && ship.getY() == y) {
+                target = ship;
+                break;
+            }
+        }
+
+        // The ship is sunk once every one of its cells has been hit
+        int[] shipCells = new int[defenderGrid.size()];
+        int shipLength = 0;
+        boolean sunk = true;
+        for (Game.Ship ship : defenderGrid) {
+            if (target.getShip().equals(ship.getShip())) {
+                int shipCell = ship.getY() * gridSize + ship.getX();
+                shipCells[shipLength++] = shipCell;
+                sunk &= Bitboard.get(hits, shipCell);
+            }
+        }
+
+        String winnerId = Bitboard.count(hits) == defenderGrid.size() ? attackerId : null;
+        game.setWinnerId(winnerId);
+        game.setCurrentTurn(winnerId == null ? defenderId : null);
+
+        return new AttackResult(x, y, true,
+                sunk ? target.getShip() : null,
+                sunk ? Arrays.copyOf(shipCells, shipLength) : null,
+                winnerId, game.getCurrentTurn());
     }
 
-    private List<Game.Ship> generateGrid() {
-        int gridSize = 10;
+    // Fresh shot boards for both players at the start of a game
+    private void resetShots(Game game) {
+        int cells = game.getGridSize() * game.getGridSize();
+        game.setPlayer1Hits(Bitboard.create(cells));
+        game.setPlayer1Misses(Bitboard.create(cells));
+        game.setPlayer2Hits(Bitboard.create(cells));
+        game.setPlayer2Misses(Bitboard.create(cells));
+        game.setWinnerId(null);
+    }
+
+    public List<Game.Ship> generateGrid() {
+        return generateGrid(Game.DEFAULT_GRID_SIZE, Game.standardFleet(), new Random());
+    }
+
+    public List<Game.Ship> generateGrid(int gridSize, List<Game.ShipType> fleet, Random random) {
+        // Largest ships first, while the board is still empty
+        List<Game.ShipType> order = new ArrayList<>(fleet);
+        order.sort((a, b) -> Integer.compare(b.getSize(), a.getSize()));
+
+        for (int attempt = 0; attempt < MAX_LAYOUT_ATTEMPTS; attempt++) {
+            List<Game.Ship> ships = tryPlaceFleet(gridSize, order, random);
+            if (ships != null) {
+                return ships;
+            }
+        }
+        throw new IllegalArgumentException("Fleet does not fit on a " + gridSize + "x" + gridSize + " board");
+    }
+
+    // Returns null when a ship has no legal placement left, so the caller can start over
+    private List<Game.Ship> tryPlaceFleet(int gridSize, List<Game.ShipType> fleet, Random random) {
+        long[] occupied = Bitboard.create(gridSize * gridSize);
         List<Game.Ship> ships = new ArrayList<>();
-        Random random = new Random();
-
-        // Define the ships and their sizes
-        String[] shipNames = { "Carrier", "Battleship", "Cruiser", "Submarine", "Destroyer" };
-        int[] shipSizes = { 5, 4, 3, 2, 1 };
-
-        for (int i = 0; i < shipNames.length; i++) {
-            boolean placed = false;
-
-            while (!placed) {
-                // Random orientation: 0 for horizontal, 1 for vertical
-                String orientation = random.nextInt(2) == 0 ? "horizontal" : "vertical";
-                int x, y;
-
-                if (orientation.equals("horizontal")) {
-                    x = random.nextInt(gridSize - shipSizes[i] + 1); // Ensures the ship fits horizontally
-                    y = random.nextInt(gridSize);
-                } else {
-                    x = random.nextInt(gridSize);
-                    y = random.nextInt(gridSize - shipSizes[i] + 1); // Ensures the ship fits vertically
+
+        for (Game.ShipType type : fleet) {
+            int size = type.getSize();
+            int start = -1;
+            boolean vertical = false;
+
+            // Cheap random probes first; on a sparse board these almost always succeed
+            for (int probe = 0; probe < RANDOM_PROBES && start < 0; probe++) {
+                vertical = random.nextBoolean();
+                int x = vertical ? random.nextInt(gridSize) : random.nextInt(gridSize - size + 1);
+                int y = vertical ? random.nextInt(gridSize - size + 1) : random.nextInt(gridSize);
+                if (canPlaceShip(occupied, gridSize, x, y, size, vertical)) {
+                    start = y * gridSize + x;
                 }
+            }
 
-                // Check if the ship can be placed without overlapping
-                if (canPlaceShip(x, y, shipSizes[i], orientation, ships)) {
-                    // Place the ship
-                    for (int j = 0; j < shipSizes[i]; j++) {
-                        if (orientation.equals("horizontal")) {
-                            ships.add(new Game.Ship(x + j, y, shipNames[i], orientation));
-                        } else {
-                            ships.add(new Game.Ship(x, y + j, shipNames[i], orientation));
-                        }
-                    }
-                    placed = true;
+            // Crowded board: choose uniformly among every legal placement instead
+            if (start < 0) {
+                int placement = pickPlacement(occupied, gridSize, size, random);
+                if (placement < 0) {
+                    return null;
                 }
+                vertical = placement >= gridSize * gridSize;
+                start = vertical ? placement - gridSize * gridSize : placement;
+            }
+
+            String orientation = vertical ? "vertical" : "horizontal";
+            int x = start % gridSize;
+            int y = start / gridSize;
+            for (int j = 0; j < size; j++) {
+                int cellX = vertical ? x : x + j;
+                int cellY = vertical ? y + j : y;
+                Bitboard.set(occupied, cellY * gridSize + cellX);
+                ships.add(new Game.Ship(cellX, cellY, type.getName(), orientation));
             }
         }
 
@@ -127,31 +607,83 @@ public class GameService {
     }
 
     // Helper method to check if the ship can be placed without overlapping
-    private boolean canPlaceShip(int x, int y, int shipSize, String orientation, List<Game.Ship> ships) {
-        for (int i = 0; i < shipSize; i++) {
-            int checkX = orientation.equals("horizontal") ? x + i : x;
-            int checkY = orientation.equals("vertical") ? y + i : y;
-
-            // Check if any existing ship occupies this position
-            for (Game.Ship ship : ships) {
-                if (ship.getX() == checkX && ship.getY() == checkY) {
-                    return false; // Overlap detected
-                }
+    private boolean canPlaceShip(long[] occupied, int gridSize, int x, int y, int shipSize, boolean vertical) {
+        int step = vertical ? gridSize : 1;
+        for (int i = 0, cell = y * gridSize + x; i < shipSize; i++, cell += step) {
+            if (Bitboard.get(occupied, cell)) {
+                return false; // Overlap detected
             }
         }
         return true; // No overlap, can place ship
     }
 
+    // Counts legal placements with one run-length pass per orientation, then picks one of them.
+    // Horizontal placements are numbered by start cell, vertical ones by start cell + cells.
+    private int pickPlacement(long[] occupied, int gridSize, int shipSize, Random random) {
+        int count = countPlacements(occupied, gridSize, shipSize, -1);
+        if (count == 0) {
+            return -1;
+        }
+        return countPlacements(occupied, gridSize, shipSize, random.nextInt(count));
+    }
+
+    // With target < 0 returns the number of legal placements, otherwise the id of the target-th one
+    private int countPlacements(long[] occupied, int gridSize, int shipSize, int target) {
+        int cells = gridSize * gridSize;
+        int seen = 0;
+
+        // Horizontal: walk each row right to left, tracking the free run starting at each cell
+        for (int y = 0; y < gridSize; y++) {
+            int run = 0;
+            for (int x = gridSize - 1; x >= 0; x--) {
+                int cell = y * gridSize + x;
+                run = Bitboard.get(occupied, cell) ? 0 : run + 1;
+                if (run >= shipSize && seen++ == target) {
+                    return cell;
+                }
+            }
+        }
+
+        // A one-cell ship has no distinct vertical placements
+        if (shipSize > 1) {
+            for (int x = 0; x < gridSize; x++) {
+                int run = 0;
+                for (int y = gridSize - 1; y >= 0; y--) {
+                    int cell = y * gridSize + x;
+                    run = Bitboard.get(occupied, cell) ? 0 : run + 1;
+                    if (run >= shipSize && seen++ == target) {
+                        return cells + cell;
+                    }
+                }
+            }
+        }
+
+        return target < 0 ? seen : -1;
+    }
+
     public void removeGame(String gameId) {
         if (gameId == null || gameId.isEmpty()) {
             throw new IllegalArgumentException("Game ID must not be null or empty");
         }
 
-        if (!gameRepository.existsById(gameId)) {
+        String collection = mongoTemplate.getCollectionName(Game.class);
+        // Ids are stored as ObjectIds where valid, as GameWriteConverter writes them
+        Object id = ObjectId.isValid(gameId) ? new ObjectId(gameId) : gameId;
+        Document stored = mongoTemplate.findById(id, Document.class, collection);
+        if (stored == null) {
             throw new IllegalArgumentException("Game not found with ID: " + gameId);
         }
 
+        // A game that was played keeps its replay in the archive; one nobody joined is just dropped
+        if ("finished".equals(stored.getString("status")) && gameArchive.isEnabled()) {
+            try {
+                gameArchive.append(List.of(stored));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not archive game " + gameId, e);
+            }
+        }
         gameRepository.deleteById(gameId);
+        forget(gameId);
     }
 
     public boolean validateGameForTransaction(String gameId, String username) {
@@ -165,36 +697,85 @@ public class GameService {
         return (username.equals(existingGame.getPlayer1Id()) || username.equals(existingGame.getPlayer2Id()));
     }
 
-    // Commit phase: Update game status to finished
-    public boolean commitGame(String gameId) {
-        Optional<Game> game = gameRepository.findById(gameId);
-        if (!game.isEmpty()) {
-            Game existingGame = game.get();
+    // Commit phase: Update game status to finished, in one atomic update. Both players commit
+    // the same game; $min keeps the first settlement time. Returns the settled game.
+    public Optional<Game> commitGame(String gameId) {
+        Update update = new Update().set("status", "finished").min("finishedAt", new Date())
+                .currentDate("updatedAt");
+        forget(gameId);
+        return Optional.ofNullable(mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(gameId)),
+                update, FindAndModifyOptions.options().returnNew(true), Game.class));
+    }
 
-            existingGame.setStatus("finished");
-            gameRepository.save(existingGame);
-            return true;
+    // One player's view of a settled game, passed on to their match history
+    public Map<String, Object> matchSummary(Game game, String username) {
+        boolean isPlayer1 = username.equals(game.getPlayer1Id());
+        boolean isPlayer2 = username.equals(game.getPlayer2Id());
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("game_id", game.getId());
+        String opponent = isPlayer1 ? game.getPlayer2Id() : isPlayer2 ? game.getPlayer1Id() : null;
+        if (opponent != null) {
+            summary.put("opponent", opponent);
         }
-        return false;
+        if (isPlayer1 || isPlayer2) {
+            // Shots this player fired are the ones received on the opponent's board
+            long[] hits = isPlayer1 ? game.getPlayer2Hits() : game.getPlayer1Hits();
+            long[] misses = isPlayer1 ? game.getPlayer2Misses() : game.getPlayer1Misses();
+            summary.put("moves", Bitboard.count(hits) + Bitboard.count(misses));
+        }
+        if (game.getStartedAt() != null && game.getFinishedAt() != null) {
+            summary.put("duration_ms", Duration.between(game.getStartedAt(), game.getFinishedAt()).toMillis());
+        }
+        return summary;
     }
 
     // Rollback phase: Revert game status to previous state
     public boolean rollbackGame(String gameId) {
-        if (rollbackLog.containsKey(gameId)) {
-            Optional<Game> game = gameRepository.findById(gameId);
-            if (!game.isEmpty()) {
-                Game existingGame = game.get();
-
-                // Revert to the previous status
-                String previousStatus = rollbackLog.get(gameId);
-                existingGame.setStatus(previousStatus);
-
-                // Save the reverted state and remove the log entry
-                gameRepository.save(existingGame);
+        String previousStatus = rollbackLog.get(gameId);
+        if (previousStatus != null) {
+            // Revert to the previous status in one atomic update, then remove the log entry
+            Game game = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(gameId)),
+                    new Update().set("status", previousStatus).currentDate("updatedAt"), Game.class);
+            if (game != null) {
+                forget(gameId);
                 rollbackLog.remove(gameId);
                 return true;
             }
         }
         return false; // Rollback failed
     }
+
+    // Keeps the in-memory copy of a live game, and the standby's replica of it, up to date
+    private void remember(Game game) {
+        liveGames.put(game);
+        replicationPublisher.snapshot(game);
+    }
+
+    private void forget(String gameId) {
+        liveGames.evict(gameId);
+        replicationPublisher.evict(gameId);
+    }
+
+    // Pipeline helpers for the conditional updates above. Player ids are wrapped in $literal
+    // so a value starting with '$' is never read as a field path.
+    private static Document literal(Object value) {
+        return new Document("$literal", value);
+    }
+
+    private static Document cond(Document condition, Object then, Object otherwise) {
+        return new Document("$cond", List.of(condition, then, otherwise));
+    }
+
+    private static AggregationOperation stage(Document stage) {
+        return context -> stage;
+    }
+
+    // Games stored before versioning have no version field and count as version 0
+    private static Criteria versionIs(Long version) {
+        if (version == null || version == 0) {
+            return new Criteria().orOperator(Criteria.where("version").is(0L), Criteria.where("version").exists(false));
+        }
+        return Criteria.where("version").is(version);
+    }
 }
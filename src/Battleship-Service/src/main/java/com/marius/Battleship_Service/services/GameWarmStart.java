@@ -0,0 +1,167 @@
+package com.marius.Battleship_Service.services;
+
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.replication.ReplicationPublisher;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Loads every waiting and in-progress game into {@link LiveGameStore} at
+ * startup, so the first moves after a deploy do not each wait on a MongoDB
+ * read. Games are streamed through one cursor over the status index, with a
+ * projection of the fields a live game needs, and decoded in parallel;
+ * finished games are never read, so the cost follows the number of live games
+ * rather than the size of the history.
+ *
+ * Loading runs in the background. Until it is done this indicator reports
+ * OUT_OF_SERVICE, which keeps the node out of the readiness group; requests
+ * that arrive meanwhile fall back to reading their game directly.
+ */
+@Component
+public class GameWarmStart implements ApplicationRunner, HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(GameWarmStart.class);
+
+    // Everything GameReadConverter reads, in both the compact and the legacy layout
+    private static final String[] LIVE_FIELDS = {
+            "version", "player1Id", "player2Id", "status", "gridSize", "fleet", "currentTurn", "winnerId",
+            "startedAt", "finishedAt", "updatedAt", "player1Fleet", "player2Fleet", "player1Grid", "player2Grid",
+            "player1Hits", "player1Misses", "player2Hits", "player2Misses" };
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private LiveGameStore liveGames;
+
+    @Autowired
+    private CustomMetricsService customMetricsService;
+
+    @Autowired
+    private ReplicationPublisher replicationPublisher;
+
+    @Value("${battleship.warm-start.enabled:true}")
+    private boolean enabled;
+
+    @Value("${battleship.warm-start.batch-size:500}")
+    private int batchSize;
+
+    @Value("${battleship.warm-start.threads:0}")
+    private int threads;
+
+    private volatile Health health = Health.outOfService().withDetail("phase", "waiting").build();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            health = Health.up().withDetail("phase", "disabled").build();
+            return;
+        }
+        Thread loader = new Thread(this::load, "game-warm-start");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @Override
+    public Health health() {
+        return health;
+    }
+
+    private void load() {
+        health = Health.outOfService().withDetail("phase", "loading").build();
+        long start = System.nanoTime();
+        int parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ExecutorService decoders = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "game-warm-start-decoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            // Without this index the query below would scan every game ever played
+            mongoTemplate.indexOps(Game.class).ensureIndex(new Index().on("status", Sort.Direction.ASC));
+
+            Query query = new Query(Criteria.where("status").in(LiveGameStore.LIVE_STATUSES))
+                    .cursorBatchSize(batchSize);
+            query.fields().include(LIVE_FIELDS);
+
+            // The cursor thread only collects raw documents; decoding and board indexing run on the pool
+            AtomicInteger loaded = new AtomicInteger();
+            List<Future<?>> pending = new ArrayList<>();
+            String collection = mongoTemplate.getCollectionName(Game.class);
+            try (Stream<Document> cursor = mongoTemplate.stream(query, Document.class, collection)) {
+                List<Document> batch = new ArrayList<>(batchSize);
+                for (Document document : (Iterable<Document>) cursor::iterator) {
+                    batch.add(document);
+                    if (batch.size() == batchSize) {
+                        pending.add(decode(decoders, batch, loaded));
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    pending.add(decode(decoders, batch, loaded));
+                }
+            }
+            for (Future<?> future : pending) {
+                future.get();
+            }
+
+            Duration took = Duration.ofNanos(System.nanoTime() - start);
+            double rate = loaded.get() / Math.max(took.toNanos() / 1e9, 1e-9);
+            customMetricsService.recordWarmStart(loaded.get(), took);
+            replicationPublisher.resync();
+            log.info("Warm start loaded {} live games in {} ms ({} docs/s, {} threads)",
+                    loaded.get(), took.toMillis(), Math.round(rate), parallelism);
+            health = Health.up()
+                    .withDetail("phase", "loaded")
+                    .withDetail("games", loaded.get())
+                    .withDetail("durationMs", took.toMillis())
+                    .withDetail("docsPerSecond", Math.round(rate))
+                    .build();
+        } catch (Exception e) {
+            // Games are still read on demand, so a failed warm start only costs latency
+            log.warn("Warm start failed, games will be loaded on demand", e);
+            health = Health.up()
+                    .withDetail("phase", "failed")
+                    .withDetail("error", String.valueOf(e.getMessage()))
+                    .build();
+        } finally {
+            decoders.shutdown();
+        }
+    }
+
+    private Future<?> decode(ExecutorService decoders, List<Document> batch, AtomicInteger loaded) {
+        return decoders.submit(() -> {
+            for (Document document : batch) {
+                Game game = mongoTemplate.getConverter().read(Game.class, document);
+                // Build the hit-test indexes now rather than on the game's first shot
+                game.getPlayer1Board();
+                game.getPlayer2Board();
+                liveGames.putIfAbsent(game);
+                loaded.incrementAndGet();
+            }
+        });
+    }
+}
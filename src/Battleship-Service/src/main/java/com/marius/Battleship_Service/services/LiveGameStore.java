@@ -0,0 +1,65 @@
+package com.marius.Battleship_Service.services;
+
+import com.marius.Battleship_Service.models.Game;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The games this node is serving, kept in memory so a move does not have to
+ * read its game back from MongoDB first. Only waiting and in-progress games
+ * are held; a game is dropped once it finishes or is removed. Every write
+ * still goes to MongoDB and is versioned, so a copy that fell behind a write
+ * from another node is caught at save time and refreshed.
+ */
+@Component
+public class LiveGameStore {
+
+    public static final Set<String> LIVE_STATUSES = Set.of("waiting_for_opponent", "in_progress");
+
+    private final ConcurrentMap<String, Game> games = new ConcurrentHashMap<>();
+
+    public Game get(String gameId) {
+        return games.get(gameId);
+    }
+
+    // Holds the game if it is still live, otherwise forgets it
+    public void put(Game game) {
+        if (game.getId() == null) {
+            return;
+        }
+        if (isLive(game)) {
+            games.put(game.getId(), game);
+        } else {
+            games.remove(game.getId());
+        }
+    }
+
+    // Warm start only: keeps whatever a request already cached while loading was running
+    public void putIfAbsent(Game game) {
+        if (game.getId() != null && isLive(game)) {
+            games.putIfAbsent(game.getId(), game);
+        }
+    }
+
+    public void evict(String gameId) {
+        if (gameId != null) {
+            games.remove(gameId);
+        }
+    }
+
+    public Collection<Game> games() {
+        return games.values();
+    }
+
+    public int size() {
+        return games.size();
+    }
+
+    private static boolean isLive(Game game) {
+        return LIVE_STATUSES.contains(game.getStatus()) && game.getWinnerId() == null;
+    }
+}
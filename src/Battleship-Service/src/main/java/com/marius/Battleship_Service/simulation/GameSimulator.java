@@ -0,0 +1,201 @@
+package com.marius.Battleship_Service.simulation;
+
+import com.marius.Battleship_Service.bot.TargetingEngine;
+import com.marius.Battleship_Service.models.AttackResult;
+import com.marius.Battleship_Service.models.Bitboard;
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.services.GameService;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays complete bot-against-bot games in memory, with the placement and
+ * attack resolution from {@link GameService}, and aggregates the outcomes.
+ * Games are split into ranges on a fork/join pool; every leaf task keeps its
+ * own engines and {@link SimulationAccumulator}, and the partial results are
+ * merged as the tasks join, so workers share nothing while playing.
+ *
+ * Each game also checks the rule invariants (a legal layout, termination, the
+ * winner having sunk the whole fleet) and fails with an
+ * {@link IllegalStateException} naming the game and seed when one breaks.
+ */
+public class GameSimulator {
+
+    private static final int GAMES_PER_TASK = 512;
+    private static final String PLAYER1 = "player1";
+    private static final String PLAYER2 = "player2";
+
+    private final GameService gameService;
+    private final int parallelism;
+
+    public GameSimulator(GameService gameService, int parallelism) {
+        this.gameService = gameService;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    public SimulationReport run(int games, int gridSize, List<Game.ShipType> fleet, long seed) {
+        if (games <= 0) {
+            throw new IllegalArgumentException("Number of games must be positive");
+        }
+
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            SimulationAccumulator result = pool.invoke(new GameRange(0, games, gridSize, fleet, seed));
+            return result.toReport(System.nanoTime() - start);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Plays game number index of a run with this seed again, exactly as the run played it
+    SimulationReport replay(int index, int gridSize, List<Game.ShipType> fleet, long seed) {
+        long start = System.nanoTime();
+        return new GameRange(index, index + 1, gridSize, fleet, seed).compute().toReport(System.nanoTime() - start);
+    }
+
+    private class GameRange extends RecursiveTask<SimulationAccumulator> {
+
+        private final int from;
+        private final int to;
+        private final int gridSize;
+        private final List<Game.ShipType> fleet;
+        private final long seed;
+
+        GameRange(int from, int to, int gridSize, List<Game.ShipType> fleet, long seed) {
+            this.from = from;
+            this.to = to;
+            this.gridSize = gridSize;
+            this.fleet = fleet;
+            this.seed = seed;
+        }
+
+        @Override
+        protected SimulationAccumulator compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                return play();
+            }
+            int middle = (from + to) >>> 1;
+            GameRange left = new GameRange(from, middle, gridSize, fleet, seed);
+            left.fork();
+            SimulationAccumulator right = new GameRange(middle, to, gridSize, fleet, seed).compute();
+            return left.join().merge(right);
+        }
+
+        private SimulationAccumulator play() {
+            SimulationAccumulator accumulator = new SimulationAccumulator(gridSize, fleet);
+            int[] fleetSizes = fleetSizes(fleet);
+            TargetingEngine player1 = new TargetingEngine(gridSize, fleetSizes, seed);
+            TargetingEngine player2 = new TargetingEngine(gridSize, fleetSizes, seed);
+            Random random = new Random();
+
+            for (int index = from; index < to; index++) {
+                // Placement and both engines are reseeded per game, so any single game can be
+                // replayed from the seed and its index
+                long gameSeed = mix(seed, index);
+                random.setSeed(gameSeed);
+                Game game = gameService.newMatch(PLAYER1, PLAYER2, gridSize, fleet, random);
+                checkLayout(game.getPlayer1Grid(), index);
+                checkLayout(game.getPlayer2Grid(), index);
+                accumulator.addLayout(game.getPlayer1Grid());
+                accumulator.addLayout(game.getPlayer2Grid());
+
+                player1.reset(mix(gameSeed, 0));
+                player2.reset(mix(gameSeed, 1));
+                playGame(game, player1, player2, accumulator, index);
+            }
+            return accumulator;
+        }
+
+        private void playGame(Game game, TargetingEngine player1, TargetingEngine player2,
+                SimulationAccumulator accumulator, int index) {
+            int cells = gridSize * gridSize;
+            int moves = 0;
+            AttackResult result;
+            do {
+                if (moves == 2 * cells) {
+                    throw failure(index, "did not finish after " + moves + " moves");
+                }
+                String attacker = game.getCurrentTurn();
+                TargetingEngine engine = PLAYER1.equals(attacker) ? player1 : player2;
+                int cell = engine.nextTarget();
+                if (cell < 0) {
+                    throw failure(index, attacker + " has no cell left to attack");
+                }
+                result = gameService.resolveAttack(game, attacker, cell % gridSize, cell / gridSize);
+                engine.record(result);
+                moves++;
+            } while (!result.isGameOver());
+
+            boolean firstMoverWon = PLAYER1.equals(result.winnerId());
+            long[] defenderHits = firstMoverWon ? game.getPlayer2Hits() : game.getPlayer1Hits();
+            List<Game.Ship> defenderGrid = firstMoverWon ? game.getPlayer2Grid() : game.getPlayer1Grid();
+            if (Bitboard.count(defenderHits) != defenderGrid.size()) {
+                throw failure(index, "winner has not hit every ship cell");
+            }
+            accumulator.addGame(moves, firstMoverWon);
+        }
+
+        // Every ship must be a straight, in-bounds run of its declared size, with no shared cells
+        private void checkLayout(List<Game.Ship> grid, int index) {
+            long[] occupied = Bitboard.create(gridSize * gridSize);
+            for (Game.Ship ship : grid) {
+                if (ship.getX() < 0 || ship.getY() < 0 || ship.getX() >= gridSize || ship.getY() >= gridSize) {
+                    throw failure(index, ship.getShip() + " is out of bounds");
+                }
+                int cell = ship.getY() * gridSize + ship.getX();
+                if (Bitboard.get(occupied, cell)) {
+                    throw failure(index, "ships overlap at cell " + cell);
+                }
+                Bitboard.set(occupied, cell);
+            }
+
+            int expected = 0;
+            for (Game.ShipType type : fleet) {
+                expected += type.getSize();
+                int count = 0;
+                int minX = gridSize, minY = gridSize, maxX = -1, maxY = -1;
+                for (Game.Ship ship : grid) {
+                    if (type.getName().equals(ship.getShip())) {
+                        count++;
+                        minX = Math.min(minX, ship.getX());
+                        minY = Math.min(minY, ship.getY());
+                        maxX = Math.max(maxX, ship.getX());
+                        maxY = Math.max(maxY, ship.getY());
+                    }
+                }
+                boolean straight = (minX == maxX && maxY - minY + 1 == count)
+                        || (minY == maxY && maxX - minX + 1 == count);
+                if (count != type.getSize() || !straight) {
+                    throw failure(index, type.getName() + " is not a straight run of " + type.getSize() + " cells");
+                }
+            }
+            if (grid.size() != expected) {
+                throw failure(index, "layout has " + grid.size() + " cells, expected " + expected);
+            }
+        }
+
+        private IllegalStateException failure(int index, String message) {
+            return new IllegalStateException("Simulated game " + index + " (seed " + seed + "): " + message);
+        }
+    }
+
+    private static int[] fleetSizes(List<Game.ShipType> fleet) {
+        int[] sizes = new int[fleet.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = fleet.get(i).getSize();
+        }
+        return sizes;
+    }
+
+    // SplitMix64 finaliser, so neighbouring indexes get unrelated seeds
+    static long mix(long seed, long index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
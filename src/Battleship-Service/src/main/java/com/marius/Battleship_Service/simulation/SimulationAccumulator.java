@@ -0,0 +1,72 @@
+package com.marius.Battleship_Service.simulation;
+
+import com.marius.Battleship_Service.models.Game;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Running totals for one simulation task; not thread-safe, merged when tasks join
+class SimulationAccumulator {
+
+    private final int gridSize;
+    private final Set<String> singleCellShips = new HashSet<>(); // have no orientation to speak of
+    private final long[] lengths; // games by total number of moves
+    private final long[] occupancy; // ship cells placed on each board cell
+    private long games;
+    private long firstMoverWins;
+    private long horizontalCells;
+    private long verticalCells;
+
+    SimulationAccumulator(int gridSize, List<Game.ShipType> fleet) {
+        this.gridSize = gridSize;
+        for (Game.ShipType type : fleet) {
+            if (type.getSize() == 1) {
+                singleCellShips.add(type.getName());
+            }
+        }
+        this.lengths = new long[2 * gridSize * gridSize + 1];
+        this.occupancy = new long[gridSize * gridSize];
+    }
+
+    void addLayout(List<Game.Ship> grid) {
+        for (Game.Ship ship : grid) {
+            occupancy[ship.getY() * gridSize + ship.getX()]++;
+            if (singleCellShips.contains(ship.getShip())) {
+                continue;
+            }
+            if ("vertical".equals(ship.getOrientation())) {
+                verticalCells++;
+            } else {
+                horizontalCells++;
+            }
+        }
+    }
+
+    void addGame(int moves, boolean firstMoverWon) {
+        games++;
+        lengths[moves]++;
+        if (firstMoverWon) {
+            firstMoverWins++;
+        }
+    }
+
+    SimulationAccumulator merge(SimulationAccumulator other) {
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] += other.lengths[i];
+        }
+        for (int i = 0; i < occupancy.length; i++) {
+            occupancy[i] += other.occupancy[i];
+        }
+        games += other.games;
+        firstMoverWins += other.firstMoverWins;
+        horizontalCells += other.horizontalCells;
+        verticalCells += other.verticalCells;
+        return this;
+    }
+
+    SimulationReport toReport(long elapsedNanos) {
+        return new SimulationReport(gridSize, games, firstMoverWins, lengths.clone(), occupancy.clone(),
+                horizontalCells, verticalCells, elapsedNanos);
+    }
+}
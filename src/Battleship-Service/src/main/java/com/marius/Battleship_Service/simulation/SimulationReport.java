@@ -0,0 +1,124 @@
+package com.marius.Battleship_Service.simulation;
+
+/**
+ * Aggregated outcome of a simulation run. Game length counts the moves of both
+ * players; placement bias compares how often each board cell was occupied
+ * across all generated layouts.
+ */
+public class SimulationReport {
+
+    private final int gridSize;
+    private final long games;
+    private final long firstMoverWins;
+    private final long[] lengths;
+    private final long[] occupancy;
+    private final long horizontalCells;
+    private final long verticalCells;
+    private final long elapsedNanos;
+
+    SimulationReport(int gridSize, long games, long firstMoverWins, long[] lengths, long[] occupancy,
+            long horizontalCells, long verticalCells, long elapsedNanos) {
+        this.gridSize = gridSize;
+        this.games = games;
+        this.firstMoverWins = firstMoverWins;
+        this.lengths = lengths;
+        this.occupancy = occupancy;
+        this.horizontalCells = horizontalCells;
+        this.verticalCells = verticalCells;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double gamesPerSecond() {
+        return games / (elapsedNanos / 1e9);
+    }
+
+    public double firstMoverWinRate() {
+        return (double) firstMoverWins / games;
+    }
+
+    // Number of games that took exactly the given number of moves
+    public long gamesOfLength(int moves) {
+        return moves >= 0 && moves < lengths.length ? lengths[moves] : 0;
+    }
+
+    public double meanLength() {
+        long total = 0;
+        for (int moves = 0; moves < lengths.length; moves++) {
+            total += moves * lengths[moves];
+        }
+        return (double) total / games;
+    }
+
+    // Smallest game length that at least the given fraction of games did not exceed
+    public int lengthPercentile(double fraction) {
+        long threshold = (long) Math.ceil(fraction * games);
+        long seen = 0;
+        for (int moves = 0; moves < lengths.length; moves++) {
+            seen += lengths[moves];
+            if (seen >= threshold && seen > 0) {
+                return moves;
+            }
+        }
+        return lengths.length - 1;
+    }
+
+    // Fraction of ship cells (ships longer than one cell) placed horizontally; 0.5 is unbiased
+    public double horizontalShare() {
+        long total = horizontalCells + verticalCells;
+        return total == 0 ? 0.5 : (double) horizontalCells / total;
+    }
+
+    // How often the given cell held a ship, relative to the board average
+    public double occupancyRatio(int x, int y) {
+        return occupancy[y * gridSize + x] / meanOccupancy();
+    }
+
+    public double maxOccupancyRatio() {
+        long max = 0;
+        for (long count : occupancy) {
+            max = Math.max(max, count);
+        }
+        return max / meanOccupancy();
+    }
+
+    public double minOccupancyRatio() {
+        long min = Long.MAX_VALUE;
+        for (long count : occupancy) {
+            min = Math.min(min, count);
+        }
+        return min / meanOccupancy();
+    }
+
+    private double meanOccupancy() {
+        long total = 0;
+        for (long count : occupancy) {
+            total += count;
+        }
+        return Math.max(1, (double) total / occupancy.length);
+    }
+
+    public String summary() {
+        return String.format(
+                "%,d games on %dx%d in %.1f s (%,.0f games/s)%n"
+                        + "  length: mean %.1f, p50 %d, p90 %d, p99 %d, max %d moves%n"
+                        + "  first mover wins %.2f%%%n"
+                        + "  placement: horizontal share %.3f, cell occupancy %.2f-%.2fx the mean",
+                games, gridSize, gridSize, elapsedNanos / 1e9, gamesPerSecond(),
+                meanLength(), lengthPercentile(0.5), lengthPercentile(0.9), lengthPercentile(0.99),
+                lengthPercentile(1.0),
+                firstMoverWinRate() * 100,
+                horizontalShare(), minOccupancyRatio(), maxOccupancyRatio());
+    }
+}
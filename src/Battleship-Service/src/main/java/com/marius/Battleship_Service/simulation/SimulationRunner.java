@@ -0,0 +1,45 @@
+package com.marius.Battleship_Service.simulation;
+
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.services.GameService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Headless simulation run at startup, e.g.
+//   --battleship.simulation.enabled=true --spring.main.web-application-type=none
+// Games are played in memory only; nothing is read from or written to Mongo.
+@Component
+@ConditionalOnProperty(name = "battleship.simulation.enabled", havingValue = "true")
+public class SimulationRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SimulationRunner.class);
+
+    @Autowired
+    private GameService gameService;
+
+    @Value("${battleship.simulation.games:1000000}")
+    private int games;
+
+    @Value("${battleship.simulation.grid-size:10}")
+    private int gridSize;
+
+    @Value("${battleship.simulation.seed:1}")
+    private long seed;
+
+    // 0 uses every available core
+    @Value("${battleship.simulation.parallelism:0}")
+    private int parallelism;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        SimulationReport report = new GameSimulator(gameService, parallelism)
+                .run(games, gridSize, Game.standardFleet(), seed);
+        log.info("Simulation: {}", report.summary());
+    }
+}
@@ -0,0 +1,146 @@
+package com.marius.Battleship_Service.timers;
+
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Every game and player timer on this node: the turn clock of each game in
+ * progress, the idle timeout of each game waiting for an opponent, and the
+ * reconnect grace period of each disconnected player. A game has at most one
+ * timer and a player at most one; starting a new one cancels the old. All of
+ * them live on one {@link TimingWheel}, and expiries run on a small pool so a
+ * slow one does not delay the others.
+ *
+ * Timers are local to the node that scheduled them: the node that handled a
+ * game's last move owns its turn clock.
+ */
+@Component
+public class GameClock {
+
+    private static final Logger log = LoggerFactory.getLogger(GameClock.class);
+
+    private final CustomMetricsService customMetricsService;
+    private final long turnTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long reconnectGraceMs;
+    private final TimingWheel wheel;
+    private final ExecutorService expiries;
+
+    private final Map<String, TimingWheel.Timeout> gameTimers = new ConcurrentHashMap<>();
+    private final Map<String, TimingWheel.Timeout> playerTimers = new ConcurrentHashMap<>();
+    private final Map<String, Integer> missedTurns = new ConcurrentHashMap<>(); // by game and player
+
+    public GameClock(CustomMetricsService customMetricsService,
+            @Value("${battleship.timers.turn-ms:60000}") long turnTimeoutMs,
+            @Value("${battleship.timers.idle-ms:1800000}") long idleTimeoutMs,
+            @Value("${battleship.timers.reconnect-grace-ms:30000}") long reconnectGraceMs,
+            @Value("${battleship.timers.tick-ms:100}") long tickMs,
+            @Value("${battleship.timers.wheel-size:1024}") int wheelSize,
+            @Value("${battleship.timers.threads:2}") int threads) {
+        this.customMetricsService = customMetricsService;
+        this.turnTimeoutMs = turnTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.reconnectGraceMs = reconnectGraceMs;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.expiries = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "game-clock-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.wheel = new TimingWheel("game-clock-wheel", tickMs, TimeUnit.MILLISECONDS, wheelSize, expiries);
+        customMetricsService.registerGameTimers(wheel::pending);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.close();
+        expiries.shutdownNow();
+    }
+
+    // The player to move has turn-ms to do it
+    public void turnStarted(String gameId, Runnable onExpiry) {
+        start(gameTimers, gameId, "turn", onExpiry, turnTimeoutMs);
+    }
+
+    // A game nobody joins is dropped after idle-ms
+    public void waitingForOpponent(String gameId, Runnable onExpiry) {
+        start(gameTimers, gameId, "idle", onExpiry, idleTimeoutMs);
+    }
+
+    // Stops the game's timer, e.g. while a bot is moving
+    public void cancel(String gameId) {
+        TimingWheel.Timeout timeout = gameTimers.remove(gameId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    public void gameOver(String gameId, String player1Id, String player2Id) {
+        cancel(gameId);
+        missedTurns.remove(gameId + '/' + player1Id);
+        missedTurns.remove(gameId + '/' + player2Id);
+    }
+
+    // Counts a turn the player let expire; returns how many in a row they have now missed
+    public int turnMissed(String gameId, String playerId) {
+        return missedTurns.merge(gameId + '/' + playerId, 1, Integer::sum);
+    }
+
+    public void turnTaken(String gameId, String playerId) {
+        missedTurns.remove(gameId + '/' + playerId);
+    }
+
+    // The player has reconnect-grace-ms to come back before their game is given up
+    public void disconnected(String playerId, Runnable onExpiry) {
+        start(playerTimers, playerId, "reconnect", onExpiry, reconnectGraceMs);
+    }
+
+    public void reconnected(String playerId) {
+        TimingWheel.Timeout timeout = playerTimers.remove(playerId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    public int pending() {
+        return wheel.pending();
+    }
+
+    // A timer only fires if it is still the current one for its key; zero or less disables it
+    private void start(Map<String, TimingWheel.Timeout> timers, String key, String kind, Runnable onExpiry,
+            long delayMs) {
+        if (delayMs <= 0) {
+            return;
+        }
+        AtomicReference<TimingWheel.Timeout> self = new AtomicReference<>();
+        TimingWheel.Timeout timeout = wheel.schedule(() -> {
+            if (timers.remove(key, self.get())) {
+                customMetricsService.recordTimerExpiry(kind);
+                try {
+                    onExpiry.run();
+                } catch (RuntimeException e) {
+                    log.error("Handling the {} timeout of {} failed", kind, key, e);
+                }
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+        self.set(timeout);
+
+        TimingWheel.Timeout previous = timers.put(key, timeout);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+}
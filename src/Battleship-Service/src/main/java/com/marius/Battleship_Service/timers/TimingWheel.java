@@ -0,0 +1,203 @@
+package com.marius.Battleship_Service.timers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A hashed timing wheel: one ring of buckets, each an intrusive doubly linked
+ * list of timeouts, advanced by a single thread one tick at a time. A timeout
+ * goes into the bucket of its deadline tick, so scheduling and cancelling are
+ * a couple of pointer updates, and a pending timer costs one small node
+ * instead of a ScheduledFuture and a heap entry. Deadlines further out than
+ * one turn of the wheel share buckets with nearer ones and are skipped until
+ * their lap comes round. Timers fire up to one tick late.
+ *
+ * Expired tasks run on the given executor, never on the wheel thread.
+ */
+public class TimingWheel implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TimingWheel.class);
+
+    private final long tickNanos;
+    private final Timeout[] buckets; // head of each bucket's list
+    private final int mask;
+    private final Executor executor;
+    private final LongSupplier nanoTime;
+    private final long startNanos;
+    private final Thread worker; // null when the owner advances the wheel itself
+    private final List<Timeout> expired = new ArrayList<>();
+
+    private long tick; // last tick processed
+    private int pending;
+    private volatile boolean closed;
+
+    public TimingWheel(String name, long tickDuration, TimeUnit unit, int wheelSize, Executor executor) {
+        this(name, tickDuration, unit, wheelSize, executor, System::nanoTime);
+    }
+
+    // Without a name there is no worker thread: the wheel moves only when advance() is called,
+    // so a test can drive it with a clock of its own
+    TimingWheel(long tickDuration, TimeUnit unit, int wheelSize, Executor executor, LongSupplier nanoTime) {
+        this(null, tickDuration, unit, wheelSize, executor, nanoTime);
+    }
+
+    private TimingWheel(String name, long tickDuration, TimeUnit unit, int wheelSize, Executor executor,
+            LongSupplier nanoTime) {
+        if (tickDuration <= 0 || wheelSize < 1 || wheelSize > 1 << 20) {
+            throw new IllegalArgumentException("Tick must be positive and the wheel 1 to 2^20 buckets");
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1; // a power of two, so a tick maps to its bucket with a mask
+        }
+        this.buckets = new Timeout[size];
+        this.mask = buckets.length - 1;
+        this.executor = executor;
+        this.nanoTime = nanoTime;
+        this.startNanos = nanoTime.getAsLong();
+        if (name == null) {
+            this.worker = null;
+        } else {
+            this.worker = new Thread(this::run, name);
+            this.worker.setDaemon(true);
+            this.worker.start();
+        }
+    }
+
+    // Runs the task once the delay has passed, unless the returned timeout is cancelled first
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (closed) {
+            throw new IllegalStateException("Timing wheel is closed");
+        }
+        long due = nanoTime.getAsLong() - startNanos + unit.toNanos(Math.max(delay, 0));
+        long deadline = (due + tickNanos - 1) / tickNanos;
+        Timeout timeout = new Timeout(this, task);
+        synchronized (this) {
+            timeout.deadline = Math.max(deadline, tick + 1);
+            link(timeout);
+            pending++;
+        }
+        return timeout;
+    }
+
+    public synchronized int pending() {
+        return pending;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        while (!closed) {
+            long next;
+            synchronized (this) {
+                next = tick + 1;
+            }
+            long wait = startNanos + next * tickNanos - nanoTime.getAsLong();
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            advance();
+        }
+    }
+
+    // Catches up on every tick that has passed by the clock, in case the caller was held up,
+    // and hands what expired to the executor. Only ever called from one thread.
+    void advance() {
+        long now = (nanoTime.getAsLong() - startNanos) / tickNanos;
+        synchronized (this) {
+            while (tick < now) {
+                tick++;
+                expire(tick, expired);
+            }
+        }
+        for (Timeout timeout : expired) {
+            try {
+                executor.execute(timeout.task);
+            } catch (RuntimeException e) {
+                log.warn("Timer task rejected", e);
+            }
+        }
+        expired.clear();
+    }
+
+    // Unlinks the bucket's due timeouts; those for a later lap stay where they are
+    private void expire(long currentTick, List<Timeout> expired) {
+        Timeout timeout = buckets[(int) (currentTick & mask)];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.deadline <= currentTick) {
+                unlink(timeout);
+                pending--;
+                expired.add(timeout);
+            }
+            timeout = next;
+        }
+    }
+
+    private void link(Timeout timeout) {
+        int bucket = (int) (timeout.deadline & mask);
+        Timeout head = buckets[bucket];
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        buckets[bucket] = timeout;
+        timeout.linked = true;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[(int) (timeout.deadline & mask)] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = timeout.next = null;
+        timeout.linked = false;
+    }
+
+    public static final class Timeout {
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private long deadline;
+        private Timeout prev;
+        private Timeout next;
+        private boolean linked;
+
+        private Timeout(TimingWheel wheel, Runnable task) {
+            this.wheel = wheel;
+            this.task = task;
+        }
+
+        // True if the task had not run yet and now never will
+        public boolean cancel() {
+            synchronized (wheel) {
+                if (!linked) {
+                    return false;
+                }
+                wheel.unlink(this);
+                wheel.pending--;
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.marius.Battleship_Service.tournament;
+
+import java.util.Map;
+
+// Messages for tournament players, keyed by player id. Published as an application event so
+// the WebSocket handler can deliver them without the tournament code depending on it.
+public record TournamentNotification(Map<String, Map<String, Object>> messages) {
+}
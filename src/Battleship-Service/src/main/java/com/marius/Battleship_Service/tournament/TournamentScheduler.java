@@ -0,0 +1,145 @@
+package com.marius.Battleship_Service.tournament;
+
+import com.marius.Battleship_Service.models.TournamentMatch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pairing rules for both tournament formats. Pure functions over the seed
+ * list and the matches played so far, so a round can be rebuilt from what is
+ * stored at any time. A pairing without a second player is a bye.
+ */
+public final class TournamentScheduler {
+
+    private TournamentScheduler() {
+    }
+
+    public record Pairing(String player1Id, String player2Id) {
+        public boolean isBye() {
+            return player2Id == null;
+        }
+    }
+
+    // Rounds needed until one player is left
+    public static int eliminationRounds(int players) {
+        return 32 - Integer.numberOfLeadingZeros(Math.max(players - 1, 0));
+    }
+
+    // Top seed plays bottom seed, second plays second-to-last, and so on; with an odd
+    // number of players the top seed sits the round out
+    public static List<Pairing> firstEliminationRound(List<String> seeds) {
+        List<Pairing> pairings = new ArrayList<>(seeds.size() / 2 + 1);
+        int first = 0;
+        if (seeds.size() % 2 == 1) {
+            pairings.add(new Pairing(seeds.get(0), null));
+            first = 1;
+        }
+        for (int i = first, j = seeds.size() - 1; i < j; i++, j--) {
+            pairings.add(new Pairing(seeds.get(i), seeds.get(j)));
+        }
+        return pairings;
+    }
+
+    // Winners of neighbouring slots meet; an odd winner out gets a bye
+    public static List<Pairing> nextEliminationRound(List<TournamentMatch> previous) {
+        List<String> winners = eliminationWinners(previous);
+        List<Pairing> pairings = new ArrayList<>(winners.size() / 2 + 1);
+        for (int i = 0; i < winners.size(); i += 2) {
+            pairings.add(new Pairing(winners.get(i), i + 1 < winners.size() ? winners.get(i + 1) : null));
+        }
+        return pairings;
+    }
+
+    public static List<String> eliminationWinners(List<TournamentMatch> round) {
+        List<TournamentMatch> bySlot = new ArrayList<>(round);
+        bySlot.sort(Comparator.comparingInt(TournamentMatch::getSlot));
+        List<String> winners = new ArrayList<>(bySlot.size());
+        for (TournamentMatch match : bySlot) {
+            winners.add(match.getWinnerId());
+        }
+        return winners;
+    }
+
+    // Rounds for a Swiss tournament when none are requested: enough to separate a single winner
+    public static int swissRounds(int players) {
+        return Math.max(1, eliminationRounds(players));
+    }
+
+    // Players by score (a win or a bye is one point), ties broken by seed
+    public static List<String> swissStandings(List<String> seeds, List<TournamentMatch> history) {
+        Map<String, Integer> scores = scores(history);
+        Map<String, Integer> seedOf = new HashMap<>();
+        for (int i = 0; i < seeds.size(); i++) {
+            seedOf.put(seeds.get(i), i);
+        }
+        List<String> standings = new ArrayList<>(seeds);
+        standings.sort(Comparator.<String>comparingInt(player -> -scores.getOrDefault(player, 0))
+                .thenComparingInt(seedOf::get));
+        return standings;
+    }
+
+    // Pairs down the standings, each player with the highest-ranked player left that they have
+    // not met yet (or the next one, if they have met everyone left). With an odd count the
+    // lowest-ranked player who has not had a bye sits out.
+    public static List<Pairing> swissRound(List<String> seeds, List<TournamentMatch> history) {
+        List<String> standings = swissStandings(seeds, history);
+        Set<String> met = new HashSet<>();
+        Set<String> hadBye = new HashSet<>();
+        for (TournamentMatch match : history) {
+            if (match.isBye()) {
+                hadBye.add(match.getPlayer1Id());
+            } else {
+                met.add(match.getPlayer1Id() + '\n' + match.getPlayer2Id());
+                met.add(match.getPlayer2Id() + '\n' + match.getPlayer1Id());
+            }
+        }
+
+        List<Pairing> pairings = new ArrayList<>(standings.size() / 2 + 1);
+        List<String> unpaired = new ArrayList<>(standings);
+        if (unpaired.size() % 2 == 1) {
+            int bye = unpaired.size() - 1;
+            while (bye > 0 && hadBye.contains(unpaired.get(bye))) {
+                bye--;
+            }
+            pairings.add(new Pairing(unpaired.remove(bye), null));
+        }
+
+        boolean[] paired = new boolean[unpaired.size()];
+        for (int i = 0; i < unpaired.size(); i++) {
+            if (paired[i]) {
+                continue;
+            }
+            int opponent = -1;
+            for (int j = i + 1; j < unpaired.size(); j++) {
+                if (!paired[j]) {
+                    if (opponent < 0) {
+                        opponent = j;
+                    }
+                    if (!met.contains(unpaired.get(i) + '\n' + unpaired.get(j))) {
+                        opponent = j;
+                        break;
+                    }
+                }
+            }
+            paired[i] = paired[opponent] = true;
+            pairings.add(new Pairing(unpaired.get(i), unpaired.get(opponent)));
+        }
+        return pairings;
+    }
+
+    private static Map<String, Integer> scores(List<TournamentMatch> history) {
+        Map<String, Integer> scores = new HashMap<>();
+        for (TournamentMatch match : history) {
+            if (match.getWinnerId() != null) {
+                scores.merge(match.getWinnerId(), 1, Integer::sum);
+            }
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,369 @@
+package com.marius.Battleship_Service.tournament;
+
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.models.Tournament;
+import com.marius.Battleship_Service.models.TournamentMatch;
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import com.marius.Battleship_Service.services.GameService;
+import com.marius.Battleship_Service.tournament.TournamentScheduler.Pairing;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Runs tournaments. Each round is provisioned in one go: every game's fleets
+ * are placed in parallel, the games are written with batched inserts instead
+ * of a create and a join each, and every paired player is notified of their
+ * game. Provisioning is bounded so a large round does not hold up live games
+ * on the same node: fleets are placed on a small pool of its own, and only a
+ * few insert batches (across every tournament) are written at once, leaving
+ * the rest of the MongoDB connection pool to live play.
+ *
+ * Progress is kept in MongoDB: each finished game records its winner on the
+ * match and counts down the round's pending games, and whichever node counts
+ * the last one down provisions the next round.
+ */
+@Service
+public class TournamentService {
+
+    public static final int MAX_PLAYERS = 100_000;
+
+    private static final Logger log = LoggerFactory.getLogger(TournamentService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private CustomMetricsService customMetricsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${battleship.tournaments.insert-batch-size:1000}")
+    private int insertBatchSize;
+
+    private final ForkJoinPool pool;
+    private final Semaphore insertPermits;
+    private final AtomicBoolean indexed = new AtomicBoolean();
+
+    public TournamentService(@Value("${battleship.tournaments.threads:0}") int threads,
+            @Value("${battleship.tournaments.concurrent-inserts:1}") int concurrentInserts) {
+        this.insertPermits = new Semaphore(Math.max(1, concurrentInserts), true);
+        int parallelism = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("tournament-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // Stores the tournament and starts provisioning its first round in the background
+    public Tournament create(String name, Tournament.Format format, List<String> players, int gridSize,
+            List<Game.ShipType> fleet, Integer rounds) {
+        if (format == null) {
+            throw new IllegalArgumentException("Format must be elimination or swiss");
+        }
+        if (players == null || players.size() < 2 || players.size() > MAX_PLAYERS) {
+            throw new IllegalArgumentException("A tournament needs between 2 and " + MAX_PLAYERS + " players");
+        }
+        if (players.stream().anyMatch(player -> player == null || player.isBlank())
+                || new HashSet<>(players).size() != players.size()) {
+            throw new IllegalArgumentException("Player ids must be unique and not empty");
+        }
+        gameService.validateVariant(gridSize, fleet);
+
+        int totalRounds = TournamentScheduler.eliminationRounds(players.size());
+        if (format == Tournament.Format.SWISS) {
+            totalRounds = rounds != null ? rounds : TournamentScheduler.swissRounds(players.size());
+            if (totalRounds < 1 || totalRounds >= players.size()) {
+                throw new IllegalArgumentException("A Swiss tournament needs between 1 and "
+                        + (players.size() - 1) + " rounds");
+            }
+        }
+        ensureIndexes();
+
+        Tournament tournament = new Tournament();
+        tournament.setName(name);
+        tournament.setFormat(format);
+        tournament.setPlayers(List.copyOf(players));
+        tournament.setGridSize(gridSize);
+        tournament.setFleet(fleet);
+        tournament.setRounds(totalRounds);
+        tournament.setStatus("provisioning");
+        tournament.setCreatedAt(Instant.now());
+        Tournament saved = mongoTemplate.insert(tournament);
+
+        List<Pairing> pairings = format == Tournament.Format.ELIMINATION
+                ? TournamentScheduler.firstEliminationRound(saved.getPlayers())
+                : TournamentScheduler.swissRound(saved.getPlayers(), List.of());
+        pool.execute(() -> startRound(saved, 1, pairings));
+        return saved;
+    }
+
+    // Called for every game that ends; does nothing unless the game belongs to a tournament.
+    // Only the first report of a result counts, so a retried or duplicated call is harmless.
+    public void gameFinished(String gameId, String winnerId) {
+        if (gameId == null || winnerId == null) {
+            return;
+        }
+        Query undecided = new Query(Criteria.where("gameId").is(gameId).and("winnerId").is(null)
+                .orOperator(Criteria.where("player1Id").is(winnerId), Criteria.where("player2Id").is(winnerId)));
+        TournamentMatch match = mongoTemplate.findAndModify(undecided, new Update().set("winnerId", winnerId),
+                TournamentMatch.class);
+        if (match == null) {
+            return;
+        }
+
+        Query round = new Query(Criteria.where("_id").is(match.getTournamentId()).and("round").is(match.getRound()));
+        Tournament tournament = mongoTemplate.findAndModify(round, new Update().inc("pending", -1),
+                FindAndModifyOptions.options().returnNew(true), Tournament.class);
+        if (tournament != null && tournament.getPending() == 0) {
+            pool.execute(() -> advance(tournament));
+        }
+    }
+
+    // A player leaving a tournament game loses it
+    public boolean forfeit(String gameId, String playerId) {
+        TournamentMatch match = mongoTemplate.findOne(
+                new Query(Criteria.where("gameId").is(gameId).and("winnerId").is(null)), TournamentMatch.class);
+        if (match == null || match.isBye() || playerId == null) {
+            return false;
+        }
+        String opponent = playerId.equals(match.getPlayer1Id()) ? match.getPlayer2Id()
+                : playerId.equals(match.getPlayer2Id()) ? match.getPlayer1Id() : null;
+        if (opponent == null) {
+            return false;
+        }
+        gameFinished(gameId, opponent);
+        return true;
+    }
+
+    public Optional<Tournament> getTournament(String tournamentId) {
+        return Optional.ofNullable(mongoTemplate.findById(tournamentId, Tournament.class));
+    }
+
+    public List<TournamentMatch> getRound(String tournamentId, int round) {
+        Query query = new Query(Criteria.where("tournamentId").is(tournamentId).and("round").is(round))
+                .with(Sort.by("slot"));
+        return mongoTemplate.find(query, TournamentMatch.class);
+    }
+
+    // The player's pairing in the current round, as sent in the round notification;
+    // empty if they are not (or no longer) playing in it
+    public Optional<Map<String, Object>> currentPairing(String tournamentId, String playerId) {
+        Optional<Tournament> tournament = getTournament(tournamentId);
+        if (tournament.isEmpty() || playerId == null) {
+            return Optional.empty();
+        }
+        Query query = new Query(Criteria.where("tournamentId").is(tournamentId)
+                .and("round").is(tournament.get().getRound())
+                .orOperator(Criteria.where("player1Id").is(playerId), Criteria.where("player2Id").is(playerId)));
+        TournamentMatch match = mongoTemplate.findOne(query, TournamentMatch.class);
+        if (match == null) {
+            return Optional.empty();
+        }
+        Game game = match.getGameId() == null ? null : gameService.getGame(match.getGameId()).orElse(null);
+        return Optional.of(roundMessage(tournament.get(), match, playerId, game));
+    }
+
+    private void startRound(Tournament tournament, int round, List<Pairing> pairings) {
+        long start = System.nanoTime();
+        try {
+            // Fleets are placed in parallel on this pool; every game is independent
+            Instant now = Instant.now();
+            List<Game> games = IntStream.range(0, pairings.size()).parallel()
+                    .mapToObj(slot -> pairings.get(slot).isBye() ? null : newGame(tournament, pairings.get(slot), now))
+                    .toList();
+
+            List<TournamentMatch> matches = new ArrayList<>(pairings.size());
+            List<Game> created = new ArrayList<>(pairings.size());
+            for (int slot = 0; slot < pairings.size(); slot++) {
+                Pairing pairing = pairings.get(slot);
+                Game game = games.get(slot);
+                matches.add(new TournamentMatch(tournament.getId(), round, slot,
+                        game == null ? null : game.getId(), pairing.player1Id(), pairing.player2Id()));
+                if (game != null) {
+                    created.add(game);
+                }
+            }
+
+            // The matches and the pending count go in before the games, so a game that ends
+            // straight away always finds its match
+            mongoTemplate.insert(matches, TournamentMatch.class);
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(tournament.getId())),
+                    new Update().set("round", round).set("pending", created.size()).set("status", "in_progress"),
+                    Tournament.class);
+            tournament.setRound(round);
+            insertGames(created);
+
+            Duration took = Duration.ofNanos(System.nanoTime() - start);
+            customMetricsService.recordTournamentProvisioning(created.size(), took);
+            log.info("Tournament {} round {}: provisioned {} games in {} ms",
+                    tournament.getId(), round, created.size(), took.toMillis());
+
+            Map<String, Map<String, Object>> messages = new HashMap<>();
+            for (int slot = 0; slot < matches.size(); slot++) {
+                TournamentMatch match = matches.get(slot);
+                messages.put(match.getPlayer1Id(), roundMessage(tournament, match, match.getPlayer1Id(), games.get(slot)));
+                if (!match.isBye()) {
+                    messages.put(match.getPlayer2Id(),
+                            roundMessage(tournament, match, match.getPlayer2Id(), games.get(slot)));
+                }
+            }
+            eventPublisher.publishEvent(new TournamentNotification(messages));
+        } catch (RuntimeException e) {
+            log.error("Provisioning round {} of tournament {} failed", round, tournament.getId(), e);
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(tournament.getId())),
+                    new Update().set("status", "failed"), Tournament.class);
+        }
+    }
+
+    // One batch at a time, each waiting for a permit, so concurrent rounds share the same budget
+    private void insertGames(List<Game> games) {
+        for (int from = 0; from < games.size(); from += insertBatchSize) {
+            List<Game> batch = games.subList(from, Math.min(from + insertBatchSize, games.size()));
+            try {
+                insertPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while provisioning", e);
+            }
+            try {
+                gameService.insertGames(batch, batch.size());
+            } finally {
+                insertPermits.release();
+            }
+        }
+    }
+
+    private Game newGame(Tournament tournament, Pairing pairing, Instant startedAt) {
+        Game game = gameService.newMatch(pairing.player1Id(), pairing.player2Id(), tournament.getGridSize(),
+                tournament.getFleet(), ThreadLocalRandom.current());
+        game.setId(new ObjectId().toHexString());
+        game.setStartedAt(startedAt);
+        // Build the hit-test indexes here rather than on the game's first shot
+        game.getPlayer1Board();
+        game.getPlayer2Board();
+        return game;
+    }
+
+    // Every game of the round is decided: pair the next round, or crown the winner
+    private void advance(Tournament tournament) {
+        try {
+            List<Pairing> next;
+            if (tournament.getFormat() == Tournament.Format.ELIMINATION) {
+                List<TournamentMatch> round = getRound(tournament.getId(), tournament.getRound());
+                List<String> winners = TournamentScheduler.eliminationWinners(round);
+                if (winners.size() == 1) {
+                    finish(tournament, winners.get(0));
+                    return;
+                }
+                next = TournamentScheduler.nextEliminationRound(round);
+            } else {
+                List<TournamentMatch> history = mongoTemplate.find(
+                        new Query(Criteria.where("tournamentId").is(tournament.getId())), TournamentMatch.class);
+                if (tournament.getRound() >= tournament.getRounds()) {
+                    finish(tournament, TournamentScheduler.swissStandings(tournament.getPlayers(), history).get(0));
+                    return;
+                }
+                next = TournamentScheduler.swissRound(tournament.getPlayers(), history);
+            }
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(tournament.getId())),
+                    new Update().set("status", "provisioning"), Tournament.class);
+            startRound(tournament, tournament.getRound() + 1, next);
+        } catch (RuntimeException e) {
+            log.error("Advancing tournament {} failed", tournament.getId(), e);
+        }
+    }
+
+    private void finish(Tournament tournament, String winnerId) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(tournament.getId())),
+                new Update().set("status", "finished").set("winnerId", winnerId).set("finishedAt", Instant.now()),
+                Tournament.class);
+
+        Map<String, Object> message = Map.of(
+                "event", "tournament_finished",
+                "tournament_id", tournament.getId(),
+                "winner_id", winnerId);
+        Map<String, Map<String, Object>> messages = new HashMap<>();
+        for (String player : tournament.getPlayers()) {
+            messages.put(player, message);
+        }
+        eventPublisher.publishEvent(new TournamentNotification(messages));
+    }
+
+    private static Map<String, Object> roundMessage(Tournament tournament, TournamentMatch match, String playerId,
+            Game game) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("event", "tournament_round");
+        message.put("tournament_id", tournament.getId());
+        message.put("round", match.getRound());
+        message.put("rounds", tournament.getRounds());
+        if (match.isBye()) {
+            message.put("bye", true);
+            return message;
+        }
+        boolean isPlayer1 = playerId.equals(match.getPlayer1Id());
+        message.put("game_id", match.getGameId());
+        message.put("opponent_id", isPlayer1 ? match.getPlayer2Id() : match.getPlayer1Id());
+        if (match.getWinnerId() != null) {
+            message.put("winner_id", match.getWinnerId());
+        }
+        if (game != null) {
+            message.put("player_grid", isPlayer1 ? game.getPlayer1Grid() : game.getPlayer2Grid());
+            message.put("grid_size", game.getGridSize());
+            message.put("fleet", game.getFleet());
+            if (game.getCurrentTurn() != null) {
+                message.put("next_turn", game.getCurrentTurn());
+            }
+        }
+        return message;
+    }
+
+    // Created on first use rather than at startup, so nodes that never run a tournament skip it
+    private void ensureIndexes() {
+        if (indexed.compareAndSet(false, true)) {
+            mongoTemplate.indexOps(TournamentMatch.class).ensureIndex(new Index().on("gameId", Sort.Direction.ASC));
+            mongoTemplate.indexOps(TournamentMatch.class).ensureIndex(new Index()
+                    .on("tournamentId", Sort.Direction.ASC).on("round", Sort.Direction.ASC));
+        }
+    }
+}
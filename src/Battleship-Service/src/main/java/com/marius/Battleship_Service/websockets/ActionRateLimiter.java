@@ -0,0 +1,192 @@
+package com.marius.Battleship_Service.websockets;
+
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Admission control for WebSocket frames, checked before a frame is parsed.
+ * Every session has one bucket for all its frames, and every player one
+ * bucket per action class, so neither a noisy connection nor one player
+ * spread over many connections can flood the node. The action and player id
+ * are read straight from the raw text without building a JSON tree; a frame
+ * over its limit is answered with a pre-encoded error and dropped. A frame
+ * that names a player in a way the scan cannot read (escaped, unquoted, not a
+ * string) is charged to one default-class bucket shared by all such frames.
+ *
+ * Limits are configured as {@code <per-second>/<burst>}; actions without their
+ * own limit share the {@code default} one.
+ */
+@Component
+public class ActionRateLimiter {
+
+    public static final TextMessage THROTTLED = new TextMessage(
+            "{\"error\":\"Too many requests, slow down\"}".getBytes(StandardCharsets.UTF_8));
+
+    private static final String SESSION_BUCKET_ATTRIBUTE = "rate_limit_bucket";
+    private static final String DEFAULT_ACTION = "default";
+    private static final String UNREADABLE_PLAYER = "\\"; // no plain id contains a backslash
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final boolean enabled;
+    private final TokenBucket.Limit sessionLimit;
+    private final Map<String, Integer> actionClasses = new HashMap<>(); // action -> index into the limits
+    private final List<TokenBucket.Limit> actionLimits = new ArrayList<>();
+    private final List<Counter> playerThrottled = new ArrayList<>();
+    private final Counter sessionThrottled;
+    private final int maxTrackedPlayers;
+    private final Map<String, AtomicReferenceArray<TokenBucket>> players = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime() - SWEEP_INTERVAL_NANOS);
+
+    public ActionRateLimiter(CustomMetricsService customMetricsService,
+            @Value("${battleship.rate-limit.enabled:true}") boolean enabled,
+            @Value("${battleship.rate-limit.session:20/40}") String sessionLimit,
+            @Value("${battleship.rate-limit.actions:default:5/10}") String actionLimits,
+            @Value("${battleship.rate-limit.max-tracked-players:100000}") int maxTrackedPlayers) {
+        this.enabled = enabled;
+        this.sessionLimit = TokenBucket.Limit.parse(sessionLimit);
+        this.maxTrackedPlayers = maxTrackedPlayers;
+        this.sessionThrottled = customMetricsService.throttledActions("any", "session");
+
+        // e.g. "createGame:0.2/2,attack:5/10,default:5/10"
+        for (String entry : actionLimits.split(",")) {
+            int colon = entry.indexOf(':');
+            if (colon < 1) {
+                throw new IllegalArgumentException("Action limit must be <action>:<per-second>/<burst>: " + entry);
+            }
+            String action = entry.substring(0, colon).trim();
+            actionClasses.put(action, this.actionLimits.size());
+            this.actionLimits.add(TokenBucket.Limit.parse(entry.substring(colon + 1)));
+            playerThrottled.add(customMetricsService.throttledActions(action, "player"));
+        }
+        if (!actionClasses.containsKey(DEFAULT_ACTION)) {
+            actionClasses.put(DEFAULT_ACTION, this.actionLimits.size());
+            this.actionLimits.add(TokenBucket.Limit.parse("5/10"));
+            playerThrottled.add(customMetricsService.throttledActions(DEFAULT_ACTION, "player"));
+        }
+    }
+
+    public void register(WebSocketSession session) {
+        session.getAttributes().put(SESSION_BUCKET_ATTRIBUTE, new TokenBucket(sessionLimit));
+    }
+
+    // False if the frame is over a limit and should be dropped
+    public boolean admit(WebSocketSession session, String payload) {
+        if (!enabled) {
+            return true;
+        }
+        TokenBucket sessionBucket = (TokenBucket) session.getAttributes().get(SESSION_BUCKET_ATTRIBUTE);
+        if (sessionBucket != null && !sessionBucket.tryAcquire()) {
+            sessionThrottled.increment();
+            return false;
+        }
+
+        String playerId = field(payload, "player_id");
+        if (playerId == null) {
+            playerId = field(payload, "attacker_id");
+        }
+        int index;
+        if (playerId != null) {
+            String action = field(payload, "action");
+            Integer actionClass = action == null ? null : actionClasses.get(action);
+            index = actionClass != null ? actionClass : actionClasses.get(DEFAULT_ACTION);
+        } else if (mayNamePlayer(payload)) {
+            // The parser may still find an id here, so the frame cannot go unlimited
+            playerId = UNREADABLE_PLAYER;
+            index = actionClasses.get(DEFAULT_ACTION);
+        } else {
+            return true; // nothing to key a player limit on; the request will be refused anyway
+        }
+
+        AtomicReferenceArray<TokenBucket> buckets = players.get(playerId);
+        if (buckets == null) {
+            if (players.size() >= maxTrackedPlayers) {
+                evictIdle();
+            }
+            buckets = players.computeIfAbsent(playerId, id -> new AtomicReferenceArray<>(actionLimits.size()));
+        }
+        TokenBucket bucket = buckets.get(index);
+        if (bucket == null) {
+            buckets.compareAndSet(index, null, new TokenBucket(actionLimits.get(index)));
+            bucket = buckets.get(index);
+        }
+        if (!bucket.tryAcquire()) {
+            playerThrottled.get(index).increment();
+            return false;
+        }
+        return true;
+    }
+
+    int trackedPlayers() {
+        return players.size();
+    }
+
+    // Players whose buckets have all refilled are indistinguishable from new ones. At most one
+    // sweep a second, so a node full of active players does not scan on every new one.
+    private void evictIdle() {
+        long now = System.nanoTime();
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        players.entrySet().removeIf(entry -> {
+            AtomicReferenceArray<TokenBucket> buckets = entry.getValue();
+            for (int i = 0; i < buckets.length(); i++) {
+                TokenBucket bucket = buckets.get(i);
+                if (bucket != null && !bucket.isFull(now)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    // The string value of the first "name": "value" pair, found by scanning the raw frame.
+    // Returns null if it is missing, not a plain string, or contains escapes.
+    static String field(String payload, String name) {
+        String key = '"' + name + '"';
+        int at = payload.indexOf(key);
+        while (at >= 0) {
+            int i = skipSpaces(payload, at + key.length());
+            if (i < payload.length() && payload.charAt(i) == ':') {
+                i = skipSpaces(payload, i + 1);
+                if (i >= payload.length() || payload.charAt(i) != '"') {
+                    return null;
+                }
+                int end = payload.indexOf('"', i + 1);
+                if (end < 0 || payload.lastIndexOf('\\', end) > i) {
+                    return null;
+                }
+                return payload.substring(i + 1, end);
+            }
+            at = payload.indexOf(key, at + 1); // the name appeared as a value; keep looking
+        }
+        return null;
+    }
+
+    // The JSON parser accepts escaped, unquoted and single-quoted keys and values, so any
+    // mention of an id key, or any escape at all, may still carry a player id
+    static boolean mayNamePlayer(String payload) {
+        return payload.indexOf('\\') >= 0 || payload.contains("player_id") || payload.contains("attacker_id");
+    }
+
+    private static int skipSpaces(String payload, int i) {
+        while (i < payload.length() && Character.isWhitespace(payload.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,44 @@
+package com.marius.Battleship_Service.websockets;
+
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.util.List;
+
+/**
+ * Negotiates compression on the game endpoint. Clients that ask for the
+ * {@value MessageCompressor#SUBPROTOCOL} subprotocol get large frames
+ * compressed by {@link MessageCompressor}, and the container's own
+ * permessage-deflate is left out of their handshake so nothing is
+ * compressed twice. Other clients get permessage-deflate from the container
+ * when they offer it and it is allowed; it compresses every frame, however
+ * small, with a zlib context kept for the life of the connection.
+ */
+public class CompressionHandshakeHandler extends DefaultHandshakeHandler {
+
+    private static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
+    private final boolean allowExtension;
+
+    public CompressionHandshakeHandler(MessageCompressor compressor, boolean allowExtension) {
+        this.allowExtension = allowExtension;
+        if (compressor.isEnabled()) {
+            setSupportedProtocols(MessageCompressor.SUBPROTOCOL);
+        }
+    }
+
+    @Override
+    protected List<WebSocketExtension> filterRequestedExtensions(ServerHttpRequest request,
+            List<WebSocketExtension> requestedExtensions, List<WebSocketExtension> supportedExtensions) {
+        List<WebSocketExtension> accepted = super.filterRequestedExtensions(request, requestedExtensions,
+                supportedExtensions);
+        boolean ownCompression = getSupportedProtocols().length > 0 && new WebSocketHttpHeaders(request.getHeaders())
+                .getSecWebSocketProtocol().contains(MessageCompressor.SUBPROTOCOL);
+        if (allowExtension && !ownCompression) {
+            return accepted;
+        }
+        return accepted.stream().filter(extension -> !PERMESSAGE_DEFLATE.equals(extension.getName())).toList();
+    }
+}
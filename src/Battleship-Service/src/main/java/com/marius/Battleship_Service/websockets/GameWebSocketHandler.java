@@ -1,31 +1,82 @@
 package com.marius.Battleship_Service.websockets;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.springframework.stereotype.Component;
+import com.marius.Battleship_Service.bot.BotService;
+import com.marius.Battleship_Service.capacity.CapacityMonitor;
+import com.marius.Battleship_Service.models.AttackResult;
 import com.marius.Battleship_Service.models.Game;
+import com.marius.commons.observability.Span;
+import com.marius.commons.observability.TraceContext;
+import com.marius.commons.observability.Tracer;
 import com.marius.Battleship_Service.services.GameService;
 import com.marius.Battleship_Service.services.CustomMetricsService;
+import com.marius.Battleship_Service.timers.GameClock;
+import com.marius.Battleship_Service.tournament.TournamentNotification;
+import com.marius.Battleship_Service.tournament.TournamentService;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Component
 public class GameWebSocketHandler extends TextWebSocketHandler {
 
+    private static final Logger log = LoggerFactory.getLogger(GameWebSocketHandler.class);
+
+    private static final String REQUEST_WINDOW_ATTRIBUTE = "request_window";
+    private static final String PLAYERS_ATTRIBUTE = "player_ids";
+    private static final String TRACEPARENT_ATTRIBUTE = "traceparent";
+
     private final GameService gameService;
     private final CustomMetricsService customMetricsService;
+    private final SpectatorHub spectatorHub;
+    private final OutboundDelivery outboundDelivery;
+    private final BotService botService;
+    private final TournamentService tournamentService;
+    private final GameClock gameClock;
+    private final ActionRateLimiter rateLimiter;
+    private final Tracer tracer;
+    private final CapacityMonitor capacityMonitor;
     private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final int dedupWindowSize;
+    private final int maxMissedTurns;
+
+    // The sequenced request being handled on this thread, so its replies can be tagged and cached
+    private final ThreadLocal<SequencedRequest> currentRequest = new ThreadLocal<>();
 
     @Autowired
-    public GameWebSocketHandler(GameService gameService, CustomMetricsService customMetricsService) {
+    public GameWebSocketHandler(GameService gameService, CustomMetricsService customMetricsService,
+            SpectatorHub spectatorHub, OutboundDelivery outboundDelivery, BotService botService,
+            TournamentService tournamentService, GameClock gameClock, ActionRateLimiter rateLimiter, Tracer tracer,
+            CapacityMonitor capacityMonitor,
+            @Value("${battleship.dedup.window-size:64}") int dedupWindowSize,
+            @Value("${battleship.timers.max-missed-turns:2}") int maxMissedTurns) {
         this.gameService = gameService;
         this.customMetricsService = customMetricsService;
+        this.spectatorHub = spectatorHub;
+        this.outboundDelivery = outboundDelivery;
+        this.botService = botService;
+        this.tournamentService = tournamentService;
+        this.gameClock = gameClock;
+        this.rateLimiter = rateLimiter;
+        this.tracer = tracer;
+        this.capacityMonitor = capacityMonitor;
+        this.dedupWindowSize = dedupWindowSize;
+        this.maxMissedTurns = maxMissedTurns;
     }
 
     @Override
@@ -33,20 +84,49 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
 
         // Increment active connection counter
         customMetricsService.incrementActiveWebSocketConnections();
+        outboundDelivery.register(session);
+        session.getAttributes().put(REQUEST_WINDOW_ATTRIBUTE, new RequestWindow(dedupWindowSize));
+        session.getAttributes().put(PLAYERS_ATTRIBUTE, ConcurrentHashMap.newKeySet());
+        rateLimiter.register(session);
+
+        // Frames without a traceparent of their own continue the trace the connection was opened in
+        String traceparent = session.getHandshakeHeaders().getFirst(TraceContext.HEADER);
+        if (traceparent != null) {
+            session.getAttributes().put(TRACEPARENT_ATTRIBUTE, traceparent);
+        }
 
-        System.out.println("WebSocket session established");
+        log.info("WebSocket session {} established", session.getId());
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         super.afterConnectionClosed(session, status);
+        spectatorHub.unsubscribe(session);
+        outboundDelivery.unregister(session);
         customMetricsService.decrementActiveWebSocketConnections();
+
+        // Players on this connection get a grace period to reconnect before their game is given up
+        @SuppressWarnings("unchecked")
+        Set<String> players = (Set<String>) session.getAttributes().get(PLAYERS_ATTRIBUTE);
+        if (players != null) {
+            for (String playerId : players) {
+                if (sessions.remove(playerId, session)) {
+                    gameClock.disconnected(playerId, () -> onReconnectGraceExpired(playerId));
+                }
+            }
+        }
     }
 
     @Override
     public void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
         String payload = message.getPayload();
 
+        // Over-limit frames are dropped before parsing, with a reply that is already encoded
+        if (!rateLimiter.admit(session, payload)) {
+            outboundDelivery.send(session, ActionRateLimiter.THROTTLED, false);
+            return;
+        }
+
         // Parse the payload
         Map<String, Object> request = parsePayload(payload);
 
@@ -56,8 +136,61 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
         }
 
         String action = (String) request.get("action");
-        System.out.println(action);
+        log.info("Handling {} on session {}", action, session.getId());
+
+        TraceContext parent = TraceContext.parse(request.get(TraceContext.HEADER) instanceof String traceparent
+                ? traceparent : (String) session.getAttributes().get(TRACEPARENT_ATTRIBUTE));
+        try (Span span = tracer.start("ws " + action, parent)) {
+            span.setAttribute("ws.session", session.getId());
+            try {
+                handleAction(session, action, request);
+            } catch (RuntimeException e) {
+                span.recordError(e);
+                throw e;
+            }
+        }
+    }
+
+    private void handleAction(WebSocketSession session, String action, Map<String, Object> request) {
+
+        // Actions may carry a client sequence number; retries of one are answered from the window
+        Object seqValue = request.get("seq");
+        if (seqValue != null) {
+            if (!(seqValue instanceof Number number) || number.longValue() < 1) {
+                sendMessage(session, Map.of("error", "seq must be a positive integer"));
+                return;
+            }
+            long seq = number.longValue();
+            RequestWindow window = (RequestWindow) session.getAttributes().get(REQUEST_WINDOW_ATTRIBUTE);
+            switch (window.admit(seq)) {
+                case DUPLICATE:
+                    customMetricsService.incrementDuplicateRequests();
+                    for (TextMessage reply : window.replies(seq)) {
+                        outboundDelivery.send(session, reply, true);
+                    }
+                    return;
+                case STALE:
+                    sendMessage(session, Map.of("error", "seq is older than the retry window", "seq", seq));
+                    return;
+                default:
+                    break;
+            }
 
+            currentRequest.set(new SequencedRequest(session, seq, window));
+            try {
+                dispatch(session, action, request);
+            } catch (RuntimeException e) {
+                window.forget(seq);
+                throw e;
+            } finally {
+                currentRequest.remove();
+            }
+        } else {
+            dispatch(session, action, request);
+        }
+    }
+
+    private void dispatch(WebSocketSession session, String action, Map<String, Object> request) {
         switch (action) {
             case "createGame":
                 handleCreateGame(session, request);
@@ -65,12 +198,24 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
             case "joinGame":
                 handleJoinGame(session, request);
                 break;
+            case "playBot":
+                handlePlayBot(session, request);
+                break;
             case "attack":
                 handleAttack(session, request);
                 break;
             case "leaveGame":
                 handleLeaveGame(session, request);
                 break;
+            case "spectateGame":
+                handleSpectateGame(session, request);
+                break;
+            case "tournamentReady":
+                handleTournamentReady(session, request);
+                break;
+            case "stopSpectating":
+                spectatorHub.unsubscribe(session);
+                break;
             default:
                 sendMessage(session, Map.of("error", "Unknown action"));
         }
@@ -79,25 +224,40 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
     private void handleCreateGame(WebSocketSession session, Map<String, Object> request) {
         String playerId = (String) request.get("player_id");
 
-        // Check if the player is already in a game
-        if (gameService.isPlayerInGame(playerId).orElse(false)) {
-            // Get the current game ID if they are in one
-            String currentGameId = gameService.getCurrentGameId(playerId);
+        // Running games are never turned away, but a full node takes no new ones
+        if (!capacityMonitor.admitsNewGames()) {
+            sendMessage(session, capacityMonitor.refusal("game"));
+            return;
+        }
+
+        // Check if the player is already in a game (a single query that returns its id)
+        String currentGameId = gameService.getCurrentGameId(playerId);
+        if (currentGameId != null) {
             sendMessage(session, Map.of("error",
                     "You are already in a game (Game ID: " + currentGameId
                             + "). Please leave the game before creating a new one."));
             return;
         }
 
-        // Proceed to create the game
-        Game game = gameService.createGame(playerId);
-        sessions.put(playerId, session);
+        // Proceed to create the game, optionally with a custom board size and fleet
+        Game game;
+        try {
+            int gridSize = request.get("grid_size") instanceof Number size ? size.intValue() : Game.DEFAULT_GRID_SIZE;
+            Object fleet = request.get("fleet") instanceof JSONArray ships ? ships.toList() : null;
+            game = gameService.createGame(playerId, gridSize, gameService.parseFleet(fleet));
+        } catch (IllegalArgumentException e) {
+            sendMessage(session, Map.of("error", e.getMessage()));
+            return;
+        }
+        registerPlayer(playerId, session);
+        waitForOpponent(game.getId());
 
         // Send back game creation confirmation
         sendMessage(session, Map.of(
                 "game_id", game.getId(),
                 "player_grid", game.getPlayer1Grid(),
-                "grid_size", 10,
+                "grid_size", game.getGridSize(),
+                "fleet", game.getFleet(),
                 "status", game.getStatus()));
     }
 
@@ -105,44 +265,39 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
         String playerId = (String) request.get("player_id");
         String gameId = (String) request.get("game_id");
 
-        // Check if the player is already in a game
-        if (gameService.isPlayerInGame(playerId).orElse(false)) {
-            // Get the current game ID if they are in one
-            String currentGameId = gameService.getCurrentGameId(playerId);
+        // Check if the player is already in a game (a single query that returns its id)
+        String currentGameId = gameService.getCurrentGameId(playerId);
+        if (currentGameId != null) {
             sendMessage(session, Map.of("error",
                     "You are already in a game (Game ID: " + currentGameId
                             + "). Please leave the game before joining another one."));
             return;
         }
 
-        // Fetch the game and check if it exists and is waiting for an opponent
-        java.util.Optional<Game> gameOpt = gameService.getGame(gameId);
-        if (gameOpt.isEmpty()) {
-            sendMessage(session, Map.of("error", "Game not found"));
-            return;
-        }
-
-        Game game = gameOpt.get();
-        if (!"waiting_for_opponent".equals(game.getStatus())) {
-            sendMessage(session, Map.of("error", "Game is not available for joining"));
-            return;
-        }
-
-        // Proceed with joining the game if it is valid
+        // Join atomically; the game is only read back to explain a refusal
         java.util.Optional<Game> joinedGameOpt = gameService.joinGame(gameId, playerId);
         if (joinedGameOpt.isEmpty()) {
-            sendMessage(session, Map.of("error", "Unable to join game"));
+            java.util.Optional<Game> gameOpt = gameService.getGame(gameId);
+            if (gameOpt.isEmpty()) {
+                sendMessage(session, Map.of("error", "Game not found"));
+            } else if (!"waiting_for_opponent".equals(gameOpt.get().getStatus())) {
+                sendMessage(session, Map.of("error", "Game is not available for joining"));
+            } else {
+                sendMessage(session, Map.of("error", "Unable to join game"));
+            }
             return;
         }
 
         Game joinedGame = joinedGameOpt.get();
-        sessions.put(playerId, session);
+        registerPlayer(playerId, session);
+        startTurnClock(joinedGame);
 
         // Send back join confirmation to the player who joined
         sendMessage(session, Map.of(
                 "game_id", joinedGame.getId(),
                 "player_grid", joinedGame.getPlayer2Grid(),
-                "grid_size", 10,
+                "grid_size", joinedGame.getGridSize(),
+                "fleet", joinedGame.getFleet(),
                 "status", joinedGame.getStatus()));
 
         // Notify the game creator (player1) that another player has joined
@@ -153,20 +308,285 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
             sendMessage(creatorSession, Map.of(
                     "message", "A player has joined your game",
                     "game_id", joinedGame.getId(),
-                    "status", "player_joined"));
+                    "status", "player_joined"), false);
         }
+
+        spectatorHub.publish(joinedGame, Map.of(
+                "event", "player_joined",
+                "game_id", joinedGame.getId(),
+                "player_id", playerId,
+                "status", joinedGame.getStatus()));
+    }
+
+    private void handlePlayBot(WebSocketSession session, Map<String, Object> request) {
+        String playerId = (String) request.get("player_id");
+
+        // Bot games are the first thing shed as the node fills up
+        if (!capacityMonitor.admitsOptionalWork()) {
+            sendMessage(session, capacityMonitor.refusal("bot game"));
+            return;
+        }
+
+        // Check if the player is already in a game
+        String currentGameId = gameService.getCurrentGameId(playerId);
+        if (currentGameId != null) {
+            sendMessage(session, Map.of("error",
+                    "You are already in a game (Game ID: " + currentGameId
+                            + "). Please leave the game before starting a new one."));
+            return;
+        }
+
+        Game game = botService.startGame(playerId);
+        registerPlayer(playerId, session);
+        startTurnClock(game);
+
+        sendMessage(session, Map.of(
+                "game_id", game.getId(),
+                "player_grid", game.getPlayer1Grid(),
+                "grid_size", game.getGridSize(),
+                "opponent_id", game.getPlayer2Id(),
+                "status", game.getStatus()));
     }
 
     private void handleAttack(WebSocketSession session, Map<String, Object> request) {
         String gameId = (String) request.get("game_id");
         String attackerId = (String) request.get("attacker_id");
-        Map<String, Integer> coordinates = (Map<String, Integer>) request.get("coordinates");
+        JSONObject coordinates = (JSONObject) request.get("coordinates");
 
-        // Process attack
-        // gameService.processAttack(gameId, attackerId, coordinates);
+        java.util.Optional<Game> gameOpt = gameService.getGame(gameId);
+        if (gameOpt.isEmpty()) {
+            sendMessage(session, Map.of("error", "Game not found"));
+            return;
+        }
+
+        Game game = gameOpt.get();
+        AttackResult result;
+        try {
+            result = gameService.processAttack(game, attackerId, coordinates.getInt("x"), coordinates.getInt("y"));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            sendMessage(session, Map.of("error", e.getMessage()));
+            return;
+        }
+        gameClock.turnTaken(gameId, attackerId);
 
+        afterAttack(game, attackerId, result);
+    }
+
+    private void afterAttack(Game game, String attackerId, AttackResult result) {
         // Notify both players of the result (or broadcast to the game)
-        sendMessageToGame(gameId, Map.of("message", "Attack processed", "coordinates", coordinates));
+        publishAttack(game, attackerId, result);
+
+        // Let the bot answer straight away if it is playing this game
+        if (!result.isGameOver() && BotService.isBot(result.nextTurn())) {
+            botService.takeTurnAsync(game, botResult -> publishAttack(game, result.nextTurn(), botResult));
+        }
+    }
+
+    private void publishAttack(Game game, String attackerId, AttackResult result) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("message", "Attack processed");
+        event.put("game_id", game.getId());
+        event.put("attacker_id", attackerId);
+        event.put("coordinates", Map.of("x", result.x(), "y", result.y()));
+        event.put("result", result.hit() ? "hit" : "miss");
+        if (result.sunkShip() != null) {
+            event.put("sunk_ship", result.sunkShip());
+        }
+        if (result.isGameOver()) {
+            event.put("winner_id", result.winnerId());
+        } else {
+            event.put("next_turn", result.nextTurn());
+        }
+
+        sendMessageToGame(game, event);
+        spectatorHub.publish(game, event);
+        if (result.isGameOver()) {
+            gameEnded(game, result.winnerId());
+        } else {
+            startTurnClock(game);
+        }
+    }
+
+    private void gameEnded(Game game, String winnerId) {
+        gameClock.gameOver(game.getId(), game.getPlayer1Id(), game.getPlayer2Id());
+        botService.forget(game.getId());
+        tournamentService.gameFinished(game.getId(), winnerId);
+    }
+
+    // Bots move straight away, so only a human's turn is timed
+    private void startTurnClock(Game game) {
+        String playerId = game.getCurrentTurn();
+        if (playerId == null || BotService.isBot(playerId)) {
+            gameClock.cancel(game.getId());
+            return;
+        }
+        String gameId = game.getId();
+        Long version = game.getVersion();
+        gameClock.turnStarted(gameId, () -> onTurnExpired(gameId, playerId, version));
+    }
+
+    private void waitForOpponent(String gameId) {
+        gameClock.waitingForOpponent(gameId, () -> onIdleExpired(gameId));
+    }
+
+    // The player ran out of time: a random shot is fired for them through the normal attack
+    // path, until they have missed max-missed-turns in a row and forfeit instead
+    private void onTurnExpired(String gameId, String playerId, Long version) {
+        Game game = gameService.getGame(gameId).orElse(null);
+        if (game == null || !"in_progress".equals(game.getStatus()) || game.getWinnerId() != null
+                || !playerId.equals(game.getCurrentTurn()) || !Objects.equals(version, game.getVersion())) {
+            return; // the turn was played meanwhile
+        }
+
+        if (gameClock.turnMissed(gameId, playerId) > maxMissedTurns) {
+            forfeit(game, playerId, "turn_timeout");
+            return;
+        }
+
+        int cell = gameService.randomTarget(game, playerId, ThreadLocalRandom.current());
+        if (cell < 0) {
+            return;
+        }
+        AttackResult result;
+        try {
+            result = gameService.processAttack(game, playerId, cell % game.getGridSize(), cell / game.getGridSize());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return; // a move got in first
+        }
+
+        WebSocketSession playerSession = sessions.get(playerId);
+        if (playerSession != null && playerSession.isOpen()) {
+            sendMessage(playerSession, Map.of(
+                    "message", "Your turn timed out, a shot was fired for you",
+                    "game_id", gameId,
+                    "status", "turn_timeout"), false);
+        }
+        afterAttack(game, playerId, result);
+    }
+
+    // Nobody joined in time: the game is deleted and its creator told
+    private void onIdleExpired(String gameId) {
+        Game game = gameService.getGame(gameId).orElse(null);
+        if (game == null || !gameService.expireWaitingGame(gameId)) {
+            return;
+        }
+        Map<String, Object> event = Map.of(
+                "message", "No opponent joined in time. The game has ended.",
+                "game_id", gameId,
+                "status", "game_expired");
+        WebSocketSession creatorSession = game.getPlayer1Id() == null ? null : sessions.get(game.getPlayer1Id());
+        if (creatorSession != null && creatorSession.isOpen()) {
+            sendMessage(creatorSession, event, false);
+        }
+        spectatorHub.close(game, event);
+    }
+
+    // The player did not come back: a game in progress is forfeited and a waiting one dropped
+    private void onReconnectGraceExpired(String playerId) {
+        if (sessions.containsKey(playerId)) {
+            return;
+        }
+        Game game = gameService.getLiveGame(playerId).orElse(null);
+        if (game == null || game.getWinnerId() != null) {
+            return;
+        }
+        if ("in_progress".equals(game.getStatus())) {
+            forfeit(game, playerId, "disconnected");
+        } else if ("waiting_for_opponent".equals(game.getStatus()) && playerId.equals(game.getPlayer1Id())) {
+            gameClock.cancel(game.getId());
+            onIdleExpired(game.getId());
+        }
+    }
+
+    private void forfeit(Game game, String playerId, String reason) {
+        java.util.Optional<String> winnerId;
+        try {
+            winnerId = gameService.forfeit(game, playerId);
+        } catch (IllegalStateException e) {
+            return;
+        }
+        if (winnerId.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> event = Map.of(
+                "message", "Game forfeited",
+                "game_id", game.getId(),
+                "forfeited_by", playerId,
+                "reason", reason,
+                "winner_id", winnerId.get());
+        sendMessageToGame(game, event);
+        spectatorHub.publish(game, event);
+        gameEnded(game, winnerId.get());
+    }
+
+    // Remembers which connection a player is on; a player coming back cancels their grace period
+    @SuppressWarnings("unchecked")
+    private void registerPlayer(String playerId, WebSocketSession session) {
+        if (playerId == null) {
+            return;
+        }
+        sessions.put(playerId, session);
+        Set<String> players = (Set<String>) session.getAttributes().get(PLAYERS_ATTRIBUTE);
+        if (players != null) {
+            players.add(playerId);
+        }
+        gameClock.reconnected(playerId);
+    }
+
+    // A tournament player announces they are connected; they get round notifications from
+    // now on, and their current pairing straight away in case they missed it
+    private void handleTournamentReady(WebSocketSession session, Map<String, Object> request) {
+        String playerId = (String) request.get("player_id");
+        String tournamentId = (String) request.get("tournament_id");
+        if (playerId == null || tournamentId == null) {
+            sendMessage(session, Map.of("error", "player_id and tournament_id are required"));
+            return;
+        }
+        registerPlayer(playerId, session);
+
+        java.util.Optional<Map<String, Object>> pairing = tournamentService.currentPairing(tournamentId, playerId);
+        if (pairing.isPresent()) {
+            sendMessage(session, pairing.get());
+        } else {
+            sendMessage(session, Map.of(
+                    "message", "No game for you in the current round",
+                    "tournament_id", tournamentId,
+                    "status", "waiting"));
+        }
+    }
+
+    // Round notifications from TournamentService, for whichever players are connected here
+    @EventListener
+    public void onTournamentNotification(TournamentNotification notification) {
+        notification.messages().forEach((playerId, message) -> {
+            WebSocketSession playerSession = sessions.get(playerId);
+            if (playerSession != null && playerSession.isOpen()) {
+                sendMessage(playerSession, message, false);
+            }
+            // New games start their turn clock once, from the message to the player who moves first
+            if (playerId.equals(message.get("next_turn")) && message.get("game_id") instanceof String gameId) {
+                gameService.getGame(gameId).ifPresent(this::startTurnClock);
+            }
+        });
+    }
+
+    private void handleSpectateGame(WebSocketSession session, Map<String, Object> request) {
+        String gameId = (String) request.get("game_id");
+
+        if (!capacityMonitor.admitsOptionalWork()) {
+            sendMessage(session, capacityMonitor.refusal("spectator"));
+            return;
+        }
+
+        java.util.Optional<Game> gameOpt = gameService.getGame(gameId);
+        if (gameOpt.isEmpty()) {
+            sendMessage(session, Map.of("error", "Game not found"));
+            return;
+        }
+
+        // The current snapshot is delivered through the spectator lane of the outbound queue, not sent directly
+        spectatorHub.subscribe(session, gameOpt.get());
     }
 
     private void handleLeaveGame(WebSocketSession session, Map<String, Object> request) {
@@ -177,6 +597,13 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
         Game game = gameService.leaveGame(gameId, playerId)
                 .orElseThrow(() -> new IllegalArgumentException("Game not found or you are not part of it."));
         sessions.remove(playerId);
+        // Leaving a tournament game concedes it
+        tournamentService.forfeit(gameId, playerId);
+        if ("finished".equals(game.getStatus())) {
+            gameClock.gameOver(gameId, playerId, game.getPlayer2Id());
+        } else if ("waiting_for_opponent".equals(game.getStatus())) {
+            waitForOpponent(gameId);
+        }
 
         // Notify the player who left the game
         sendMessage(session, Map.of("message", "You have left the game.", "status", "player_left"));
@@ -191,7 +618,7 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
                 sendMessage(player2Session, Map.of(
                         "message", "The creator has left the game. The game has ended.",
                         "game_id", game.getId(),
-                        "status", "game_ended"));
+                        "status", "game_ended"), false);
             }
             // Remove the game from the database if the creator leaves
             gameService.removeGame(gameId);
@@ -205,22 +632,54 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
                 sendMessage(creatorSession, Map.of(
                         "message", "The opponent has left your game.",
                         "game_id", game.getId(),
-                        "status", "opponent_left"));
+                        "status", "opponent_left"), false);
             }
         }
+
+        // Spectators see the departure either way; a finished game also drops its feed
+        Map<String, Object> leftEvent = Map.of(
+                "event", "player_left",
+                "game_id", game.getId(),
+                "player_id", playerId,
+                "status", game.getStatus());
+        if ("finished".equals(game.getStatus())) {
+            spectatorHub.close(game, leftEvent);
+            botService.forget(game.getId());
+        } else {
+            spectatorHub.publish(game, leftEvent);
+        }
     }
 
     private void sendMessage(WebSocketSession session, Map<String, Object> payload) {
-        try {
-            String jsonResponse = convertToJson(payload);
-            session.sendMessage(new TextMessage(jsonResponse));
-        } catch (Exception e) {
-            e.printStackTrace();
+        sendMessage(session, payload, true);
+    }
+
+    // Frames are queued per session and written by OutboundDelivery; notifications
+    // to the other party are non-critical and may be dropped for a lagging client.
+    // Replies to a sequenced request echo its seq and are kept for retries.
+    private void sendMessage(WebSocketSession session, Map<String, Object> payload, boolean critical) {
+        SequencedRequest request = currentRequest.get();
+        boolean reply = request != null && request.session() == session;
+        if (reply) {
+            payload = new HashMap<>(payload);
+            payload.put("seq", request.seq());
+        }
+
+        TextMessage message = new TextMessage(convertToJson(payload));
+        if (reply) {
+            request.window().record(request.seq(), message);
         }
+        outboundDelivery.send(session, message, critical);
     }
 
-    private void sendMessageToGame(String gameId, Map<String, Object> payload) {
+    private void sendMessageToGame(Game game, Map<String, Object> payload) {
         // Send message to all players in the game
+        for (String playerId : new String[] { game.getPlayer1Id(), game.getPlayer2Id() }) {
+            WebSocketSession playerSession = playerId == null ? null : sessions.get(playerId);
+            if (playerSession != null && playerSession.isOpen()) {
+                sendMessage(playerSession, payload);
+            }
+        }
     }
 
     private Map<String, Object> parsePayload(String payload) {
@@ -235,7 +694,7 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
             }
             return request;
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("Ignoring a frame that is not valid JSON: {}", e.getMessage());
             return null;
         }
     }
@@ -246,8 +705,11 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
             JSONObject jsonObject = new JSONObject(payload);
             return jsonObject.toString(); // Return the JSON string
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("Could not encode a reply as JSON", e);
             return "{}"; // Return empty JSON object on error
         }
     }
+
+    private record SequencedRequest(WebSocketSession session, long seq, RequestWindow window) {
+    }
 }
@@ -0,0 +1,121 @@
+package com.marius.Battleship_Service.websockets;
+
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+
+/**
+ * Per-message compression for sessions that negotiated the
+ * {@value #SUBPROTOCOL} subprotocol. A text frame of at least min-bytes is
+ * sent as a binary frame holding its UTF-8 bytes as raw DEFLATE, the same
+ * per-message format as permessage-deflate without context takeover, so
+ * browsers can read it with {@code DecompressionStream("deflate-raw")}.
+ * Smaller frames, and any that would not shrink, go out as text unchanged.
+ *
+ * Deflaters are pooled: each holds a few hundred kilobytes of native zlib
+ * state, so one per session (as the container's permessage-deflate keeps) or
+ * one per message is avoided. A frame broadcast to many spectators is
+ * compressed once, not once per queue.
+ */
+@Component
+public class MessageCompressor {
+
+    public static final String SUBPROTOCOL = "battleship.deflate";
+
+    private final boolean enabled;
+    private final int minBytes;
+    private final int level;
+    private final BlockingQueue<Deflater> pool;
+    private final Counter rawBytes;
+    private final Counter sentBytes;
+    private final Counter skipped;
+
+    // The last frame compressed, since a broadcast offers the same frame to every queue in turn.
+    // The bytes are kept rather than the message: a send consumes the message's buffer.
+    private final AtomicReference<Encoded> last = new AtomicReference<>();
+
+    private record Encoded(TextMessage source, byte[] compressed) {
+    }
+
+    public MessageCompressor(CustomMetricsService customMetricsService,
+            @Value("${battleship.websocket.compression.enabled:true}") boolean enabled,
+            @Value("${battleship.websocket.compression.min-bytes:512}") int minBytes,
+            @Value("${battleship.websocket.compression.level:6}") int level,
+            @Value("${battleship.websocket.compression.pool-size:0}") int poolSize) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be between 1 and 9");
+        }
+        this.enabled = enabled;
+        this.minBytes = minBytes;
+        this.level = level;
+        this.pool = new ArrayBlockingQueue<>(poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors());
+        this.rawBytes = customMetricsService.compressionBytes("raw");
+        this.sentBytes = customMetricsService.compressionBytes("sent");
+        this.skipped = customMetricsService.compressionSkipped();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isNegotiated(WebSocketSession session) {
+        return enabled && SUBPROTOCOL.equals(session.getAcceptedProtocol());
+    }
+
+    // The frame to send in place of the given one: compressed if large enough to be worth it
+    public WebSocketMessage<?> encode(TextMessage message) {
+        Encoded cached = last.get();
+        if (cached != null && cached.source() == message) {
+            return cached.compressed() != null ? new BinaryMessage(cached.compressed()) : message;
+        }
+        if (message.getPayload().length() < minBytes) { // characters, to avoid encoding small frames
+            skipped.increment();
+            return message;
+        }
+
+        byte[] raw = message.asBytes();
+        byte[] compressed = deflate(raw);
+        rawBytes.increment(raw.length);
+        sentBytes.increment(compressed != null ? compressed.length : raw.length);
+        last.set(new Encoded(message, compressed));
+        return compressed != null ? new BinaryMessage(compressed) : message;
+    }
+
+    // Raw DEFLATE of the input, or null if it does not come out smaller
+    byte[] deflate(byte[] input) {
+        Deflater deflater = pool.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+        }
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            byte[] output = new byte[input.length];
+            int length = 0;
+            while (!deflater.finished() && length < output.length) {
+                length += deflater.deflate(output, length, output.length - length);
+            }
+            if (!deflater.finished()) {
+                return null;
+            }
+            byte[] result = new byte[length];
+            System.arraycopy(output, 0, result, 0, length);
+            return result;
+        } finally {
+            deflater.reset();
+            if (!pool.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+}
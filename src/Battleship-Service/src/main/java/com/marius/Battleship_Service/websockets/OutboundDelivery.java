@@ -0,0 +1,125 @@
+package com.marius.Battleship_Service.websockets;
+
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the outbound queue of every player session. Handlers hand frames to
+ * {@link #send} and return immediately; writer threads do the actual I/O.
+ * Spectator frames from {@link SpectatorHub} go through the same queue, in its
+ * coalescing lane, so that each session has a single writer.
+ */
+@Component
+public class OutboundDelivery {
+
+    private final Map<String, OutboundQueue> queues = new ConcurrentHashMap<>();
+    private final ExecutorService writers;
+    private final int capacity;
+    private final int spectatorCapacity;
+    private final OutboundQueue.OverflowPolicy policy;
+    private final long sendTimeoutMillis;
+    private final CustomMetricsService.OutboundMetrics metrics;
+    private final MessageCompressor compressor;
+
+    public OutboundDelivery(CustomMetricsService customMetricsService, MessageCompressor compressor,
+            @Value("${battleship.outbound.writer-threads:8}") int writerThreads,
+            @Value("${battleship.outbound.queue-capacity:64}") int capacity,
+            @Value("${battleship.spectators.queue-capacity:16}") int spectatorCapacity,
+            @Value("${battleship.outbound.overflow-policy:DROP_OLDEST}") OutboundQueue.OverflowPolicy policy,
+            @Value("${battleship.outbound.send-timeout-ms:5000}") long sendTimeoutMillis) {
+        this.writers = Executors.newFixedThreadPool(writerThreads, SpectatorHub.daemonThreads("outbound-writer-"));
+        this.capacity = capacity;
+        this.spectatorCapacity = spectatorCapacity;
+        this.policy = policy;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.metrics = customMetricsService.outboundMetrics("player");
+        this.compressor = compressor;
+    }
+
+    public void register(WebSocketSession session) {
+        queues.computeIfAbsent(session.getId(),
+                id -> new OutboundQueue(session, writers, capacity, policy, sendTimeoutMillis, metrics,
+                        compressor));
+    }
+
+    public void unregister(WebSocketSession session) {
+        OutboundQueue queue = queues.remove(session.getId());
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+    // Frames for a session that was never registered, or has closed, are dropped
+    public void send(WebSocketSession session, TextMessage message, boolean critical) {
+        OutboundQueue queue = queues.get(session.getId());
+        if (queue == null) {
+            metrics.dropped(1);
+            return;
+        }
+        queue.offer(message, critical);
+    }
+
+    public void spectate(WebSocketSession session, TextMessage message, TextMessage snapshot) {
+        OutboundQueue queue = queues.get(session.getId());
+        if (queue != null) {
+            queue.offerSpectator(message, snapshot, spectatorCapacity);
+        }
+    }
+
+    public void spectateFrom(WebSocketSession session, TextMessage snapshot) {
+        OutboundQueue queue = queues.get(session.getId());
+        if (queue != null) {
+            queue.offerSnapshot(snapshot);
+        }
+    }
+
+    public void stopSpectating(WebSocketSession session) {
+        OutboundQueue queue = queues.get(session.getId());
+        if (queue != null) {
+            queue.clearSpectatorLane();
+        }
+    }
+
+    public int sessions() {
+        return queues.size();
+    }
+
+    // Share of all outbound queue slots in use, from 0 (all empty) to 1 (all full)
+    public double backlog() {
+        long depth = 0;
+        int sessions = 0;
+        for (OutboundQueue queue : queues.values()) {
+            depth += queue.depth();
+            sessions++;
+        }
+        return sessions == 0 ? 0 : depth / ((double) sessions * capacity);
+    }
+
+    // Per-session depth and lag, served by the "outbound" actuator endpoint
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        queues.forEach((sessionId, queue) -> stats.put(sessionId, Map.of(
+                "depth", queue.depth(),
+                "queued_lag_ms", TimeUnit.NANOSECONDS.toMillis(queue.queuedLagNanos()),
+                "last_lag_ms", TimeUnit.NANOSECONDS.toMillis(queue.lastLagNanos()),
+                "max_lag_ms", TimeUnit.NANOSECONDS.toMillis(queue.maxLagNanos()),
+                "dropped", queue.droppedFrames())));
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdownNow();
+    }
+}
@@ -0,0 +1,23 @@
+package com.marius.Battleship_Service.websockets;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "outbound")
+public class OutboundEndpoint {
+
+    private final OutboundDelivery outboundDelivery;
+
+    public OutboundEndpoint(OutboundDelivery outboundDelivery) {
+        this.outboundDelivery = outboundDelivery;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> sessions() {
+        return outboundDelivery.stats();
+    }
+}
@@ -0,0 +1,279 @@
+package com.marius.Battleship_Service.websockets;
+
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import jakarta.websocket.Session;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounded outbound buffer for a single session, drained by a writer task on a
+ * shared executor so that a slow client never blocks the thread that produced
+ * the frame. What happens when the buffer is full is decided by the
+ * {@link OverflowPolicy}. Spectator frames share the same queue, so a session
+ * is only ever written by one thread, but they form a lane of their own that
+ * is coalesced into the latest snapshot instead of crowding out game frames.
+ */
+public class OutboundQueue {
+
+    public enum OverflowPolicy {
+        // Drop the oldest non-critical frame to make room
+        DROP_OLDEST,
+        // Close the session with a policy-violation status
+        CLOSE
+    }
+
+    // Tomcat's per-session limit for a blocking send
+    private static final String SEND_TIMEOUT_PROPERTY = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final WebSocketSession session;
+    private final Executor writer;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final CustomMetricsService.OutboundMetrics metrics;
+    private final MessageCompressor compressor; // null unless the session negotiated compression
+
+    private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+    private Frame pendingSnapshot;
+    private int spectatorFrames;
+    private boolean closed;
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private volatile long lastLagNanos;
+    private volatile long maxLagNanos;
+    private volatile long droppedFrames;
+
+    public OutboundQueue(WebSocketSession session, Executor writer, int capacity, OverflowPolicy policy,
+            long sendTimeoutMillis, CustomMetricsService.OutboundMetrics metrics) {
+        this(session, writer, capacity, policy, sendTimeoutMillis, metrics, null);
+    }
+
+    public OutboundQueue(WebSocketSession session, Executor writer, int capacity, OverflowPolicy policy,
+            long sendTimeoutMillis, CustomMetricsService.OutboundMetrics metrics, MessageCompressor compressor) {
+        this.session = session;
+        this.writer = writer;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.metrics = metrics;
+        this.compressor = compressor != null && compressor.isNegotiated(session) ? compressor : null;
+        applySendTimeout(session, sendTimeoutMillis);
+    }
+
+    public WebSocketSession getSession() {
+        return session;
+    }
+
+    // Frames may be shared between sessions, so they are never copied or modified here
+    public void offer(TextMessage message, boolean critical) {
+        Frame frame = new Frame(message, critical, false, System.nanoTime());
+        boolean overflow = false;
+
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (frames.size() < capacity) {
+                frames.addLast(frame);
+            } else if (policy != OverflowPolicy.CLOSE && removeOldestNonCritical()) {
+                frames.addLast(frame);
+            } else if (policy != OverflowPolicy.CLOSE && !critical) {
+                dropped(1);
+            } else {
+                overflow = true;
+                discard();
+            }
+        }
+
+        if (overflow) {
+            closeSlowConsumer();
+        } else {
+            scheduleDrain();
+        }
+    }
+
+    // A spectator frame; once the lane holds laneCapacity frames, or the queue is full,
+    // everything queued in the lane is replaced by the snapshot
+    public void offerSpectator(TextMessage message, TextMessage snapshot, int laneCapacity) {
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (spectatorFrames < laneCapacity && frames.size() < capacity) {
+                frames.addLast(new Frame(message, false, true, now));
+                spectatorFrames++;
+            } else {
+                dropped(clearSpectatorFrames() + 1);
+                pendingSnapshot = new Frame(snapshot, true, true, now);
+            }
+        }
+        scheduleDrain();
+    }
+
+    // The spectator lane restarts from this snapshot; game frames are kept
+    public void offerSnapshot(TextMessage snapshot) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            clearSpectatorFrames();
+            pendingSnapshot = new Frame(snapshot, true, true, System.nanoTime());
+        }
+        scheduleDrain();
+    }
+
+    // Spectator frames still queued when the session stops spectating are not sent
+    public synchronized void clearSpectatorLane() {
+        clearSpectatorFrames();
+        if (pendingSnapshot != null && pendingSnapshot.spectator()) {
+            pendingSnapshot = null;
+        }
+    }
+
+    public synchronized void close() {
+        discard();
+    }
+
+    public synchronized int depth() {
+        return frames.size() + (pendingSnapshot != null ? 1 : 0);
+    }
+
+    // Age of the oldest frame still waiting to be written
+    public synchronized long queuedLagNanos() {
+        Frame oldest = pendingSnapshot != null ? pendingSnapshot : frames.peekFirst();
+        return oldest == null ? 0 : System.nanoTime() - oldest.enqueuedAt();
+    }
+
+    public long lastLagNanos() {
+        return lastLagNanos;
+    }
+
+    public long maxLagNanos() {
+        return maxLagNanos;
+    }
+
+    public long droppedFrames() {
+        return droppedFrames;
+    }
+
+    private boolean removeOldestNonCritical() {
+        Iterator<Frame> iterator = frames.iterator();
+        while (iterator.hasNext()) {
+            Frame frame = iterator.next();
+            if (!frame.critical()) {
+                iterator.remove();
+                if (frame.spectator()) {
+                    spectatorFrames--;
+                }
+                dropped(1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int clearSpectatorFrames() {
+        if (spectatorFrames == 0) {
+            return 0;
+        }
+        int removed = spectatorFrames;
+        frames.removeIf(Frame::spectator);
+        spectatorFrames = 0;
+        return removed;
+    }
+
+    private void dropped(int count) {
+        droppedFrames += count;
+        metrics.dropped(count);
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            writer.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            Frame next;
+            while ((next = nextFrame()) != null) {
+                if (!session.isOpen()) {
+                    close();
+                    return;
+                }
+                // Compressed on the writer thread, off the path of the handler that produced the frame
+                session.sendMessage(compressor != null ? compressor.encode(next.message()) : next.message());
+
+                long lag = System.nanoTime() - next.enqueuedAt();
+                lastLagNanos = lag;
+                if (lag > maxLagNanos) {
+                    maxLagNanos = lag;
+                }
+                metrics.sent(lag);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Includes sends that exceeded the configured timeout, and sessions the container
+            // closed under us (IllegalStateException)
+            close();
+            metrics.failed();
+            return;
+        } finally {
+            draining.set(false);
+        }
+
+        // A frame may have been offered between the last poll and releasing the flag
+        if (depth() > 0 && session.isOpen()) {
+            scheduleDrain();
+        }
+    }
+
+    private synchronized Frame nextFrame() {
+        if (pendingSnapshot != null) {
+            Frame snapshot = pendingSnapshot;
+            pendingSnapshot = null;
+            return snapshot;
+        }
+        Frame frame = frames.pollFirst();
+        if (frame != null && frame.spectator()) {
+            spectatorFrames--;
+        }
+        return frame;
+    }
+
+    private void discard() {
+        closed = true;
+        frames.clear();
+        spectatorFrames = 0;
+        pendingSnapshot = null;
+    }
+
+    private void closeSlowConsumer() {
+        metrics.closed();
+        writer.execute(() -> {
+            try {
+                session.close(CloseStatus.POLICY_VIOLATION.withReason("Outbound queue overflow"));
+            } catch (IOException | RuntimeException e) {
+                // Session is already gone
+            }
+        });
+    }
+
+    private static void applySendTimeout(WebSocketSession session, long sendTimeoutMillis) {
+        if (sendTimeoutMillis > 0 && session instanceof NativeWebSocketSession nativeSession) {
+            Session standardSession = nativeSession.getNativeSession(Session.class);
+            if (standardSession != null) {
+                standardSession.getUserProperties().put(SEND_TIMEOUT_PROPERTY, sendTimeoutMillis);
+            }
+        }
+    }
+
+    private record Frame(TextMessage message, boolean critical, boolean spectator, long enqueuedAt) {
+    }
+}
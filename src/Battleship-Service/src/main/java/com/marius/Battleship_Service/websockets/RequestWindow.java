@@ -0,0 +1,75 @@
+package com.marius.Battleship_Service.websockets;
+
+import org.springframework.web.socket.TextMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Replies to the most recent client sequence numbers of one session, so a
+ * retried action is answered from memory instead of being run again. Entries
+ * live in a ring indexed by sequence number; numbers may arrive out of order
+ * within the window, and anything older than the window is rejected rather
+ * than executed a second time.
+ */
+public class RequestWindow {
+
+    public enum Admission {
+        NEW,
+        DUPLICATE,
+        STALE
+    }
+
+    private final long[] sequences;
+    private final List<List<TextMessage>> replies;
+    private long highest;
+
+    public RequestWindow(int size) {
+        this.sequences = new long[size];
+        this.replies = new ArrayList<>(size);
+        Arrays.fill(sequences, -1);
+        for (int i = 0; i < size; i++) {
+            replies.add(new ArrayList<>());
+        }
+    }
+
+    public synchronized Admission admit(long seq) {
+        int slot = slot(seq);
+        if (sequences[slot] == seq) {
+            return Admission.DUPLICATE;
+        }
+        if (seq <= highest - sequences.length) {
+            return Admission.STALE;
+        }
+        sequences[slot] = seq;
+        replies.get(slot).clear();
+        highest = Math.max(highest, seq);
+        return Admission.NEW;
+    }
+
+    public synchronized void record(long seq, TextMessage reply) {
+        int slot = slot(seq);
+        if (sequences[slot] == seq) {
+            replies.get(slot).add(reply);
+        }
+    }
+
+    public synchronized List<TextMessage> replies(long seq) {
+        int slot = slot(seq);
+        return sequences[slot] == seq ? List.copyOf(replies.get(slot)) : List.of();
+    }
+
+    // Drops a request that failed part-way, so a retry runs it again
+    public synchronized void forget(long seq) {
+        int slot = slot(seq);
+        if (sequences[slot] == seq) {
+            sequences[slot] = -1;
+            replies.get(slot).clear();
+        }
+    }
+
+    private int slot(long seq) {
+        return (int) (seq % sequences.length);
+    }
+}
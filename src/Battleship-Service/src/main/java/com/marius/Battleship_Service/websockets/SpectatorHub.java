@@ -0,0 +1,140 @@
+package com.marius.Battleship_Service.websockets;
+
+import com.marius.Battleship_Service.models.Bitboard;
+import com.marius.Battleship_Service.models.Game;
+import jakarta.annotation.PreDestroy;
+import org.json.JSONObject;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans game events out to spectators. Each event is encoded once into an
+ * immutable {@link TextMessage} (ship positions are never included) and the
+ * same instance is handed to every subscriber's outbound queue, in the
+ * spectator lane of {@link OutboundDelivery}. The fan-out itself runs on a
+ * dedicated thread so that players never wait on it, and it never waits on a
+ * game: the board is copied by the thread that publishes the event, and only
+ * encoded on the fan-out thread.
+ */
+@Component
+public class SpectatorHub {
+
+    private static final String SPECTATING_ATTRIBUTE = "spectating_game_id";
+
+    private final Map<String, Feed> feeds = new ConcurrentHashMap<>();
+    private final ExecutorService fanout;
+    private final OutboundDelivery outboundDelivery;
+
+    public SpectatorHub(OutboundDelivery outboundDelivery) {
+        // A single fan-out thread keeps events in order for every game
+        this.fanout = Executors.newSingleThreadExecutor(daemonThreads("spectator-fanout-"));
+        this.outboundDelivery = outboundDelivery;
+    }
+
+    public void subscribe(WebSocketSession session, Game game) {
+        unsubscribe(session);
+
+        feeds.computeIfAbsent(game.getId(), id -> new Feed()).subscribers.put(session.getId(), session);
+        session.getAttributes().put(SPECTATING_ATTRIBUTE, game.getId());
+        outboundDelivery.spectateFrom(session, Board.of(game).encode());
+    }
+
+    public void unsubscribe(WebSocketSession session) {
+        Object gameId = session.getAttributes().remove(SPECTATING_ATTRIBUTE);
+        if (gameId != null) {
+            feeds.computeIfPresent((String) gameId, (id, feed) -> {
+                if (feed.subscribers.remove(session.getId()) != null) {
+                    outboundDelivery.stopSpectating(session);
+                }
+                return feed.subscribers.isEmpty() ? null : feed;
+            });
+        }
+    }
+
+    // Called from the player path; copies the board and schedules the rest, never sends
+    public void publish(Game game, Map<String, Object> event) {
+        Feed feed = feeds.get(game.getId());
+        if (feed == null || feed.subscribers.isEmpty()) {
+            return;
+        }
+
+        Board board = Board.of(game);
+        fanout.execute(() -> {
+            TextMessage frame = new TextMessage(new JSONObject(event).toString());
+            TextMessage snapshot = board.encode();
+            for (WebSocketSession session : feed.subscribers.values()) {
+                outboundDelivery.spectate(session, frame, snapshot);
+            }
+        });
+    }
+
+    // Drop the feed once the game is over; current spectators still receive the final event
+    public void close(Game game, Map<String, Object> event) {
+        publish(game, event);
+        fanout.execute(() -> feeds.remove(game.getId()));
+    }
+
+    static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanout.shutdownNow();
+    }
+
+    private static final class Feed {
+        private final Map<String, WebSocketSession> subscribers = new ConcurrentHashMap<>();
+    }
+
+    // What a spectator sees of a game at one moment: players, status and shots, no ships
+    record Board(String gameId, String status, int gridSize, String player1Id, String player2Id,
+            long[] player1Hits, long[] player1Misses, long[] player2Hits, long[] player2Misses) {
+
+        // Copied under the game's lock, as shots are applied under it
+        static Board of(Game game) {
+            synchronized (game) {
+                return new Board(game.getId(), game.getStatus(), game.getGridSize(), game.getPlayer1Id(),
+                        game.getPlayer2Id(), copy(game.getPlayer1Hits()), copy(game.getPlayer1Misses()),
+                        copy(game.getPlayer2Hits()), copy(game.getPlayer2Misses()));
+            }
+        }
+
+        private static long[] copy(long[] board) {
+            return board == null ? null : board.clone();
+        }
+
+        TextMessage encode() {
+            Map<String, Object> snapshot = new HashMap<>();
+            snapshot.put("event", "snapshot");
+            snapshot.put("game_id", gameId);
+            snapshot.put("status", status);
+            snapshot.put("grid_size", gridSize);
+            if (player1Id != null) {
+                snapshot.put("player1_id", player1Id);
+            }
+            if (player2Id != null) {
+                snapshot.put("player2_id", player2Id);
+            }
+            snapshot.put("player1_hits", Bitboard.cells(player1Hits));
+            snapshot.put("player1_misses", Bitboard.cells(player1Misses));
+            snapshot.put("player2_hits", Bitboard.cells(player2Hits));
+            snapshot.put("player2_misses", Bitboard.cells(player2Misses));
+            return new TextMessage(new JSONObject(snapshot).toString());
+        }
+    }
+}
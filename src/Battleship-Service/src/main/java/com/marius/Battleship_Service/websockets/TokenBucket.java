@@ -0,0 +1,67 @@
+package com.marius.Battleship_Service.websockets;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket kept in a single atomic long, in the form of the generic
+ * cell rate algorithm: instead of a token count and a refill time, the bucket
+ * remembers when it will next be full again. Taking a token pushes that time
+ * one interval further out; the bucket is empty once it is more than
+ * {@code burst} intervals ahead of now. Admission is one read and one
+ * compare-and-set, with no lock and no refill thread.
+ */
+public final class TokenBucket {
+
+    private final long intervalNanos; // time to earn one token
+    private final long capacityNanos; // how far ahead of now the full time may run: burst intervals
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE / 2);
+
+    public TokenBucket(Limit limit) {
+        this.intervalNanos = limit.intervalNanos();
+        this.capacityNanos = limit.intervalNanos() * limit.burst();
+    }
+
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    boolean tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            if (next - now > capacityNanos) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    // True once the bucket has refilled completely, i.e. it has not been used lately
+    public boolean isFull(long now) {
+        return fullAt.get() - now <= 0;
+    }
+
+    /**
+     * A sustained rate and the burst allowed on top of it, written as
+     * {@code <per-second>/<burst>}, e.g. {@code 0.5/3} for one action every
+     * two seconds with up to three at once.
+     */
+    public record Limit(long intervalNanos, int burst) {
+
+        public static Limit parse(String spec) {
+            String[] parts = spec.trim().split("/");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Rate limit must be <per-second>/<burst>: " + spec);
+            }
+            double perSecond = Double.parseDouble(parts[0]);
+            int burst = Integer.parseInt(parts[1]);
+            if (!(perSecond > 0) || burst < 1) {
+                throw new IllegalArgumentException("Rate limit needs a positive rate and burst: " + spec);
+            }
+            return new Limit(Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / perSecond)), burst);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.marius.Battleship_Service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Time from JVM launch to the first accepted /ws/game handshake, for each fast-start step on
+// its own and all together. Every run is a fresh child JVM. Run with:
+//   mvn test -Pbenchmark -Dtest=StartupBenchmark [-Dstartup.runs=5]
+// The AOT steps only run if AOT-generated classes are available: build with -Pfast-start
+// first, or pass -Dstartup.aot-classes=<dir> with compiled process-aot output.
+@Tag("benchmark")
+class StartupBenchmark {
+
+    private static final String MAIN_CLASS = "com.marius.Battleship_Service.BattleshipServiceApplication";
+    private static final String AOT_INITIALIZER = MAIN_CLASS + "__ApplicationContextInitializer";
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(120);
+
+    private final int runs = Integer.getInteger("startup.runs", 3);
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void timeToFirstWebSocketConnection() throws Exception {
+        List<String> classPath = new ArrayList<>(Arrays.asList(System.getProperty("java.class.path")
+                .split(File.pathSeparator)));
+        String aotClasses = System.getProperty("startup.aot-classes");
+        boolean aot = aotClasses != null || isOnClassPath(AOT_INITIALIZER);
+
+        // The application classes go into a jar, since CDS only archives classes loaded from jars
+        List<String> applicationClasses = new ArrayList<>();
+        if (aotClasses != null) {
+            applicationClasses.add(aotClasses);
+        }
+        applicationClasses.add(Path.of("target", "classes").toString());
+        Path appJar = jar(applicationClasses, workDir.resolve("app.jar"));
+
+        List<String> libraries = classPath.stream()
+                .filter(entry -> entry.endsWith(".jar") && !entry.contains("junit") && !entry.contains("surefire"))
+                .collect(Collectors.toList());
+        List<String> withDevtools = prepend(appJar, libraries);
+        List<String> production = prepend(appJar, libraries.stream()
+                .filter(entry -> !entry.contains("spring-boot-devtools")).toList());
+
+        List<String> fastStart = List.of("-Dspring.profiles.active=fast-start");
+        List<String> aotFlags = List.of("-Dspring.aot.enabled=true");
+
+        measure("default (devtools on the class path)", withDevtools, List.of());
+        measure("devtools excluded", production, List.of());
+        measure("+ lazy initialisation", production, fastStart);
+        if (aot) {
+            measure("+ AOT context", production, concat(fastStart, aotFlags));
+        } else {
+            System.out.println("AOT classes not found; skipping the AOT steps");
+        }
+
+        // Training run: start the context once, then dump every loaded class into an archive
+        Path archive = workDir.resolve("app.jsa");
+        List<String> trained = concat(fastStart, aot ? aotFlags : List.of());
+        train(production, concat(trained, List.of("-XX:ArchiveClassesAtExit=" + archive)));
+        assertTrue(Files.exists(archive), "CDS archive was not written");
+        measure("+ CDS archive (all steps)", production,
+                concat(trained, List.of("-XX:SharedArchiveFile=" + archive, "-Xshare:auto")));
+    }
+
+    private void measure(String label, List<String> classPath, List<String> jvmArgs) throws Exception {
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = timeToFirstConnection(classPath, jvmArgs);
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-40s median %,6d ms  (min %,d, max %,d, %d runs)%n",
+                label, millis[runs / 2], millis[0], millis[runs - 1], runs);
+    }
+
+    private long timeToFirstConnection(List<String> classPath, List<String> jvmArgs) throws Exception {
+        int port = freePort();
+        long start = System.nanoTime();
+        Process process = launch(classPath, jvmArgs, "--server.port=" + port);
+        try {
+            URI uri = URI.create("ws://localhost:" + port + "/ws/game");
+            long deadline = start + START_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new AssertionError("Application exited during startup:\n" + logTail());
+                }
+                try {
+                    WebSocket socket = client.newWebSocketBuilder().buildAsync(uri, new WebSocket.Listener() {
+                    }).get(1, TimeUnit.SECONDS);
+                    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    socket.abort();
+                    return elapsed;
+                } catch (Exception notYet) {
+                    Thread.sleep(10);
+                }
+            }
+            throw new AssertionError("No WebSocket connection within " + START_TIMEOUT);
+        } finally {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private void train(List<String> classPath, List<String> jvmArgs) throws Exception {
+        Process process = launch(classPath, concat(jvmArgs, List.of("-Dspring.context.exit=onRefresh")),
+                "--server.port=0");
+        assertTrue(process.waitFor(START_TIMEOUT.toSeconds(), TimeUnit.SECONDS), "Training run did not exit");
+        assertTrue(process.exitValue() == 0, () -> "Training run failed:\n" + logTail());
+    }
+
+    private Process launch(List<String> classPath, List<String> jvmArgs, String... appArgs) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        // Nothing external is reachable in a benchmark; these keep startup from waiting on it
+        command.add("-Dspring.data.mongodb.host=127.0.0.1");
+        command.add("-Ddiscovery.url=http://127.0.0.1:9");
+        command.add("-cp");
+        command.add(String.join(File.pathSeparator, classPath));
+        command.add(MAIN_CLASS);
+        Collections.addAll(command, appArgs);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(workDir.resolve("app.log").toFile())
+                .start();
+    }
+
+    private String logTail() {
+        try {
+            List<String> lines = Files.readAllLines(workDir.resolve("app.log"));
+            return String.join("\n", lines.subList(Math.max(0, lines.size() - 40), lines.size()));
+        } catch (IOException e) {
+            return "(no log)";
+        }
+    }
+
+    private static Path jar(List<String> directories, Path target) throws IOException {
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(target))) {
+            Set<String> written = new HashSet<>();
+            for (String directory : directories) {
+                Path root = Path.of(directory);
+                try (Stream<Path> files = Files.walk(root)) {
+                    // Directory entries too: classpath scanning does not find packages without them
+                    for (Path file : files.filter(file -> !file.equals(root)).sorted().toList()) {
+                        String name = root.relativize(file).toString().replace(File.separatorChar, '/');
+                        if (Files.isDirectory(file)) {
+                            if (written.add(name + "/")) {
+                                jar.putNextEntry(new JarEntry(name + "/"));
+                                jar.closeEntry();
+                            }
+                            continue;
+                        }
+                        if (!written.add(name)) {
+                            continue;
+                        }
+                        jar.putNextEntry(new JarEntry(name));
+                        Files.copy(file, jar);
+                        jar.closeEntry();
+                    }
+                }
+            }
+        }
+        return target;
+    }
+
+    private static List<String> prepend(Path first, List<String> rest) {
+        List<String> entries = new ArrayList<>();
+        entries.add(first.toString());
+        entries.addAll(rest);
+        return entries;
+    }
+
+    private static List<String> concat(List<String> first, List<String> second) {
+        List<String> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+
+    private static boolean isOnClassPath(String className) {
+        try {
+            Class.forName(className, false, StartupBenchmark.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
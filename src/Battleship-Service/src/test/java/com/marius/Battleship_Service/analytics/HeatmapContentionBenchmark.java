@@ -0,0 +1,95 @@
+package com.marius.Battleship_Service.analytics;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+// Cost of counting a shot on a 10x10 heatmap as threads are added: one shared AtomicLongArray,
+// a LongAdder per cell, and the striped counters ShotHeatmaps uses. Shots favour the centre of
+// the board, as real ones do, so a few cells are hot. The last line is the full recordShot call
+// on the attack path, to set against a game save of a millisecond or more.
+// Run with: mvn test -Pbenchmark -Dtest=HeatmapContentionBenchmark
+@Tag("benchmark")
+class HeatmapContentionBenchmark {
+
+    private static final int GRID = 10;
+    private static final int CELLS = GRID * GRID;
+    private static final int SHOTS_PER_THREAD = 5_000_000;
+
+    @Test
+    void countShotsAcrossCores() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int[] cells = targets();
+        for (int run = 0; run < 3; run++) {
+            boolean report = run == 2;
+            for (int threads = 1; threads <= cores; threads *= 2) {
+                AtomicLongArray shared = new AtomicLongArray(CELLS);
+                measure(report, "AtomicLongArray", threads, cells, shared::getAndIncrement);
+
+                LongAdder[] adders = new LongAdder[CELLS];
+                for (int i = 0; i < CELLS; i++) {
+                    adders[i] = new LongAdder();
+                }
+                measure(report, "LongAdder per cell", threads, cells, cell -> adders[cell].increment());
+
+                StripedCounters striped = new StripedCounters(CELLS);
+                measure(report, "StripedCounters", threads, cells, striped::increment);
+
+                ShotHeatmaps heatmaps = new ShotHeatmaps(null, true, Long.MAX_VALUE / 2);
+                measure(report, "ShotHeatmaps.recordShot", threads, cells,
+                        cell -> heatmaps.recordShot(GRID, cell % GRID, cell / GRID, (cell & 3) == 0));
+            }
+        }
+    }
+
+    private static void measure(boolean report, String label, int threads, int[] cells, IntConsumer record)
+            throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int offset = t * 7919;
+            workers[t] = new Thread(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < SHOTS_PER_THREAD; i++) {
+                    record.accept(cells[(offset + i) & (cells.length - 1)]);
+                }
+            });
+            workers[t].start();
+        }
+        ready.await();
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        if (report) {
+            long shots = (long) threads * SHOTS_PER_THREAD;
+            System.out.printf("%-24s %2d threads: %6.1f ns per shot per thread, %7.1f M shots/s%n", label, threads,
+                    elapsed / (double) SHOTS_PER_THREAD, shots * 1e3 / elapsed);
+        }
+    }
+
+    // A fixed sequence of target cells, weighted towards the centre of the board
+    private static int[] targets() {
+        SplittableRandom random = new SplittableRandom(42);
+        int[] cells = new int[1 << 16];
+        for (int i = 0; i < cells.length; i++) {
+            int x = Math.min(GRID - 1, (random.nextInt(GRID) + random.nextInt(GRID)) / 2);
+            int y = Math.min(GRID - 1, (random.nextInt(GRID) + random.nextInt(GRID)) / 2);
+            cells[i] = y * GRID + x;
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,65 @@
+package com.marius.Battleship_Service.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StripedCountersTest {
+
+    @Test
+    void countsAddUpAcrossStripes() throws Exception {
+        StripedCounters counters = new StripedCounters(9, 8);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 9_000; i++) {
+                    counters.increment(i % 9);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] expected = new long[9];
+        Arrays.fill(expected, 8_000);
+        assertArrayEquals(expected, counters.sums());
+        assertEquals(8_000, counters.sum(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> counters.increment(9));
+    }
+
+    @Test
+    void drainingWhileCountingLosesNothing() throws Exception {
+        StripedCounters counters = new StripedCounters(4, 4);
+        CountDownLatch done = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    counters.increment(i & 3);
+                }
+                done.countDown();
+            }).start();
+        }
+
+        // Snapshots taken mid-stream, plus whatever is left at the end, come to every increment
+        long drained = 0;
+        while (done.getCount() > 0) {
+            for (long count : counters.drain()) {
+                drained += count;
+            }
+        }
+        for (long count : counters.drain()) {
+            drained += count;
+        }
+        assertEquals(800_000, drained);
+        assertArrayEquals(new long[4], counters.sums());
+    }
+}
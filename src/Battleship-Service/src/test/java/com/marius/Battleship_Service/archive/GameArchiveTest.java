@@ -0,0 +1,129 @@
+package com.marius.Battleship_Service.archive;
+
+import com.marius.Battleship_Service.codec.GameWriteConverter;
+import com.marius.Battleship_Service.models.Bitboard;
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import com.marius.Battleship_Service.services.GameService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameArchiveTest {
+
+    private static final GameWriteConverter WRITER = new GameWriteConverter();
+
+    @TempDir
+    Path root;
+
+    @Test
+    void gamesAreFoundByIdAndPlayerAcrossRollsCompactionAndRestarts() throws Exception {
+        GameArchive archive = archive("node-1");
+        Random random = new Random(3);
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            games.add(finishedGame(random, "player-" + (i % 7), "player-" + (i % 7 + 1), i));
+        }
+        // Appended in small batches, with upkeep between them, so games roll through many segments
+        for (int i = 0; i < games.size(); i += 25) {
+            archive.append(documents(games.subList(i, i + 25)));
+            archive.maintain();
+        }
+        archive.append(documents(games.subList(0, 5))); // archived twice, as after a crash mid-move
+        archive.maintain();
+
+        assertFound(archive, games);
+        List<Game> history = archive.history("player-3", 10);
+        assertEquals(10, history.size());
+        for (int i = 1; i < history.size(); i++) {
+            assertTrue(history.get(i - 1).getFinishedAt().isAfter(history.get(i).getFinishedAt()));
+        }
+        assertEquals(games.stream().filter(game -> game.getPlayer1Id().equals("player-3")
+                || game.getPlayer2Id().equals("player-3")).count(), archive.history("player-3", 1000).size());
+
+        // Another node sees this node's sealed segments; a restart recovers the active one
+        archive.append(documents(List.of(games.get(7))));
+        GameArchive peer = archive("node-2");
+        peer.maintain();
+        assertEquals(games.get(3).getId(), peer.find(games.get(3).getId()).orElseThrow().getId());
+        archive.close();
+        GameArchive restarted = archive("node-1");
+        assertFound(restarted, games);
+        try (Stream<Path> files = Files.list(root.resolve("node-1"))) {
+            assertTrue(files.filter(path -> path.toString().endsWith(".seg")).count() < 16);
+        }
+    }
+
+    @Test
+    void aNodeDirectoryIsWrittenByOneArchiveAtATime() throws Exception {
+        GameArchive first = archive("node-1");
+        first.start();
+        assertThrows(IllegalStateException.class, () -> archive("node-1").start());
+
+        first.close();
+        GameArchive next = archive("node-1");
+        next.start();
+        next.close();
+    }
+
+    @Test
+    void nodesAreNamedByHostAndPortUnlessConfigured() {
+        GameArchive archive = new GameArchive(new CustomMetricsService(new SimpleMeterRegistry()), true,
+                root.toString(), "", 8085, 1 << 16, 0, 4, 8);
+        assertTrue(archive.node().endsWith("-8085"));
+        assertNotEquals("-8085", archive.node());
+    }
+
+    private GameArchive archive(String node) {
+        return new GameArchive(new CustomMetricsService(new SimpleMeterRegistry()), true, root.toString(), node,
+                8081, 1 << 16, 0, 4, 8);
+    }
+
+    private static void assertFound(GameArchive archive, List<Game> games) {
+        for (Game game : games) {
+            Game found = archive.find(game.getId()).orElseThrow();
+            assertEquals(game.getPlayer1Id(), found.getPlayer1Id());
+            assertEquals(game.getWinnerId(), found.getWinnerId());
+            assertEquals(game.getFinishedAt(), found.getFinishedAt());
+            assertEquals(game.getPlayer1Grid().size(), found.getPlayer1Grid().size());
+            assertArrayEquals(game.getPlayer2Hits(), found.getPlayer2Hits());
+        }
+        assertTrue(archive.find(new ObjectId().toHexString()).isEmpty());
+    }
+
+    private static Game finishedGame(Random random, String player1, String player2, int index) {
+        GameService gameService = new GameService();
+        Game game = gameService.newMatch(player1, player2, Game.DEFAULT_GRID_SIZE, Game.standardFleet(), random);
+        game.setId(new ObjectId().toHexString());
+        long[] hits = Bitboard.create(Game.DEFAULT_GRID_SIZE * Game.DEFAULT_GRID_SIZE);
+        for (int shot = 0; shot < 30; shot++) {
+            Bitboard.set(hits, random.nextInt(Game.DEFAULT_GRID_SIZE * Game.DEFAULT_GRID_SIZE));
+        }
+        game.setPlayer2Hits(hits);
+        game.setStatus("finished");
+        game.setWinnerId(player1);
+        game.setStartedAt(Instant.parse("2024-11-01T10:00:00Z").plusSeconds(index * 60L));
+        game.setFinishedAt(game.getStartedAt().plusSeconds(300));
+        return game;
+    }
+
+    private static List<Document> documents(List<Game> games) {
+        return games.stream().map(WRITER::convert).toList();
+    }
+}
@@ -0,0 +1,93 @@
+package com.marius.Battleship_Service.bot;
+
+import com.marius.Battleship_Service.models.AttackResult;
+import com.marius.Battleship_Service.models.Bitboard;
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.services.GameService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Run with: mvn test -Pbenchmark
+@Tag("benchmark")
+class TargetingEngineBenchmark {
+
+    private static final int WARMUP_GAMES = 2_000;
+    private static final int MEASURED_GAMES = 20_000;
+
+    private final GameService gameService = new GameService();
+
+    @Test
+    void movesPerSecondPerCore() {
+        TargetingEngine engine = new TargetingEngine(Game.DEFAULT_GRID_SIZE, newGame().getFleetSizes(), 42);
+        playGames(engine, WARMUP_GAMES);
+
+        long start = System.nanoTime();
+        long moves = playGames(engine, MEASURED_GAMES);
+        long elapsed = System.nanoTime() - start;
+
+        double movesPerSecond = moves / (elapsed / 1e9);
+        double averageGameLength = (double) moves / MEASURED_GAMES;
+        System.out.printf("Bot engine (single core): %.0f moves/s, %.2f us/move, %.1f moves/game%n",
+                movesPerSecond, elapsed / 1e3 / moves, averageGameLength);
+
+        // A density bot should need far fewer shots than a random one (~96)
+        assertTrue(averageGameLength < 70, "Average game length " + averageGameLength);
+    }
+
+    @Test
+    void nextTargetDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        TargetingEngine engine = new TargetingEngine(Game.DEFAULT_GRID_SIZE, newGame().getFleetSizes(), 7);
+        for (int i = 0; i < 10_000; i++) {
+            engine.nextTarget();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            engine.recordMiss(engine.nextTarget());
+            if (i % 50 == 49) {
+                engine.reset();
+            }
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        System.out.printf("Bot engine allocation: %d bytes over 100000 moves%n", allocated);
+
+        assertTrue(allocated < 64 * 1024, "Allocated " + allocated + " bytes");
+    }
+
+    // Plays the engine against freshly generated fleets using the production rules
+    private long playGames(TargetingEngine engine, int games) {
+        long moves = 0;
+        for (int i = 0; i < games; i++) {
+            Game game = newGame();
+            engine.reset();
+            AttackResult result;
+            do {
+                int cell = engine.nextTarget();
+                game.setCurrentTurn("bot");
+                result = gameService.resolveAttack(game, "bot", cell % Game.DEFAULT_GRID_SIZE,
+                        cell / Game.DEFAULT_GRID_SIZE);
+                engine.record(result);
+                moves++;
+            } while (!result.isGameOver());
+        }
+        return moves;
+    }
+
+    private Game newGame() {
+        Game game = new Game();
+        game.setId("benchmark");
+        game.setPlayer1Id("bot");
+        game.setPlayer2Id("target");
+        game.setPlayer2Grid(gameService.generateGrid());
+        game.setStatus("in_progress");
+        game.setPlayer2Hits(Bitboard.create(Game.DEFAULT_GRID_SIZE * Game.DEFAULT_GRID_SIZE));
+        game.setPlayer2Misses(Bitboard.create(Game.DEFAULT_GRID_SIZE * Game.DEFAULT_GRID_SIZE));
+        return game;
+    }
+}
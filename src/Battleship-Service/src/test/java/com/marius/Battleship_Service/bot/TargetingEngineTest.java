@@ -0,0 +1,138 @@
+package com.marius.Battleship_Service.bot;
+
+import com.marius.Battleship_Service.models.AttackResult;
+import com.marius.Battleship_Service.models.Bitboard;
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.services.GameService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TargetingEngineTest {
+
+    private static final int SIZE = 5;
+
+    @Test
+    void anOpenHitIsFollowedUpNextToIt() {
+        for (long seed = 1; seed <= 20; seed++) {
+            TargetingEngine engine = new TargetingEngine(SIZE, new int[] { 2 }, seed);
+            engine.recordHit(cell(2, 2));
+            assertTrue(Set.of(cell(1, 2), cell(3, 2), cell(2, 1), cell(2, 3)).contains(engine.nextTarget()));
+        }
+    }
+
+    @Test
+    void restoredShipsThatWereSunkAreNotChasedAgain() {
+        // The Destroyer at (0,0)-(1,0) is sunk; the Cruiser has one hit at (4,4)
+        List<Game.Ship> grid = List.of(
+                new Game.Ship(0, 0, "Destroyer", "horizontal"),
+                new Game.Ship(1, 0, "Destroyer", "horizontal"),
+                new Game.Ship(4, 2, "Cruiser", "vertical"),
+                new Game.Ship(4, 3, "Cruiser", "vertical"),
+                new Game.Ship(4, 4, "Cruiser", "vertical"));
+        long[] hits = Bitboard.create(SIZE * SIZE);
+        Bitboard.set(hits, cell(0, 0));
+        Bitboard.set(hits, cell(1, 0));
+        Bitboard.set(hits, cell(4, 4));
+        long[] misses = Bitboard.create(SIZE * SIZE);
+
+        for (long seed = 1; seed <= 20; seed++) {
+            TargetingEngine engine = new TargetingEngine(SIZE, new int[] { 2, 3 }, seed);
+            engine.restore(hits, misses, grid);
+            // Only Cruiser placements through (4,4) count; were the sunk Destroyer taken
+            // for open hits, (2,0) would score highest
+            assertTrue(Set.of(cell(2, 4), cell(3, 4), cell(4, 2), cell(4, 3)).contains(engine.nextTarget()));
+        }
+    }
+
+    @Test
+    void restoreCountsOnlyTheShipsStillAfloat() {
+        // The Cruiser is sunk, so only the two-cell Destroyer is left: single free cells are never worth a shot
+        List<Game.Ship> grid = List.of(
+                new Game.Ship(0, 0, "Cruiser", "horizontal"),
+                new Game.Ship(1, 0, "Cruiser", "horizontal"),
+                new Game.Ship(2, 0, "Cruiser", "horizontal"),
+                new Game.Ship(3, 3, "Destroyer", "horizontal"),
+                new Game.Ship(4, 3, "Destroyer", "horizontal"));
+        long[] hits = Bitboard.create(SIZE * SIZE);
+        long[] misses = Bitboard.create(SIZE * SIZE);
+        for (int x = 0; x < 3; x++) {
+            Bitboard.set(hits, cell(x, 0));
+        }
+        // Misses on a checkerboard leave every other free cell isolated
+        for (int y = 1; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                if ((x + y) % 2 == 0 && !(y == 3 && x >= 3)) {
+                    Bitboard.set(misses, cell(x, y));
+                }
+            }
+        }
+
+        TargetingEngine engine = new TargetingEngine(SIZE, new int[] { 2, 3 }, 5);
+        engine.restore(hits, misses, grid);
+        int target = engine.nextTarget();
+        int x = target % SIZE;
+        int y = target / SIZE;
+        boolean hasFreeNeighbour = false;
+        for (int[] d : new int[][] { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } }) {
+            int nx = x + d[0];
+            int ny = y + d[1];
+            if (nx >= 0 && ny >= 0 && nx < SIZE && ny < SIZE
+                    && !Bitboard.get(hits, cell(nx, ny)) && !Bitboard.get(misses, cell(nx, ny))) {
+                hasFreeNeighbour = true;
+            }
+        }
+        assertTrue(hasFreeNeighbour, "Isolated cell " + x + "," + y + " cannot hold a Destroyer");
+    }
+
+    @Test
+    void aFullBoardHasNoTarget() {
+        TargetingEngine engine = new TargetingEngine(SIZE, new int[] { 2 }, 3);
+        for (int cell = 0; cell < SIZE * SIZE; cell++) {
+            engine.recordMiss(cell);
+        }
+        assertEquals(-1, engine.nextTarget());
+    }
+
+    @Test
+    void playsWholeGamesWithoutRepeatingAShot() {
+        GameService gameService = new GameService();
+        Random random = new Random(11);
+        for (int round = 0; round < 50; round++) {
+            Game game = new Game();
+            game.setPlayer1Id("bot");
+            game.setPlayer2Id("target");
+            game.setStatus("in_progress");
+            game.setPlayer2Grid(gameService.generateGrid(Game.DEFAULT_GRID_SIZE, game.getFleet(), random));
+            int cells = Game.DEFAULT_GRID_SIZE * Game.DEFAULT_GRID_SIZE;
+            game.setPlayer2Hits(Bitboard.create(cells));
+            game.setPlayer2Misses(Bitboard.create(cells));
+
+            TargetingEngine engine = new TargetingEngine(Game.DEFAULT_GRID_SIZE, game.getFleetSizes(), round + 1);
+            long[] fired = Bitboard.create(cells);
+            AttackResult result;
+            int moves = 0;
+            do {
+                int cell = engine.nextTarget();
+                assertFalse(Bitboard.get(fired, cell), "Cell " + cell + " fired at twice");
+                Bitboard.set(fired, cell);
+                game.setCurrentTurn("bot");
+                result = gameService.resolveAttack(game, "bot", cell % Game.DEFAULT_GRID_SIZE,
+                        cell / Game.DEFAULT_GRID_SIZE);
+                engine.record(result);
+                moves++;
+            } while (!result.isGameOver());
+            assertTrue(moves <= cells);
+        }
+    }
+
+    private static int cell(int x, int y) {
+        return y * SIZE + x;
+    }
+}
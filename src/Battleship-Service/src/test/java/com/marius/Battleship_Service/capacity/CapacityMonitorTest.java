@@ -0,0 +1,63 @@
+package com.marius.Battleship_Service.capacity;
+
+import com.marius.Battleship_Service.models.Game;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CapacityMonitorTest {
+
+    private static final long MB = 1 << 20;
+
+    @Test
+    void footprintGrowsWithTheBoardAndFleet() {
+        Game small = game(Game.DEFAULT_GRID_SIZE, 5);
+        Game large = game(Game.MAX_GRID_SIZE, 5);
+        Game crowded = game(Game.DEFAULT_GRID_SIZE, 20);
+
+        long smallBytes = GameFootprint.estimate(small);
+        // A standard game is a few kilobytes at most, far from the heap budget on its own
+        assertTrue(smallBytes > 500 && smallBytes < 4096, "standard game estimated at " + smallBytes);
+        // Six masks of 157 words each against two words each
+        assertTrue(GameFootprint.estimate(large) - smallBytes >= 6 * 8 * (157 - 2));
+        assertTrue(GameFootprint.estimate(crowded) > smallBytes);
+    }
+
+    @Test
+    void loadIsTheTightestOfMemoryLagAndBacklog() {
+        // Accounted memory counts even when the last GC saw less
+        assertEquals(0.5, CapacityMonitor.load(50 * MB, 10 * MB, 100 * MB, 0, 250, 0), 1e-9);
+        // And the live heap when it is the larger, e.g. memory this node does not account for
+        assertEquals(0.9, CapacityMonitor.load(10 * MB, 90 * MB, 100 * MB, 0, 250, 0), 1e-9);
+        assertEquals(0.8, CapacityMonitor.load(10 * MB, 10 * MB, 100 * MB, 200, 250, 0), 1e-9);
+        assertEquals(0.7, CapacityMonitor.load(10 * MB, 10 * MB, 100 * MB, 0, 250, 0.7), 1e-9);
+    }
+
+    @Test
+    void optionalWorkIsShedBeforeNewGames() {
+        assertEquals(CapacityMonitor.Level.NORMAL, CapacityMonitor.level(0.84, 0.85));
+        assertEquals(CapacityMonitor.Level.DEGRADED, CapacityMonitor.level(0.85, 0.85));
+        assertEquals(CapacityMonitor.Level.DEGRADED, CapacityMonitor.level(0.99, 0.85));
+        assertEquals(CapacityMonitor.Level.FULL, CapacityMonitor.level(1.0, 0.85));
+        assertEquals(CapacityMonitor.Level.FULL, CapacityMonitor.level(1.7, 0.85));
+    }
+
+    private static Game game(int gridSize, int ships) {
+        Game game = new Game();
+        game.setId("0123456789abcdef01234567");
+        game.setPlayer1Id("player-one");
+        game.setPlayer2Id("player-two");
+        game.setGridSize(gridSize);
+        List<Game.Ship> grid = new ArrayList<>();
+        for (int i = 0; i < ships; i++) {
+            grid.add(new Game.Ship(0, i, "destroyer", "horizontal"));
+        }
+        game.setPlayer1Grid(grid);
+        game.setPlayer2Grid(grid);
+        return game;
+    }
+}
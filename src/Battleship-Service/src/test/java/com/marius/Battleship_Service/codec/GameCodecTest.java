@@ -0,0 +1,119 @@
+package com.marius.Battleship_Service.codec;
+
+import com.marius.Battleship_Service.models.Bitboard;
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.services.GameService;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GameCodecTest {
+
+    @Test
+    void gameRoundTripsThroughTheCompactLayout() {
+        GameService gameService = new GameService();
+        List<Game.ShipType> fleet = List.of(new Game.ShipType("Carrier", 5), new Game.ShipType("Raft", 1));
+        Game game = new Game();
+        game.setId(new ObjectId().toHexString());
+        game.setVersion(4L);
+        game.setPlayer1Id("player-one");
+        game.setPlayer2Id("player-two");
+        game.setStatus("in_progress");
+        game.setGridSize(12);
+        game.setFleet(fleet);
+        game.setCurrentTurn("player-two");
+        game.setStartedAt(Instant.ofEpochMilli(1_700_000_000_000L));
+        game.setPlayer1Grid(gameService.generateGrid(12, fleet, new Random(1)));
+        game.setPlayer2Grid(gameService.generateGrid(12, fleet, new Random(2)));
+        long[] hits = Bitboard.create(144);
+        Bitboard.set(hits, 0);
+        Bitboard.set(hits, 143);
+        game.setPlayer1Hits(hits);
+        game.setPlayer1Misses(Bitboard.create(144));
+        game.setPlayer2Hits(Bitboard.create(144));
+        long[] misses = Bitboard.create(144);
+        Bitboard.set(misses, 77);
+        game.setPlayer2Misses(misses);
+
+        Document document = new GameWriteConverter().convert(game);
+        Game read = new GameReadConverter().convert(document);
+
+        assertEquals(game.getId(), read.getId());
+        assertEquals(4L, read.getVersion());
+        assertEquals("player-one", read.getPlayer1Id());
+        assertEquals("player-two", read.getPlayer2Id());
+        assertEquals("in_progress", read.getStatus());
+        assertEquals(12, read.getGridSize());
+        assertEquals(2, read.getFleet().size());
+        assertEquals("Raft", read.getFleet().get(1).getName());
+        assertEquals("player-two", read.getCurrentTurn());
+        assertEquals(game.getStartedAt(), read.getStartedAt());
+        assertNull(read.getFinishedAt());
+        assertShips(game.getPlayer1Grid(), read.getPlayer1Grid());
+        assertShips(game.getPlayer2Grid(), read.getPlayer2Grid());
+        assertArrayEquals(hits, read.getPlayer1Hits());
+        assertArrayEquals(misses, read.getPlayer2Misses());
+        assertEquals(0, Bitboard.count(read.getPlayer2Hits()));
+    }
+
+    @Test
+    void legacyDocumentsAreRead() {
+        List<Document> grid = new ArrayList<>();
+        for (int y = 2; y < 5; y++) {
+            grid.add(new Document("x", 7).append("y", y).append("ship", "Cruiser").append("orientation", "vertical"));
+        }
+        grid.add(new Document("x", 0).append("y", 0).append("ship", "Destroyer").append("orientation", "horizontal"));
+        grid.add(new Document("x", 1).append("y", 0).append("ship", "Destroyer").append("orientation", "horizontal"));
+        ObjectId id = new ObjectId();
+        Document legacy = new Document("_id", id)
+                .append("player1Id", "player-one")
+                .append("status", "waiting_for_opponent")
+                .append("player1Grid", grid);
+
+        Game game = new GameReadConverter().convert(legacy);
+
+        assertEquals(id.toHexString(), game.getId());
+        assertEquals(0L, game.getVersion()); // written before versioning
+        assertEquals(Game.DEFAULT_GRID_SIZE, game.getGridSize());
+        assertEquals(Game.standardFleet().size(), game.getFleet().size());
+        assertEquals(5, game.getPlayer1Grid().size());
+        assertEquals("Cruiser", game.getPlayer1Grid().get(2).getShip());
+        assertEquals(4, game.getPlayer1Grid().get(2).getY());
+        assertNull(game.getPlayer2Grid());
+        assertEquals(0, Bitboard.count(game.getPlayer1Hits()));
+
+        // Saved again, it comes back in the compact layout with the same ships
+        Document rewritten = new GameWriteConverter().convert(game);
+        assertEquals(GameWriteConverter.SCHEMA_VERSION, rewritten.get("schema"));
+        assertNull(rewritten.get("player1Grid"));
+        assertShips(game.getPlayer1Grid(), new GameReadConverter().convert(rewritten).getPlayer1Grid());
+    }
+
+    @Test
+    void fleetCodecRejectsOtherVersionsAndOutOfRangeCells() {
+        assertThrows(IllegalArgumentException.class, () -> FleetCodec.decode(new byte[] { 9 }));
+        assertThrows(IllegalArgumentException.class,
+                () -> FleetCodec.encode(List.of(new Game.Ship(256, 0, "Carrier", "horizontal"))));
+        assertThrows(IllegalArgumentException.class, () -> BitmaskCodec.decode(new byte[7]));
+    }
+
+    private static void assertShips(List<Game.Ship> expected, List<Game.Ship> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getX(), actual.get(i).getX());
+            assertEquals(expected.get(i).getY(), actual.get(i).getY());
+            assertEquals(expected.get(i).getShip(), actual.get(i).getShip());
+            assertEquals(expected.get(i).getOrientation(), actual.get(i).getOrientation());
+        }
+    }
+}
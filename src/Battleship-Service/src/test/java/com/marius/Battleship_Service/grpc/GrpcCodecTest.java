@@ -0,0 +1,185 @@
+package com.marius.Battleship_Service.grpc;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GrpcCodecTest {
+
+    @Test
+    void actionsBecomeHandlerRequests() {
+        byte[] create = new ProtoWriter()
+                .uint(1, 7)
+                .string(2, "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01")
+                .message(10, new ProtoWriter()
+                        .string(1, "player-one")
+                        .uint(2, 12)
+                        .message(3, new ProtoWriter().string(1, "carrier").uint(2, 5))
+                        .message(3, new ProtoWriter().string(1, "destroyer").uint(2, 2)))
+                .uint(99, 1) // a field from a newer client
+                .toByteArray();
+        JSONObject request = GameMessages.toRequest(create);
+        assertEquals("createGame", request.getString("action"));
+        assertEquals(7, request.getLong("seq"));
+        assertEquals("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01", request.getString("traceparent"));
+        assertEquals("player-one", request.getString("player_id"));
+        assertEquals(12, request.getInt("grid_size"));
+        assertEquals("destroyer", request.getJSONArray("fleet").getJSONObject(1).getString("name"));
+        assertEquals(2, request.getJSONArray("fleet").getJSONObject(1).getInt("size"));
+
+        // The top-left cell is all default values, and still an attack on (0, 0)
+        byte[] attack = new ProtoWriter()
+                .message(12, new ProtoWriter().string(1, "player-two").string(2, "game-1")
+                        .message(3, new ProtoWriter()))
+                .toByteArray();
+        request = GameMessages.toRequest(attack);
+        assertEquals("attack", request.getString("action"));
+        assertEquals("player-two", request.getString("attacker_id"));
+        assertEquals(0, request.getJSONObject("coordinates").getInt("x"));
+        assertEquals(0, request.getJSONObject("coordinates").getInt("y"));
+
+        assertThrows(IllegalArgumentException.class, () -> GameMessages.toRequest(
+                new ProtoWriter().message(12, new ProtoWriter().string(2, "game-1")).toByteArray()));
+        assertThrows(IllegalArgumentException.class, () -> GameMessages.toRequest(new byte[] { 0x52, 0x10, 1 }));
+    }
+
+    @Test
+    void eventsHaveTypedFieldsAndDetailsForTheRest() {
+        byte[] event = GameMessages.toEvent(new JSONObject(Map.of(
+                "seq", 3,
+                "game_id", "game-1",
+                "coordinates", Map.of("x", 0, "y", 9),
+                "result", "hit",
+                "player_grid", List.of(Map.of("x", 1, "y", 2, "ship", "carrier", "orientation", "vertical")),
+                "redirect", true,
+                "reason", "turn_timeout")).toString());
+
+        ProtoReader reader = new ProtoReader(event);
+        Map<String, String> details = new HashMap<>();
+        int fields = 0;
+        for (int field; (field = reader.next()) != -1; fields++) {
+            switch (field) {
+                case 1 -> assertEquals(3, reader.uint());
+                case 6 -> assertEquals("game-1", reader.string());
+                case 9 -> {
+                    ProtoReader coordinates = reader.message();
+                    assertEquals(2, coordinates.next()); // x is 0, so left out
+                    assertEquals(9, coordinates.uint());
+                    assertEquals(-1, coordinates.next());
+                }
+                case 10 -> assertEquals("hit", reader.string());
+                case 15 -> {
+                    ProtoReader ship = reader.message();
+                    assertEquals(1, ship.next());
+                    assertEquals(1, ship.uint());
+                    assertEquals(2, ship.next());
+                    assertEquals(2, ship.uint());
+                    assertEquals(3, ship.next());
+                    assertEquals("carrier", ship.string());
+                    assertEquals(4, ship.next());
+                    assertEquals("vertical", ship.string());
+                }
+                case 18 -> {
+                    ProtoReader entry = reader.message();
+                    entry.next();
+                    String key = entry.string();
+                    entry.next();
+                    details.put(key, entry.string());
+                }
+                default -> throw new AssertionError("Unexpected field " + field);
+            }
+        }
+        assertEquals(7, fields);
+        assertEquals(Map.of("redirect", "true", "reason", "turn_timeout"), details);
+    }
+
+    @Test
+    void framesAreReassembledFromAnySplit() {
+        byte[] first = new ProtoWriter().uint(1, 1).toByteArray();
+        byte[] second = new ProtoWriter().string(2, "x".repeat(300)).toByteArray();
+        byte[] stream = concat(FrameDecoder.frame(first), FrameDecoder.frame(new byte[0]), FrameDecoder.frame(second));
+
+        for (int chunk : new int[] { 1, 3, 5, 64, stream.length }) {
+            FrameDecoder decoder = new FrameDecoder(1024);
+            List<byte[]> messages = new ArrayList<>();
+            for (int offset = 0; offset < stream.length; offset += chunk) {
+                decoder.feed(stream, offset, Math.min(chunk, stream.length - offset), messages::add);
+            }
+            assertEquals(3, messages.size());
+            assertArrayEquals(first, messages.get(0));
+            assertArrayEquals(new byte[0], messages.get(1));
+            assertArrayEquals(second, messages.get(2));
+            assertTrue(decoder.atMessageBoundary());
+        }
+
+        FrameDecoder partial = new FrameDecoder(1024);
+        partial.feed(stream, 0, 3, message -> { });
+        assertFalse(partial.atMessageBoundary());
+
+        GrpcStatus.Failure tooLarge = assertThrows(GrpcStatus.Failure.class,
+                () -> new FrameDecoder(100).feed(stream, 0, stream.length, message -> { }));
+        assertEquals(GrpcStatus.RESOURCE_EXHAUSTED, tooLarge.status);
+    }
+
+    @Test
+    void malformedActionsAreRejectedNotMisread() {
+        // Field 99, length-delimited, with a length of -2 as a ten-byte varint: skipping it used to
+        // move the reader backwards onto the same tag, forever
+        byte[] negativeLength = { (byte) 0x9A, 0x06, (byte) 0xFE, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01 };
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(IllegalArgumentException.class, () -> GameMessages.toRequest(negativeLength)));
+
+        // The same for a string and a nested message, and a length past the int range
+        assertThrows(IllegalArgumentException.class, () -> GameMessages.toRequest(
+                new byte[] { 0x12, (byte) 0xFE, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 'x' }));
+        assertThrows(IllegalArgumentException.class, () -> GameMessages.toRequest(
+                new byte[] { 0x52, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x1F, 0x0A }));
+
+        // A nested message cannot claim more bytes than its parent has left
+        byte[] overrun = { 0x62, 0x04, 0x0A, 0x10, 'a', 'b' };
+        assertThrows(IllegalArgumentException.class, () -> GameMessages.toRequest(overrun));
+
+        // Every truncation of a valid action either still reads or is rejected as malformed
+        byte[] attack = new ProtoWriter()
+                .uint(1, 300)
+                .message(12, new ProtoWriter().string(1, "player-two").string(2, "game-1")
+                        .message(3, new ProtoWriter().uint(1, 4).uint(2, 7)))
+                .toByteArray();
+        for (int length = 0; length < attack.length; length++) {
+            byte[] truncated = Arrays.copyOf(attack, length);
+            try {
+                GameMessages.toRequest(truncated);
+            } catch (IllegalArgumentException expected) {
+                // rejected, as it should be
+            }
+        }
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] all = new byte[length];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, all, offset, part.length);
+            offset += part.length;
+        }
+        return all;
+    }
+}
@@ -0,0 +1,176 @@
+package com.marius.Battleship_Service.replication;
+
+import com.marius.Battleship_Service.models.AttackResult;
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import com.marius.Battleship_Service.services.GameService;
+import com.marius.Battleship_Service.services.LiveGameStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataOutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Plays games on a primary store and checks the promoted standby ends up with identical state
+class GameReplicationTest {
+
+    private final GameService gameService = new GameService();
+    private final CustomMetricsService metrics = new CustomMetricsService(new SimpleMeterRegistry());
+
+    @Test
+    void inJvmReplicaMatchesPrimary() throws Exception {
+        try (InJvmTransport transport = new InJvmTransport()) {
+            LiveGameStore standbyGames = new LiveGameStore();
+            GameReplica replica = new GameReplica(standbyGames, metrics, transport);
+            replica.start();
+            replicateAndPromote(transport, replica, standbyGames);
+        }
+    }
+
+    @Test
+    void tcpReplicaMatchesPrimary() throws Exception {
+        TcpTransport standby = TcpTransport.listeningOn("127.0.0.1", 0, () -> { });
+        LiveGameStore standbyGames = new LiveGameStore();
+        GameReplica replica = new GameReplica(standbyGames, metrics, standby);
+        replica.start();
+        try (TcpTransport primary = TcpTransport.connectingTo("127.0.0.1", standby.localPort())) {
+            replicateAndPromote(primary, replica, standbyGames);
+        } finally {
+            standby.close();
+        }
+    }
+    @Test
+    void aFrameThatFailsToApplyDropsTheConnection() throws Exception {
+        AtomicInteger errors = new AtomicInteger();
+        BlockingQueue<String> applied = new LinkedBlockingQueue<>();
+        TcpTransport standby = TcpTransport.listeningOn("127.0.0.1", 0, errors::incrementAndGet);
+        standby.listen(frame -> {
+            String text = new String(frame, StandardCharsets.UTF_8);
+            if (text.equals("bad")) {
+                throw new IllegalArgumentException("Unknown replication frame");
+            }
+            applied.add(text);
+        });
+        try (Socket primary = new Socket("127.0.0.1", standby.localPort())) {
+            primary.setSoTimeout(5000);
+            DataOutputStream out = new DataOutputStream(primary.getOutputStream());
+            out.writeInt(3);
+            out.write("bad".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertEquals(-1, primary.getInputStream().read());
+        }
+        assertEquals(1, errors.get());
+
+        // The primary reconnects and resynchronises
+        try (TcpTransport primary = TcpTransport.connectingTo("127.0.0.1", standby.localPort())) {
+            primary.send("reset".getBytes(StandardCharsets.UTF_8));
+            primary.flush();
+            assertEquals("reset", applied.poll(5, TimeUnit.SECONDS));
+        } finally {
+            standby.close();
+        }
+    }
+
+    private void replicateAndPromote(ReplicationTransport transport, GameReplica replica, LiveGameStore standbyGames)
+            throws Exception {
+        LiveGameStore primaryGames = new LiveGameStore();
+        ReplicationPublisher publisher = new ReplicationPublisher(primaryGames, metrics, transport, 1024);
+        Random random = new Random(7);
+
+        // One game played to the end (and evicted), two left mid-game
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Game game = gameService.newMatch("p1-" + i, "p2-" + i, Game.DEFAULT_GRID_SIZE, Game.standardFleet(), random);
+            game.setId("game-" + i);
+            game.setVersion(0L);
+            primaryGames.put(game);
+            publisher.snapshot(game);
+            games.add(game);
+        }
+        play(games.get(0), publisher, random, Integer.MAX_VALUE);
+        primaryGames.evict(games.get(0).getId());
+        publisher.evict(games.get(0).getId());
+        play(games.get(1), publisher, random, 40);
+        play(games.get(2), publisher, random, 11);
+
+        // Frames arrive in order, so once a marker sent last is there, everything before it is too
+        Game marker = gameService.newMatch("m1", "m2", Game.DEFAULT_GRID_SIZE, Game.standardFleet(), random);
+        marker.setId("marker");
+        marker.setVersion(0L);
+        primaryGames.put(marker);
+        publisher.snapshot(marker);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (replica.replica(marker.getId()) == null) {
+            assertTrue(System.currentTimeMillis() < deadline, "Standby did not catch up: " + replica.stats());
+            Thread.sleep(5);
+        }
+        primaryGames.evict(marker.getId());
+        publisher.evict(marker.getId());
+        while (replica.replica(marker.getId()) != null) {
+            assertTrue(System.currentTimeMillis() < deadline, "Standby did not catch up: " + replica.stats());
+            Thread.sleep(5);
+        }
+
+        assertNull(replica.replica(games.get(0).getId()));
+        assertEquals(0L, replica.stats().get("gaps"));
+        assertEquals(2, replica.promote());
+
+        for (Game game : games.subList(1, 3)) {
+            Game copy = standbyGames.get(game.getId());
+            assertNotNull(copy);
+            assertEquals(game.getVersion(), copy.getVersion());
+            assertEquals(game.getCurrentTurn(), copy.getCurrentTurn());
+            assertArrayEquals(game.getPlayer1Hits(), copy.getPlayer1Hits());
+            assertArrayEquals(game.getPlayer1Misses(), copy.getPlayer1Misses());
+            assertArrayEquals(game.getPlayer2Hits(), copy.getPlayer2Hits());
+            assertArrayEquals(game.getPlayer2Misses(), copy.getPlayer2Misses());
+            assertEquals(game.getPlayer2Grid().size(), copy.getPlayer2Grid().size());
+        }
+    }
+
+    // Random legal shots, bumping the version the way a save would. The lock is the one
+    // GameService.processAttack holds, which keeps resync snapshots consistent.
+    private static void play(Game game, ReplicationPublisher publisher, Random random, int shots) {
+        synchronized (game) {
+            playLocked(game, publisher, random, shots);
+        }
+    }
+
+    private static void playLocked(Game game, ReplicationPublisher publisher, Random random, int shots) {
+        GameService gameService = new GameService();
+        List<Integer> p1Targets = shuffledCells(random);
+        List<Integer> p2Targets = shuffledCells(random);
+        for (int i = 0; i < shots && game.getWinnerId() == null; i++) {
+            String attacker = game.getCurrentTurn();
+            boolean attackerIsPlayer1 = attacker.equals(game.getPlayer1Id());
+            int cell = (attackerIsPlayer1 ? p1Targets : p2Targets).remove(0);
+            AttackResult result = gameService.resolveAttack(game, attacker, cell % 10, cell / 10);
+            game.setVersion(game.getVersion() + 1);
+            publisher.shot(game, !attackerIsPlayer1, cell, result.hit());
+        }
+    }
+
+    private static List<Integer> shuffledCells(Random random) {
+        List<Integer> cells = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            cells.add(i);
+        }
+        Collections.shuffle(cells, random);
+        return cells;
+    }
+}
@@ -0,0 +1,201 @@
+package com.marius.Battleship_Service.services;
+
+import com.marius.Battleship_Service.analytics.ShotHeatmaps;
+import com.marius.Battleship_Service.archive.GameArchive;
+import com.marius.Battleship_Service.config.MongoConfig;
+import com.marius.Battleship_Service.models.Bitboard;
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.replication.ReplicationPublisher;
+import com.marius.Battleship_Service.repositories.GameRepository;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the conditional updates against a real MongoDB, as joins and leaves are aggregation
+// pipeline updates. Needs Docker; skipped without it.
+@Testcontainers(disabledWithoutDocker = true)
+class GameConcurrencyTest {
+
+    private static final int JOINERS = 8;
+
+    @Container
+    private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    private MongoClient client;
+    private SimpleMeterRegistry registry;
+    private ShotHeatmaps shotHeatmaps;
+    private GameRepository gameRepository;
+    private GameService gameService;
+
+    @BeforeEach
+    void start() {
+        client = MongoClients.create(MONGO.getConnectionString());
+
+        MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        MongoTemplate mongoTemplate = new MongoTemplate(new SimpleMongoClientDatabaseFactory(client, "battleship"),
+                converter);
+        mongoTemplate.dropCollection(Game.class);
+
+        registry = new SimpleMeterRegistry();
+        CustomMetricsService metrics = new CustomMetricsService(registry);
+        LiveGameStore liveGames = new LiveGameStore();
+        gameRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(GameRepository.class);
+        gameService = new GameService();
+        ReflectionTestUtils.setField(gameService, "gameRepository", gameRepository);
+        ReflectionTestUtils.setField(gameService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(gameService, "customMetricsService", metrics);
+        ReflectionTestUtils.setField(gameService, "liveGames", liveGames);
+        ReflectionTestUtils.setField(gameService, "replicationPublisher",
+                new ReplicationPublisher(liveGames, metrics, null, 16));
+        shotHeatmaps = new ShotHeatmaps(mongoTemplate, false, 0);
+        ReflectionTestUtils.setField(gameService, "shotHeatmaps", shotHeatmaps);
+        ReflectionTestUtils.setField(gameService, "gameArchive",
+                new GameArchive(metrics, false, "archive", "test", 8081, 1 << 16, 600_000, 4, 32));
+    }
+
+    @AfterEach
+    void stop() {
+        shotHeatmaps.shutdown();
+        client.close();
+    }
+
+    @Test
+    void twoJoinersCannotBothTakeOneGame() throws Exception {
+        Game game = gameService.createGame("creator");
+
+        String winner = race(game.getId());
+
+        Game stored = gameRepository.findById(game.getId()).orElseThrow();
+        assertEquals(winner, stored.getPlayer2Id());
+        assertEquals("in_progress", stored.getStatus());
+        assertEquals("creator", stored.getCurrentTurn());
+    }
+
+    @Test
+    void joinersRacingForAReopenedGameCannotBothTakeIt() throws Exception {
+        // Player 2 leaving drops their reserved fleet, so the next join places one and writes it by version
+        Game game = gameService.createGame("creator");
+        gameService.joinGame(game.getId(), "first").orElseThrow();
+        Game reopened = gameService.leaveGame(game.getId(), "first").orElseThrow();
+        assertNull(reopened.getPlayer2Id());
+        assertEquals("waiting_for_opponent", reopened.getStatus());
+
+        String winner = race(game.getId());
+
+        Game stored = gameRepository.findById(game.getId()).orElseThrow();
+        assertEquals(winner, stored.getPlayer2Id());
+        assertEquals(game.getFleet().stream().mapToInt(Game.ShipType::getSize).sum(), stored.getPlayer2Grid().size());
+    }
+
+    @Test
+    void aShotOnAStaleCopyIsRetriedAgainstTheStoredGameAndCounted() {
+        Game created = gameService.createGame("creator");
+        gameService.joinGame(created.getId(), "joiner").orElseThrow();
+        Game live = gameRepository.findById(created.getId()).orElseThrow();
+        Game stale = gameRepository.findById(created.getId()).orElseThrow();
+        assertNotSame(live, stale);
+
+        gameService.processAttack(live, "creator", 0, 0);
+
+        // The stale copy still has the creator to move; its save loses on the version and the
+        // reloaded game says it is the joiner's turn, so the second shot is not applied
+        assertThrows(IllegalStateException.class, () -> gameService.processAttack(stale, "creator", 1, 0));
+        assertEquals(1, registry.get("game_update_retries").tag("operation", "attack").counter().count());
+
+        Game stored = gameRepository.findById(created.getId()).orElseThrow();
+        assertEquals("joiner", stored.getCurrentTurn());
+        assertEquals(live.getVersion(), stored.getVersion());
+        assertEquals(1, Bitboard.count(stored.getPlayer2Hits()) + Bitboard.count(stored.getPlayer2Misses()));
+    }
+
+    @Test
+    void aShotRejectedByACopyBehindTheStoreIsResolvedAgainAfterReloading() {
+        Game created = gameService.createGame("creator");
+        gameService.joinGame(created.getId(), "joiner").orElseThrow();
+        Game live = gameRepository.findById(created.getId()).orElseThrow();
+        Game stale = gameRepository.findById(created.getId()).orElseThrow();
+        gameService.processAttack(live, "creator", 0, 0);
+
+        // The stale copy says it is still the creator's turn; the store is a version ahead
+        gameService.processAttack(stale, "joiner", 0, 0);
+
+        assertEquals("creator", gameRepository.findById(created.getId()).orElseThrow().getCurrentTurn());
+    }
+
+    @Test
+    void aShotRejectedByACurrentCopyIsNotRetried() {
+        Game created = gameService.createGame("creator");
+        Game game = gameService.joinGame(created.getId(), "joiner").orElseThrow();
+        long version = game.getVersion();
+
+        assertThrows(IllegalArgumentException.class, () -> gameService.processAttack(game, "creator", -1, 0));
+        assertThrows(IllegalStateException.class, () -> gameService.processAttack(game, "joiner", 0, 0));
+
+        // Nothing was reloaded or written
+        assertEquals(version, game.getVersion());
+        assertEquals(version, gameRepository.findById(created.getId()).orElseThrow().getVersion());
+    }
+
+    // Every joiner starts at once; exactly one of them gets the game
+    private String race(String gameId) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(JOINERS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Optional<Game>>> joins = new ArrayList<>();
+            for (int i = 0; i < JOINERS; i++) {
+                String playerId = "joiner-" + i;
+                Callable<Optional<Game>> join = () -> {
+                    start.await();
+                    return gameService.joinGame(gameId, playerId);
+                };
+                joins.add(executor.submit(join));
+            }
+            start.countDown();
+
+            List<String> winners = new ArrayList<>();
+            for (Future<Optional<Game>> join : joins) {
+                join.get().ifPresent(joined -> winners.add(joined.getPlayer2Id()));
+            }
+            assertEquals(1, winners.size(), "Joined by " + winners);
+            assertTrue(winners.get(0).startsWith("joiner-"));
+            return winners.get(0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
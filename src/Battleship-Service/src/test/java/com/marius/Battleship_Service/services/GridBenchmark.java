@@ -0,0 +1,101 @@
+package com.marius.Battleship_Service.services;
+
+import com.marius.Battleship_Service.models.Board;
+import com.marius.Battleship_Service.models.Game;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Placement and hit-test cost across board sizes. Run with: mvn test -Pbenchmark
+@Tag("benchmark")
+class GridBenchmark {
+
+    private static final int[] SIZES = { 10, 25, 50, 100 };
+
+    private final GameService gameService = new GameService();
+
+    @Test
+    void placementAcrossSizes() {
+        for (int size : SIZES) {
+            for (double coverage : new double[] { 0.15, 0.45 }) {
+                List<Game.ShipType> fleet = fleetCovering(size, coverage);
+                int occupied = fleet.stream().mapToInt(Game.ShipType::getSize).sum();
+                Random random = new Random(size);
+                int layouts = Math.max(20, 200_000 / (size * size));
+
+                for (int i = 0; i < layouts; i++) {
+                    gameService.generateGrid(size, fleet, random);
+                }
+                long start = System.nanoTime();
+                for (int i = 0; i < layouts; i++) {
+                    assertEquals(occupied, gameService.generateGrid(size, fleet, random).size());
+                }
+                long perLayout = (System.nanoTime() - start) / layouts;
+
+                System.out.printf("Placement %3dx%-3d %2.0f%% covered, %3d ships: %,10d ns/layout%n",
+                        size, size, coverage * 100, fleet.size(), perLayout);
+            }
+        }
+    }
+
+    @Test
+    void hitTestAcrossSizes() {
+        for (int size : SIZES) {
+            List<Game.Ship> ships = gameService.generateGrid(size, fleetCovering(size, 0.15), new Random(size));
+            Board board = Board.of(ships, size);
+            Random random = new Random(1);
+            int probes = 1_000_000;
+            int[] cells = new int[probes];
+            for (int i = 0; i < probes; i++) {
+                cells[i] = random.nextInt(size * size);
+            }
+
+            long start = System.nanoTime();
+            int bitsetHits = 0;
+            for (int cell : cells) {
+                if (board.isOccupied(cell % size, cell / size)) {
+                    bitsetHits++;
+                }
+            }
+            long bitsetNanos = (System.nanoTime() - start) / probes;
+
+            // The previous approach: scan the fleet list for every shot
+            int listProbes = probes / 100;
+            start = System.nanoTime();
+            int listHits = 0;
+            for (int i = 0; i < listProbes; i++) {
+                int x = cells[i] % size;
+                int y = cells[i] / size;
+                for (Game.Ship ship : ships) {
+                    if (ship.getX() == x && ship.getY() == y) {
+                        listHits++;
+                        break;
+                    }
+                }
+            }
+            long listNanos = (System.nanoTime() - start) / listProbes;
+
+            System.out.printf("Hit test %3dx%-3d (%5d fleet cells): bitset %3d ns, list scan %,7d ns (%d/%d hits)%n",
+                    size, size, ships.size(), bitsetNanos, listNanos, bitsetHits, listHits);
+        }
+    }
+
+    // Ships of length 1..min(size, 6) repeated until roughly the given share of the board is covered
+    private static List<Game.ShipType> fleetCovering(int size, double coverage) {
+        List<Game.ShipType> fleet = new ArrayList<>();
+        int target = (int) (size * size * coverage);
+        int covered = 0;
+        int maxLength = Math.min(size, 6);
+        for (int i = 0; covered < target; i++) {
+            int length = Math.min(maxLength - i % maxLength, target - covered);
+            fleet.add(new Game.ShipType("Ship" + i, length));
+            covered += length;
+        }
+        return fleet;
+    }
+}
@@ -0,0 +1,148 @@
+package com.marius.Battleship_Service.settlement;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A local HTTP proxy in front of one service that misbehaves at set rates:
+ * it delays a request before forwarding it, fails it with a 503 without
+ * forwarding it, or forwards it and then drops the connection instead of
+ * replying, so the caller cannot tell whether the service acted on it.
+ */
+class FaultInjectingProxy implements AutoCloseable {
+
+    // Rates are fractions of requests; latency applies to latencyRate of them
+    record Faults(double latencyRate, long latencyMs, double errorRate, double dropRate) {
+
+        static final Faults NONE = new Faults(0, 0, 0, 0);
+
+        Faults withLatency(double rate, long ms) {
+            return new Faults(rate, ms, errorRate, dropRate);
+        }
+
+        Faults withErrors(double rate) {
+            return new Faults(latencyRate, latencyMs, rate, dropRate);
+        }
+
+        Faults withDrops(double rate) {
+            return new Faults(latencyRate, latencyMs, errorRate, rate);
+        }
+
+        @Override
+        public String toString() {
+            if (equals(NONE)) {
+                return "none";
+            }
+            return String.format("latency %.0f%%@%dms, errors %.0f%%, drops %.0f%%",
+                    latencyRate * 100, latencyMs, errorRate * 100, dropRate * 100);
+        }
+    }
+
+    private final URI upstream;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final HttpClient client;
+    private volatile Faults faults = Faults.NONE;
+    final LongAdder delayed = new LongAdder();
+    final LongAdder failed = new LongAdder();
+    final LongAdder dropped = new LongAdder();
+
+    FaultInjectingProxy(String upstream, Duration timeout) throws IOException {
+        this.upstream = URI.create(upstream.endsWith("/") ? upstream.substring(0, upstream.length() - 1) : upstream);
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).executor(executor).build();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    void setFaults(Faults faults) {
+        this.faults = faults;
+        delayed.reset();
+        failed.reset();
+        dropped.reset();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Faults current = faults;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            if (random.nextDouble() < current.latencyRate()) {
+                delayed.increment();
+                Thread.sleep(current.latencyMs());
+            }
+            if (random.nextDouble() < current.errorRate()) {
+                failed.increment();
+                reply(exchange, 503, "{\"status\":\"fail\",\"reason\":\"injected error\"}".getBytes());
+                return;
+            }
+
+            HttpResponse<byte[]> response;
+            try {
+                response = client.send(forward(exchange, body), HttpResponse.BodyHandlers.ofByteArray());
+            } catch (IOException e) {
+                reply(exchange, 502, new byte[0]);
+                return;
+            }
+            if (random.nextDouble() < current.dropRate()) {
+                // The service has acted on the request; closing without a reply drops the connection
+                dropped.increment();
+                return;
+            }
+            response.headers().firstValue("Content-Type")
+                    .ifPresent(value -> exchange.getResponseHeaders().set("Content-Type", value));
+            reply(exchange, response.statusCode(), response.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private HttpRequest forward(HttpExchange exchange, byte[] body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(upstream.resolve(exchange.getRequestURI()))
+                .method(exchange.getRequestMethod(), HttpRequest.BodyPublishers.ofByteArray(body));
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null) {
+            request.header("Content-Type", contentType);
+        }
+        return request.build();
+    }
+
+    private static void reply(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
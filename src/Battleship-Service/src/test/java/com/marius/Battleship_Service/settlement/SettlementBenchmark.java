@@ -0,0 +1,427 @@
+package com.marius.Battleship_Service.settlement;
+
+import com.marius.Battleship_Service.codec.GameWriteConverter;
+import com.marius.Battleship_Service.models.Game;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Throughput, latency and end-state consistency of the gateway's two-phase game settlement
+// across Battleship-Service and Profile-Service, with faults injected in front of either side.
+// Both services must be running against their own Mongo and Postgres, e.g. the mongodb and
+// postgres containers from docker-compose.yml with the two services started locally. Run with:
+//   mvn test -Pbenchmark -Dtest=SettlementBenchmark [-Dsettlement.games=2000]
+//     [-Dsettlement.scenarios="clean;slow-profile=profile.latency:0.2@200,battleship.drop:0.01"]
+// A scenario is a name and a list of <side>.<latency|error|drop>:<rate>[@<ms>] faults. Other
+// settings: settlement.battleship-url, settlement.profile-url, settlement.mongo-uri,
+// settlement.jdbc-url, settlement.jdbc-user, settlement.jdbc-password, settlement.concurrency
+// and settlement.timeout-ms.
+@Tag("benchmark")
+class SettlementBenchmark {
+
+    private static final String DEFAULT_SCENARIOS = "clean;"
+            + "slow-profile=profile.latency:0.2@200;"
+            + "flaky-battleship=battleship.error:0.05;"
+            + "lost-replies=battleship.drop:0.02,profile.drop:0.02";
+
+    private final String battleshipUrl = System.getProperty("settlement.battleship-url", "http://localhost:8081");
+    private final String profileUrl = System.getProperty("settlement.profile-url", "http://localhost:8082");
+    private final String mongoUri = System.getProperty("settlement.mongo-uri", "mongodb://localhost:27017/test");
+    private final String jdbcUrl = System.getProperty("settlement.jdbc-url", "jdbc:postgresql://localhost:5432/postgres");
+    private final String jdbcUser = System.getProperty("settlement.jdbc-user", "postgres");
+    private final String jdbcPassword = System.getProperty("settlement.jdbc-password", "daniela");
+    private final int games = Integer.getInteger("settlement.games", 2000);
+    private final int concurrency = Integer.getInteger("settlement.concurrency", 16);
+    private final Duration timeout = Duration.ofMillis(Long.getLong("settlement.timeout-ms", 2000));
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(timeout).build();
+    private final GameWriteConverter writer = new GameWriteConverter();
+    private final ObjectMapper json = new ObjectMapper();
+
+    @Test
+    void settleGames() throws Exception {
+        String database = new ConnectionString(mongoUri).getDatabase();
+        try (MongoClient mongo = MongoClients.create(mongoUri);
+                Connection postgres = DriverManager.getConnection(jdbcUrl, jdbcUser, jdbcPassword);
+                FaultInjectingProxy battleship = new FaultInjectingProxy(battleshipUrl, timeout);
+                FaultInjectingProxy profile = new FaultInjectingProxy(profileUrl, timeout)) {
+            MongoCollection<Document> collection = mongo.getDatabase(database == null ? "test" : database)
+                    .getCollection("games");
+
+            for (Scenario scenario : Scenario.parseAll(System.getProperty("settlement.scenarios", DEFAULT_SCENARIOS))) {
+                battleship.setFaults(scenario.battleship());
+                profile.setFaults(scenario.profile());
+                String prefix = "bench-" + Long.toString(System.currentTimeMillis(), 36) + '-';
+                List<String> gameIds = seed(collection, postgres, prefix);
+                try {
+                    Run run = settleAll(gameIds, prefix, battleship.url(), profile.url());
+                    Consistency consistency = check(collection, postgres, gameIds, prefix, run);
+                    report(scenario, run, consistency, battleship, profile);
+                } finally {
+                    cleanUp(collection, postgres, gameIds, prefix);
+                }
+            }
+        }
+    }
+
+    // Every game is in progress between two fresh players with no results yet
+    private List<String> seed(MongoCollection<Document> collection, Connection postgres, String prefix)
+            throws SQLException {
+        List<String> gameIds = new ArrayList<>(games);
+        List<Document> batch = new ArrayList<>();
+        try (PreparedStatement insert = postgres.prepareStatement("INSERT INTO users (username, password, "
+                + "total_games, wins, losses, current_streak, best_win_streak) VALUES (?, 'benchmark', 0, 0, 0, 0, 0)")) {
+            for (int i = 0; i < games; i++) {
+                Game game = new Game();
+                game.setId(new ObjectId().toHexString());
+                game.setPlayer1Id(winner(prefix, i));
+                game.setPlayer2Id(loser(prefix, i));
+                game.setStatus("in_progress");
+                game.setStartedAt(Instant.now());
+                gameIds.add(game.getId());
+                batch.add(writer.convert(game));
+                if (batch.size() == 1000) {
+                    collection.insertMany(batch);
+                    batch.clear();
+                }
+                for (String username : List.of(winner(prefix, i), loser(prefix, i))) {
+                    insert.setString(1, username);
+                    insert.addBatch();
+                }
+            }
+            if (!batch.isEmpty()) {
+                collection.insertMany(batch);
+            }
+            insert.executeBatch();
+        }
+        return gameIds;
+    }
+
+    // Both players of every game finish it at the same time, as clients do when a game ends
+    private Run settleAll(List<String> gameIds, String prefix, String battleship, String profile)
+            throws Exception {
+        ExecutorService coordinators = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<Long>> winners = new ArrayList<>(games);
+            List<Future<Long>> losers = new ArrayList<>(games);
+            long start = System.nanoTime();
+            for (int i = 0; i < games; i++) {
+                String gameId = gameIds.get(i);
+                String winner = winner(prefix, i);
+                String loser = loser(prefix, i);
+                winners.add(coordinators.submit(() -> timed(() -> settle(battleship, profile, gameId, winner, "win"))));
+                losers.add(coordinators.submit(() -> timed(() -> settle(battleship, profile, gameId, loser, "loss"))));
+            }
+
+            // A settlement's latency is stored negated if it was not committed
+            long[] latencies = new long[games * 2];
+            boolean[] committed = new boolean[games * 2];
+            for (int i = 0; i < games; i++) {
+                long winner = winners.get(i).get();
+                long loser = losers.get(i).get();
+                committed[2 * i] = winner > 0;
+                committed[2 * i + 1] = loser > 0;
+                latencies[2 * i] = Math.abs(winner);
+                latencies[2 * i + 1] = Math.abs(loser);
+            }
+            return new Run(System.nanoTime() - start, latencies, committed);
+        } finally {
+            coordinators.shutdownNow();
+        }
+    }
+
+    private interface Settlement {
+        boolean run();
+    }
+
+    private static long timed(Settlement settlement) {
+        long start = System.nanoTime();
+        boolean committed = settlement.run();
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        return committed ? elapsed : -elapsed;
+    }
+
+    // The same calls, in the same order and with the same bodies, as finishGame in the gateway.
+    // Transaction ids are unique per player here; the gateway's are a millisecond timestamp.
+    private boolean settle(String battleship, String profile, String gameId, String username, String result) {
+        String transactionId = "txn_" + gameId + '_' + username;
+        List<String> prepared = new ArrayList<>(2);
+
+        // Phase 1: prepare
+        Reply reply = post(battleship + "/prepare",
+                Map.of("transactionId", transactionId, "gameId", gameId, "username", username));
+        if (reply.ready()) {
+            prepared.add(battleship + "/rollback");
+        }
+        reply = post(profile + "/prepare",
+                Map.of("transactionId", transactionId, "username", username, "result", result));
+        if (reply.ready()) {
+            prepared.add(profile + "/rollback");
+        }
+        if (prepared.size() != 2) {
+            for (String rollback : prepared) {
+                post(rollback, Map.of("transactionId", transactionId));
+            }
+            return false;
+        }
+
+        // Phase 2: commit, Battleship first so its match summary can go on to Profile
+        Map<String, Object> profileCommit = new HashMap<>(Map.of(
+                "transactionId", transactionId, "username", username, "result", result, "game_id", gameId));
+        boolean failed = false;
+        reply = post(battleship + "/commit",
+                Map.of("transactionId", transactionId, "gameId", gameId, "username", username));
+        if (reply.ok()) {
+            if (reply.body().get("match") instanceof Map<?, ?> match) {
+                match.forEach((key, value) -> profileCommit.put((String) key, value));
+            }
+        } else {
+            failed = true;
+        }
+        failed |= !post(profile + "/commit", profileCommit).ok();
+
+        if (failed) {
+            for (String rollback : prepared) {
+                post(rollback, Map.of("transactionId", transactionId, "gameId", gameId, "username", username));
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private record Reply(int status, Map<String, Object> body) {
+
+        static final Reply LOST = new Reply(0, Map.of());
+
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+
+        boolean ready() {
+            return ok() && "ready".equals(body.get("status"));
+        }
+    }
+
+    private Reply post(String url, Map<String, Object> body) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body)))
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            String text = response.body();
+            return new Reply(response.statusCode(), text == null || !text.startsWith("{") ? Map.of()
+                    : json.readValue(text, new TypeReference<Map<String, Object>>() { }));
+        } catch (IOException e) {
+            return Reply.LOST; // timed out, refused or dropped
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Reply.LOST;
+        }
+    }
+
+    private record Run(long elapsedNanos, long[] latencies, boolean[] committed) {
+
+        int commits() {
+            int commits = 0;
+            for (boolean c : committed) {
+                commits += c ? 1 : 0;
+            }
+            return commits;
+        }
+    }
+
+    private record Consistency(int settled, int unsettled, int finishedWithoutStats, int statsWithoutFinish,
+            int countedTwice, int misreported) {
+
+        int inconsistent() {
+            return finishedWithoutStats + statsWithoutFinish + countedTwice;
+        }
+    }
+
+    // A game is consistent if it is finished and both players' counters include it exactly once,
+    // or it is not finished and neither does. Misreported counts settlements whose outcome, as
+    // the coordinator saw it, differs from what was stored.
+    private Consistency check(MongoCollection<Document> collection, Connection postgres, List<String> gameIds,
+            String prefix, Run run) throws SQLException {
+        Map<String, String> statuses = new HashMap<>();
+        List<ObjectId> ids = gameIds.stream().map(ObjectId::new).toList();
+        for (Document game : collection.find(Filters.in("_id", ids)).projection(Projections.include("status"))) {
+            statuses.put(game.getObjectId("_id").toHexString(), game.getString("status"));
+        }
+
+        Map<String, int[]> counters = new HashMap<>(); // username -> wins, losses, total games
+        try (PreparedStatement select = postgres.prepareStatement(
+                "SELECT username, wins, losses, total_games FROM users WHERE username LIKE ?")) {
+            select.setString(1, prefix + '%');
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    counters.put(rows.getString(1), new int[] {rows.getInt(2), rows.getInt(3), rows.getInt(4)});
+                }
+            }
+        }
+
+        int settled = 0, unsettled = 0, finishedWithoutStats = 0, statsWithoutFinish = 0, countedTwice = 0;
+        int misreported = 0;
+        for (int i = 0; i < games; i++) {
+            boolean finished = "finished".equals(statuses.get(gameIds.get(i)));
+            int[] winner = counters.getOrDefault(winner(prefix, i), new int[3]);
+            int[] loser = counters.getOrDefault(loser(prefix, i), new int[3]);
+            boolean winRecorded = winner[0] == 1 && winner[2] == 1;
+            boolean lossRecorded = loser[1] == 1 && loser[2] == 1;
+
+            if (winner[2] > 1 || loser[2] > 1) {
+                countedTwice++;
+            } else if (finished && winRecorded && lossRecorded) {
+                settled++;
+            } else if (!finished && winner[2] == 0 && loser[2] == 0) {
+                unsettled++;
+            } else if (finished) {
+                finishedWithoutStats++;
+            } else {
+                statsWithoutFinish++;
+            }
+            misreported += run.committed()[2 * i] != (finished && winRecorded) ? 1 : 0;
+            misreported += run.committed()[2 * i + 1] != (finished && lossRecorded) ? 1 : 0;
+        }
+        return new Consistency(settled, unsettled, finishedWithoutStats, statsWithoutFinish, countedTwice,
+                misreported);
+    }
+
+    private void cleanUp(MongoCollection<Document> collection, Connection postgres, List<String> gameIds,
+            String prefix) throws SQLException {
+        collection.deleteMany(Filters.in("_id", gameIds.stream().map(ObjectId::new).toList()));
+        for (String table : List.of("match_history", "user_daily_stats", "users")) {
+            try (PreparedStatement delete = postgres.prepareStatement(
+                    "DELETE FROM " + table + " WHERE username LIKE ?")) {
+                delete.setString(1, prefix + '%');
+                delete.executeUpdate();
+            }
+        }
+    }
+
+    private void report(Scenario scenario, Run run, Consistency consistency, FaultInjectingProxy battleship,
+            FaultInjectingProxy profile) {
+        long[] sorted = run.latencies().clone();
+        Arrays.sort(sorted);
+        double seconds = run.elapsedNanos() / 1e9;
+        int commits = run.commits();
+
+        System.out.printf("%s (battleship faults: %s; profile faults: %s)%n", scenario.name(), scenario.battleship(),
+                scenario.profile());
+        System.out.printf("  settlements  %d committed, %d aborted in %.1f s: %.0f committed/s%n", commits,
+                sorted.length - commits, seconds, commits / seconds);
+        System.out.printf("  latency      p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                sorted[sorted.length - 1] / 1e6);
+        System.out.printf("  games        %d settled, %d not settled, %d inconsistent "
+                        + "(finished without stats %d, stats without finish %d, counted twice %d)%n",
+                consistency.settled(), consistency.unsettled(), consistency.inconsistent(),
+                consistency.finishedWithoutStats(), consistency.statsWithoutFinish(), consistency.countedTwice());
+        System.out.printf("  outcomes     %d settlements reported differently from what was stored%n",
+                consistency.misreported());
+        System.out.printf("  injected     battleship %d delayed, %d failed, %d dropped; "
+                        + "profile %d delayed, %d failed, %d dropped%n",
+                battleship.delayed.sum(), battleship.failed.sum(), battleship.dropped.sum(),
+                profile.delayed.sum(), profile.failed.sum(), profile.dropped.sum());
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    private static String winner(String prefix, int game) {
+        return prefix + game + "-w";
+    }
+
+    private static String loser(String prefix, int game) {
+        return prefix + game + "-l";
+    }
+
+    private record Scenario(String name, FaultInjectingProxy.Faults battleship, FaultInjectingProxy.Faults profile) {
+
+        // e.g. "clean;slow-profile=profile.latency:0.2@200,battleship.error:0.05"
+        static List<Scenario> parseAll(String specs) {
+            List<Scenario> scenarios = new ArrayList<>();
+            for (String spec : specs.split(";")) {
+                if (spec.isBlank()) {
+                    continue;
+                }
+                int equals = spec.indexOf('=');
+                String name = (equals < 0 ? spec : spec.substring(0, equals)).trim();
+                FaultInjectingProxy.Faults battleship = FaultInjectingProxy.Faults.NONE;
+                FaultInjectingProxy.Faults profile = FaultInjectingProxy.Faults.NONE;
+                if (equals >= 0) {
+                    for (String fault : spec.substring(equals + 1).split(",")) {
+                        String trimmed = fault.trim();
+                        int dot = trimmed.indexOf('.');
+                        int colon = trimmed.indexOf(':');
+                        int at = trimmed.indexOf('@');
+                        if (dot < 1 || colon < dot) {
+                            throw new IllegalArgumentException(
+                                    "Fault must be <side>.<latency|error|drop>:<rate>[@<ms>]: " + fault);
+                        }
+                        String side = trimmed.substring(0, dot);
+                        String kind = trimmed.substring(dot + 1, colon);
+                        double rate = Double.parseDouble(trimmed.substring(colon + 1, at < 0 ? trimmed.length() : at));
+                        boolean onBattleship = switch (side) {
+                            case "battleship" -> true;
+                            case "profile" -> false;
+                            default -> throw new IllegalArgumentException("Unknown side: " + side);
+                        };
+                        FaultInjectingProxy.Faults faults = onBattleship ? battleship : profile;
+                        faults = switch (kind) {
+                            case "latency" -> {
+                                if (at < 0) {
+                                    throw new IllegalArgumentException("Latency needs a delay, e.g. 0.2@200: " + fault);
+                                }
+                                yield faults.withLatency(rate, Long.parseLong(trimmed.substring(at + 1)));
+                            }
+                            case "error" -> faults.withErrors(rate);
+                            case "drop" -> faults.withDrops(rate);
+                            default -> throw new IllegalArgumentException("Unknown fault: " + kind);
+                        };
+                        if (onBattleship) {
+                            battleship = faults;
+                        } else {
+                            profile = faults;
+                        }
+                    }
+                }
+                scenarios.add(new Scenario(name, battleship, profile));
+            }
+            return scenarios;
+        }
+    }
+}
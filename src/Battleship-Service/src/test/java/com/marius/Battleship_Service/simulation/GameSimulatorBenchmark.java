@@ -0,0 +1,22 @@
+package com.marius.Battleship_Service.simulation;
+
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.services.GameService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+// Full simulation throughput across all cores. Run with: mvn test -Pbenchmark
+// Override the number of games with -Dsimulation.games=...
+@Tag("benchmark")
+class GameSimulatorBenchmark {
+
+    @Test
+    void millionGames() {
+        int games = Integer.getInteger("simulation.games", 1_000_000);
+        GameSimulator simulator = new GameSimulator(new GameService(), 0);
+        simulator.run(20_000, Game.DEFAULT_GRID_SIZE, Game.standardFleet(), 7);
+
+        SimulationReport report = simulator.run(games, Game.DEFAULT_GRID_SIZE, Game.standardFleet(), 1);
+        System.out.printf("Simulation on %d cores: %s%n", Runtime.getRuntime().availableProcessors(), report.summary());
+    }
+}
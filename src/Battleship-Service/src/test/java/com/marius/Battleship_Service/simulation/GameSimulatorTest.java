@@ -0,0 +1,61 @@
+package com.marius.Battleship_Service.simulation;
+
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.services.GameService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Fuzzes placement and attack resolution with full bot games; any broken rule invariant throws
+class GameSimulatorTest {
+
+    private final GameSimulator simulator = new GameSimulator(new GameService(), 0);
+
+    @Test
+    void standardGamesKeepInvariants() {
+        SimulationReport report = simulator.run(2_000, Game.DEFAULT_GRID_SIZE, Game.standardFleet(), 1);
+
+        assertEquals(2_000, report.getGames());
+        assertTrue(report.meanLength() < 140, "Mean length " + report.meanLength());
+        assertTrue(Math.abs(report.horizontalShare() - 0.5) < 0.05, "Horizontal share " + report.horizontalShare());
+    }
+
+    @Test
+    void variantsKeepInvariants() {
+        List<Game.ShipType> dense = List.of(new Game.ShipType("Long", 4), new Game.ShipType("Mid", 3),
+                new Game.ShipType("Short", 2), new Game.ShipType("Dot", 1), new Game.ShipType("Dot2", 1),
+                new Game.ShipType("Dot3", 1));
+        simulator.run(500, GameService.MIN_GRID_SIZE, dense, 2);
+        simulator.run(100, 20, Game.standardFleet(), 3);
+    }
+
+    @Test
+    void sameSeedGivesSameResult() {
+        SimulationReport first = simulator.run(600, Game.DEFAULT_GRID_SIZE, Game.standardFleet(), 9);
+        SimulationReport second = simulator.run(600, Game.DEFAULT_GRID_SIZE, Game.standardFleet(), 9);
+
+        assertEquals(first.meanLength(), second.meanLength());
+        assertEquals(first.firstMoverWinRate(), second.firstMoverWinRate());
+    }
+
+    @Test
+    void anyGameCanBeReplayedFromTheSeedAndItsIndex() {
+        SimulationReport run = simulator.run(600, Game.DEFAULT_GRID_SIZE, Game.standardFleet(), 11);
+
+        // Games 0 to 511 share a leaf task in the run; replayed alone, each must come out the same
+        long[] lengths = new long[Game.DEFAULT_GRID_SIZE * Game.DEFAULT_GRID_SIZE * 2 + 1];
+        double firstMoverWins = 0;
+        for (int index = 0; index < 600; index++) {
+            SimulationReport game = simulator.replay(index, Game.DEFAULT_GRID_SIZE, Game.standardFleet(), 11);
+            lengths[(int) game.meanLength()]++;
+            firstMoverWins += game.firstMoverWinRate();
+        }
+        for (int moves = 0; moves < lengths.length; moves++) {
+            assertEquals(run.gamesOfLength(moves), lengths[moves], "games of " + moves + " moves");
+        }
+        assertEquals(run.firstMoverWinRate() * 600, firstMoverWins, 1e-6);
+    }
+}
@@ -0,0 +1,91 @@
+package com.marius.Battleship_Service.timers;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Schedule and cancel cost, and heap per pending timer, for the timing wheel against a
+// ScheduledThreadPoolExecutor, with every live game rescheduling its turn clock.
+// Run with: mvn test -Pbenchmark -Dtest=TimingWheelBenchmark
+@Tag("benchmark")
+class TimingWheelBenchmark {
+
+    private static final int TIMERS = 500_000;
+
+    @Test
+    void rescheduleTurnClocks() throws Exception {
+        for (int run = 0; run < 3; run++) {
+            wheel(run == 2);
+            executor(run == 2);
+        }
+    }
+
+    private void wheel(boolean report) {
+        try (TimingWheel wheel = new TimingWheel("bench-wheel", 100, TimeUnit.MILLISECONDS, 1024, Runnable::run)) {
+            TimingWheel.Timeout[] timers = new TimingWheel.Timeout[TIMERS];
+            long heapBefore = usedHeap();
+            long start = System.nanoTime();
+            for (int i = 0; i < TIMERS; i++) {
+                timers[i] = wheel.schedule(() -> {
+                }, 60 + i % 60, TimeUnit.SECONDS);
+            }
+            long scheduled = System.nanoTime();
+            long heapAfter = usedHeap();
+            // Each game moves once: cancel its clock and start the next
+            for (int i = 0; i < TIMERS; i++) {
+                timers[i].cancel();
+                timers[i] = wheel.schedule(() -> {
+                }, 60, TimeUnit.SECONDS);
+            }
+            long rescheduled = System.nanoTime();
+            if (report) {
+                print("timing wheel", start, scheduled, rescheduled, heapBefore, heapAfter);
+            }
+        }
+    }
+
+    private void executor(boolean report) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        try {
+            ScheduledFuture<?>[] timers = new ScheduledFuture<?>[TIMERS];
+            long heapBefore = usedHeap();
+            long start = System.nanoTime();
+            for (int i = 0; i < TIMERS; i++) {
+                timers[i] = executor.schedule(() -> {
+                }, 60 + i % 60, TimeUnit.SECONDS);
+            }
+            long scheduled = System.nanoTime();
+            long heapAfter = usedHeap();
+            for (int i = 0; i < TIMERS; i++) {
+                timers[i].cancel(false);
+                timers[i] = executor.schedule(() -> {
+                }, 60, TimeUnit.SECONDS);
+            }
+            long rescheduled = System.nanoTime();
+            if (report) {
+                print("ScheduledThreadPoolExecutor", start, scheduled, rescheduled, heapBefore, heapAfter);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void print(String label, long start, long scheduled, long rescheduled, long heapBefore,
+            long heapAfter) {
+        System.out.printf("%-28s schedule %5.0f ns, cancel+schedule %5.0f ns, ~%d bytes per timer%n", label,
+                (scheduled - start) / (double) TIMERS, (rescheduled - scheduled) / (double) TIMERS,
+                (heapAfter - heapBefore) / TIMERS);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,79 @@
+package com.marius.Battleship_Service.timers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The wheels here have no worker thread: the test moves a clock of its own and advances them
+class TimingWheelTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void cancelledTimeoutsNeverFire() {
+        try (TimingWheel wheel = new TimingWheel(5, TimeUnit.MILLISECONDS, 16, Runnable::run, clock::get)) {
+            Set<Integer> fired = new HashSet<>();
+            List<TimingWheel.Timeout> timeouts = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                int id = i;
+                timeouts.add(wheel.schedule(() -> fired.add(id), 300 + i % 100, TimeUnit.MILLISECONDS));
+            }
+            for (int i = 1; i < 1000; i += 2) {
+                assertTrue(timeouts.get(i).cancel());
+            }
+            assertEquals(500, wheel.pending());
+
+            advanceTo(wheel, 299);
+            assertTrue(fired.isEmpty());
+            advanceTo(wheel, 400);
+            assertEquals(500, fired.size());
+            assertTrue(fired.stream().allMatch(id -> id % 2 == 0));
+            assertEquals(0, wheel.pending());
+            assertFalse(timeouts.get(0).cancel(), "an expired timeout cannot be cancelled");
+        }
+    }
+
+    @Test
+    void deadlinesBeyondOneLapWaitForTheirLap() {
+        // 8 buckets of 10 ms: one lap is 80 ms, so 250 ms is the fourth lap round
+        try (TimingWheel wheel = new TimingWheel(10, TimeUnit.MILLISECONDS, 8, Runnable::run, clock::get)) {
+            AtomicLong firedAt = new AtomicLong(-1);
+            wheel.schedule(() -> firedAt.set(clock.get()), 250, TimeUnit.MILLISECONDS);
+
+            // Its bucket comes round at 10, 90 and 170 ms without it firing
+            for (long ms = 10; ms < 250; ms += 10) {
+                advanceTo(wheel, ms);
+                assertEquals(-1, firedAt.get(), "fired early, at " + ms + " ms");
+            }
+            advanceTo(wheel, 260);
+            assertEquals(TimeUnit.MILLISECONDS.toNanos(260), firedAt.get(), "fired one tick late at most");
+        }
+    }
+
+    @Test
+    void aLateAdvanceCatchesUpOnEveryTick() {
+        try (TimingWheel wheel = new TimingWheel(10, TimeUnit.MILLISECONDS, 8, Runnable::run, clock::get)) {
+            List<Integer> fired = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                int id = i;
+                wheel.schedule(() -> fired.add(id), 20 + i * 30L, TimeUnit.MILLISECONDS);
+            }
+            advanceTo(wheel, 1000); // one call, well over a lap of ticks
+            assertEquals(List.of(0, 1, 2, 3, 4), fired);
+        }
+    }
+
+    private void advanceTo(TimingWheel wheel, long ms) {
+        clock.set(TimeUnit.MILLISECONDS.toNanos(ms));
+        wheel.advance();
+    }
+}
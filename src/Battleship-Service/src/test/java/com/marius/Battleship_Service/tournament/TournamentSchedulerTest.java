@@ -0,0 +1,100 @@
+package com.marius.Battleship_Service.tournament;
+
+import com.marius.Battleship_Service.models.TournamentMatch;
+import com.marius.Battleship_Service.tournament.TournamentScheduler.Pairing;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Plays whole tournaments on the pairing rules alone, with player 1 always winning
+class TournamentSchedulerTest {
+
+    @Test
+    void eliminationEndsWithOnePlayerAfterTheExpectedRounds() {
+        for (int players : new int[] { 2, 3, 5, 8, 13, 1000 }) {
+            List<String> seeds = players(players);
+            List<Pairing> pairings = TournamentScheduler.firstEliminationRound(seeds);
+            int rounds = 1;
+            List<TournamentMatch> round = play(pairings, rounds);
+            while (TournamentScheduler.eliminationWinners(round).size() > 1) {
+                rounds++;
+                round = play(TournamentScheduler.nextEliminationRound(round), rounds);
+            }
+            assertEquals(TournamentScheduler.eliminationRounds(players), rounds, players + " players");
+        }
+    }
+
+    @Test
+    void eliminationSeedsTopAgainstBottomAndGivesTheTopSeedTheBye() {
+        List<Pairing> pairings = TournamentScheduler.firstEliminationRound(players(5));
+
+        assertEquals(new Pairing("p0", null), pairings.get(0));
+        assertEquals(new Pairing("p1", "p4"), pairings.get(1));
+        assertEquals(new Pairing("p2", "p3"), pairings.get(2));
+    }
+
+    @Test
+    void swissAvoidsRematchesAndRepeatedByes() {
+        List<String> seeds = players(9);
+        List<TournamentMatch> history = new ArrayList<>();
+        Set<String> met = new HashSet<>();
+        Set<String> byes = new HashSet<>();
+        for (int round = 1; round <= 4; round++) {
+            List<Pairing> pairings = TournamentScheduler.swissRound(seeds, history);
+
+            Set<String> seated = new HashSet<>();
+            for (Pairing pairing : pairings) {
+                assertTrue(seated.add(pairing.player1Id()));
+                if (pairing.isBye()) {
+                    assertTrue(byes.add(pairing.player1Id()), "second bye for " + pairing.player1Id());
+                } else {
+                    assertTrue(seated.add(pairing.player2Id()));
+                    assertTrue(met.add(key(pairing.player1Id(), pairing.player2Id())), "rematch in round " + round);
+                }
+            }
+            assertEquals(seeds.size(), seated.size());
+            history.addAll(play(pairings, round));
+        }
+
+        // p0 is top seed and always player 1, so it wins every game
+        assertEquals("p0", TournamentScheduler.swissStandings(seeds, history).get(0));
+    }
+
+    @Test
+    void swissPairsEqualScoresFirst() {
+        List<String> seeds = players(4);
+        List<TournamentMatch> history = play(TournamentScheduler.swissRound(seeds, List.of()), 1);
+        List<Pairing> second = TournamentScheduler.swissRound(seeds, history);
+
+        // Round one: p0-p1 and p2-p3, won by p0 and p2, who meet next
+        assertEquals(new Pairing("p0", "p2"), second.get(0));
+        assertEquals(new Pairing("p1", "p3"), second.get(1));
+    }
+
+    private static List<TournamentMatch> play(List<Pairing> pairings, int round) {
+        List<TournamentMatch> matches = new ArrayList<>();
+        for (int slot = 0; slot < pairings.size(); slot++) {
+            Pairing pairing = pairings.get(slot);
+            TournamentMatch match = new TournamentMatch("t", round, slot,
+                    pairing.isBye() ? null : "g" + round + "-" + slot, pairing.player1Id(), pairing.player2Id());
+            match.setWinnerId(pairing.player1Id());
+            matches.add(match);
+        }
+        return matches;
+    }
+
+    private static List<String> players(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "p" + i).toList();
+    }
+
+    private static String key(String a, String b) {
+        return a.compareTo(b) < 0 ? a + "\n" + b : b + "\n" + a;
+    }
+}
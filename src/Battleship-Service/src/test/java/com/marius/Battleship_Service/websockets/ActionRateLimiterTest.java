@@ -0,0 +1,118 @@
+package com.marius.Battleship_Service.websockets;
+
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActionRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void bucketAllowsItsBurstThenRefillsAtItsRate() {
+        TokenBucket bucket = new TokenBucket(TokenBucket.Limit.parse("2/4")); // a token every 500 ms
+        long now = 10 * SECOND;
+        for (int i = 0; i < 4; i++) {
+            assertTrue(bucket.tryAcquire(now));
+        }
+        assertFalse(bucket.tryAcquire(now));
+        assertFalse(bucket.tryAcquire(now + SECOND / 2 - 1));
+        assertTrue(bucket.tryAcquire(now + SECOND / 2));
+        assertFalse(bucket.tryAcquire(now + SECOND / 2));
+
+        // Idle long enough, it is full again, but never fuller
+        assertTrue(bucket.isFull(now + 10 * SECOND));
+        int taken = 0;
+        while (bucket.tryAcquire(now + 10 * SECOND)) {
+            taken++;
+        }
+        assertEquals(4, taken);
+    }
+
+    @Test
+    void concurrentCallersShareExactlyTheBurst() throws Exception {
+        TokenBucket bucket = new TokenBucket(TokenBucket.Limit.parse("0.001/1000"));
+        long now = 10 * SECOND;
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    if (bucket.tryAcquire(now)) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1000, admitted.get());
+    }
+
+    @Test
+    void fieldsAreReadFromTheRawFrame() {
+        String frame = "{\"action\" : \"attack\", \"game_id\":\"g1\",\"attacker_id\":\"alice\","
+                + "\"coordinates\":{\"x\":1,\"y\":2}}";
+        assertEquals("attack", ActionRateLimiter.field(frame, "action"));
+        assertEquals("alice", ActionRateLimiter.field(frame, "attacker_id"));
+        assertNull(ActionRateLimiter.field(frame, "player_id"));
+
+        // A key appearing as a value first, a non-string value, and an escaped string
+        assertEquals("bob", ActionRateLimiter.field("{\"name\":\"\\\"action\\\"\",\"action\":\"bob\"}", "action"));
+        assertNull(ActionRateLimiter.field("{\"player_id\":42}", "player_id"));
+        assertNull(ActionRateLimiter.field("{\"player_id\":\"a\\\"b\"}", "player_id"));
+    }
+
+    @Test
+    void playersNamedInAnUnreadableWayShareOneDefaultBucket() {
+        ActionRateLimiter limiter = new ActionRateLimiter(new CustomMetricsService(new SimpleMeterRegistry()),
+                true, "1000/1000", "attack:100/100,default:1/3", 1000);
+        String[] frames = {
+            "{\"action\":\"attack\",\"attacker_id\":\"al\\u0069ce\"}",
+            "{\"action\":\"attack\",\"player\\u005fid\":\"alice\"}",
+            "{action:'attack',player_id:'alice'}",
+            "{\"action\":\"attack\",\"player_id\":42}",
+        };
+        for (String frame : frames) {
+            assertTrue(ActionRateLimiter.mayNamePlayer(frame), frame);
+        }
+
+        // Three frames fill the shared default burst; with their own ids they would each have 100
+        int admitted = 0;
+        for (int i = 0; i < 8; i++) {
+            RecordingSession session = new RecordingSession("session-" + i);
+            limiter.register(session);
+            if (limiter.admit(session, frames[i % frames.length])) {
+                admitted++;
+            }
+        }
+        assertEquals(3, admitted);
+
+        // Frames that name no player at all are left to the session limit
+        RecordingSession session = new RecordingSession("anonymous");
+        limiter.register(session);
+        assertFalse(ActionRateLimiter.mayNamePlayer("{\"action\":\"ping\"}"));
+        assertTrue(limiter.admit(session, "{\"action\":\"ping\"}"));
+        assertTrue(limiter.admit(session, "{\"action\":\"attack\",\"attacker_id\":\"bob\"}"));
+    }
+}
@@ -0,0 +1,168 @@
+package com.marius.Battleship_Service.websockets;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marius.Battleship_Service.models.Bitboard;
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import com.marius.Battleship_Service.services.GameService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+// CPU spent against bytes saved when compressing the frames a game sends, for each kind of
+// frame and for the typical mix at several thresholds, with pooled Deflaters against a new
+// Deflater per frame.
+// Run with: mvn test -Pbenchmark -Dtest=CompressionBenchmark
+@Tag("benchmark")
+class CompressionBenchmark {
+
+    private static final int ROUNDS = 20_000;
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private record Kind(String name, TextMessage message, int weight) {
+    }
+
+    @Test
+    void typicalMessageMix() throws Exception {
+        List<Kind> mix = messageMix();
+        for (int run = 0; run < 3; run++) {
+            boolean report = run == 2;
+            if (report) {
+                System.out.printf("%-22s %6s %6s %7s %9s %9s%n", "frame", "bytes", "sent", "saved",
+                        "pooled ns", "new ns");
+            }
+            MessageCompressor compressor = compressor(0);
+            for (Kind kind : mix) {
+                byte[] raw = kind.message().asBytes();
+                int sent = size(compressor.encode(copy(kind.message())));
+                long pooled = time(() -> compressor.deflate(raw));
+                long fresh = time(() -> {
+                    Deflater deflater = new Deflater(6, true);
+                    try {
+                        deflater.setInput(raw);
+                        deflater.finish();
+                        byte[] output = new byte[raw.length];
+                        while (!deflater.finished() && deflater.deflate(output) > 0) {
+                        }
+                    } finally {
+                        deflater.end();
+                    }
+                });
+                if (report) {
+                    System.out.printf("%-22s %6d %6d %6.0f%% %9d %9d%n", kind.name(), raw.length, sent,
+                            100.0 * (raw.length - sent) / raw.length, pooled, fresh);
+                }
+            }
+
+            // The mix as a game sends it, weighted by how often each frame occurs
+            int totalWeight = mix.stream().mapToInt(Kind::weight).sum();
+            for (int threshold : new int[] { 0, 256, 512, 1024 }) {
+                MessageCompressor thresholded = compressor(threshold);
+                long rawBytes = 0;
+                long sentBytes = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < ROUNDS; i++) {
+                    for (Kind kind : mix) {
+                        for (int w = 0; w < kind.weight(); w++) {
+                            TextMessage message = copy(kind.message());
+                            rawBytes += message.getPayloadLength();
+                            sentBytes += size(thresholded.encode(message));
+                        }
+                    }
+                }
+                long perFrame = (System.nanoTime() - start) / ((long) ROUNDS * totalWeight);
+                if (report) {
+                    System.out.printf("mix, threshold %4d B: %5.1f%% of bytes saved, %5d ns per frame%n",
+                            threshold, 100.0 * (rawBytes - sentBytes) / rawBytes, perFrame);
+                }
+            }
+        }
+    }
+
+    // Frame kinds and their share of the frames sent over a game, roughly: shots and their
+    // results dominate, grids and snapshots are few but large
+    private static List<Kind> messageMix() throws Exception {
+        GameService gameService = new GameService();
+        Random random = new Random(7);
+        List<Game.Ship> grid = gameService.generateGrid(Game.DEFAULT_GRID_SIZE, Game.standardFleet(), random);
+        List<Game.ShipType> largeFleet = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            largeFleet.add(new Game.ShipType("ship-" + i, 2 + i % 5));
+        }
+        List<Game.Ship> largeGrid = gameService.generateGrid(30, largeFleet, random);
+        String gameId = "66f1c0ffee0123456789abcd";
+
+        List<Kind> mix = new ArrayList<>();
+        mix.add(new Kind("attack result", json(Map.of("x", 4, "y", 7, "hit", true, "game_id", gameId,
+                "next_turn", "player-two", "seq", 18)), 12));
+        mix.add(new Kind("turn notification", json(Map.of("event", "opponent_attacked", "x", 4, "y", 7,
+                "hit", false)), 6));
+        mix.add(new Kind("game created", json(Map.of("game_id", gameId, "player_grid", grid,
+                "grid_size", Game.DEFAULT_GRID_SIZE, "fleet", Game.standardFleet(),
+                "status", "waiting_for_opponent")), 1));
+        mix.add(new Kind("spectator snapshot", snapshot(gameId, Game.DEFAULT_GRID_SIZE, grid, random), 2));
+        mix.add(new Kind("30x30 game created", json(Map.of("game_id", gameId, "player_grid", largeGrid,
+                "grid_size", 30, "fleet", largeFleet, "status", "waiting_for_opponent")), 1));
+        return mix;
+    }
+
+    private static TextMessage snapshot(String gameId, int gridSize, List<Game.Ship> grid, Random random)
+            throws Exception {
+        List<Integer> hits = new ArrayList<>();
+        List<Integer> misses = new ArrayList<>();
+        long[] shots = Bitboard.create(gridSize * gridSize);
+        for (int i = 0; i < 40; i++) {
+            int cell = random.nextInt(gridSize * gridSize);
+            if (!Bitboard.get(shots, cell)) {
+                Bitboard.set(shots, cell);
+                (i % 3 == 0 ? hits : misses).add(cell);
+            }
+        }
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("event", "snapshot");
+        snapshot.put("game_id", gameId);
+        snapshot.put("status", "in_progress");
+        snapshot.put("grid_size", gridSize);
+        snapshot.put("player1", Map.of("id", "player-one", "hits", hits, "misses", misses, "ships", grid));
+        snapshot.put("player2", Map.of("id", "player-two", "hits", misses, "misses", hits, "ships", grid));
+        return json(snapshot);
+    }
+
+    private static TextMessage json(Map<String, Object> payload) throws Exception {
+        return new TextMessage(JSON.writeValueAsString(payload));
+    }
+
+    // A distinct instance, so the compressor's broadcast cache does not answer for it
+    private static TextMessage copy(TextMessage message) {
+        return new TextMessage(message.getPayload());
+    }
+
+    private static int size(WebSocketMessage<?> message) {
+        return message instanceof BinaryMessage binary ? binary.getPayloadLength() : message.getPayloadLength();
+    }
+
+    private static MessageCompressor compressor(int minBytes) {
+        return new MessageCompressor(new CustomMetricsService(new SimpleMeterRegistry()), true, minBytes, 6, 4);
+    }
+
+    private static long time(Runnable task) {
+        for (int i = 0; i < ROUNDS / 10; i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            task.run();
+        }
+        return (System.nanoTime() - start) / ROUNDS;
+    }
+}
@@ -0,0 +1,70 @@
+package com.marius.Battleship_Service.websockets;
+
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageCompressorTest {
+
+    private final MessageCompressor compressor = new MessageCompressor(
+            new CustomMetricsService(new SimpleMeterRegistry()), true, 256, 6, 2);
+
+    @Test
+    void smallFramesGoOutAsText() {
+        TextMessage attack = new TextMessage("{\"x\":4,\"y\":7,\"hit\":true,\"next_turn\":\"player-two\"}");
+        assertSame(attack, compressor.encode(attack));
+    }
+
+    @Test
+    void largeFramesAreRawDeflateOfTheText() throws Exception {
+        StringBuilder grid = new StringBuilder("{\"player_grid\":[");
+        for (int i = 0; i < 17; i++) {
+            grid.append(i > 0 ? "," : "").append("{\"x\":").append(i % 10).append(",\"y\":").append(i / 10)
+                    .append(",\"ship\":\"battleship\",\"orientation\":\"horizontal\"}");
+        }
+        TextMessage message = new TextMessage(grid.append("]}").toString());
+
+        // Encoded repeatedly, as for every spectator of a game, with Deflaters coming back from the pool
+        for (int i = 0; i < 3; i++) {
+            WebSocketMessage<?> encoded = compressor.encode(message);
+            BinaryMessage binary = assertInstanceOf(BinaryMessage.class, encoded);
+            assertTrue(binary.getPayloadLength() < message.getPayloadLength() / 3);
+            assertEquals(message.getPayload(), inflate(binary.getPayload()));
+            BinaryMessage copy = assertInstanceOf(BinaryMessage.class,
+                    compressor.encode(new TextMessage(message.getPayload())));
+            assertEquals(message.getPayload(), inflate(copy.getPayload()));
+        }
+    }
+
+    @Test
+    void inputThatWouldNotShrinkIsNotCompressed() {
+        byte[] noise = new byte[1024];
+        new Random(1).nextBytes(noise);
+        assertNull(compressor.deflate(noise));
+    }
+
+    private static String inflate(ByteBuffer payload) throws Exception {
+        byte[] compressed = new byte[payload.remaining()];
+        payload.duplicate().get(compressed);
+        Inflater inflater = new Inflater(true);
+        inflater.setInput(compressed);
+        byte[] output = new byte[64 * 1024];
+        int length = inflater.inflate(output);
+        inflater.end();
+        return new String(output, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,35 @@
+package com.marius.Battleship_Service.websockets;
+
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OutboundDeliveryTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CustomMetricsService metrics = new CustomMetricsService(registry);
+    private final OutboundDelivery delivery = new OutboundDelivery(metrics,
+            new MessageCompressor(metrics, false, 256, 6, 1), 1, 4, 2, OutboundQueue.OverflowPolicy.DROP_OLDEST, 0);
+
+    @AfterEach
+    void shutdown() {
+        delivery.shutdown();
+    }
+
+    @Test
+    void framesForUnregisteredSessionsAreDroppedNotQueued() {
+        RecordingSession session = new RecordingSession("gone");
+        delivery.register(session);
+        delivery.unregister(session);
+
+        delivery.send(session, new TextMessage("late reply"), true);
+        delivery.send(new RecordingSession("never-registered"), new TextMessage("reply"), false);
+
+        assertEquals(0, delivery.sessions());
+        assertEquals(2, registry.get("websocket_outbound_dropped").tag("audience", "player").counter().count());
+    }
+}
@@ -0,0 +1,161 @@
+package com.marius.Battleship_Service.websockets;
+
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.core.convert.ConversionFailedException;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboundQueueTest {
+
+    // Writer tasks run only when the test says so, standing in for a client that is slow to read
+    private final Queue<Runnable> pending = new ArrayDeque<>();
+    private final Executor writer = pending::add;
+    private final CustomMetricsService.OutboundMetrics metrics =
+            new CustomMetricsService(new SimpleMeterRegistry()).outboundMetrics("test");
+    private final RecordingSession session = new RecordingSession("session");
+
+    @Test
+    void dropOldestKeepsCriticalFrames() {
+        OutboundQueue queue = queue(3, OutboundQueue.OverflowPolicy.DROP_OLDEST);
+
+        queue.offer(text("reply"), true);
+        queue.offer(text("event-1"), false);
+        queue.offer(text("event-2"), false);
+        queue.offer(text("event-3"), false);
+        queue.offer(text("event-4"), false);
+        drain();
+
+        assertEquals(List.of("reply", "event-3", "event-4"), session.sent);
+        assertEquals(2, queue.droppedFrames());
+    }
+
+    @Test
+    void dropOldestClosesTheSessionWhenOnlyCriticalFramesAreQueued() {
+        OutboundQueue queue = queue(2, OutboundQueue.OverflowPolicy.DROP_OLDEST);
+
+        queue.offer(text("reply-1"), true);
+        queue.offer(text("reply-2"), true);
+        queue.offer(text("event"), false); // not critical, so dropped on its own
+        assertEquals(1, queue.droppedFrames());
+        queue.offer(text("reply-3"), true);
+        drain();
+
+        assertEquals(CloseStatus.POLICY_VIOLATION.getCode(), session.closeStatus.getCode());
+        assertEquals(List.of(), session.sent);
+    }
+
+    @ParameterizedTest
+    @EnumSource(OutboundQueue.OverflowPolicy.class)
+    void everyPolicyBoundsAFullQueue(OutboundQueue.OverflowPolicy policy) {
+        OutboundQueue queue = queue(2, policy);
+
+        queue.offer(text("reply"), true);
+        queue.offer(text("event-1"), false);
+        queue.offer(text("event-2"), false);
+        queue.offer(text("event-3"), false);
+        assertTrue(queue.depth() <= 2);
+        drain();
+
+        switch (policy) {
+            case DROP_OLDEST -> {
+                assertEquals(List.of("reply", "event-3"), session.sent);
+                assertEquals(2, queue.droppedFrames());
+            }
+            case CLOSE -> {
+                assertEquals(CloseStatus.POLICY_VIOLATION.getCode(), session.closeStatus.getCode());
+                assertEquals(List.of(), session.sent);
+            }
+        }
+    }
+
+    @Test
+    void coalesceIsRejectedWhenTheConfigurationIsBound() {
+        assertThrows(ConversionFailedException.class,
+                () -> new DefaultConversionService().convert("COALESCE", OutboundQueue.OverflowPolicy.class));
+    }
+
+    @Test
+    void closePolicyClosesTheSessionOnOverflow() {
+        OutboundQueue queue = queue(1, OutboundQueue.OverflowPolicy.CLOSE);
+
+        queue.offer(text("event-1"), false);
+        queue.offer(text("event-2"), false);
+        drain();
+
+        assertEquals(CloseStatus.POLICY_VIOLATION.getCode(), session.closeStatus.getCode());
+        assertEquals(0, queue.depth());
+        queue.offer(text("event-3"), false); // closed queues take nothing
+        assertEquals(0, queue.depth());
+    }
+
+    @Test
+    void aSendFailingWithARuntimeExceptionClosesTheQueue() {
+        OutboundQueue queue = queue(4, OutboundQueue.OverflowPolicy.DROP_OLDEST);
+        session.failure = new IllegalStateException("The WebSocket session has been closed");
+
+        queue.offer(text("event-1"), false);
+        queue.offer(text("event-2"), false);
+        drain();
+
+        assertTrue(session.sent.isEmpty());
+        assertEquals(0, queue.depth());
+        assertTrue(pending.isEmpty());
+    }
+
+    @Test
+    void spectatorFramesCoalesceWithoutTouchingGameFrames() {
+        OutboundQueue queue = queue(4, OutboundQueue.OverflowPolicy.DROP_OLDEST);
+
+        queue.offer(text("your-turn"), true);
+        queue.offerSpectator(text("shot-1"), text("snapshot-1"), 2);
+        queue.offerSpectator(text("shot-2"), text("snapshot-2"), 2);
+        queue.offerSpectator(text("shot-3"), text("snapshot-3"), 2);
+        queue.offer(text("game-over"), true);
+        drain();
+
+        assertEquals(List.of("snapshot-3", "your-turn", "game-over"), session.sent);
+        assertEquals(3, queue.droppedFrames());
+    }
+
+    @Test
+    void stoppingSpectatingDropsOnlyTheSpectatorLane() {
+        OutboundQueue queue = queue(4, OutboundQueue.OverflowPolicy.DROP_OLDEST);
+
+        queue.offerSnapshot(text("snapshot"));
+        queue.offerSpectator(text("shot"), text("snapshot-2"), 2);
+        queue.offer(text("reply"), true);
+        queue.clearSpectatorLane();
+        drain();
+
+        assertEquals(List.of("reply"), session.sent);
+    }
+
+    private OutboundQueue queue(int capacity, OutboundQueue.OverflowPolicy policy) {
+        return new OutboundQueue(session, writer, capacity, policy, 0, metrics);
+    }
+
+    private void drain() {
+        Runnable task;
+        while ((task = pending.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static TextMessage text(String payload) {
+        return new TextMessage(payload);
+    }
+}
@@ -0,0 +1,72 @@
+package com.marius.Battleship_Service.websockets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestWindowTest {
+
+    @Test
+    void aRetryIsADuplicateAndGetsTheRecordedReplies() {
+        RequestWindow window = new RequestWindow(4);
+        TextMessage reply = new TextMessage("{\"seq\":1,\"status\":\"created\"}");
+
+        assertEquals(RequestWindow.Admission.NEW, window.admit(1));
+        window.record(1, reply);
+
+        assertEquals(RequestWindow.Admission.DUPLICATE, window.admit(1));
+        assertEquals(List.of(reply), window.replies(1));
+    }
+
+    @Test
+    void numbersMayArriveOutOfOrderWithinTheWindow() {
+        RequestWindow window = new RequestWindow(4);
+
+        assertEquals(RequestWindow.Admission.NEW, window.admit(6));
+        assertEquals(RequestWindow.Admission.NEW, window.admit(4));
+        assertEquals(RequestWindow.Admission.NEW, window.admit(3));
+        assertEquals(RequestWindow.Admission.NEW, window.admit(5));
+        assertEquals(RequestWindow.Admission.DUPLICATE, window.admit(4));
+        assertEquals(RequestWindow.Admission.DUPLICATE, window.admit(6));
+    }
+
+    @Test
+    void numbersOlderThanTheWindowAreStale() {
+        RequestWindow window = new RequestWindow(4);
+        window.admit(1);
+        window.record(1, new TextMessage("first"));
+        window.admit(5); // takes the slot of 1
+
+        assertEquals(RequestWindow.Admission.STALE, window.admit(1));
+        assertEquals(RequestWindow.Admission.STALE, window.admit(0));
+        assertTrue(window.replies(1).isEmpty());
+        assertEquals(RequestWindow.Admission.NEW, window.admit(2));
+    }
+
+    @Test
+    void aForgottenRequestRunsAgain() {
+        RequestWindow window = new RequestWindow(4);
+        window.admit(2);
+        window.record(2, new TextMessage("partial"));
+        window.forget(2);
+
+        assertTrue(window.replies(2).isEmpty());
+        assertEquals(RequestWindow.Admission.NEW, window.admit(2));
+        assertTrue(window.replies(2).isEmpty());
+    }
+
+    @Test
+    void repliesAreOnlyRecordedForTheAdmittedNumber() {
+        RequestWindow window = new RequestWindow(4);
+        window.admit(7);
+        window.record(3, new TextMessage("not admitted")); // same slot, other number
+        window.record(7, new TextMessage("reply"));
+
+        assertEquals(1, window.replies(7).size());
+        assertTrue(window.replies(3).isEmpty());
+    }
+}
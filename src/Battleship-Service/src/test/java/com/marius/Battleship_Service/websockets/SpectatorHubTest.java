@@ -0,0 +1,66 @@
+package com.marius.Battleship_Service.websockets;
+
+import com.marius.Battleship_Service.models.Bitboard;
+import com.marius.Battleship_Service.models.Game;
+import com.marius.Battleship_Service.services.CustomMetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SpectatorHubTest {
+
+    private final CustomMetricsService metrics = new CustomMetricsService(new SimpleMeterRegistry());
+    private final OutboundDelivery delivery = new OutboundDelivery(metrics,
+            new MessageCompressor(metrics, false, 256, 6, 1), 1, 16, 16, OutboundQueue.OverflowPolicy.DROP_OLDEST, 0);
+    private final SpectatorHub hub = new SpectatorHub(delivery);
+
+    @AfterEach
+    void shutdown() {
+        hub.shutdown();
+        delivery.shutdown();
+    }
+
+    @Test
+    void fanOutDoesNotWaitWhileTheGameIsLocked() throws Exception {
+        Game game = new Game();
+        game.setId("game-1");
+        game.setStatus("in_progress");
+        game.setGridSize(10);
+        game.setPlayer1Id("alice");
+        game.setPlayer2Id("bob");
+        game.setPlayer1Hits(Bitboard.create(100));
+        game.setPlayer1Misses(Bitboard.create(100));
+        game.setPlayer2Hits(Bitboard.create(100));
+        game.setPlayer2Misses(Bitboard.create(100));
+
+        RecordingSession spectator = new RecordingSession("spectator");
+        delivery.register(spectator);
+        hub.subscribe(spectator, game);
+        hub.publish(game, Map.of("event", "attack_result", "game_id", "game-1"));
+
+        // Hold the game's lock, as a shot in the middle of a slow save would, until the event is out
+        synchronized (game) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sent(spectator).size() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+        List<String> sent = sent(spectator);
+        assertEquals(2, sent.size(), "delivered while the game was locked: " + sent);
+        assertEquals("snapshot", new JSONObject(sent.get(0)).getString("event"));
+        assertEquals("attack_result", new JSONObject(sent.get(1)).getString("event"));
+    }
+
+    private static List<String> sent(RecordingSession session) {
+        synchronized (session) {
+            return List.copyOf(session.sent);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.marius.ETL_Service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Runs the pipeline at startup and then on an interval. A failed run is logged and retried on
+// the next interval from the last saved watermarks. The thread is not a daemon: it is what
+// keeps this service (which serves no HTTP) running.
+@Component
+public class EtlScheduler implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(EtlScheduler.class);
+
+    private final EtlPipeline pipeline;
+    private final long intervalMs;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            runnable -> new Thread(runnable, "etl-pipeline"));
+
+    public EtlScheduler(EtlPipeline pipeline, @Value("${etl.interval-ms:60000}") long intervalMs) {
+        this.pipeline = pipeline;
+        this.intervalMs = intervalMs;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                pipeline.run();
+            } catch (Exception e) {
+                log.warn("ETL run failed, retrying in {} ms: {}", intervalMs, e.getMessage());
+            }
+        }, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,12 @@
+package com.marius.ETL_Service;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class EtlServiceApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(EtlServiceApplication.class, args);
+	}
+}
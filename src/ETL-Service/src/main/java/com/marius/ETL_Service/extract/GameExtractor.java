@@ -0,0 +1,84 @@
+package com.marius.ETL_Service.extract;
+
+import com.marius.ETL_Service.store.Watermark;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Reads changed games from the Battleship Service's {@code games} collection
+ * by their {@code updatedAt} field, which every write stamps. Change streams
+ * would need a replica set, and the deployment runs a standalone MongoDB.
+ *
+ * Pages are keyset ranges over an (updatedAt, _id) index. Games stored before
+ * the field existed are read once, in _id order, by {@link #legacySince}.
+ * Only the fields the export needs are fetched; fleets and shot boards stay
+ * in MongoDB.
+ */
+@Component
+public class GameExtractor {
+
+    public static final String COLLECTION = "games";
+
+    private static final String[] FIELDS = {
+            "status", "gridSize", "player1Id", "player2Id", "winnerId", "startedAt", "finishedAt", "updatedAt" };
+
+    private final MongoTemplate mongoTemplate;
+    private volatile boolean indexed;
+
+    public GameExtractor(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // The next batch of games changed after the watermark and before the given time, in watermark order
+    public List<Document> changedSince(Watermark from, Instant until, int limit) {
+        ensureIndex();
+        Date at = Date.from(from.at());
+        Criteria after = from.key().isEmpty() ? Criteria.where("updatedAt").gt(at)
+                : new Criteria().orOperator(Criteria.where("updatedAt").gt(at),
+                        Criteria.where("updatedAt").is(at).and("_id").gt(id(from.key())));
+        Query query = new Query(new Criteria().andOperator(after, Criteria.where("updatedAt").lt(Date.from(until))))
+                .with(Sort.by("updatedAt", "_id"))
+                .limit(limit);
+        query.fields().include(FIELDS);
+        return mongoTemplate.find(query, Document.class, COLLECTION);
+    }
+
+    // The next batch of games that have never been written with updatedAt, in _id order
+    public List<Document> legacySince(String afterId, int limit) {
+        Criteria criteria = Criteria.where("updatedAt").exists(false);
+        if (!afterId.isEmpty()) {
+            criteria = criteria.and("_id").gt(id(afterId));
+        }
+        Query query = new Query(criteria).with(Sort.by("_id")).limit(limit);
+        query.fields().include(FIELDS);
+        return mongoTemplate.find(query, Document.class, COLLECTION);
+    }
+
+    public static String idOf(Document game) {
+        Object id = game.get("_id");
+        return id instanceof ObjectId objectId ? objectId.toHexString() : String.valueOf(id);
+    }
+
+    // Ids are stored as ObjectIds where they are valid ones, as GameWriteConverter does
+    private static Object id(String key) {
+        return ObjectId.isValid(key) ? new ObjectId(key) : key;
+    }
+
+    private void ensureIndex() {
+        if (!indexed) {
+            mongoTemplate.indexOps(COLLECTION).ensureIndex(
+                    new Index().on("updatedAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC));
+            indexed = true;
+        }
+    }
+}
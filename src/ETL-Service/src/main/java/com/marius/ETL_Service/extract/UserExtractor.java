@@ -0,0 +1,62 @@
+package com.marius.ETL_Service.extract;
+
+import com.marius.ETL_Service.store.Watermark;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads changed profiles from the Profile Service's {@code users} table by
+ * its {@code updated_at} column, which a trigger stamps on every insert and
+ * update. Pages are keyset ranges over the (updated_at, username) index, so
+ * each batch is one index range scan however far the table has grown.
+ */
+@Component
+public class UserExtractor {
+
+    private static final String COLUMNS =
+            "username, total_games, wins, losses, current_streak, best_win_streak, updated_at";
+
+    private static final RowMapper<UserProfile> MAPPER = (rs, rowNum) -> new UserProfile(
+            rs.getString("username"),
+            rs.getInt("total_games"),
+            rs.getInt("wins"),
+            rs.getInt("losses"),
+            rs.getInt("current_streak"),
+            rs.getInt("best_win_streak"),
+            rs.getObject("updated_at", OffsetDateTime.class).toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserExtractor(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // The next batch of profiles changed after the watermark and before the given time, in watermark order
+    public List<UserProfile> changedSince(Watermark from, Instant until, int limit) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM users"
+                + " WHERE (updated_at, username) > (?, ?) AND updated_at < ?"
+                + " ORDER BY updated_at, username LIMIT ?",
+                MAPPER, utc(from.at()), from.key(), utc(until), limit);
+    }
+
+    // Current profiles of the given players, in one query; players without a profile are left out
+    public List<UserProfile> lookup(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM users WHERE username = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", usernames.toArray())),
+                MAPPER);
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,8 @@
+package com.marius.ETL_Service.extract;
+
+import java.time.Instant;
+
+// A player's profile as stored by the Profile Service
+public record UserProfile(String username, int totalGames, int wins, int losses, int currentStreak,
+        int bestWinStreak, Instant updatedAt) {
+}
@@ -0,0 +1,25 @@
+package com.marius.ETL_Service.store;
+
+/**
+ * A named, typed column of a {@link ColumnarFile}. LONG cells take any
+ * {@link Number}, TIMESTAMP cells an {@link java.time.Instant} (kept to the
+ * microsecond) and STRING cells a {@link String}; any cell may be null.
+ */
+public record Column(String name, Type type) {
+
+    public enum Type {
+        LONG, TIMESTAMP, STRING
+    }
+
+    public static Column ofLong(String name) {
+        return new Column(name, Type.LONG);
+    }
+
+    public static Column ofTimestamp(String name) {
+        return new Column(name, Type.TIMESTAMP);
+    }
+
+    public static Column ofString(String name) {
+        return new Column(name, Type.STRING);
+    }
+}
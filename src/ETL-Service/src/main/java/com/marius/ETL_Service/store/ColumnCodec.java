@@ -0,0 +1,193 @@
+package com.marius.ETL_Service.store;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Encodes one column of a row group as a DEFLATE-compressed block: a bitmap
+ * of which rows have a value, then the values of those rows. Numbers are
+ * stored as zigzag varint deltas from the previous value, so ids, counters
+ * and timestamps that move slowly take a byte or two; strings are stored
+ * through a dictionary when they repeat (statuses, player ids) and as
+ * length-prefixed UTF-8 otherwise.
+ */
+final class ColumnCodec {
+
+    static final byte PLAIN = 0;
+    static final byte DICTIONARY = 1;
+    static final byte DELTA = 2;
+
+    private ColumnCodec() {
+    }
+
+    record Block(byte encoding, byte[] bytes) {
+    }
+
+    static Block encode(Column column, List<Object[]> rows, int index) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte encoding;
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(buffer, deflater))) {
+            byte[] present = new byte[(rows.size() + 7) / 8];
+            for (int row = 0; row < rows.size(); row++) {
+                if (rows.get(row)[index] != null) {
+                    present[row >>> 3] |= (byte) (1 << (row & 7));
+                }
+            }
+            out.write(present);
+            encoding = column.type() == Column.Type.STRING ? writeStrings(out, rows, index)
+                    : writeNumbers(out, column, rows, index);
+        } finally {
+            deflater.end();
+        }
+        return new Block(encoding, buffer.toByteArray());
+    }
+
+    static Object[] decode(Column column, byte encoding, byte[] block, int rowCount) throws IOException {
+        Object[] values = new Object[rowCount];
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(block)))) {
+            byte[] present = new byte[(rowCount + 7) / 8];
+            in.readFully(present);
+            List<String> dictionary = null;
+            if (encoding == DICTIONARY) {
+                int size = (int) readVarint(in);
+                dictionary = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    dictionary.add(readString(in));
+                }
+            }
+            long previous = 0;
+            for (int row = 0; row < rowCount; row++) {
+                if ((present[row >>> 3] & (1 << (row & 7))) == 0) {
+                    continue;
+                }
+                switch (encoding) {
+                    case DELTA -> {
+                        previous += unzigzag(readVarint(in));
+                        values[row] = column.type() == Column.Type.TIMESTAMP ? fromMicros(previous) : previous;
+                    }
+                    case DICTIONARY -> values[row] = dictionary.get((int) readVarint(in));
+                    case PLAIN -> values[row] = readString(in);
+                    default -> throw new IOException("Unknown encoding " + encoding + " for column " + column.name());
+                }
+            }
+        }
+        return values;
+    }
+
+    private static byte writeNumbers(DataOutputStream out, Column column, List<Object[]> rows, int index)
+            throws IOException {
+        long previous = 0;
+        for (Object[] row : rows) {
+            Object value = row[index];
+            if (value != null) {
+                long current = column.type() == Column.Type.TIMESTAMP ? toMicros((Instant) value)
+                        : ((Number) value).longValue();
+                writeVarint(out, zigzag(current - previous));
+                previous = current;
+            }
+        }
+        return DELTA;
+    }
+
+    // A dictionary pays off once values repeat; at most one distinct value per two rows
+    private static byte writeStrings(DataOutputStream out, List<Object[]> rows, int index) throws IOException {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        int present = 0;
+        for (Object[] row : rows) {
+            if (row[index] != null) {
+                present++;
+                if (dictionary.size() <= rows.size() / 2) {
+                    ids.computeIfAbsent((String) row[index], value -> {
+                        dictionary.add(value);
+                        return dictionary.size() - 1;
+                    });
+                }
+            }
+        }
+        boolean useDictionary = present > 0 && dictionary.size() <= present / 2;
+        if (useDictionary) {
+            writeVarint(out, dictionary.size());
+            for (String value : dictionary) {
+                writeString(out, value);
+            }
+        }
+        for (Object[] row : rows) {
+            if (row[index] != null) {
+                if (useDictionary) {
+                    writeVarint(out, ids.get((String) row[index]));
+                } else {
+                    writeString(out, (String) row[index]);
+                }
+            }
+        }
+        return useDictionary ? DICTIONARY : PLAIN;
+    }
+
+    static long toMicros(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+    }
+
+    static Instant fromMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeString(OutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarint(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated column block");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in column block");
+    }
+}
@@ -0,0 +1,127 @@
+package com.marius.ETL_Service.store;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One row group in a column-oriented file, laid out like a Parquet file with
+ * a single row group: a magic number, each column's block in turn (see
+ * {@link ColumnCodec}), then a footer with the row count and each column's
+ * name, type, encoding and position, and finally the footer's length and the
+ * magic number again. A reader goes to the footer first and can then read
+ * only the columns it needs.
+ */
+public final class ColumnarFile {
+
+    static final byte[] MAGIC = "BSC1".getBytes(StandardCharsets.US_ASCII);
+
+    private ColumnarFile() {
+    }
+
+    public record Contents(List<Column> columns, List<Object[]> rows) {
+    }
+
+    private record ColumnMeta(Column column, byte encoding, long offset, int length) {
+    }
+
+    public static void write(Path file, List<Column> columns, List<Object[]> rows) throws IOException {
+        for (Object[] row : rows) {
+            if (row.length != columns.size()) {
+                throw new IllegalArgumentException("Row has " + row.length + " cells for " + columns.size() + " columns");
+            }
+        }
+        try (OutputStream stream = Files.newOutputStream(file);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.write(MAGIC);
+            List<ColumnMeta> metas = new ArrayList<>(columns.size());
+            for (int i = 0; i < columns.size(); i++) {
+                ColumnCodec.Block block = ColumnCodec.encode(columns.get(i), rows, i);
+                metas.add(new ColumnMeta(columns.get(i), block.encoding(), out.size(), block.bytes().length));
+                out.write(block.bytes());
+            }
+
+            int footerStart = out.size();
+            out.writeInt(rows.size());
+            out.writeInt(metas.size());
+            for (ColumnMeta meta : metas) {
+                out.writeUTF(meta.column().name());
+                out.writeByte(meta.column().type().ordinal());
+                out.writeByte(meta.encoding());
+                out.writeLong(meta.offset());
+                out.writeInt(meta.length());
+            }
+            out.writeInt(out.size() - footerStart);
+            out.write(MAGIC);
+        }
+    }
+
+    public static Contents read(Path file) throws IOException {
+        return read(file, null);
+    }
+
+    // Reads the named columns only (all of them if null), in the file's order
+    public static Contents read(Path file, List<String> only) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer tail = readAt(channel, size - 8, 8);
+            int footerLength = tail.getInt();
+            byte[] magic = new byte[4];
+            tail.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException(file + " is not a columnar file");
+            }
+
+            DataInputStream footer = new DataInputStream(
+                    new ByteArrayInputStream(readAt(channel, size - 8 - footerLength, footerLength).array()));
+            int rowCount = footer.readInt();
+            int columnCount = footer.readInt();
+            List<Column> columns = new ArrayList<>();
+            List<Object[]> values = new ArrayList<>();
+            for (int i = 0; i < columnCount; i++) {
+                Column column = new Column(footer.readUTF(), Column.Type.values()[footer.readByte()]);
+                byte encoding = footer.readByte();
+                long offset = footer.readLong();
+                int length = footer.readInt();
+                if (only == null || only.contains(column.name())) {
+                    columns.add(column);
+                    byte[] block = new byte[length];
+                    readAt(channel, offset, length).get(block);
+                    values.add(ColumnCodec.decode(column, encoding, block, rowCount));
+                }
+            }
+
+            List<Object[]> rows = new ArrayList<>(rowCount);
+            for (int row = 0; row < rowCount; row++) {
+                Object[] cells = new Object[columns.size()];
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] = values.get(i)[row];
+                }
+                rows.add(cells);
+            }
+            return new Contents(columns, rows);
+        }
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of columnar file");
+            }
+        }
+        return buffer.flip();
+    }
+}
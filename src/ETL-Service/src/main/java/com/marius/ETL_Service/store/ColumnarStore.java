@@ -0,0 +1,72 @@
+package com.marius.ETL_Service.store;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * The local warehouse: one directory per table, partitioned by day, holding
+ * one {@link ColumnarFile} per extracted batch and day, as
+ * {@code <table>/day=YYYY-MM-DD/part-<batch>.col}.
+ *
+ * A file is written under a temporary name and renamed into place, so readers
+ * never see a partial file. Batches are named after the watermark they start
+ * from, so a batch that is extracted again after a crash, before its
+ * watermark was saved, replaces its earlier output rather than duplicating it.
+ */
+@Component
+public class ColumnarStore {
+
+    private final Path root;
+
+    public ColumnarStore(@Value("${etl.store.dir:/data/warehouse}") String root) {
+        this.root = Paths.get(root);
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    // Writes one batch of rows, split by the day each row belongs to; returns the files written
+    public List<Path> write(String table, String batchId, List<Column> columns, List<Object[]> rows,
+            Function<Object[], LocalDate> dayOf) throws IOException {
+        Map<LocalDate, List<Object[]>> byDay = new TreeMap<>();
+        for (Object[] row : rows) {
+            byDay.computeIfAbsent(dayOf.apply(row), day -> new ArrayList<>()).add(row);
+        }
+
+        List<Path> written = new ArrayList<>(byDay.size());
+        for (Map.Entry<LocalDate, List<Object[]>> partition : byDay.entrySet()) {
+            Path directory = root.resolve(table).resolve("day=" + partition.getKey());
+            Files.createDirectories(directory);
+            Path file = directory.resolve("part-" + batchId + ".col");
+            Path temporary = directory.resolve(".part-" + batchId + ".col.tmp");
+            ColumnarFile.write(temporary, columns, partition.getValue());
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            written.add(file);
+        }
+        return written;
+    }
+
+    // Every file of a table, oldest day first
+    public List<Path> files(String table) throws IOException {
+        Path directory = root.resolve(table);
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (var paths = Files.walk(directory, 2)) {
+            return paths.filter(path -> path.getFileName().toString().endsWith(".col")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.marius.ETL_Service.store;
+
+import java.time.Instant;
+
+/**
+ * How far a source has been extracted: the last change time read and, to
+ * break ties between changes made at the same instant, the key of the last
+ * record read at that time. Extraction resumes strictly after it.
+ */
+public record Watermark(Instant at, String key) {
+
+    public static final Watermark START = new Watermark(Instant.EPOCH, "");
+
+    // Names the batch that starts from this watermark; stable across re-runs of the batch
+    public String batchId() {
+        return String.format("%d-%08x", ColumnCodec.toMicros(at), key.hashCode());
+    }
+
+    String encode() {
+        return at + " " + key;
+    }
+
+    static Watermark decode(String value) {
+        int space = value.indexOf(' ');
+        return new Watermark(Instant.parse(value.substring(0, space)), value.substring(space + 1));
+    }
+}
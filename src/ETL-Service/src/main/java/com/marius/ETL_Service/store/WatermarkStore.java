@@ -0,0 +1,77 @@
+package com.marius.ETL_Service.store;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+
+/**
+ * The watermark of each source, kept in a properties file next to the data.
+ * Each update rewrites the file under a temporary name, syncs it and renames
+ * it into place, so after a crash the file holds either the old or the new
+ * watermarks and never a torn mix. Watermarks are saved only after the batch
+ * they cover is in the store: a crash in between re-extracts that batch.
+ */
+@Component
+public class WatermarkStore {
+
+    private static final String DONE = "done";
+
+    private final Path file;
+    private final Properties values = new Properties();
+
+    public WatermarkStore(@Value("${etl.store.dir:/data/warehouse}") String root) {
+        this.file = Paths.get(root).resolve("_watermarks.properties");
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                values.load(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read watermarks from " + file, e);
+            }
+        }
+    }
+
+    public synchronized Watermark get(String source) {
+        String value = values.getProperty(source);
+        return value == null || value.equals(DONE) ? Watermark.START : Watermark.decode(value);
+    }
+
+    public synchronized void put(String source, Watermark watermark) throws IOException {
+        values.setProperty(source, watermark.encode());
+        save();
+    }
+
+    // For one-off sources, such as the backfill of records written before watermarks existed
+    public synchronized boolean isDone(String source) {
+        return DONE.equals(values.getProperty(source));
+    }
+
+    public synchronized void markDone(String source) throws IOException {
+        values.setProperty(source, DONE);
+        save();
+    }
+
+    private void save() throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            values.store(out, "ETL watermarks");
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
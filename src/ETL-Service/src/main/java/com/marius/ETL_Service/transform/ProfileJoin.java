@@ -0,0 +1,104 @@
+package com.marius.ETL_Service.transform;
+
+import com.marius.ETL_Service.extract.GameExtractor;
+import com.marius.ETL_Service.extract.UserExtractor;
+import com.marius.ETL_Service.extract.UserProfile;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Joins extracted games with their players' profiles, one batch at a time.
+ * Profiles are held in a bounded LRU cache, so memory stays flat however many
+ * players there are; a batch looks up the players it misses in one query.
+ * Profile changes extracted from the Profile Service refresh the players
+ * already cached, so a cached profile is never older than the last extraction.
+ */
+@Component
+public class ProfileJoin {
+
+    private final UserExtractor users;
+    private final Map<String, UserProfile> cache;
+
+    public ProfileJoin(UserExtractor users, @Value("${etl.profile-cache-size:10000}") int cacheSize) {
+        this.users = users;
+        // Players without a profile (bots, deleted accounts) are cached as null so they are not looked up again
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UserProfile> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public synchronized void refresh(List<UserProfile> changed) {
+        for (UserProfile user : changed) {
+            cache.replace(user.username(), user);
+        }
+    }
+
+    public synchronized List<Object[]> join(List<Document> games) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (Document game : games) {
+            for (String player : new String[] { game.getString("player1Id"), game.getString("player2Id") }) {
+                if (player != null && !cache.containsKey(player)) {
+                    missing.add(player);
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, UserProfile> found = new LinkedHashMap<>();
+            for (UserProfile user : users.lookup(missing)) {
+                found.put(user.username(), user);
+            }
+            for (String player : missing) {
+                cache.put(player, found.get(player));
+            }
+        }
+
+        List<Object[]> rows = new ArrayList<>(games.size());
+        for (Document game : games) {
+            UserProfile player1 = profile(game.getString("player1Id"));
+            UserProfile player2 = profile(game.getString("player2Id"));
+            Instant startedAt = instant(game, "startedAt");
+            Instant finishedAt = instant(game, "finishedAt");
+            rows.add(new Object[] {
+                    GameExtractor.idOf(game),
+                    game.getString("status"),
+                    game.getInteger("gridSize", 10), // only stored for non-standard boards
+                    game.getString("player1Id"),
+                    game.getString("player2Id"),
+                    game.getString("winnerId"),
+                    startedAt,
+                    finishedAt,
+                    startedAt != null && finishedAt != null ? Duration.between(startedAt, finishedAt).toMillis() : null,
+                    instant(game, "updatedAt"),
+                    player1 != null ? player1.totalGames() : null,
+                    player1 != null ? player1.wins() : null,
+                    player1 != null ? player1.losses() : null,
+                    player2 != null ? player2.totalGames() : null,
+                    player2 != null ? player2.wins() : null,
+                    player2 != null ? player2.losses() : null });
+        }
+        return rows;
+    }
+
+    private UserProfile profile(String username) {
+        return username != null ? cache.get(username) : null;
+    }
+
+    private static Instant instant(Document game, String field) {
+        Date date = game.getDate(field);
+        return date != null ? date.toInstant() : null;
+    }
+}
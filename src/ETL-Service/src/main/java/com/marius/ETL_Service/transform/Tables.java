@@ -0,0 +1,78 @@
+package com.marius.ETL_Service.transform;
+
+import com.marius.ETL_Service.extract.UserProfile;
+import com.marius.ETL_Service.store.Column;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * The tables the ETL writes. {@code games} has one row per extracted change
+ * of a game, with both players' profiles as they stood when it was extracted;
+ * {@code users} has one row per extracted change of a profile. Both are
+ * partitioned by the UTC day of the change.
+ */
+public final class Tables {
+
+    public static final String GAMES = "games";
+    public static final String USERS = "users";
+
+    public static final List<Column> GAME_COLUMNS = List.of(
+            Column.ofString("game_id"),
+            Column.ofString("status"),
+            Column.ofLong("grid_size"),
+            Column.ofString("player1_id"),
+            Column.ofString("player2_id"),
+            Column.ofString("winner_id"),
+            Column.ofTimestamp("started_at"),
+            Column.ofTimestamp("finished_at"),
+            Column.ofLong("duration_ms"),
+            Column.ofTimestamp("updated_at"),
+            Column.ofLong("player1_total_games"),
+            Column.ofLong("player1_wins"),
+            Column.ofLong("player1_losses"),
+            Column.ofLong("player2_total_games"),
+            Column.ofLong("player2_wins"),
+            Column.ofLong("player2_losses"));
+
+    public static final List<Column> USER_COLUMNS = List.of(
+            Column.ofString("username"),
+            Column.ofLong("total_games"),
+            Column.ofLong("wins"),
+            Column.ofLong("losses"),
+            Column.ofLong("current_streak"),
+            Column.ofLong("best_win_streak"),
+            Column.ofTimestamp("updated_at"));
+
+    private static final int GAME_STARTED_AT = 6;
+    private static final int GAME_FINISHED_AT = 7;
+    private static final int GAME_UPDATED_AT = 9;
+
+    private Tables() {
+    }
+
+    public static Object[] userRow(UserProfile user) {
+        return new Object[] { user.username(), user.totalGames(), user.wins(), user.losses(),
+                user.currentStreak(), user.bestWinStreak(), user.updatedAt() };
+    }
+
+    public static LocalDate userDay(Object[] row) {
+        return day((Instant) row[USER_COLUMNS.size() - 1]);
+    }
+
+    // Games stored before updatedAt existed go by when they finished or started
+    public static LocalDate gameDay(Object[] row) {
+        for (int index : new int[] { GAME_UPDATED_AT, GAME_FINISHED_AT, GAME_STARTED_AT }) {
+            if (row[index] != null) {
+                return day((Instant) row[index]);
+            }
+        }
+        return LocalDate.EPOCH;
+    }
+
+    private static LocalDate day(Instant instant) {
+        return LocalDate.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,76 @@
+package com.marius.ETL_Service.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarStoreTest {
+
+    private static final List<Column> COLUMNS = List.of(
+            Column.ofString("game_id"), Column.ofString("status"), Column.ofLong("moves"),
+            Column.ofTimestamp("updated_at"));
+
+    @TempDir
+    Path root;
+
+    @Test
+    void rowsComeBackAsWrittenWithNullsAndBothStringEncodings() throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        Instant start = Instant.parse("2024-10-30T23:59:58.123456Z");
+        for (int i = 0; i < 500; i++) {
+            rows.add(new Object[] {
+                    "game-" + i, // distinct, stored plain
+                    i % 7 == 0 ? null : i % 2 == 0 ? "finished" : "in_progress", // repeated, stored as a dictionary
+                    i % 5 == 0 ? null : (long) (i * 3 - 700),
+                    start.plusMillis(i * 13L) });
+        }
+        Path file = root.resolve("part.col");
+        ColumnarFile.write(file, COLUMNS, rows);
+
+        ColumnarFile.Contents contents = ColumnarFile.read(file);
+        assertEquals(COLUMNS, contents.columns());
+        assertEquals(rows.size(), contents.rows().size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertArrayEquals(rows.get(i), contents.rows().get(i));
+        }
+
+        // A reader asking for one column only decodes that one
+        ColumnarFile.Contents statuses = ColumnarFile.read(file, List.of("status"));
+        assertEquals(List.of(Column.ofString("status")), statuses.columns());
+        assertEquals("finished", statuses.rows().get(2)[0]);
+    }
+
+    @Test
+    void batchesArePartitionedByDayAndReplacedWhenWrittenAgain() throws Exception {
+        ColumnarStore store = new ColumnarStore(root.toString());
+        Instant late = Instant.parse("2024-10-30T23:59:59Z");
+        List<Object[]> rows = List.of(
+                new Object[] { "a", "finished", 12L, late },
+                new Object[] { "b", "finished", 20L, late.plusSeconds(2) });
+
+        List<Path> written = store.write("games", "batch-1", COLUMNS, rows, ColumnarStoreTest::day);
+        assertEquals(2, written.size());
+        assertTrue(written.get(0).toString().contains("day=2024-10-30"));
+        assertTrue(written.get(1).toString().contains("day=2024-10-31"));
+
+        // The same batch extracted again after a crash replaces its files instead of adding to them
+        store.write("games", "batch-1", COLUMNS, rows, ColumnarStoreTest::day);
+        List<Path> files = store.files("games");
+        assertEquals(written, files);
+        assertEquals(1, ColumnarFile.read(files.get(0)).rows().size());
+    }
+
+    private static LocalDate day(Object[] row) {
+        return LocalDate.ofInstant((Instant) row[3], ZoneOffset.UTC);
+    }
+}
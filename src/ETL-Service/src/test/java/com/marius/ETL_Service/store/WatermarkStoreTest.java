@@ -0,0 +1,42 @@
+package com.marius.ETL_Service.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WatermarkStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void watermarksSurviveARestart() throws Exception {
+        WatermarkStore store = new WatermarkStore(root.toString());
+        assertEquals(Watermark.START, store.get("users"));
+
+        Watermark users = new Watermark(Instant.parse("2024-10-31T08:15:30.123456Z"), "jane doe");
+        store.put("users", users);
+        store.markDone("games.legacy");
+
+        WatermarkStore restarted = new WatermarkStore(root.toString());
+        assertEquals(users, restarted.get("users"));
+        assertTrue(restarted.isDone("games.legacy"));
+        assertFalse(restarted.isDone("users"));
+        assertEquals(Watermark.START, restarted.get("games"));
+    }
+
+    @Test
+    void batchIdsFollowTheWatermark() {
+        Instant at = Instant.parse("2024-10-31T08:15:30Z");
+        assertEquals(new Watermark(at, "a").batchId(), new Watermark(at, "a").batchId());
+        assertNotEquals(new Watermark(at, "a").batchId(), new Watermark(at, "b").batchId());
+        assertNotEquals(new Watermark(at, "a").batchId(), new Watermark(at.plusNanos(1_000), "a").batchId());
+    }
+}
@@ -4,10 +4,16 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.ResponseEntity;
 
+import com.marius.Profile_Service.models.MatchRecord;
+import com.marius.Profile_Service.models.RollingStats;
 import com.marius.Profile_Service.models.User;
 import com.marius.Profile_Service.services.AuthService;
+import com.marius.Profile_Service.services.MatchHistoryService;
+import com.marius.Profile_Service.services.RollingStatsService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -17,6 +23,12 @@ public class ProfileController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private MatchHistoryService matchHistoryService;
+
+    @Autowired
+    private RollingStatsService rollingStatsService;
+
     @GetMapping("/status")
     public String status() {
         return "200 OK";
@@ -66,7 +78,15 @@ public class ProfileController {
         }
 
         try {
-            authService.updateUserStats(username, result);
+            authService.updateUserStats(username, result, transactionId);
+
+            // Settled games also go into the match history; the gateway forwards the
+            // summary Battleship-Service returned from its own commit
+            String gameId = request.get("game_id");
+            if (gameId != null) {
+                matchHistoryService.record(transactionId, username, result, gameId, request.get("opponent"),
+                        (int) parseLong(request.get("moves")), parseLong(request.get("duration_ms")));
+            }
             return ResponseEntity.ok(Map.of("status", "committed"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("status", "fail", "reason", e.getMessage()));
@@ -83,10 +103,74 @@ public class ProfileController {
         }
 
         boolean success = authService.rollbackUserStats(transactionId);
+        matchHistoryService.rollback(transactionId);
         if (success) {
             return ResponseEntity.ok(Map.of("status", "rolled back"));
         } else {
             return ResponseEntity.badRequest().body(Map.of("status", "fail", "reason", "Rollback failed"));
         }
     }
+
+    // Keyset-paginated match history, newest first. next_cursor is the id to pass as
+    // `before` for the following page, and is absent on the last page.
+    @GetMapping("/history")
+    public ResponseEntity<Map<String, Object>> history(@RequestParam String username,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "" + MatchHistoryService.DEFAULT_PAGE_SIZE) int limit) {
+        List<MatchRecord> page;
+        try {
+            page = matchHistoryService.getHistory(username, before, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        List<Map<String, Object>> matches = page.stream().map(record -> {
+            Map<String, Object> match = new HashMap<>();
+            match.put("id", record.getId());
+            match.put("game_id", record.getGameId());
+            match.put("opponent", record.getOpponent());
+            match.put("result", record.getResult());
+            match.put("moves", record.getMoves());
+            match.put("duration_ms", record.getDurationMs());
+            match.put("finished_at", record.getFinishedAt().toString());
+            return match;
+        }).toList();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("matches", matches);
+        if (page.size() == limit) {
+            response.put("next_cursor", page.get(page.size() - 1).getId());
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    // Results for today and the last 7 and 28 days (UTC), read from the in-memory day buckets
+    @GetMapping("/stats/rolling")
+    public ResponseEntity<Map<String, Object>> rollingStats(@RequestParam String username) {
+        Optional<User> user = authService.getUserByUsername(username);
+        if (user.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "User not found."));
+        }
+
+        RollingStats stats = rollingStatsService.get(username);
+        long today = RollingStatsService.today();
+        return ResponseEntity.ok(Map.of(
+                "today", window(stats.today(today)),
+                "last_7_days", window(stats.week(today)),
+                "last_28_days", window(stats.month(today)),
+                "current_streak", user.get().getCurrentStreak(),
+                "best_win_streak", user.get().getBestWinStreak()));
+    }
+
+    private static Map<String, Object> window(RollingStats.Window window) {
+        return Map.of("wins", window.wins(), "losses", window.losses(), "win_rate", window.winRate());
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return value == null ? 0 : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
 }
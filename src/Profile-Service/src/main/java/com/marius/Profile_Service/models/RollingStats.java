@@ -0,0 +1,171 @@
+package com.marius.Profile_Service.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One player's results over the last {@link #DAYS} days, as a ring of day
+ * buckets (slot = epoch day mod {@link #DAYS}). The 7-day and 28-day totals
+ * are kept as running sums: a result adds to them, and a day leaving a window
+ * is subtracted when the ring advances past it, so reading a window is O(1).
+ * Changes since the last flush are kept as per-day deltas, so that several
+ * instances can add theirs to the same stored bucket.
+ */
+public class RollingStats {
+
+    public static final int DAYS = 28;
+    public static final int WEEK = 7;
+
+    private final String username;
+    private final long[] days = new long[DAYS]; // epoch day held by each slot, -1 when empty
+    private final int[] wins = new int[DAYS];
+    private final int[] losses = new int[DAYS];
+    private long latestDay = Long.MIN_VALUE;
+    private int weekWins;
+    private int weekLosses;
+    private int monthWins;
+    private int monthLosses;
+    private final Map<Long, int[]> pending = new HashMap<>(); // day -> {win delta, loss delta}
+    private volatile long lastUsed; // System.nanoTime() of the last read or change, for cache eviction
+
+    public RollingStats(String username) {
+        this.username = username;
+        Arrays.fill(days, -1);
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    // Applies a result (or, with negative deltas, takes one back) to the given day
+    public synchronized void add(long today, long day, int winDelta, int lossDelta) {
+        apply(today, day, winDelta, lossDelta);
+        // Stored even for a day outside the ring, since the stored bucket is still there
+        int[] delta = pending.computeIfAbsent(day, d -> new int[2]);
+        delta[0] += winDelta;
+        delta[1] += lossDelta;
+    }
+
+    // Seeds a bucket from storage
+    public synchronized void load(long today, long day, int dayWins, int dayLosses) {
+        apply(today, day, dayWins, dayLosses);
+    }
+
+    public synchronized Window today(long today) {
+        advance(today);
+        int slot = slot(today);
+        return days[slot] == today ? new Window(wins[slot], losses[slot]) : new Window(0, 0);
+    }
+
+    public synchronized Window week(long today) {
+        advance(today);
+        return new Window(weekWins, weekLosses);
+    }
+
+    public synchronized Window month(long today) {
+        advance(today);
+        return new Window(monthWins, monthLosses);
+    }
+
+    public void touch(long now) {
+        lastUsed = now;
+    }
+
+    public long lastUsed() {
+        return lastUsed;
+    }
+
+    // Carries unwritten changes over to a copy freshly read from storage, which does not hold them yet
+    public synchronized void carryPendingTo(long today, RollingStats fresh) {
+        pending.forEach((day, delta) -> fresh.add(today, day, delta[0], delta[1]));
+        fresh.touch(lastUsed);
+    }
+
+    public synchronized boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    // Changes since the last call, as {day, win delta, loss delta}
+    public synchronized List<long[]> drainPending() {
+        List<long[]> deltas = new ArrayList<>(pending.size());
+        pending.forEach((day, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                deltas.add(new long[] { day, delta[0], delta[1] });
+            }
+        });
+        pending.clear();
+        return deltas;
+    }
+
+    // Puts back deltas that could not be written, to go out with the next flush
+    public synchronized void restorePending(List<long[]> deltas) {
+        for (long[] change : deltas) {
+            int[] delta = pending.computeIfAbsent(change[0], d -> new int[2]);
+            delta[0] += (int) change[1];
+            delta[1] += (int) change[2];
+        }
+    }
+
+    private void apply(long today, long day, int winDelta, int lossDelta) {
+        advance(today);
+        if (day > latestDay || day <= latestDay - DAYS) {
+            return; // outside the ring
+        }
+        int slot = slot(day);
+        if (days[slot] != day) {
+            days[slot] = day;
+            wins[slot] = 0;
+            losses[slot] = 0;
+        }
+        wins[slot] += winDelta;
+        losses[slot] += lossDelta;
+        monthWins += winDelta;
+        monthLosses += lossDelta;
+        if (day > latestDay - WEEK) {
+            weekWins += winDelta;
+            weekLosses += lossDelta;
+        }
+    }
+
+    // Moves the ring forward to today, dropping days that leave each window
+    private void advance(long today) {
+        if (today <= latestDay) {
+            return;
+        }
+        if (latestDay == Long.MIN_VALUE || today - latestDay >= DAYS) {
+            Arrays.fill(days, -1);
+            weekWins = weekLosses = monthWins = monthLosses = 0;
+            latestDay = today;
+            return;
+        }
+        for (long day = latestDay + 1; day <= today; day++) {
+            int leavingWeek = slot(day - WEEK);
+            if (days[leavingWeek] == day - WEEK) {
+                weekWins -= wins[leavingWeek];
+                weekLosses -= losses[leavingWeek];
+            }
+            // The slot for the new day still holds the day leaving the month
+            int slot = slot(day);
+            if (days[slot] != -1) {
+                monthWins -= wins[slot];
+                monthLosses -= losses[slot];
+            }
+            days[slot] = -1;
+        }
+        latestDay = today;
+    }
+
+    private static int slot(long day) {
+        return (int) Math.floorMod(day, (long) DAYS);
+    }
+
+    public record Window(int wins, int losses) {
+        public double winRate() {
+            int games = wins + losses;
+            return games == 0 ? 0 : (double) wins / games;
+        }
+    }
+}
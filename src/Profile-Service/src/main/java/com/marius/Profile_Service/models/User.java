@@ -1,6 +1,9 @@
 package com.marius.Profile_Service.models;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
 
 @Entity
 @Table(name = "users")
@@ -19,6 +22,19 @@ public class User {
     private int wins;
     private int losses;
 
+    // Positive for consecutive wins, negative for consecutive losses
+    @ColumnDefault("0")
+    private int currentStreak;
+
+    @ColumnDefault("0")
+    private int bestWinStreak;
+
+    // Set by a trigger (schema.sql) on every insert and update, including the ones made
+    // outside JPA; the ETL extracts changed users by it
+    @ColumnDefault("now()")
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private Instant updatedAt;
+
     public Long getId() {
         return id;
     }
@@ -66,4 +82,24 @@ public class User {
     public void setLosses(int losses) {
         this.losses = losses;
     }
+
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public void setCurrentStreak(int currentStreak) {
+        this.currentStreak = currentStreak;
+    }
+
+    public int getBestWinStreak() {
+        return bestWinStreak;
+    }
+
+    public void setBestWinStreak(int bestWinStreak) {
+        this.bestWinStreak = bestWinStreak;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
 }
\ No newline at end of file
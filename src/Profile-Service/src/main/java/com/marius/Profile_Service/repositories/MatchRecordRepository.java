@@ -0,0 +1,14 @@
+package com.marius.Profile_Service.repositories;
+
+import com.marius.Profile_Service.models.MatchRecord;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
+
+// Keyset pagination: each page is one range scan of the (username, id DESC) index,
+// starting just below the last id of the previous page, however deep the page is
+public interface MatchRecordRepository extends JpaRepository<MatchRecord, Long> {
+    List<MatchRecord> findByUsernameOrderByIdDesc(String username, Limit limit);
+
+    List<MatchRecord> findByUsernameAndIdLessThanOrderByIdDesc(String username, Long id, Limit limit);
+}
@@ -21,6 +21,9 @@ public class AuthService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RollingStatsService rollingStatsService;
+
     private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     private final Key signingKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
@@ -81,6 +84,8 @@ public class AuthService {
         clonedUser.setTotalGames(user.getTotalGames());
         clonedUser.setWins(user.getWins());
         clonedUser.setLosses(user.getLosses());
+        clonedUser.setCurrentStreak(user.getCurrentStreak());
+        clonedUser.setBestWinStreak(user.getBestWinStreak());
 
         rollbackLog.put(transactionId, clonedUser);
     }
@@ -90,12 +95,18 @@ public class AuthService {
             User originalState = rollbackLog.get(transactionId);
             userRepository.save(originalState);
             rollbackLog.remove(transactionId);
+            rollingStatsService.rollback(transactionId);
             return true;
         }
         return false;
     }
 
     public String updateUserStats(String username, String result) {
+        return updateUserStats(username, result, null);
+    }
+
+    // The transaction id lets a 2PC rollback take the result back out of the rolling stats
+    public String updateUserStats(String username, String result, String transactionId) {
         Optional<User> userOpt = userRepository.findByUsername(username);
         if (userOpt.isEmpty()) {
             throw new IllegalArgumentException("User not found.");
@@ -105,14 +116,18 @@ public class AuthService {
 
         if ("win".equals(result)) {
             user.setWins(user.getWins() + 1);
+            user.setCurrentStreak(Math.max(user.getCurrentStreak(), 0) + 1);
+            user.setBestWinStreak(Math.max(user.getBestWinStreak(), user.getCurrentStreak()));
         } else if ("loss".equals(result)) {
             user.setLosses(user.getLosses() + 1);
+            user.setCurrentStreak(Math.min(user.getCurrentStreak(), 0) - 1);
         } else {
             throw new IllegalArgumentException("Invalid result type.");
         }
 
         user.setTotalGames(user.getTotalGames() + 1);
         userRepository.save(user);
+        rollingStatsService.record(transactionId, username, result);
         return "User stats updated successfully";
     }
 }
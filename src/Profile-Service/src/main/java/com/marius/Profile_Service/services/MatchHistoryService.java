@@ -0,0 +1,69 @@
+package com.marius.Profile_Service.services;
+
+import com.marius.Profile_Service.models.MatchRecord;
+import com.marius.Profile_Service.repositories.MatchRecordRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+
+@Service
+public class MatchHistoryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Committed transactions are only remembered long enough for a late rollback
+    private static final int ROLLBACK_LOG_SIZE = 10_000;
+
+    @Autowired
+    private MatchRecordRepository matchRecordRepository;
+
+    private final Map<String, Long> rollbackLog = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    return size() > ROLLBACK_LOG_SIZE;
+                }
+            });
+
+    // Called from the 2PC commit once the user's stats are updated
+    public MatchRecord record(String transactionId, String username, String result, String gameId,
+            String opponent, int moves, long durationMs) {
+        MatchRecord record = new MatchRecord();
+        record.setUsername(username);
+        record.setResult(result);
+        record.setGameId(gameId);
+        record.setOpponent(opponent);
+        record.setMoves(moves);
+        record.setDurationMs(durationMs);
+        record.setFinishedAt(Instant.now());
+
+        MatchRecord saved = matchRecordRepository.save(record);
+        rollbackLog.put(transactionId, saved.getId());
+        return saved;
+    }
+
+    public boolean rollback(String transactionId) {
+        Long id = rollbackLog.remove(transactionId);
+        if (id == null) {
+            return false;
+        }
+        matchRecordRepository.deleteById(id);
+        return true;
+    }
+
+    // Newest first; pass the id of the last record of a page as `before` to get the next one
+    public List<MatchRecord> getHistory(String username, Long before, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (before == null) {
+            return matchRecordRepository.findByUsernameOrderByIdDesc(username, Limit.of(limit));
+        }
+        return matchRecordRepository.findByUsernameAndIdLessThanOrderByIdDesc(username, before, Limit.of(limit));
+    }
+}
@@ -0,0 +1,66 @@
+package com.marius.Profile_Service.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Full recomputation of the day buckets and streaks from match_history. The live path only
+// ever applies increments, so this is the repair job for when those drift (e.g. a lost flush);
+// it is never run on the request path.
+@Component
+@ConditionalOnProperty(name = "profile.stats.rebuild", havingValue = "true")
+public class RollingStatsRebuild implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(RollingStatsRebuild.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        jdbcTemplate.update("DELETE FROM user_daily_stats");
+        int buckets = jdbcTemplate.update("INSERT INTO user_daily_stats (username, day, wins, losses) "
+                + "SELECT username, floor(extract(epoch FROM finished_at) / 86400)::bigint, "
+                + "count(*) FILTER (WHERE result = 'win'), count(*) FILTER (WHERE result = 'loss') "
+                + "FROM match_history GROUP BY 1, 2");
+
+        // Streaks need the results in order, so they are folded over one sorted pass
+        List<Object[]> streaks = new ArrayList<>();
+        String[] username = { null };
+        int[] streak = new int[2]; // current, best
+        jdbcTemplate.query("SELECT username, result FROM match_history ORDER BY username, id", row -> {
+            String rowUser = row.getString("username");
+            if (!rowUser.equals(username[0])) {
+                if (username[0] != null) {
+                    streaks.add(new Object[] { streak[0], streak[1], username[0] });
+                }
+                username[0] = rowUser;
+                streak[0] = streak[1] = 0;
+            }
+            if ("win".equals(row.getString("result"))) {
+                streak[0] = Math.max(streak[0], 0) + 1;
+                streak[1] = Math.max(streak[1], streak[0]);
+            } else {
+                streak[0] = Math.min(streak[0], 0) - 1;
+            }
+        });
+        if (username[0] != null) {
+            streaks.add(new Object[] { streak[0], streak[1], username[0] });
+        }
+        jdbcTemplate.batchUpdate("UPDATE users SET current_streak = ?, best_win_streak = ? WHERE username = ?",
+                streaks);
+
+        log.info("Rebuilt {} rolling stats buckets and {} streaks; instances read them back within one flush interval",
+                buckets, streaks.size());
+    }
+}
@@ -0,0 +1,253 @@
+package com.marius.Profile_Service.services;
+
+import com.marius.Profile_Service.models.RollingStats;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Keeps each player's day buckets in memory, updated on every stats change, and adds the
+// changes to user_daily_stats in batches. Every instance writes deltas, so results recorded
+// on different instances all count. Cached players are re-read from the table in the
+// background, so windows include the other instances' results at most one refresh interval
+// late; players idle for longer than the idle limit, or the least recently used beyond the
+// size limit, are dropped once they have nothing left to write.
+@Service
+public class RollingStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(RollingStatsService.class);
+
+    private static final int ROLLBACK_LOG_SIZE = 10_000;
+
+    private static final int REFRESH_BATCH_SIZE = 500;
+
+    private static final String UPSERT_BUCKET = "INSERT INTO user_daily_stats (username, day, wins, losses) "
+            + "VALUES (?, ?, ?, ?) "
+            + "ON CONFLICT (username, day) DO UPDATE SET wins = user_daily_stats.wins + EXCLUDED.wins, "
+            + "losses = user_daily_stats.losses + EXCLUDED.losses";
+
+    private static final String SELECT_BUCKETS = "SELECT username, day, wins, losses FROM user_daily_stats "
+            + "WHERE username = ANY(?) AND day > ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${profile.stats.max-cached-players:100000}")
+    private int maxCachedPlayers = 100_000;
+
+    @Value("${profile.stats.idle-evict-ms:1800000}")
+    private long idleEvictMs = 1_800_000;
+
+    private final Map<String, RollingStats> stats = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    // transactionId -> {day, win delta, loss delta} and the user it applied to, for 2PC rollback
+    private final Map<String, Map.Entry<String, int[]>> rollbackLog = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Map.Entry<String, int[]>> eldest) {
+                    return size() > ROLLBACK_LOG_SIZE;
+                }
+            });
+
+    public void record(String transactionId, String username, String result) {
+        long today = today();
+        int win = "win".equals(result) ? 1 : 0;
+        int loss = "loss".equals(result) ? 1 : 0;
+
+        update(username, userStats -> userStats.add(today, today, win, loss));
+        if (transactionId != null) {
+            rollbackLog.put(transactionId, Map.entry(username, new int[] { (int) today, win, loss }));
+        }
+    }
+
+    public boolean rollback(String transactionId) {
+        Map.Entry<String, int[]> applied = rollbackLog.remove(transactionId);
+        if (applied == null) {
+            return false;
+        }
+        int[] change = applied.getValue();
+        update(applied.getKey(), userStats -> userStats.add(today(), change[0], -change[1], -change[2]));
+        return true;
+    }
+
+    // Loaded from the last 28 day rows when a player is not in memory
+    public RollingStats get(String username) {
+        RollingStats userStats = cached(username);
+        userStats.touch(System.nanoTime());
+        return userStats;
+    }
+
+    // The query runs outside the map, so a slow read never holds a bin lock other players hash to
+    private RollingStats cached(String username) {
+        RollingStats userStats = stats.get(username);
+        if (userStats == null) {
+            RollingStats loaded = load(username);
+            userStats = stats.putIfAbsent(username, loaded);
+            if (userStats == null) {
+                userStats = loaded;
+            }
+        }
+        return userStats;
+    }
+
+    // Changes go through compute, and only to the entry still in the map, so that an eviction or
+    // a refresh swapping the entry cannot lose them
+    private void update(String username, Consumer<RollingStats> change) {
+        boolean[] applied = new boolean[1];
+        while (!applied[0]) {
+            RollingStats current = cached(username);
+            stats.computeIfPresent(username, (name, userStats) -> {
+                if (userStats == current) {
+                    change.accept(userStats);
+                    userStats.touch(System.nanoTime());
+                    applied[0] = true;
+                }
+                return userStats;
+            });
+        }
+        dirty.add(username);
+    }
+
+    public static long today() {
+        return LocalDate.now(ZoneOffset.UTC).toEpochDay();
+    }
+
+    @Scheduled(fixedDelayString = "${profile.stats.flush-interval-ms:5000}")
+    @PreDestroy
+    public synchronized void flush() {
+        List<Object[]> rows = new ArrayList<>();
+        Map<String, List<long[]>> flushed = new HashMap<>();
+        for (Iterator<String> iterator = dirty.iterator(); iterator.hasNext();) {
+            String username = iterator.next();
+            iterator.remove();
+            RollingStats userStats = stats.get(username);
+            if (userStats == null) {
+                continue;
+            }
+            List<long[]> deltas = userStats.drainPending();
+            flushed.put(username, deltas);
+            for (long[] delta : deltas) {
+                rows.add(new Object[] { username, delta[0], (int) delta[1], (int) delta[2] });
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(UPSERT_BUCKET, rows);
+            } catch (RuntimeException e) {
+                // Put the deltas back so the next flush tries again
+                flushed.forEach((username, deltas) ->
+                        update(username, userStats -> userStats.restorePending(deltas)));
+                log.warn("Failed to flush rolling stats: {}", e.getMessage());
+                return;
+            }
+        }
+
+        evict();
+    }
+
+    // Re-reads every cached player, in batches, so that results recorded on other instances show
+    // up; shares the flush lock so that no deltas are written between a read and its swap
+    @Scheduled(fixedDelayString = "${profile.stats.refresh-interval-ms:60000}",
+            initialDelayString = "${profile.stats.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        List<String> usernames = new ArrayList<>(stats.keySet());
+        for (int from = 0; from < usernames.size(); from += REFRESH_BATCH_SIZE) {
+            List<String> batch = usernames.subList(from, Math.min(from + REFRESH_BATCH_SIZE, usernames.size()));
+            Map<String, RollingStats> stale = new HashMap<>();
+            for (String username : batch) {
+                RollingStats userStats = stats.get(username);
+                if (userStats != null) {
+                    stale.put(username, userStats);
+                }
+            }
+            Map<String, RollingStats> fresh;
+            try {
+                fresh = loadAll(stale.keySet());
+            } catch (RuntimeException e) {
+                log.warn("Failed to refresh rolling stats: {}", e.getMessage());
+                return;
+            }
+            long today = today();
+            stale.forEach((username, previous) -> stats.computeIfPresent(username, (name, userStats) -> {
+                if (userStats != previous) {
+                    return userStats; // evicted and read back since, so already fresh
+                }
+                RollingStats reloaded = fresh.get(username);
+                // Changes made since the read are not stored yet, so they go on top of it
+                previous.carryPendingTo(today, reloaded);
+                return reloaded;
+            }));
+        }
+    }
+
+    // Drops players that have nothing left to write and have gone idle, then the least recently
+    // used of them while the cache is over its size limit
+    private void evict() {
+        long idleBefore = System.nanoTime() - idleEvictMs * 1_000_000;
+        for (String username : stats.keySet()) {
+            stats.computeIfPresent(username, (name, userStats) ->
+                    !userStats.hasPending() && userStats.lastUsed() - idleBefore < 0 ? null : userStats);
+        }
+        int excess = stats.size() - maxCachedPlayers;
+        if (excess <= 0) {
+            return;
+        }
+        List<Map.Entry<String, RollingStats>> byUse = new ArrayList<>(stats.entrySet());
+        byUse.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed()));
+        for (Map.Entry<String, RollingStats> entry : byUse) {
+            if (excess <= 0) {
+                break;
+            }
+            boolean[] removed = new boolean[1];
+            stats.computeIfPresent(entry.getKey(), (name, userStats) -> {
+                removed[0] = userStats == entry.getValue() && !userStats.hasPending();
+                return removed[0] ? null : userStats;
+            });
+            if (removed[0]) {
+                excess--;
+            }
+        }
+    }
+
+    private Map<String, RollingStats> loadAll(Collection<String> usernames) {
+        Map<String, RollingStats> loaded = new HashMap<>();
+        long today = today();
+        for (String username : usernames) {
+            loaded.put(username, new RollingStats(username));
+        }
+        jdbcTemplate.query(SELECT_BUCKETS,
+                row -> {
+                    RollingStats userStats = loaded.get(row.getString("username"));
+                    if (userStats != null) {
+                        userStats.load(today, row.getLong("day"), row.getInt("wins"), row.getInt("losses"));
+                    }
+                },
+                usernames.toArray(new String[0]), today - RollingStats.DAYS);
+        return loaded;
+    }
+
+    private RollingStats load(String username) {
+        RollingStats userStats = new RollingStats(username);
+        long today = today();
+        jdbcTemplate.query("SELECT day, wins, losses FROM user_daily_stats WHERE username = ? AND day > ?",
+                row -> {
+                    userStats.load(today, row.getLong("day"), row.getInt("wins"), row.getInt("losses"));
+                },
+                username, today - RollingStats.DAYS);
+        userStats.touch(System.nanoTime());
+        return userStats;
+    }
+}
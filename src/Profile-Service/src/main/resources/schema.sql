@@ -0,0 +1,28 @@
+-- Covering index for keyset-paginated match history: a page is one range scan on
+-- (username, id DESC), and INCLUDE lets Postgres answer it from the index alone.
+CREATE INDEX IF NOT EXISTS match_history_username_id
+    ON match_history (username, id DESC)
+    INCLUDE (game_id, opponent, result, moves, duration_ms, finished_at);
+
+-- Per-day result buckets behind the rolling stats; the primary key makes loading a
+-- player's last 28 days one range scan and lets flushes upsert a bucket in place.
+CREATE TABLE IF NOT EXISTS user_daily_stats (
+    username varchar(255) NOT NULL,
+    day bigint NOT NULL,
+    wins integer NOT NULL DEFAULT 0,
+    losses integer NOT NULL DEFAULT 0,
+    PRIMARY KEY (username, day)
+);
+
+-- users.updated_at is the ETL watermark. A trigger stamps it, so the JDBC updates
+-- that bypass JPA move it too; clock_timestamp() rather than now(), which is fixed
+-- at the start of the transaction and could fall behind a watermark already read.
+CREATE OR REPLACE FUNCTION touch_updated_at() RETURNS trigger LANGUAGE plpgsql AS
+'BEGIN NEW.updated_at := clock_timestamp(); RETURN NEW; END';
+
+DROP TRIGGER IF EXISTS users_updated_at ON users;
+CREATE TRIGGER users_updated_at BEFORE INSERT OR UPDATE ON users
+    FOR EACH ROW EXECUTE FUNCTION touch_updated_at();
+
+-- Incremental extraction walks users in (updated_at, username) order
+CREATE INDEX IF NOT EXISTS users_updated_at_username ON users (updated_at, username);
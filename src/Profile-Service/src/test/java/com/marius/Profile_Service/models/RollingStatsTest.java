@@ -0,0 +1,79 @@
+package com.marius.Profile_Service.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RollingStatsTest {
+
+    private static final long DAY = 20_000;
+
+    @Test
+    void windowsSumTheirDays() {
+        RollingStats stats = new RollingStats("alice");
+        stats.add(DAY, DAY, 1, 0);
+        stats.add(DAY, DAY, 0, 1);
+        stats.add(DAY, DAY - 6, 2, 0);  // last day of the week
+        stats.add(DAY, DAY - 7, 0, 3);  // first day outside it
+        stats.add(DAY, DAY - 27, 4, 0); // last day of the month
+        stats.add(DAY, DAY - 28, 5, 5); // outside the ring
+
+        assertEquals(new RollingStats.Window(1, 1), stats.today(DAY));
+        assertEquals(new RollingStats.Window(3, 1), stats.week(DAY));
+        assertEquals(new RollingStats.Window(7, 4), stats.month(DAY));
+    }
+
+    @Test
+    void daysLeaveEachWindowAsTheRingAdvances() {
+        RollingStats stats = new RollingStats("alice");
+        for (int i = 0; i < RollingStats.DAYS; i++) {
+            stats.load(DAY + i, DAY + i, 1, 0); // one win a day for four weeks
+        }
+        long last = DAY + RollingStats.DAYS - 1;
+        assertEquals(new RollingStats.Window(7, 0), stats.week(last));
+        assertEquals(new RollingStats.Window(28, 0), stats.month(last));
+
+        // Three quiet days: three days drop out of each window, and today is empty
+        assertEquals(new RollingStats.Window(4, 0), stats.week(last + 3));
+        assertEquals(new RollingStats.Window(25, 0), stats.month(last + 3));
+        assertEquals(new RollingStats.Window(0, 0), stats.today(last + 3));
+
+        // A slot reused for a new day starts from zero
+        stats.add(last + 3, last + 3, 0, 2);
+        assertEquals(new RollingStats.Window(0, 2), stats.today(last + 3));
+        assertEquals(new RollingStats.Window(25, 2), stats.month(last + 3));
+
+        // After a full month without results, everything is gone
+        assertEquals(new RollingStats.Window(0, 0), stats.month(last + 3 + RollingStats.DAYS));
+        assertEquals(new RollingStats.Window(0, 0), stats.week(last + 3 + RollingStats.DAYS));
+    }
+
+    @Test
+    void changesAreDrainedAsDeltasAndLoadsAreNot() {
+        RollingStats stats = new RollingStats("alice");
+        stats.load(DAY, DAY, 10, 10);
+        assertFalse(stats.hasPending());
+
+        stats.add(DAY, DAY, 1, 0);
+        stats.add(DAY, DAY, 1, 0);
+        stats.add(DAY, DAY - 1, 0, 1);
+        stats.add(DAY, DAY - 1, 0, -1); // taken back: nothing to write for that day
+        assertTrue(stats.hasPending());
+
+        List<long[]> deltas = stats.drainPending();
+        assertEquals(1, deltas.size());
+        assertArrayEquals(new long[] { DAY, 2, 0 }, deltas.get(0));
+        assertFalse(stats.hasPending());
+        assertEquals(new RollingStats.Window(12, 10), stats.today(DAY));
+
+        // A failed write puts the deltas back, merged with anything recorded since
+        stats.add(DAY, DAY, 0, 1);
+        stats.restorePending(deltas);
+        assertArrayEquals(new long[] { DAY, 2, 1 }, stats.drainPending().get(0));
+    }
+}
@@ -0,0 +1,176 @@
+package com.marius.Profile_Service.services;
+
+import com.marius.Profile_Service.models.RollingStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Two instances sharing one user_daily_stats table
+class RollingStatsServiceTest {
+
+    private final DailyStatsTable table = new DailyStatsTable();
+    private final RollingStatsService first = service(table);
+    private final RollingStatsService second = service(table);
+
+    @Test
+    void resultsFromEveryInstanceAddUp() {
+        long today = RollingStatsService.today();
+        first.get("alice");
+        second.get("alice"); // both instances hold alice before either writes
+
+        first.record("tx-1", "alice", "win");
+        second.record("tx-2", "alice", "win");
+        second.record("tx-3", "alice", "loss");
+        first.flush();
+        second.flush();
+
+        assertEquals(List.of(2, 1), table.bucket("alice", today));
+        assertTrue(table.lastSql.contains("wins = user_daily_stats.wins + EXCLUDED.wins"));
+        // Each instance reads the other's results back on its next refresh
+        first.refresh();
+        second.refresh();
+        assertEquals(new RollingStats.Window(2, 1), first.get("alice").week(today));
+        assertEquals(new RollingStats.Window(2, 1), second.get("alice").week(today));
+    }
+
+    @Test
+    void aRollbackIsWrittenAsANegativeDelta() {
+        long today = RollingStatsService.today();
+        first.record("tx-1", "bob", "win");
+        first.flush();
+        assertTrue(first.rollback("tx-1"));
+        first.flush();
+
+        assertEquals(List.of(0, 0), table.bucket("bob", today));
+        assertEquals(new RollingStats.Window(0, 0), first.get("bob").today(today));
+    }
+
+    @Test
+    void deltasFromAFailedFlushGoOutWithTheNextOne() {
+        long today = RollingStatsService.today();
+        first.record(null, "carol", "win");
+        table.failing = true;
+        first.flush();
+        first.record(null, "carol", "win");
+        table.failing = false;
+        first.flush();
+
+        assertEquals(List.of(2, 0), table.bucket("carol", today));
+        assertEquals(new RollingStats.Window(2, 0), first.get("carol").today(today));
+    }
+
+    @Test
+    void aCachedPlayerIsNotReadAgainAfterAFlush() {
+        long today = RollingStatsService.today();
+        first.record(null, "dave", "win");
+        first.flush();
+        first.record(null, "dave", "win");
+        first.flush();
+        first.get("dave").week(today);
+
+        assertEquals(1, table.queries.get());
+    }
+
+    @Test
+    void changesMadeBeforeARefreshAreKeptOnTopOfTheStoredBuckets() {
+        long today = RollingStatsService.today();
+        first.record(null, "erin", "win");
+        first.flush();
+        second.record(null, "erin", "loss");
+        second.flush();
+        first.record(null, "erin", "win");
+
+        first.refresh();
+        assertEquals(new RollingStats.Window(2, 1), first.get("erin").today(today));
+        first.flush();
+        assertEquals(List.of(2, 1), table.bucket("erin", today));
+    }
+
+    @Test
+    void onlyPlayersWithNothingToWriteAreDroppedOverTheSizeLimit() {
+        ReflectionTestUtils.setField(first, "maxCachedPlayers", 1);
+        first.get("frank");
+        first.record(null, "grace", "win");
+        table.failing = true;
+        first.flush(); // grace still has a change to write
+        first.get("heidi");
+        table.failing = false;
+        first.flush();
+
+        Map<?, ?> cached = (Map<?, ?>) ReflectionTestUtils.getField(first, "stats");
+        assertEquals(Set.of("heidi"), cached.keySet());
+        assertEquals(List.of(1, 0), table.bucket("grace", RollingStatsService.today()));
+    }
+
+    private static RollingStatsService service(JdbcTemplate jdbcTemplate) {
+        RollingStatsService service = new RollingStatsService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        return service;
+    }
+
+    // Applies the upsert as Postgres would for the additive statement, and serves the load queries
+    private static final class DailyStatsTable extends JdbcTemplate {
+
+        private final Map<String, int[]> rows = new ConcurrentHashMap<>();
+        private volatile boolean failing;
+        private volatile String lastSql;
+        private final AtomicInteger queries = new AtomicInteger();
+
+        List<Integer> bucket(String username, long day) {
+            int[] row = rows.getOrDefault(username + "/" + day, new int[2]);
+            return List.of(row[0], row[1]);
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            if (failing) {
+                throw new DataAccessResourceFailureException("Connection refused");
+            }
+            lastSql = sql;
+            for (Object[] args : batchArgs) {
+                int[] row = rows.computeIfAbsent(args[0] + "/" + args[1], key -> new int[2]);
+                row[0] += (Integer) args[2];
+                row[1] += (Integer) args[3];
+            }
+            return new int[batchArgs.size()];
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler handler, Object... args) {
+            queries.incrementAndGet();
+            List<String> usernames = args[0] instanceof String[] batch ? List.of(batch) : List.of((String) args[0]);
+            long after = (Long) args[1];
+            rows.forEach((key, row) -> {
+                String[] parts = key.split("/");
+                long day = Long.parseLong(parts[1]);
+                if (usernames.contains(parts[0]) && day > after) {
+                    try {
+                        ResultSet result = mock(ResultSet.class);
+                        when(result.getString("username")).thenReturn(parts[0]);
+                        when(result.getLong("day")).thenReturn(day);
+                        when(result.getInt("wins")).thenReturn(row[0]);
+                        when(result.getInt("losses")).thenReturn(row[1]);
+                        handler.processRow(result);
+                    } catch (SQLException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.marius.commons.discovery;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.context.annotation.Import;
+
+// Registration, peer lookup and the shared outbound client for any service with this module
+// on its classpath; configured through the discovery.* and outbound.http.* properties
+@AutoConfiguration
+@Import({ OutboundHttpConfig.class, PeerDirectory.class, ServiceRegistration.class })
+public class DiscoveryAutoConfiguration {
+}
@@ -0,0 +1,39 @@
+package com.marius.commons.discovery;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+// One HTTP client for every outbound call. java.net.http keeps connections alive and pools
+// them per host, so calls to the registry and to peers reuse connections instead of
+// opening one per request. Services add behaviour to every call (e.g. trace propagation)
+// by declaring ClientHttpRequestInterceptor beans.
+@Configuration
+public class OutboundHttpConfig {
+
+    @Bean
+    public HttpClient outboundHttpClient(@Value("${outbound.http.connect-timeout-ms:2000}") long connectTimeoutMs) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(HttpClient outboundHttpClient,
+            @Value("${outbound.http.read-timeout-ms:5000}") long readTimeoutMs,
+            ObjectProvider<ClientHttpRequestInterceptor> interceptors) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(outboundHttpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        interceptors.orderedStream().forEach(restTemplate.getInterceptors()::add);
+        return restTemplate;
+    }
+}
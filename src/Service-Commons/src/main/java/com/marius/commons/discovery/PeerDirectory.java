@@ -0,0 +1,150 @@
+package com.marius.commons.discovery;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local cache of peer addresses from the discovery service, with client-side
+ * round-robin load balancing. A service is looked up once, on first use, and
+ * refreshed in the background after that, so calls never wait on the
+ * registry. When a refresh fails the last known addresses stay in use.
+ * Callers report failed addresses, which are skipped for a while, and
+ * instances that report themselves full are skipped while others have room.
+ */
+@Component
+public class PeerDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(PeerDirectory.class);
+
+    private final RestTemplate restTemplate;
+    private final String lookupUrl;
+    private final long ejectionMs;
+    private final Map<String, Peers> services = new ConcurrentHashMap<>();
+    private final Map<String, Long> ejectedUntil = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "discovery-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PeerDirectory(RestTemplate restTemplate,
+            @Value("${discovery.url:http://service-discovery:4000}") String discoveryUrl,
+            @Value("${discovery.refresh-interval-ms:10000}") long refreshMs,
+            @Value("${discovery.ejection-ms:30000}") long ejectionMs) {
+        this.restTemplate = restTemplate;
+        this.lookupUrl = discoveryUrl + "/lookup/";
+        this.ejectionMs = ejectionMs;
+        refresher.scheduleWithFixedDelay(this::refreshAll, refreshMs, refreshMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Loads are the scores instances reported with their registration, where known
+    private record Peers(List<String> addresses, Map<String, Double> loads, AtomicInteger next) {
+    }
+
+    // Base address of one instance of the service, e.g. "http://profile-service:8082"
+    public String choose(String serviceName) {
+        Peers peers = peers(serviceName);
+        List<String> addresses = peers.addresses();
+        if (addresses.isEmpty()) {
+            throw new IllegalStateException("No instances of " + serviceName + " are registered");
+        }
+
+        long now = System.currentTimeMillis();
+        int start = peers.next().getAndIncrement();
+        for (int i = 0; i < addresses.size(); i++) {
+            String address = addresses.get(Math.floorMod(start + i, addresses.size()));
+            if (isAvailable(address, now) && peers.loads().getOrDefault(address, 0.0) < 1) {
+                return address;
+            }
+        }
+        // Every instance failed recently or is full; trying one beats failing outright
+        return addresses.get(Math.floorMod(start, addresses.size()));
+    }
+
+    // The instance with the most room, other than the given one, if any has room left
+    public Optional<String> leastLoaded(String serviceName, String exclude) {
+        Peers peers = peers(serviceName);
+        long now = System.currentTimeMillis();
+        return peers.addresses().stream()
+                .filter(address -> !address.equals(exclude) && isAvailable(address, now))
+                .filter(address -> peers.loads().getOrDefault(address, 0.0) < 1)
+                .min(Comparator.comparingDouble(address -> peers.loads().getOrDefault(address, 0.0)));
+    }
+
+    public String resolve(String serviceName, String path) {
+        return choose(serviceName) + path;
+    }
+
+    public void reportFailure(String address) {
+        ejectedUntil.put(address, System.currentTimeMillis() + ejectionMs);
+    }
+
+    private Peers peers(String serviceName) {
+        Peers peers = services.get(serviceName);
+        if (peers == null) {
+            // Looked up outside the map, so a slow registry only holds up callers of this service
+            Peers found = lookup(serviceName, new AtomicInteger());
+            peers = services.putIfAbsent(serviceName, found);
+            peers = peers != null ? peers : found;
+        }
+        return peers;
+    }
+
+    private boolean isAvailable(String address, long now) {
+        Long until = ejectedUntil.get(address);
+        return until == null || until <= now;
+    }
+
+    private Peers lookup(String serviceName, AtomicInteger next) {
+        try {
+            Map<?, ?> response = restTemplate.getForObject(lookupUrl + serviceName, Map.class);
+            Object addresses = response != null ? response.get("serviceAddresses") : null;
+            if (addresses instanceof List<?> list) {
+                Map<String, Double> loads = new HashMap<>();
+                if (response.get("loads") instanceof Map<?, ?> reported) {
+                    reported.forEach((address, load) -> {
+                        if (load instanceof Number number) {
+                            loads.put(String.valueOf(address), number.doubleValue());
+                        }
+                    });
+                }
+                // The registry may list an instance more than once
+                return new Peers(list.stream().map(String::valueOf).distinct().toList(), loads, next);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to look up {}: {}", serviceName, e.getMessage());
+        }
+        return new Peers(List.of(), Map.of(), next);
+    }
+
+    private void refreshAll() {
+        for (Map.Entry<String, Peers> entry : services.entrySet()) {
+            Peers peers = lookup(entry.getKey(), entry.getValue().next());
+            if (!peers.addresses().isEmpty()) {
+                entry.setValue(peers);
+            }
+        }
+        long now = System.currentTimeMillis();
+        ejectedUntil.values().removeIf(until -> until <= now);
+    }
+
+    @PreDestroy
+    public void stop() {
+        refresher.shutdownNow();
+    }
+}
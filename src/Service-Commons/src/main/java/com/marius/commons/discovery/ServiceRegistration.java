@@ -0,0 +1,127 @@
+package com.marius.commons.discovery;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps this instance registered with the discovery service. Registration is
+ * repeated as a heartbeat, so an instance reappears after the registry
+ * restarts or loses its data. Failures back off exponentially up to the
+ * heartbeat interval; every delay is jittered so a fleet of instances does
+ * not hit the registry in lockstep.
+ *
+ * An instance that tracks its capacity reports a load score with every
+ * registration (0 idle, 1 full) so callers can weight their routing; a large
+ * change is sent straight away instead of waiting for the next heartbeat.
+ */
+@Component
+public class ServiceRegistration {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceRegistration.class);
+
+    private static final long INITIAL_BACKOFF_MS = 500;
+    private static final double LOAD_REPORT_STEP = 0.1;
+
+    private final RestTemplate restTemplate;
+    private final String registerUrl;
+    private final long heartbeatMs;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "discovery-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Map<String, String> registration;
+    private volatile boolean registered;
+    private volatile double load = -1; // not reported until known
+    private volatile double reportedLoad = -1;
+    private int failures;
+
+    public ServiceRegistration(RestTemplate restTemplate,
+            @Value("${discovery.url:http://service-discovery:4000}") String discoveryUrl,
+            @Value("${discovery.heartbeat-interval-ms:15000}") long heartbeatMs) {
+        this.restTemplate = restTemplate;
+        this.registerUrl = discoveryUrl + "/register";
+        this.heartbeatMs = heartbeatMs;
+    }
+
+    public void start(String serviceName, String serviceAddress) {
+        registration = Map.of("serviceName", serviceName, "serviceAddress", serviceAddress);
+        scheduler.execute(this::heartbeat);
+    }
+
+    public boolean isRegistered() {
+        return registered;
+    }
+
+    // This instance's address as registered, or null before start
+    public String getServiceAddress() {
+        Map<String, String> current = registration;
+        return current == null ? null : current.get("serviceAddress");
+    }
+
+    public void reportLoad(double load) {
+        this.load = load;
+        if (registered && Math.abs(load - reportedLoad) >= LOAD_REPORT_STEP) {
+            scheduler.execute(() -> {
+                try {
+                    register();
+                } catch (Exception e) {
+                    // The next heartbeat carries the load anyway
+                }
+            });
+        }
+    }
+
+    private void heartbeat() {
+        long delay;
+        try {
+            register();
+            if (!registered) {
+                log.info("{} registered successfully at {}", registration.get("serviceName"),
+                        registration.get("serviceAddress"));
+            }
+            registered = true;
+            failures = 0;
+            delay = jitter(heartbeatMs);
+        } catch (Exception e) {
+            registered = false;
+            failures++;
+            log.warn("Failed to register {} (attempt {}): {}", registration.get("serviceName"), failures,
+                    e.getMessage());
+            delay = jitter(Math.min(heartbeatMs, INITIAL_BACKOFF_MS << Math.min(failures - 1, 20)));
+        }
+        scheduler.schedule(this::heartbeat, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void register() {
+        double current = load;
+        Map<String, Object> body = new HashMap<>(registration);
+        if (current >= 0) {
+            body.put("load", Math.round(current * 100) / 100.0);
+        }
+        restTemplate.postForEntity(registerUrl, body, String.class);
+        reportedLoad = current;
+    }
+
+    // Somewhere between half and all of the delay
+    private static long jitter(long delayMs) {
+        return delayMs / 2 + ThreadLocalRandom.current().nextLong(delayMs / 2 + 1);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+}
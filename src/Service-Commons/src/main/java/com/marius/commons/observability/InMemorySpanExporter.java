@@ -0,0 +1,23 @@
+package com.marius.commons.observability;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Keeps ended spans in memory, in the order they ended; for tests and local debugging
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final List<Span> spans = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void export(Span span) {
+        spans.add(span);
+    }
+
+    public List<Span> getSpans() {
+        return List.copyOf(spans);
+    }
+
+    public void reset() {
+        spans.clear();
+    }
+}
@@ -0,0 +1,32 @@
+package com.marius.commons.observability;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+
+import java.util.Map;
+
+// Writes each span as one structured event on the "tracing" logger, which the JSON
+// appender turns into a line a log shipper can forward to the tracing backend
+public class LoggingSpanExporter implements SpanExporter {
+
+    private static final Logger log = LoggerFactory.getLogger("tracing");
+
+    @Override
+    public void export(Span span) {
+        LoggingEventBuilder event = log.atInfo()
+                .setMessage(span.getName())
+                .addKeyValue("traceId", span.getContext().traceId())
+                .addKeyValue("spanId", span.getContext().spanId())
+                .addKeyValue("parentSpanId", span.getParentSpanId())
+                .addKeyValue("startMicros", span.getStartEpochMicros())
+                .addKeyValue("durationMicros", span.getDurationNanos() / 1000);
+        for (Map.Entry<String, Object> attribute : span.getAttributes().entrySet()) {
+            event.addKeyValue(attribute.getKey(), attribute.getValue());
+        }
+        if (span.getError() != null) {
+            event.addKeyValue("error", span.getError().toString());
+        }
+        event.log();
+    }
+}
@@ -0,0 +1,11 @@
+package com.marius.commons.observability;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.context.annotation.Import;
+
+// Tracing for any service with this module on its classpath: spans for incoming requests,
+// repository calls and outbound calls, configured through the observability.* properties
+@AutoConfiguration
+@Import({ ObservabilityConfig.class, Tracer.class, TracingFilter.class })
+public class ObservabilityAutoConfiguration {
+}
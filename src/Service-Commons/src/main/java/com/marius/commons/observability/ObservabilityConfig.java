@@ -0,0 +1,57 @@
+package com.marius.commons.observability;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ObservabilityConfig {
+
+    // log writes spans to the "tracing" logger, memory keeps them for tests, none drops them
+    @Bean
+    public SpanExporter spanExporter(@Value("${observability.tracing.exporter:log}") String exporter) {
+        return switch (exporter) {
+            case "log" -> new LoggingSpanExporter();
+            case "memory" -> new InMemorySpanExporter();
+            case "none" -> span -> { };
+            default -> throw new IllegalArgumentException("Unknown span exporter: " + exporter);
+        };
+    }
+
+    // Calls made inside a span carry its trace to the service being called
+    @Bean
+    public ClientHttpRequestInterceptor tracePropagation(Tracer tracer) {
+        return (request, body, execution) -> {
+            TraceContext context = tracer.currentContext();
+            if (context != null) {
+                request.getHeaders().set(TraceContext.HEADER, context.traceparent());
+            }
+            return execution.execute(request, body);
+        };
+    }
+
+    // A span for every repository method call, recorded once the call returns
+    @Bean
+    public static BeanPostProcessor repositoryTracing(ObjectProvider<Tracer> tracer) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repository) {
+                    repository.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(invocation ->
+                            tracer.getObject().record(
+                                    "repository " + invocation.getRepositoryInterface().getSimpleName()
+                                            + '.' + invocation.getMethod().getName(),
+                                    invocation.getDuration(TimeUnit.NANOSECONDS),
+                                    invocation.getResult() == null ? null : invocation.getResult().getError())));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.marius.commons.observability;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps a random fraction of the INFO and lower log calls of chosen categories,
+ * configured in logback as repeated {@code <sample>category=rate</sample>}; the
+ * longest matching category wins. The decision is made before the event is
+ * built, so a dropped call costs a map lookup and a random number. Warnings
+ * and errors are never sampled out.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final Map<String, Double> rates = new ConcurrentHashMap<>(); // configured categories
+    private final Map<String, Double> resolved = new ConcurrentHashMap<>(); // by logger name
+
+    public void addSample(String spec) {
+        int equals = spec.indexOf('=');
+        if (equals < 1) {
+            throw new IllegalArgumentException("Log sample must be <category>=<rate>: " + spec);
+        }
+        double rate = Double.parseDouble(spec.substring(equals + 1).trim());
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Log sample rate must be between 0 and 1: " + spec);
+        }
+        rates.put(spec.substring(0, equals).trim(), rate);
+        resolved.clear();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+            Throwable t) {
+        if (level == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        double rate = resolved.computeIfAbsent(logger.getName(), this::rateFor);
+        if (rate >= 1 || rate > 0 && ThreadLocalRandom.current().nextDouble() < rate) {
+            return FilterReply.NEUTRAL;
+        }
+        return FilterReply.DENY;
+    }
+
+    private double rateFor(String loggerName) {
+        String category = loggerName;
+        while (true) {
+            Double rate = rates.get(category);
+            if (rate != null) {
+                return rate;
+            }
+            int dot = category.lastIndexOf('.');
+            if (dot < 0) {
+                return 1;
+            }
+            category = category.substring(0, dot);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.marius.commons.observability;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One timed operation in a trace. Spans are opened with the {@link Tracer}
+ * and closed with try-with-resources; a span in a trace that is not sampled
+ * still carries the context downstream but keeps no attributes and is never
+ * exported.
+ */
+public final class Span implements AutoCloseable {
+
+    private final Tracer tracer;
+    private final String name;
+    private final TraceContext context;
+    private final String parentSpanId;
+    private final Span previous; // the span that was current on this thread before, if bound
+    private final boolean bound;
+    private final long startEpochMicros;
+    private final long startNanos;
+    private Map<String, Object> attributes;
+    private Throwable error;
+    private long durationNanos = -1;
+
+    Span(Tracer tracer, String name, TraceContext context, String parentSpanId, Span previous, boolean bound,
+            long startEpochMicros, long startNanos) {
+        this.tracer = tracer;
+        this.name = name;
+        this.context = context;
+        this.parentSpanId = parentSpanId;
+        this.previous = previous;
+        this.bound = bound;
+        this.startEpochMicros = startEpochMicros;
+        this.startNanos = startNanos;
+    }
+
+    public Span setAttribute(String key, Object value) {
+        if (context.sampled() && value != null) {
+            if (attributes == null) {
+                attributes = new LinkedHashMap<>();
+            }
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    public Span recordError(Throwable error) {
+        this.error = error;
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (durationNanos < 0) {
+            durationNanos = System.nanoTime() - startNanos;
+            tracer.ended(this);
+        }
+    }
+
+    void end(long durationNanos) {
+        this.durationNanos = durationNanos;
+        tracer.ended(this);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public TraceContext getContext() {
+        return context;
+    }
+
+    // Null for the root span of a trace
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public long getStartEpochMicros() {
+        return startEpochMicros;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public Map<String, Object> getAttributes() {
+        return attributes == null ? Map.of() : Collections.unmodifiableMap(attributes);
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    Span previous() {
+        return previous;
+    }
+
+    boolean isBound() {
+        return bound;
+    }
+}
@@ -0,0 +1,8 @@
+package com.marius.commons.observability;
+
+// Receives every sampled span once it has ended
+@FunctionalInterface
+public interface SpanExporter {
+
+    void export(Span span);
+}
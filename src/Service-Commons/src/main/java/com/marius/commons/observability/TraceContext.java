@@ -0,0 +1,77 @@
+package com.marius.commons.observability;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The identity of a span as carried between services in a W3C
+ * {@code traceparent} header: {@code 00-<trace id>-<span id>-<flags>}, where
+ * the only flag used is "sampled". The sampling decision is made once, where
+ * the trace starts, and every service downstream follows it.
+ */
+public record TraceContext(String traceId, String spanId, boolean sampled) {
+
+    public static final String HEADER = "traceparent";
+
+    private static final String INVALID_TRACE_ID = "00000000000000000000000000000000";
+    private static final String INVALID_SPAN_ID = "0000000000000000";
+
+    // The start of a new trace
+    public static TraceContext root(boolean sampled) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new TraceContext(hex(random.nextLong()) + hex(nonZero(random)), hex(nonZero(random)), sampled);
+    }
+
+    // A new span in the same trace, following the same sampling decision
+    public TraceContext child() {
+        return new TraceContext(traceId, hex(nonZero(ThreadLocalRandom.current())), sampled);
+    }
+
+    // Null if the header is missing or malformed, in which case a new trace is started
+    public static TraceContext parse(String traceparent) {
+        if (traceparent == null || traceparent.length() != 55
+                || traceparent.charAt(2) != '-' || traceparent.charAt(35) != '-' || traceparent.charAt(52) != '-'
+                || !isHex(traceparent, 0, 2) || traceparent.startsWith("ff")
+                || !isHex(traceparent, 3, 35) || !isHex(traceparent, 36, 52) || !isHex(traceparent, 53, 55)) {
+            return null;
+        }
+        String traceId = traceparent.substring(3, 35);
+        String spanId = traceparent.substring(36, 52);
+        if (traceId.equals(INVALID_TRACE_ID) || spanId.equals(INVALID_SPAN_ID)) {
+            return null;
+        }
+        boolean sampled = (Character.digit(traceparent.charAt(54), 16) & 1) != 0;
+        return new TraceContext(traceId, spanId, sampled);
+    }
+
+    public String traceparent() {
+        return "00-" + traceId + '-' + spanId + (sampled ? "-01" : "-00");
+    }
+
+    private static long nonZero(ThreadLocalRandom random) {
+        long value;
+        do {
+            value = random.nextLong();
+        } while (value == 0);
+        return value;
+    }
+
+    private static boolean isHex(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Sixteen lowercase hex digits, zero padded
+    private static String hex(long value) {
+        char[] digits = new char[16];
+        for (int i = 15; i >= 0; i--) {
+            digits[i] = Character.forDigit((int) (value & 0xf), 16);
+            value >>>= 4;
+        }
+        return new String(digits);
+    }
+}
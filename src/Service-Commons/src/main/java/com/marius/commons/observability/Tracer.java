@@ -0,0 +1,123 @@
+package com.marius.commons.observability;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts spans and keeps track of the current one on each thread. A trace is
+ * sampled where it starts, at {@code observability.tracing.sample-rate}, unless
+ * it arrives with a {@code traceparent} whose decision is then followed, so a
+ * trace is either recorded in every service or in none. Unsampled spans cost a
+ * couple of ids and no allocation beyond that; only sampled ones reach the
+ * exporter. The current trace and span ids are put in the logging MDC so log
+ * lines can be matched to traces.
+ */
+@Component
+public class Tracer {
+
+    public static final String TRACE_ID_KEY = "traceId";
+    public static final String SPAN_ID_KEY = "spanId";
+
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    private final SpanExporter exporter;
+    private final double sampleRate;
+
+    public Tracer(SpanExporter exporter, @Value("${observability.tracing.sample-rate:0.1}") double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1: " + sampleRate);
+        }
+        this.exporter = exporter;
+        this.sampleRate = sampleRate;
+    }
+
+    // A child of the current span, or the root of a new trace
+    public Span start(String name) {
+        return start(name, null);
+    }
+
+    // As above; with no current span, continues the remote trace if there is one
+    public Span start(String name, TraceContext remoteParent) {
+        Span parent = current.get();
+        TraceContext context;
+        String parentSpanId = null;
+        if (parent != null) {
+            context = parent.getContext().child();
+            parentSpanId = parent.getContext().spanId();
+        } else if (remoteParent != null) {
+            context = remoteParent.child();
+            parentSpanId = remoteParent.spanId();
+        } else {
+            context = TraceContext.root(sample());
+        }
+        Span span = new Span(this, name, context, parentSpanId, parent, true,
+                epochMicros(), System.nanoTime());
+        current.set(span);
+        MDC.put(TRACE_ID_KEY, context.traceId());
+        MDC.put(SPAN_ID_KEY, context.spanId());
+        return span;
+    }
+
+    // A child of the current span that does not become current itself, for work that starts
+    // and ends in separate callbacks. Null unless the current trace is sampled.
+    public Span startDetached(String name) {
+        Span parent = current.get();
+        if (parent == null || !parent.getContext().sampled()) {
+            return null;
+        }
+        return new Span(this, name, parent.getContext().child(), parent.getContext().spanId(), null, false,
+                epochMicros(), System.nanoTime());
+    }
+
+    // Records a call that has already finished as a child of the current span, if sampled
+    public void record(String name, long durationNanos, Throwable error) {
+        Span parent = current.get();
+        if (parent == null || !parent.getContext().sampled()) {
+            return;
+        }
+        long startNanos = System.nanoTime() - durationNanos;
+        Span span = new Span(this, name, parent.getContext().child(), parent.getContext().spanId(), null, false,
+                epochMicros() - TimeUnit.NANOSECONDS.toMicros(durationNanos), startNanos);
+        span.recordError(error);
+        span.end(durationNanos);
+    }
+
+    // The context to send downstream, or null outside any span
+    public TraceContext currentContext() {
+        Span span = current.get();
+        return span == null ? null : span.getContext();
+    }
+
+    void ended(Span span) {
+        if (span.isBound() && current.get() == span) {
+            Span previous = span.previous();
+            if (previous == null) {
+                current.remove();
+                MDC.remove(TRACE_ID_KEY);
+                MDC.remove(SPAN_ID_KEY);
+            } else {
+                current.set(previous);
+                MDC.put(TRACE_ID_KEY, previous.getContext().traceId());
+                MDC.put(SPAN_ID_KEY, previous.getContext().spanId());
+            }
+        }
+        if (span.getContext().sampled()) {
+            try {
+                exporter.export(span);
+            } catch (RuntimeException e) {
+                // Losing a span must never fail the request it describes
+            }
+        }
+    }
+
+    private boolean sample() {
+        return sampleRate >= 1 || sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private static long epochMicros() {
+        return TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    }
+}
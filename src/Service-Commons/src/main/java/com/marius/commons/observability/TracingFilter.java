@@ -0,0 +1,51 @@
+package com.marius.commons.observability;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+// A server span around every HTTP request, continuing the caller's trace from its
+// traceparent header. The two-phase commit endpoints are tagged with their phase.
+@Component
+public class TracingFilter extends OncePerRequestFilter {
+
+    private static final Map<String, String> TWO_PHASE_COMMIT = Map.of(
+            "/prepare", "prepare", "/commit", "commit", "/rollback", "rollback");
+
+    private final Tracer tracer;
+
+    public TracingFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI();
+        TraceContext parent = TraceContext.parse(request.getHeader(TraceContext.HEADER));
+        try (Span span = tracer.start("http " + request.getMethod() + ' ' + path, parent)) {
+            span.setAttribute("http.method", request.getMethod());
+            span.setAttribute("http.path", path);
+            span.setAttribute("twopc.phase", TWO_PHASE_COMMIT.get(path));
+            try {
+                chain.doFilter(request, response);
+            } catch (IOException | ServletException | RuntimeException e) {
+                span.recordError(e);
+                throw e;
+            } finally {
+                span.setAttribute("http.status", response.getStatus());
+            }
+        }
+    }
+}
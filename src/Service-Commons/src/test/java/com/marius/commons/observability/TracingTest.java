@@ -0,0 +1,106 @@
+package com.marius.commons.observability;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TracingTest {
+
+    private static final String TRACEPARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+    @Test
+    void traceparentRoundTripsAndRejectsMalformedHeaders() {
+        TraceContext context = TraceContext.parse(TRACEPARENT);
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", context.traceId());
+        assertEquals("00f067aa0ba902b7", context.spanId());
+        assertTrue(context.sampled());
+        assertEquals(TRACEPARENT, context.traceparent());
+
+        assertNull(TraceContext.parse(null));
+        assertNull(TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7"));
+        assertNull(TraceContext.parse("00-00000000000000000000000000000000-00f067aa0ba902b7-01"));
+        assertNull(TraceContext.parse("00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01"));
+
+        TraceContext root = TraceContext.root(false);
+        assertEquals(root, TraceContext.parse(root.traceparent()));
+    }
+
+    @Test
+    void nestedSpansShareTheTraceAndFollowTheParentsSamplingDecision() {
+        InMemorySpanExporter exporter = new InMemorySpanExporter();
+        Tracer tracer = new Tracer(exporter, 0); // nothing sampled here unless the caller was
+
+        try (Span outer = tracer.start("ws attack", TraceContext.parse(TRACEPARENT))) {
+            try (Span inner = tracer.start("game update")) {
+                inner.setAttribute("game", "g1");
+                tracer.record("repository GameRepository.findById", 1_000_000, null);
+            }
+            assertEquals(outer.getContext(), tracer.currentContext());
+        }
+        assertNull(tracer.currentContext());
+
+        List<Span> spans = exporter.getSpans();
+        assertEquals(List.of("repository GameRepository.findById", "game update", "ws attack"),
+                spans.stream().map(Span::getName).toList());
+        Span repository = spans.get(0), inner = spans.get(1), outer = spans.get(2);
+        spans.forEach(span -> assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", span.getContext().traceId()));
+        assertEquals("00f067aa0ba902b7", outer.getParentSpanId());
+        assertEquals(outer.getContext().spanId(), inner.getParentSpanId());
+        assertEquals(inner.getContext().spanId(), repository.getParentSpanId());
+        assertEquals("g1", inner.getAttributes().get("game"));
+
+        // A caller that did not sample keeps everything downstream unsampled too
+        exporter.reset();
+        Tracer always = new Tracer(exporter, 1);
+        try (Span span = always.start("ws attack",
+                TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00"))) {
+            always.record("repository GameRepository.findById", 1_000_000, null);
+            assertNull(always.startDetached("mongo find"));
+        }
+        assertTrue(exporter.getSpans().isEmpty());
+    }
+
+    @Test
+    void filterContinuesTheCallersTraceAndTagsTheCommitPhase() throws Exception {
+        InMemorySpanExporter exporter = new InMemorySpanExporter();
+        TracingFilter filter = new TracingFilter(new Tracer(exporter, 0));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/commit");
+        request.addHeader(TraceContext.HEADER, TRACEPARENT);
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        Span span = exporter.getSpans().get(0);
+        assertEquals(1, exporter.getSpans().size());
+        assertEquals("http POST /commit", span.getName());
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", span.getContext().traceId());
+        assertNotEquals("00f067aa0ba902b7", span.getContext().spanId());
+        assertEquals("commit", span.getAttributes().get("twopc.phase"));
+        assertEquals(200, span.getAttributes().get("http.status"));
+    }
+
+    @Test
+    void samplingFilterDropsOnlyLowLevelCallsOfSampledCategories() {
+        LoggerContext context = new LoggerContext();
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.addSample("com.example.chatty=0");
+        ch.qos.logback.classic.Logger chatty = context.getLogger("com.example.chatty.Handler");
+        ch.qos.logback.classic.Logger other = context.getLogger("com.example.Other");
+
+        assertEquals(FilterReply.DENY, filter.decide(null, chatty, Level.INFO, "x", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, chatty, Level.WARN, "x", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, other, Level.INFO, "x", null, null));
+    }
+}
@@ -35,6 +35,25 @@ register.registerMetric(failedHealthChecksCounter);
 
 
 
+// Load scores reported with registrations, by service and address: { load, at }. Kept in
+// memory rather than Redis, since they are refreshed with every heartbeat and the health
+// check treats every Redis key as a list of addresses
+const LOAD_TTL_MS = 60000;
+const loads = {};
+
+const freshLoads = (serviceName, serviceAddresses) => {
+  const reported = loads[serviceName] || {};
+  const now = Date.now();
+  const fresh = {};
+  for (const address of serviceAddresses) {
+    const entry = reported[address];
+    if (entry && now - entry.at <= LOAD_TTL_MS) {
+      fresh[address] = entry.load;
+    }
+  }
+  return fresh;
+};
+
 // Load gRPC service definition
 const packageDefinition = protoLoader.loadSync('service.proto', {});
 const proto = grpc.loadPackageDefinition(packageDefinition).servicediscovery;
@@ -146,8 +165,8 @@ app.get('/lookup/:serviceName', async (req, res) => {
     // Retrieve all service addresses from Redis
     const serviceAddresses = await redisClient.lRange(serviceName, 0, -1);
     
-    // Respond with the retrieved addresses
-    res.status(200).json({ serviceAddresses });
+    // Respond with the retrieved addresses, and the loads of those that reported one lately
+    res.status(200).json({ serviceAddresses, loads: freshLoads(serviceName, serviceAddresses) });
   } catch (err) {
     res.status(500).json({ error: 'Error looking up service', details: err.message });
   }
@@ -156,11 +175,14 @@ app.get('/lookup/:serviceName', async (req, res) => {
 
 // HTTP Endpoint to register a new service
 app.post('/register', async (req, res) => {
-  const { serviceName, serviceAddress } = req.body;
+  const { serviceName, serviceAddress, load } = req.body;
 
   if (!serviceName || !serviceAddress) {
     return res.status(400).json({ error: 'Service name and address required' });
   }
+  if (load !== undefined && (typeof load !== 'number' || !Number.isFinite(load) || load < 0)) {
+    return res.status(400).json({ error: 'load must be a non-negative number' });
+  }
 
   try {
     // Check if the key exists
@@ -178,11 +200,21 @@ app.post('/register', async (req, res) => {
       }
     }
 
-    // Initialize the key as a list and add the service address
-    await redisClient.rPush(serviceName, serviceAddress);
-    
-    // Update the registered services metric
-    registeredServicesGauge.inc();
+    // Instances re-register periodically as a heartbeat, so only add addresses not yet listed
+    const serviceAddresses = await redisClient.lRange(serviceName, 0, -1);
+    if (!serviceAddresses.includes(serviceAddress)) {
+      // Initialize the key as a list and add the service address
+      await redisClient.rPush(serviceName, serviceAddress);
+
+      // Update the registered services metric
+      registeredServicesGauge.inc();
+    }
+
+    // Instances that track their capacity send a load score (0 idle, 1 full) with each heartbeat
+    if (load !== undefined) {
+      loads[serviceName] = loads[serviceName] || {};
+      loads[serviceName][serviceAddress] = { load, at: Date.now() };
+    }
     
     res.status(200).json({ message: `${serviceName} registered successfully` });
   } catch (err) {
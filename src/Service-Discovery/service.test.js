@@ -62,6 +62,29 @@ describe('Service Discovery API', () => {
     expect(response.body.serviceAddresses).toContain('http://localhost:3000');
   });
 
+  it('should return the loads reported with registrations', async () => {
+    mockRedisClient.lRange.mockResolvedValue(['http://localhost:3000', 'http://localhost:3001']);
+    mockRedisClient.exists.mockResolvedValue(1);
+
+    await request(app)
+      .post('/register')
+      .send({ serviceName: 'loadedService', serviceAddress: 'http://localhost:3000', load: 0.42 });
+
+    const response = await request(app).get('/lookup/loadedService');
+
+    expect(response.status).toBe(200);
+    expect(response.body.loads).toEqual({ 'http://localhost:3000': 0.42 });
+  });
+
+  it('should return 400 for an invalid load', async () => {
+    const response = await request(app)
+      .post('/register')
+      .send({ serviceName: 'testService', serviceAddress: 'http://localhost:3000', load: 'busy' });
+
+    expect(response.status).toBe(400);
+    expect(response.body.error).toBe('load must be a non-negative number');
+  });
+
   it('should return 404 for a non-existent service', async () => {
     mockRedisClient.exists.mockResolvedValue(0); 
     const response = await request(app).get('/lookup/nonExistentService');